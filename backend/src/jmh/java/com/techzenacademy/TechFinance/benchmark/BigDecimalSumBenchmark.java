@@ -0,0 +1,116 @@
+package com.techzenacademy.TechFinance.benchmark;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.util.MoneyAccumulator;
+
+/**
+ * Cộng dồn số tiền BigDecimal: cách các service đang dùng (stream reduce, lọc trước rồi cộng)
+ * so với một vòng lặp cộng đồng thời nhiều tổng, và so với {@link MoneyAccumulator} (long, không cấp phát mỗi phép cộng).
+ * So sánh gc.alloc.rate.norm (byte/lần gọi) của profiler gc giữa các phương án.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BigDecimalSumBenchmark {
+
+	@Param({ "10000", "100000", "1000000" })
+	private int rows;
+
+	private List<IncomeTransaction> incomes;
+
+	@Setup
+	public void setUp() {
+		incomes = ReportFixtures.incomes(rows);
+	}
+
+	@Benchmark
+	public BigDecimal streamReduce() {
+		return incomes.stream()
+				.map(IncomeTransaction::getAmount)
+				.reduce(BigDecimal.ZERO, BigDecimal::add);
+	}
+
+	@Benchmark
+	public BigDecimal loop() {
+		BigDecimal total = BigDecimal.ZERO;
+		for (IncomeTransaction t : incomes) {
+			total = total.add(t.getAmount());
+		}
+		return total;
+	}
+
+	/**
+	 * Tổng tất cả và tổng đã thu: hai lượt stream như generateMonthlyReport
+	 */
+	@Benchmark
+	public BigDecimal[] twoStreamPasses() {
+		BigDecimal total = incomes.stream()
+				.map(IncomeTransaction::getAmount)
+				.reduce(BigDecimal.ZERO, BigDecimal::add);
+		BigDecimal received = incomes.stream()
+				.filter(t -> t.getPaymentStatus() == IncomeTransaction.PaymentStatus.RECEIVED)
+				.map(IncomeTransaction::getAmount)
+				.reduce(BigDecimal.ZERO, BigDecimal::add);
+		return new BigDecimal[] { total, received };
+	}
+
+	/**
+	 * Cùng kết quả với {@link #twoStreamPasses()} trong một vòng lặp
+	 */
+	@Benchmark
+	public BigDecimal[] singlePass() {
+		BigDecimal total = BigDecimal.ZERO;
+		BigDecimal received = BigDecimal.ZERO;
+		for (IncomeTransaction t : incomes) {
+			total = total.add(t.getAmount());
+			if (t.getPaymentStatus() == IncomeTransaction.PaymentStatus.RECEIVED) {
+				received = received.add(t.getAmount());
+			}
+		}
+		return new BigDecimal[] { total, received };
+	}
+
+	@Benchmark
+	public BigDecimal moneyAccumulator() {
+		MoneyAccumulator total = new MoneyAccumulator();
+		for (IncomeTransaction t : incomes) {
+			total.add(t.getAmount());
+		}
+		return total.toBigDecimal();
+	}
+
+	/**
+	 * Cùng kết quả với {@link #singlePass()} bằng MoneyAccumulator
+	 */
+	@Benchmark
+	public BigDecimal[] singlePassMoneyAccumulator() {
+		MoneyAccumulator total = new MoneyAccumulator();
+		MoneyAccumulator received = new MoneyAccumulator();
+		for (IncomeTransaction t : incomes) {
+			total.add(t.getAmount());
+			if (t.getPaymentStatus() == IncomeTransaction.PaymentStatus.RECEIVED) {
+				received.add(t.getAmount());
+			}
+		}
+		return new BigDecimal[] { total.toBigDecimal(), received.toBigDecimal() };
+	}
+}
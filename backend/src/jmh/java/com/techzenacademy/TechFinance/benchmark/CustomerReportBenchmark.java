@@ -0,0 +1,70 @@
+package com.techzenacademy.TechFinance.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
+import com.techzenacademy.TechFinance.service.impl.CustomerReportServiceImpl;
+import com.techzenacademy.TechFinance.service.impl.archive.TransactionArchiveReader;
+
+/**
+ * Báo cáo khách hàng: cộng dồn các dòng database đã gộp theo (khách hàng, danh mục, tháng, trạng thái).
+ * Phần gộp trong SQL không được đo, dữ liệu dòng được tính sẵn ở setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerReportBenchmark {
+
+	@Param({ "10000", "100000", "1000000" })
+	private int rows;
+
+	private CustomerReportServiceImpl monthlyService;
+	private CustomerReportServiceImpl yearlyService;
+
+	@Setup
+	public void setUp() {
+		List<IncomeTransaction> incomes = ReportFixtures.incomes(rows);
+		LocalDate june = LocalDate.of(ReportFixtures.YEAR, 6, 1);
+		monthlyService = service(ReportFixtures.customerReportRows(incomes, june, june.plusMonths(1).minusDays(1)));
+		yearlyService = service(ReportFixtures.customerReportRows(incomes,
+				LocalDate.of(ReportFixtures.YEAR, 1, 1), LocalDate.of(ReportFixtures.YEAR, 12, 31)));
+	}
+
+	private static CustomerReportServiceImpl service(List<Object[]> groupedRows) {
+		TransactionArchiveReader archiveReader = new TransactionArchiveReader();
+		ReportFixtures.inject(archiveReader, "incomeTransactionRepository", ReportFixtures.repository(
+				IncomeTransactionRepository.class, Map.of("sumByCustomerCategoryMonthAndStatus", groupedRows)));
+		CustomerReportServiceImpl service = new CustomerReportServiceImpl();
+		ReportFixtures.inject(service, "archiveReader", archiveReader);
+		return service;
+	}
+
+	@Benchmark
+	public Map<String, Object> monthlyGrouping() {
+		return monthlyService.generateMonthlyReport(ReportFixtures.YEAR, 6);
+	}
+
+	@Benchmark
+	public Map<String, Object> yearlyGrouping() {
+		return yearlyService.generateYearlyReport(ReportFixtures.YEAR);
+	}
+}
@@ -0,0 +1,63 @@
+package com.techzenacademy.TechFinance.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.techzenacademy.TechFinance.dto.report.MonthlyReportDTO;
+import com.techzenacademy.TechFinance.entity.ExpenseTransaction;
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.service.impl.FinancialReportService;
+import com.techzenacademy.TechFinance.service.impl.PeriodTotals;
+
+/**
+ * Báo cáo tài chính tính trong bộ nhớ: tổng hợp, so sánh theo danh mục và chia theo tháng
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FinancialReportBenchmark {
+
+	@Param({ "10000", "100000", "1000000" })
+	private int rows;
+
+	private FinancialReportService service;
+	private List<IncomeTransaction> incomes;
+	private List<ExpenseTransaction> expenses;
+
+	@Setup
+	public void setUp() {
+		incomes = ReportFixtures.incomes(rows);
+		expenses = ReportFixtures.expenses(rows);
+		service = new FinancialReportService();
+	}
+
+	@Benchmark
+	public MonthlyReportDTO monthlyReportWithCategoryComparisons() {
+		return service.generateMonthlyReport(ReportFixtures.YEAR, 6, incomes, expenses);
+	}
+
+	@Benchmark
+	public List<MonthlyReportDTO> yearlyReport() {
+		return service.generateYearlyReport(ReportFixtures.YEAR, incomes, expenses);
+	}
+
+	@Benchmark
+	public PeriodTotals periodTotals() {
+		return PeriodTotals.fromTransactions(incomes, expenses);
+	}
+}
@@ -0,0 +1,79 @@
+package com.techzenacademy.TechFinance.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.techzenacademy.TechFinance.dto.ReceivablePayableReportDTO;
+import com.techzenacademy.TechFinance.entity.ExpenseTransaction;
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.repository.TransactionFlagRepository;
+import com.techzenacademy.TechFinance.service.impl.ReceivablePayableService;
+import com.techzenacademy.TechFinance.service.impl.anomaly.AnomalyDetectionService;
+import com.techzenacademy.TechFinance.service.impl.anomaly.RunningStats;
+
+/**
+ * Phải thu/phải trả: lọc theo trạng thái, top-N, phân nhóm tuổi nợ; và phần tính toán của phát hiện
+ * giao dịch bất thường (thống kê theo danh mục + z-score cho từng giao dịch)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReceivablePayableBenchmark {
+
+	@Param({ "10000", "100000", "1000000" })
+	private int rows;
+
+	private ReceivablePayableService service;
+	private List<IncomeTransaction> incomes;
+	private List<ExpenseTransaction> expenses;
+
+	@Setup
+	public void setUp() {
+		incomes = ReportFixtures.incomes(rows);
+		expenses = ReportFixtures.expenses(rows);
+
+		// Cờ bất thường đọc từ bảng transaction_flags: repository giả trả về rỗng
+		AnomalyDetectionService anomalyDetectionService = new AnomalyDetectionService();
+		ReportFixtures.inject(anomalyDetectionService, "flagRepository",
+				ReportFixtures.repository(TransactionFlagRepository.class, Map.of()));
+		service = new ReceivablePayableService();
+		ReportFixtures.inject(service, "anomalyDetectionService", anomalyDetectionService);
+	}
+
+	@Benchmark
+	public ReceivablePayableReportDTO agingAndTopN() {
+		return service.getReceivablePayableReport(ReportFixtures.YEAR, 6, incomes, expenses);
+	}
+
+	@Benchmark
+	public void anomalyScoring(Blackhole blackhole) {
+		RunningStats[] byCategory = new RunningStats[ReportFixtures.CATEGORIES + 1];
+		for (IncomeTransaction t : incomes) {
+			int category = t.getCategory().getId();
+			if (byCategory[category] == null) {
+				byCategory[category] = new RunningStats();
+			}
+			byCategory[category].add(t.getAmount().doubleValue());
+		}
+		for (IncomeTransaction t : incomes) {
+			blackhole.consume(byCategory[t.getCategory().getId()].zScore(t.getAmount().doubleValue()));
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package com.techzenacademy.TechFinance.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import com.techzenacademy.TechFinance.entity.Customer;
+import com.techzenacademy.TechFinance.entity.ExpenseCategory;
+import com.techzenacademy.TechFinance.entity.ExpenseTransaction;
+import com.techzenacademy.TechFinance.entity.IncomeCategory;
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.entity.Supplier;
+
+/**
+ * Dữ liệu giả lập cho benchmark: giao dịch thu/chi trải đều trong một năm, số tiền lệch phải
+ * (nhiều khoản nhỏ, ít khoản lớn) giống dữ liệu thật. Sinh với seed cố định để các lần chạy so sánh được.
+ */
+public final class ReportFixtures {
+
+	public static final int YEAR = 2024;
+	public static final int CATEGORIES = 20;
+	private static final int CONTACTS = 500;
+
+	private ReportFixtures() {
+	}
+
+	public static List<IncomeTransaction> incomes(int rows) {
+		SplittableRandom random = new SplittableRandom(42);
+		List<IncomeCategory> categories = new ArrayList<>();
+		for (int i = 1; i <= CATEGORIES; i++) {
+			IncomeCategory category = new IncomeCategory();
+			category.setId(i);
+			category.setName("Thu nhập " + i);
+			categories.add(category);
+		}
+		List<Customer> customers = new ArrayList<>();
+		for (int i = 1; i <= CONTACTS; i++) {
+			Customer customer = new Customer();
+			customer.setId(i);
+			customer.setName("Khách hàng " + i);
+			customers.add(customer);
+		}
+
+		List<IncomeTransaction> transactions = new ArrayList<>(rows);
+		for (int i = 1; i <= rows; i++) {
+			IncomeTransaction t = new IncomeTransaction();
+			t.setId(i);
+			t.setCategory(categories.get(random.nextInt(CATEGORIES)));
+			t.setCustomer(customers.get(random.nextInt(CONTACTS)));
+			t.setTransactionDate(LocalDate.of(YEAR, 1, 1).plusDays(random.nextInt(366)));
+			t.setAmount(amount(random));
+			t.setPaymentStatus(random.nextInt(4) == 0
+					? IncomeTransaction.PaymentStatus.PENDING : IncomeTransaction.PaymentStatus.RECEIVED);
+			t.setReferenceNo("INC-" + i);
+			transactions.add(t);
+		}
+		return transactions;
+	}
+
+	public static List<ExpenseTransaction> expenses(int rows) {
+		SplittableRandom random = new SplittableRandom(7);
+		List<ExpenseCategory> categories = new ArrayList<>();
+		for (int i = 1; i <= CATEGORIES; i++) {
+			ExpenseCategory category = new ExpenseCategory();
+			category.setId(i);
+			category.setName("Chi phí " + i);
+			categories.add(category);
+		}
+		List<Supplier> suppliers = new ArrayList<>();
+		for (int i = 1; i <= CONTACTS; i++) {
+			Supplier supplier = new Supplier();
+			supplier.setId(i);
+			supplier.setName("Nhà cung cấp " + i);
+			suppliers.add(supplier);
+		}
+
+		List<ExpenseTransaction> transactions = new ArrayList<>(rows);
+		for (int i = 1; i <= rows; i++) {
+			ExpenseTransaction t = new ExpenseTransaction();
+			t.setId(i);
+			t.setCategory(categories.get(random.nextInt(CATEGORIES)));
+			t.setSupplier(suppliers.get(random.nextInt(CONTACTS)));
+			t.setTransactionDate(LocalDate.of(YEAR, 1, 1).plusDays(random.nextInt(366)));
+			t.setAmount(amount(random));
+			t.setPaymentStatus(random.nextInt(3) == 0
+					? ExpenseTransaction.PaymentStatus.UNPAID : ExpenseTransaction.PaymentStatus.PAID);
+			t.setReferenceNo("EXP-" + i);
+			transactions.add(t);
+		}
+		return transactions;
+	}
+
+	/**
+	 * Số tiền VND có 2 chữ số thập phân, phân bố lệch phải từ 10 nghìn tới khoảng 500 triệu
+	 */
+	private static BigDecimal amount(SplittableRandom random) {
+		double magnitude = Math.pow(10, 4 + random.nextDouble() * 4.7);
+		return BigDecimal.valueOf(Math.round(magnitude * 100), 2);
+	}
+
+	/**
+	 * Các dòng mà truy vấn gộp của báo cáo khách hàng trả về cho [startDate, endDate]:
+	 * [id, tên, email, điện thoại, id danh mục, tên danh mục, năm, tháng, trạng thái, SUM, COUNT]
+	 */
+	public static List<Object[]> customerReportRows(List<IncomeTransaction> incomes, LocalDate startDate, LocalDate endDate) {
+		Map<List<Object>, Object[]> groups = new HashMap<>();
+		for (IncomeTransaction t : incomes) {
+			LocalDate date = t.getTransactionDate();
+			if (date.isBefore(startDate) || date.isAfter(endDate)) {
+				continue;
+			}
+			Customer customer = t.getCustomer();
+			List<Object> key = Arrays.asList(customer.getId(), t.getCategory().getId(), date.getMonthValue(), t.getPaymentStatus());
+			Object[] row = groups.get(key);
+			if (row == null) {
+				row = new Object[] { customer.getId(), customer.getName(), customer.getEmail(), customer.getPhone(),
+						t.getCategory().getId(), t.getCategory().getName(), date.getYear(), date.getMonthValue(),
+						t.getPaymentStatus(), BigDecimal.ZERO, 0L };
+				groups.put(key, row);
+			}
+			row[9] = ((BigDecimal) row[9]).add(t.getAmount());
+			row[10] = (Long) row[10] + 1;
+		}
+		return new ArrayList<>(groups.values());
+	}
+
+	/**
+	 * Repository giả: phương thức có trong {@code answers} trả về giá trị tương ứng, phương thức trả List khác
+	 * trả về danh sách rỗng
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T repository(Class<T> type, Map<String, Object> answers) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+			if (answers.containsKey(method.getName())) {
+				return answers.get(method.getName());
+			}
+			if (List.class.isAssignableFrom(method.getReturnType())) {
+				return Collections.emptyList();
+			}
+			if ("toString".equals(method.getName())) {
+				return type.getSimpleName() + " stub";
+			}
+			throw new UnsupportedOperationException(method.getName());
+		});
+	}
+
+	/**
+	 * Gán field @Autowired của service (không có Spring context trong benchmark)
+	 */
+	public static void inject(Object target, String fieldName, Object value) {
+		try {
+			Field field = target.getClass().getDeclaredField(fieldName);
+			field.setAccessible(true);
+			field.set(target, value);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package com.techzenacademy.TechFinance.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.techzenacademy.TechFinance.service.impl.forecast.SeasonalForecaster;
+
+/**
+ * Dự báo doanh thu: dự báo 12 tháng và backtest 3 tháng cho mỗi chuỗi (một chuỗi cho mỗi danh mục thu),
+ * như RevenueForecastService làm trong một request
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SeasonalForecasterBenchmark {
+
+	@Param({ "10", "100" })
+	private int seriesCount;
+
+	@Param({ "36" })
+	private int months;
+
+	private final SeasonalForecaster forecaster = new SeasonalForecaster(12);
+	private double[][] series;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		series = new double[seriesCount][months];
+		for (double[] history : series) {
+			for (int t = 0; t < months; t++) {
+				history[t] = 100_000 + 1_000 * t + 20_000 * Math.sin(2 * Math.PI * t / 12) + random.nextGaussian() * 2_000;
+			}
+		}
+	}
+
+	@Benchmark
+	public void forecastAndBacktest(Blackhole blackhole) {
+		for (double[] history : series) {
+			blackhole.consume(forecaster.forecast(history, 12, 1.96));
+			blackhole.consume(forecaster.backtest(history, 3));
+		}
+	}
+}
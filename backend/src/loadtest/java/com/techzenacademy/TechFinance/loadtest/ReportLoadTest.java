@@ -0,0 +1,278 @@
+package com.techzenacademy.TechFinance.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Kiểm thử tải end-to-end cho các API báo cáo ({@code /api/reports/*}, dashboard, tổng quan ngân sách)
+ * và các API danh sách, chạy với ứng dụng đang chạy và database đã sinh dữ liệu bằng {@link SyntheticDataGenerator}.
+ * <p>
+ * Mỗi endpoint được gọi {@code loadtest.warmup} lần để làm nóng, sau đó {@code loadtest.requests} lần trên
+ * {@code loadtest.concurrency} luồng. Kết quả (p50, p99, max, throughput, lỗi) được in ra và lưu vào
+ * {@code loadtest.results-dir}: một file JSON cho mỗi lần chạy và một dòng mỗi endpoint trong {@code history.csv},
+ * kèm so sánh p99 với lần chạy trước.
+ * <p>
+ * Nên chạy ứng dụng với {@code --rate-limit.enabled=false}, nếu không phần lớn request sẽ bị trả về 429.
+ * Ứng dụng phải được khởi động sau khi sinh dữ liệu (xem {@link SyntheticDataGenerator}), nếu không các báo cáo
+ * đọc từ bộ nhớ sẽ không chứa dữ liệu giả lập.
+ */
+public class ReportLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private final int concurrency;
+    private final int requests;
+    private final int warmup;
+    private String token;
+
+    public ReportLoadTest(String baseUrl, int concurrency, int requests, int warmup) {
+        this.baseUrl = baseUrl;
+        this.concurrency = concurrency;
+        this.requests = requests;
+        this.warmup = warmup;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ReportLoadTest loadTest = new ReportLoadTest(
+                System.getProperty("loadtest.base-url", "http://localhost:8080"),
+                Integer.getInteger("loadtest.concurrency", 8),
+                Integer.getInteger("loadtest.requests", 200),
+                Integer.getInteger("loadtest.warmup", 20));
+        String password = System.getProperty("loadtest.password");
+        if (password == null) {
+            throw new IllegalArgumentException("Set -Ploadtest.password=<password of loadtest.username>");
+        }
+        loadTest.login(System.getProperty("loadtest.username", "admin"), password);
+
+        String only = System.getProperty("loadtest.includes", "");
+        List<Result> results = new ArrayList<>();
+        for (String path : endpoints(LocalDate.now())) {
+            if (only.isEmpty() || path.contains(only)) {
+                Result result = loadTest.run(path);
+                System.out.println(result);
+                results.add(result);
+            }
+        }
+
+        Path dir = Paths.get(System.getProperty("loadtest.results-dir", "loadtest-results"));
+        compareWithPrevious(dir, results);
+        save(dir, loadTest, results);
+    }
+
+    /**
+     * Các endpoint GET cần đo: toàn bộ báo cáo và các trang danh sách mặc định của frontend
+     */
+    static List<String> endpoints(LocalDate today) {
+        int year = today.getYear();
+        int month = today.getMonthValue();
+        int quarter = (month - 1) / 3 + 1;
+        String yearMonth = "year=" + year + "&month=" + month;
+        String range = "startDate=" + today.withDayOfYear(1) + "&endDate=" + today;
+
+        return List.of(
+                "/api/reports/monthly?" + yearMonth,
+                "/api/reports/quarterly?year=" + year + "&quarter=" + quarter,
+                "/api/reports/yearly?year=" + year,
+                "/api/reports/cash-flow?year=" + year,
+                "/api/reports/revenue-forecast",
+                "/api/reports/customers?year=" + year,
+                "/api/reports/suppliers?year=" + year,
+                "/api/reports/customers/monthly?" + yearMonth,
+                "/api/reports/customers/quarterly?year=" + year + "&quarter=" + quarter,
+                "/api/reports/customers/yearly?year=" + year,
+                "/api/reports/suppliers/monthly?" + yearMonth,
+                "/api/reports/suppliers/quarterly?year=" + year + "&quarter=" + quarter,
+                "/api/reports/suppliers/yearly?year=" + year,
+                "/api/reports/receivable-payable?" + yearMonth,
+                "/api/reports/receivable-payable/detailed?" + yearMonth,
+                "/api/reports/tax/monthly?" + yearMonth,
+                "/api/reports/tax/yearly?year=" + year,
+                "/api/reports/tax/range?" + range,
+                "/api/dashboard?" + yearMonth,
+                "/api/budget-overview?" + yearMonth,
+                "/api/income-transactions?page=0&size=10",
+                "/api/income-transactions?page=0&size=10&" + range + "&paymentStatus=PENDING",
+                "/api/expense-transactions?page=0&size=10",
+                "/api/expense-transactions?page=0&size=10&" + range + "&paymentStatus=UNPAID",
+                "/api/customers?page=0&size=8",
+                "/api/suppliers?page=0&size=8",
+                "/api/income-categories",
+                "/api/expense-categories",
+                "/api/income-budgets",
+                "/api/expense-budgets");
+    }
+
+    void login(String username, String password) throws IOException, InterruptedException {
+        String body = MAPPER.writeValueAsString(Map.of("username", username, "password", password));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with HTTP " + response.statusCode() + ": " + response.body());
+        }
+        this.token = MAPPER.readTree(response.body()).path("token").asText();
+    }
+
+    Result run(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+
+        for (int i = 0; i < warmup; i++) {
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger throttled = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int w = 0; w < concurrency; w++) {
+                workers.add(executor.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < requests) {
+                        long t0 = System.nanoTime();
+                        try {
+                            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status == 429) {
+                                throttled.incrementAndGet();
+                            } else if (status >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException | InterruptedException e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - t0;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        long elapsed = System.nanoTime() - started;
+
+        Arrays.sort(latencies);
+        return new Result(path, requests, errors.get(), throttled.get(),
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99),
+                latencies[latencies.length - 1] / 1_000_000.0,
+                requests / (elapsed / 1_000_000_000.0));
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    /**
+     * In thay đổi p50/p99 so với file kết quả gần nhất trong {@code dir}
+     */
+    private static void compareWithPrevious(Path dir, List<Result> results) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        Path previous;
+        try (Stream<Path> files = Files.list(dir)) {
+            previous = files.filter(f -> f.getFileName().toString().startsWith("run-"))
+                    .max(Path::compareTo)
+                    .orElse(null);
+        }
+        if (previous == null) {
+            return;
+        }
+
+        Map<String, JsonNode> before = new LinkedHashMap<>();
+        for (JsonNode node : MAPPER.readTree(previous.toFile()).path("results")) {
+            before.put(node.path("endpoint").asText(), node);
+        }
+        System.out.println();
+        System.out.println("Compared with " + previous.getFileName() + ":");
+        for (Result result : results) {
+            JsonNode old = before.get(result.endpoint());
+            if (old != null) {
+                System.out.printf("  %-70s p50 %+6.1f%%  p99 %+6.1f%%%n", result.endpoint(),
+                        change(old.path("p50Ms").asDouble(), result.p50Ms()),
+                        change(old.path("p99Ms").asDouble(), result.p99Ms()));
+            }
+        }
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+
+    private static void save(Path dir, ReportLoadTest loadTest, List<Result> results) throws IOException {
+        Files.createDirectories(dir);
+        String runId = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC).format(Instant.now());
+
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("runId", runId);
+        run.put("baseUrl", loadTest.baseUrl);
+        run.put("concurrency", loadTest.concurrency);
+        run.put("requests", loadTest.requests);
+        run.put("warmup", loadTest.warmup);
+        run.put("results", results);
+        MAPPER.writeValue(dir.resolve("run-" + runId + ".json").toFile(), run);
+
+        Path history = dir.resolve("history.csv");
+        List<String> lines = new ArrayList<>();
+        if (!Files.exists(history)) {
+            lines.add("run_id,endpoint,concurrency,requests,errors,throttled,p50_ms,p99_ms,max_ms,throughput_rps");
+        }
+        for (Result r : results) {
+            lines.add(String.format("%s,\"%s\",%d,%d,%d,%d,%.2f,%.2f,%.2f,%.1f", runId, r.endpoint(),
+                    loadTest.concurrency, r.requests(), r.errors(), r.throttled(),
+                    r.p50Ms(), r.p99Ms(), r.maxMs(), r.throughput()));
+        }
+        Files.write(history, lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        System.out.println("Results saved to " + dir.toAbsolutePath());
+    }
+
+    record Result(String endpoint, int requests, int errors, int throttled,
+                  double p50Ms, double p99Ms, double maxMs, double throughput) {
+
+        @Override
+        public String toString() {
+            return String.format("%-70s p50 %8.1f ms  p99 %8.1f ms  max %8.1f ms  %8.1f req/s  errors %d  throttled %d",
+                    endpoint, p50Ms, p99Ms, maxMs, throughput, errors, throttled);
+        }
+    }
+}
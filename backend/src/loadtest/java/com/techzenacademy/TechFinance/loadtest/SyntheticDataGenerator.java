@@ -0,0 +1,256 @@
+package com.techzenacademy.TechFinance.loadtest;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Sinh dữ liệu giả lập khối lượng lớn vào MySQL để đo hiệu năng báo cáo ở quy mô gần với production.
+ * <p>
+ * Cùng seed và cùng cấu hình luôn cho ra cùng dữ liệu. Mọi bản ghi sinh ra đều có tiền tố {@code LT-}
+ * (hoặc email {@code @loadtest.local}) và được xóa trước mỗi lần chạy, nên có thể chạy lại nhiều lần
+ * trên cùng database mà không đụng tới dữ liệu thật.
+ * <p>
+ * Dữ liệu được ghi thẳng qua JDBC, không đi qua ứng dụng: chỉ mục tìm kiếm, kho dữ liệu dạng cột, thống kê phát hiện
+ * bất thường và cache báo cáo của một ứng dụng đang chạy sẽ không thấy các dòng này. Hãy sinh dữ liệu khi ứng dụng
+ * đã dừng, hoặc khởi động lại ứng dụng sau khi sinh để các thành phần trên được nạp lại từ database.
+ * <p>
+ * Cấu hình qua system property (xem task {@code generateLoadTestData} trong build.gradle):
+ * <ul>
+ *   <li>{@code loadtest.jdbc-url}, {@code loadtest.db-user}, {@code loadtest.db-password}</li>
+ *   <li>{@code loadtest.seed} (mặc định 42)</li>
+ *   <li>{@code loadtest.customers}, {@code loadtest.suppliers} (mặc định 2000), {@code loadtest.categories} (mặc định 25)</li>
+ *   <li>{@code loadtest.years} (mặc định 3, tính lùi từ năm hiện tại)</li>
+ *   <li>{@code loadtest.income-per-day}, {@code loadtest.expense-per-day} (mặc định 300 và 200)</li>
+ * </ul>
+ */
+public class SyntheticDataGenerator {
+
+    private static final String PREFIX = "LT-";
+    private static final String EMAIL_DOMAIN = "@loadtest.local";
+    private static final int BATCH_SIZE = 5000;
+
+    private final SplittableRandom random;
+    private final int customers;
+    private final int suppliers;
+    private final int categories;
+    private final int years;
+    private final int incomePerDay;
+    private final int expensePerDay;
+
+    public SyntheticDataGenerator(long seed, int customers, int suppliers, int categories,
+                                  int years, int incomePerDay, int expensePerDay) {
+        this.random = new SplittableRandom(seed);
+        this.customers = customers;
+        this.suppliers = suppliers;
+        this.categories = categories;
+        this.years = years;
+        this.incomePerDay = incomePerDay;
+        this.expensePerDay = expensePerDay;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        String url = System.getProperty("loadtest.jdbc-url",
+                "jdbc:mysql://localhost:3306/TechFinance?allowPublicKeyRetrieval=true&useSSL=false");
+        // Gộp batch thành câu INSERT nhiều dòng ở phía driver
+        if (!url.contains("rewriteBatchedStatements")) {
+            url += (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        }
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(
+                Long.getLong("loadtest.seed", 42L),
+                Integer.getInteger("loadtest.customers", 2000),
+                Integer.getInteger("loadtest.suppliers", 2000),
+                Integer.getInteger("loadtest.categories", 25),
+                Integer.getInteger("loadtest.years", 3),
+                Integer.getInteger("loadtest.income-per-day", 300),
+                Integer.getInteger("loadtest.expense-per-day", 200));
+
+        try (Connection connection = DriverManager.getConnection(url,
+                System.getProperty("loadtest.db-user", "root"),
+                System.getProperty("loadtest.db-password", ""))) {
+            generator.run(connection);
+        }
+    }
+
+    public void run(Connection connection) throws SQLException {
+        long started = System.nanoTime();
+        connection.setAutoCommit(false);
+
+        purge(connection);
+        List<Integer> incomeCategories = insertCategories(connection, "income_categories", "Thu nhập");
+        List<Integer> expenseCategories = insertCategories(connection, "expense_categories", "Chi phí");
+        List<Integer> customerIds = insertContacts(connection, "customers", "Khách hàng", customers, 0);
+        List<Integer> supplierIds = insertContacts(connection, "suppliers", "Nhà cung cấp", suppliers, 1);
+
+        LocalDate end = LocalDate.now();
+        LocalDate start = LocalDate.of(end.getYear() - years + 1, 1, 1);
+        insertBudgets(connection, "income_budgets", incomeCategories, start, end);
+        insertBudgets(connection, "expense_budgets", expenseCategories, start, end);
+        long incomes = insertTransactions(connection, true, incomeCategories, customerIds, start, end);
+        long expenses = insertTransactions(connection, false, expenseCategories, supplierIds, start, end);
+
+        System.out.printf("Generated %d customers, %d suppliers, %d + %d categories, %d income and %d expense"
+                        + " transactions from %s to %s in %d s%n",
+                customerIds.size(), supplierIds.size(), incomeCategories.size(), expenseCategories.size(),
+                incomes, expenses, start, end, (System.nanoTime() - started) / 1_000_000_000L);
+        System.out.println("Restart the application before running loadTest: in-memory indexes, columnar store,"
+                + " anomaly statistics and report cache are only loaded from the database at startup");
+    }
+
+    /**
+     * Xóa dữ liệu của lần sinh trước (theo thứ tự khóa ngoại)
+     */
+    private void purge(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM income_transactions WHERE reference_no LIKE '" + PREFIX + "%'");
+            statement.executeUpdate("DELETE FROM expense_transactions WHERE reference_no LIKE '" + PREFIX + "%'");
+            statement.executeUpdate("DELETE b FROM income_budgets b JOIN income_categories c"
+                    + " ON c.category_id = b.category_id WHERE c.name LIKE '" + PREFIX + "%'");
+            statement.executeUpdate("DELETE b FROM expense_budgets b JOIN expense_categories c"
+                    + " ON c.category_id = b.category_id WHERE c.name LIKE '" + PREFIX + "%'");
+            statement.executeUpdate("DELETE FROM income_categories WHERE name LIKE '" + PREFIX + "%'");
+            statement.executeUpdate("DELETE FROM expense_categories WHERE name LIKE '" + PREFIX + "%'");
+            statement.executeUpdate("DELETE FROM customers WHERE email LIKE '%" + EMAIL_DOMAIN + "'");
+            statement.executeUpdate("DELETE FROM suppliers WHERE email LIKE '%" + EMAIL_DOMAIN + "'");
+        }
+        connection.commit();
+    }
+
+    private List<Integer> insertCategories(Connection connection, String table, String label) throws SQLException {
+        String sql = "INSERT INTO " + table + " (name, description, is_active) VALUES (?, ?, TRUE)";
+        try (PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 1; i <= categories; i++) {
+                statement.setString(1, PREFIX + label + " " + i);
+                statement.setString(2, "Danh mục sinh tự động cho kiểm thử tải");
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            connection.commit();
+            return generatedKeys(statement);
+        }
+    }
+
+    /**
+     * Khách hàng / nhà cung cấp. Email, số điện thoại là duy nhất; {@code phoneOffset} tách dải số điện thoại
+     * giữa hai bảng.
+     */
+    private List<Integer> insertContacts(Connection connection, String table, String label,
+                                         int count, int phoneOffset) throws SQLException {
+        String sql = "INSERT INTO " + table + " (name, email, phone, address, tax_code, is_active)"
+                + " VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 1; i <= count; i++) {
+                statement.setString(1, label + " " + PREFIX + i);
+                statement.setString(2, table + "-" + i + EMAIL_DOMAIN);
+                statement.setString(3, String.format("09%d%07d", phoneOffset, i));
+                statement.setString(4, (1 + random.nextInt(500)) + " Đường số " + (1 + random.nextInt(50))
+                        + ", Quận " + (1 + random.nextInt(12)) + ", TP.HCM");
+                statement.setString(5, String.format("%010d", 3_000_000_000L + phoneOffset * 100_000_000L + i));
+                statement.setBoolean(6, random.nextInt(20) != 0);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            connection.commit();
+            return generatedKeys(statement);
+        }
+    }
+
+    private void insertBudgets(Connection connection, String table, List<Integer> categoryIds,
+                               LocalDate start, LocalDate end) throws SQLException {
+        String sql = "INSERT INTO " + table + " (category_id, year, month, amount, notes) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (LocalDate month = start; !month.isAfter(end); month = month.plusMonths(1)) {
+                for (Integer categoryId : categoryIds) {
+                    statement.setInt(1, categoryId);
+                    statement.setInt(2, month.getYear());
+                    statement.setInt(3, month.getMonthValue());
+                    statement.setBigDecimal(4, BigDecimal.valueOf(50_000_000L + random.nextLong(950_000_000L)));
+                    statement.setString(5, PREFIX + "budget");
+                    statement.addBatch();
+                }
+            }
+            statement.executeBatch();
+            connection.commit();
+        }
+    }
+
+    /**
+     * Giao dịch mỗi ngày dao động quanh {@code perDay}: ít hơn vào cuối tuần, nhiều hơn vào cuối tháng.
+     * Số tiền lệch phải (log-uniform 10 nghìn - 500 triệu); giao dịch cũ phần lớn đã thanh toán.
+     */
+    private long insertTransactions(Connection connection, boolean income, List<Integer> categoryIds,
+                                    List<Integer> contactIds, LocalDate start, LocalDate end) throws SQLException {
+        String table = income ? "income_transactions" : "expense_transactions";
+        String contactColumn = income ? "customer_id" : "supplier_id";
+        String paid = income ? "RECEIVED" : "PAID";
+        String unpaid = income ? "PENDING" : "UNPAID";
+        int perDay = income ? incomePerDay : expensePerDay;
+        String sql = "INSERT INTO " + table + " (category_id, " + contactColumn + ", transaction_date, amount,"
+                + " payment_status, description, reference_no) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        long count = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+                double factor = day.getDayOfWeek().getValue() >= 6 ? 0.4 : 1.0;
+                if (day.getDayOfMonth() >= 25) {
+                    factor *= 1.5;
+                }
+                int rows = (int) Math.round(perDay * factor * (0.75 + random.nextDouble() * 0.5));
+                // Giao dịch trong 60 ngày gần nhất có tỉ lệ chưa thanh toán cao hơn
+                int unpaidPercent = day.isAfter(end.minusDays(60)) ? 40 : 5;
+
+                for (int i = 0; i < rows; i++) {
+                    count++;
+                    statement.setInt(1, categoryIds.get(random.nextInt(categoryIds.size())));
+                    statement.setInt(2, contactIds.get(skewedIndex(contactIds.size())));
+                    statement.setDate(3, Date.valueOf(day));
+                    statement.setBigDecimal(4, amount());
+                    statement.setString(5, random.nextInt(100) < unpaidPercent ? unpaid : paid);
+                    statement.setString(6, "Giao dịch kiểm thử tải #" + count);
+                    statement.setString(7, PREFIX + (income ? "INC-" : "EXP-") + count);
+                    statement.addBatch();
+                    if (count % BATCH_SIZE == 0) {
+                        statement.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+            statement.executeBatch();
+            connection.commit();
+        }
+        return count;
+    }
+
+    /**
+     * Một số ít khách hàng/nhà cung cấp chiếm phần lớn giao dịch
+     */
+    private int skewedIndex(int size) {
+        double u = random.nextDouble();
+        return (int) (size * u * u * u);
+    }
+
+    private BigDecimal amount() {
+        double magnitude = Math.pow(10, 4 + random.nextDouble() * 4.7);
+        return BigDecimal.valueOf(Math.round(magnitude) * 100, 2);
+    }
+
+    private static List<Integer> generatedKeys(PreparedStatement statement) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            while (keys.next()) {
+                ids.add(keys.getInt(1));
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,92 @@
+package com.techzenacademy.TechFinance.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.techzenacademy.TechFinance.service.impl.DataVersionService;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Tách đọc/ghi khi bật {@code datasource.replica.enabled}: ghi luôn vào primary ({@code spring.datasource.*}),
+ * các service báo cáo/xuất dữ liệu chạy trong transaction read-only đọc từ replica ({@code datasource.replica.*}).
+ * Khi tắt, Spring Boot tự cấu hình một datasource như trước.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replica", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig implements WebMvcConfigurer {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(
+            @Qualifier("primaryDataSourceProperties") DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor(
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${datasource.replica.health-check-interval-ms:5000}") long checkIntervalMs,
+            MeterRegistry meterRegistry) {
+        ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(replica, checkIntervalMs);
+        Gauge.builder("datasource.replica.healthy", monitor, m -> m.isHealthy() ? 1 : 0).register(meterRegistry);
+        Gauge.builder("datasource.replica.lag_seconds", monitor, ReplicaHealthMonitor::getLagSeconds).register(meterRegistry);
+        monitor.check();
+        return monitor;
+    }
+
+    /**
+     * DataSource chính của ứng dụng (JPA, Flyway): lazy proxy quanh routing datasource
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            ReplicaHealthMonitor healthMonitor,
+            DataVersionService dataVersionService,
+            MeterRegistry meterRegistry,
+            @Value("${datasource.replica.max-lag-seconds:5}") long maxLagSeconds) {
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(
+                primary, replica, healthMonitor, dataVersionService, maxLagSeconds, meterRegistry);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReplicaLagInterceptor());
+    }
+}
@@ -0,0 +1,27 @@
+package com.techzenacademy.TechFinance.config;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class GeminiClientConfig {
+
+    @Value("${gemini.http.connect-timeout-ms:3000}")
+    private long connectTimeoutMs;
+
+    /**
+     * HttpClient dùng chung cho mọi lời gọi Gemini. HttpClient tự giữ pool kết nối keep-alive,
+     * nên tạo một lần duy nhất thay vì mỗi request một client.
+     */
+    @Bean
+    public HttpClient geminiHttpClient() {
+        return HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+}
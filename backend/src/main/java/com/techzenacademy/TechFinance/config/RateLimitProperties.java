@@ -0,0 +1,48 @@
+package com.techzenacademy.TechFinance.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Cấu hình giới hạn tần suất (token bucket) theo người dùng và theo nhóm endpoint
+ */
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+@Data
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Bucket chung của mỗi người dùng: mọi request đều trừ token theo trọng số (cost) của nhóm
+     */
+    private int userCapacity = 120;
+    private double userRefillPerMinute = 120;
+
+    /**
+     * Trọng số mặc định cho request không thuộc nhóm nào
+     */
+    private int defaultCost = 1;
+
+    /**
+     * Bucket bị xóa nếu không được dùng trong khoảng thời gian này
+     */
+    private long idleEvictionMinutes = 10;
+
+    private List<EndpointGroup> groups = new ArrayList<>();
+
+    @Data
+    public static class EndpointGroup {
+        private String name;
+        private List<String> patterns = new ArrayList<>();   // Ant pattern, ví dụ /api/reports/**
+        private List<String> methods = new ArrayList<>();    // Rỗng = mọi HTTP method
+        private int cost = 1;                                // Số token trừ vào bucket chung của người dùng
+        private int capacity = 10;                           // Bucket riêng của người dùng cho nhóm này
+        private double refillPerMinute = 10;
+    }
+}
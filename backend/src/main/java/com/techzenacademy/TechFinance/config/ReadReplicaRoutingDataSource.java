@@ -0,0 +1,173 @@
+package com.techzenacademy.TechFinance.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.techzenacademy.TechFinance.service.impl.DataVersionService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Định tuyến kết nối: transaction {@code readOnly = true} đọc từ replica, còn lại dùng primary.
+ * Phải được bọc trong LazyConnectionDataSourceProxy để kết nối thật chỉ được lấy sau khi
+ * transaction đã đánh dấu read-only. Đọc từ primary khi:
+ * <ul>
+ *   <li>replica không khỏe hoặc trễ hơn mức endpoint chấp nhận ({@link ReplicaLagTolerance})</li>
+ *   <li>chính người dùng của request vừa ghi và thay đổi đó chưa kịp tới replica (read-your-writes)</li>
+ *   <li>không lấy được kết nối replica</li>
+ * </ul>
+ * Người dùng khác vẫn đọc replica trong phạm vi độ trễ cho phép; lần đọc đó được báo cho DataVersionService
+ * để cache báo cáo không lưu kết quả có thể thiếu thay đổi mới nhất dưới phiên bản dữ liệu mới.
+ * <p>
+ * Độ trễ cho phép và người đọc gắn với thread của request; tác vụ chạy trên executor khác phải được bọc
+ * bằng {@link #withCurrentContext(Executor)} hoặc {@link #withCurrentContext(Runnable)}.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private static final ThreadLocal<Long> maxLagOverride = new ThreadLocal<>();
+    private static final ThreadLocal<String> currentReader = new ThreadLocal<>();
+
+    private final DataSource replica;
+    private final ReplicaHealthMonitor healthMonitor;
+    private final DataVersionService dataVersionService;
+    private final long defaultMaxLagSeconds;
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+    private final Counter fallbacks;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaHealthMonitor healthMonitor,
+                                        DataVersionService dataVersionService, long defaultMaxLagSeconds,
+                                        MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.healthMonitor = healthMonitor;
+        this.dataVersionService = dataVersionService;
+        this.defaultMaxLagSeconds = defaultMaxLagSeconds;
+        this.primaryReads = Counter.builder("datasource.routing").tag("target", PRIMARY).register(meterRegistry);
+        this.replicaReads = Counter.builder("datasource.routing").tag("target", REPLICA).register(meterRegistry);
+        this.fallbacks = Counter.builder("datasource.routing").tag("target", "fallback").register(meterRegistry);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        targets.put(REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Độ trễ chấp nhận cho request hiện tại (do ReplicaLagInterceptor đặt)
+     */
+    public static void setMaxLagSeconds(long seconds) {
+        maxLagOverride.set(seconds);
+    }
+
+    public static void clearMaxLagSeconds() {
+        maxLagOverride.remove();
+    }
+
+    /**
+     * Người dùng của request hiện tại, dùng cho read-your-writes (do ReplicaLagInterceptor đặt)
+     */
+    public static void setReader(String username) {
+        currentReader.set(username);
+    }
+
+    public static void clearRequestContext() {
+        maxLagOverride.remove();
+        currentReader.remove();
+    }
+
+    /**
+     * Executor chạy tác vụ với độ trễ cho phép và người đọc của thread gọi hàm này (lấy tại thời điểm gọi)
+     */
+    public static Executor withCurrentContext(Executor executor) {
+        Long maxLag = maxLagOverride.get();
+        String reader = currentReader.get();
+        return command -> executor.execute(bind(maxLag, reader, command));
+    }
+
+    public static Runnable withCurrentContext(Runnable task) {
+        return bind(maxLagOverride.get(), currentReader.get(), task);
+    }
+
+    private static Runnable bind(Long maxLag, String reader, Runnable task) {
+        return () -> {
+            Long previousLag = maxLagOverride.get();
+            String previousReader = currentReader.get();
+            set(maxLagOverride, maxLag);
+            set(currentReader, reader);
+            try {
+                task.run();
+            } finally {
+                set(maxLagOverride, previousLag);
+                set(currentReader, previousReader);
+            }
+        };
+    }
+
+    private static <T> void set(ThreadLocal<T> local, T value) {
+        if (value != null) {
+            local.set(value);
+        } else {
+            local.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return useReplica() ? REPLICA : PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target != replica) {
+            if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                primaryReads.increment();
+            }
+            return target.getConnection();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            replicaReads.increment();
+            return connection;
+        } catch (SQLException e) {
+            healthMonitor.markDown(e.getMessage());
+            fallbacks.increment();
+            return getResolvedDefaultDataSource().getConnection();
+        }
+    }
+
+    private boolean useReplica() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        Long override = maxLagOverride.get();
+        long maxLag = override != null ? override : defaultMaxLagSeconds;
+        if (maxLag <= 0 || !healthMonitor.isUsable(maxLag)) {
+            return false;
+        }
+        // Replica trễ N giây thì chỉ chắc chắn có các thay đổi cũ hơn N giây
+        long catchUpMillis = (healthMonitor.getLagSeconds() + 1) * 1000;
+        long now = System.currentTimeMillis();
+        if (now - dataVersionService.lastChangedAt(currentReader.get()) <= catchUpMillis) {
+            return false;
+        }
+        if (now - dataVersionService.lastChangedAt() <= catchUpMillis) {
+            dataVersionService.markStaleRead();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,106 @@
+package com.techzenacademy.TechFinance.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Kiểm tra định kỳ kết nối và độ trễ của read replica.
+ * <ul>
+ *   <li>Độ trễ đọc từ {@code SHOW REPLICA STATUS} (MySQL 8.0.22+), hoặc {@code SHOW SLAVE STATUS} với bản cũ hơn</li>
+ *   <li>Instance không cấu hình replication (ví dụ hai MySQL chạy local khi thử nghiệm) được coi là độ trễ 0</li>
+ *   <li>Replication dừng, lỗi kết nối hoặc lâu không kiểm tra được thì replica bị coi là không dùng được</li>
+ * </ul>
+ */
+public class ReplicaHealthMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaHealthMonitor.class);
+
+    private final DataSource replica;
+    private final long checkIntervalMs;
+
+    private volatile boolean healthy;
+    private volatile long lagSeconds;
+    private volatile long checkedAt;
+
+    public ReplicaHealthMonitor(DataSource replica, long checkIntervalMs) {
+        this.replica = replica;
+        this.checkIntervalMs = checkIntervalMs;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.health-check-interval-ms:5000}")
+    public void check() {
+        try (Connection connection = replica.getConnection(); Statement statement = connection.createStatement()) {
+            Long lag = readLagSeconds(statement);
+            if (lag == null) {
+                markDown("replication is not running");
+            } else {
+                update(lag);
+            }
+        } catch (SQLException e) {
+            markDown(e.getMessage());
+        }
+    }
+
+    /**
+     * Replica dùng được với độ trễ tối đa {@code maxLagSeconds}
+     */
+    public boolean isUsable(long maxLagSeconds) {
+        // Kết quả kiểm tra quá cũ (scheduler bị treo) thì không tin nữa
+        boolean fresh = System.currentTimeMillis() - checkedAt <= checkIntervalMs * 3;
+        return healthy && fresh && lagSeconds <= maxLagSeconds;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    /**
+     * Đánh dấu replica không dùng được cho tới lần kiểm tra thành công tiếp theo
+     */
+    public void markDown(String reason) {
+        if (healthy) {
+            logger.warn("Read replica marked unhealthy, reads fall back to primary: {}", reason);
+        }
+        healthy = false;
+        checkedAt = System.currentTimeMillis();
+    }
+
+    void update(long lag) {
+        if (!healthy) {
+            logger.info("Read replica is healthy, lag {} s", lag);
+        }
+        lagSeconds = lag;
+        healthy = true;
+        checkedAt = System.currentTimeMillis();
+    }
+
+    private Long readLagSeconds(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SHOW REPLICA STATUS")) {
+            return lagFrom(rs, "Seconds_Behind_Source");
+        } catch (SQLException e) {
+            try (ResultSet rs = statement.executeQuery("SHOW SLAVE STATUS")) {
+                return lagFrom(rs, "Seconds_Behind_Master");
+            }
+        }
+    }
+
+    private Long lagFrom(ResultSet rs, String column) throws SQLException {
+        if (!rs.next()) {
+            return 0L;
+        }
+        long lag = rs.getLong(column);
+        return rs.wasNull() ? null : lag;
+    }
+}
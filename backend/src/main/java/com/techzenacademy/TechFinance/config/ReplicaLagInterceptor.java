@@ -0,0 +1,43 @@
+package com.techzenacademy.TechFinance.config;
+
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Đọc {@link ReplicaLagTolerance} trên controller và áp dụng cho các truy vấn của request,
+ * đồng thời ghi nhận người dùng của request để chỉ chính họ phải đọc primary ngay sau khi ghi
+ */
+public class ReplicaLagInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            ReadReplicaRoutingDataSource.setReader(authentication.getName());
+        }
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod method = (HandlerMethod) handler;
+            ReplicaLagTolerance tolerance = method.getMethodAnnotation(ReplicaLagTolerance.class);
+            if (tolerance == null) {
+                tolerance = method.getBeanType().getAnnotation(ReplicaLagTolerance.class);
+            }
+            if (tolerance != null) {
+                ReadReplicaRoutingDataSource.setMaxLagSeconds(tolerance.maxSeconds());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, Exception ex) {
+        ReadReplicaRoutingDataSource.clearRequestContext();
+    }
+}
@@ -0,0 +1,20 @@
+package com.techzenacademy.TechFinance.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Độ trễ replica (giây) mà một endpoint chấp nhận khi đọc trong transaction read-only.
+ * Đặt trên phương thức hoặc lớp controller; {@code maxSeconds = 0} = luôn đọc từ primary.
+ * Endpoint không có annotation dùng {@code datasource.replica.max-lag-seconds}.
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReplicaLagTolerance {
+
+    long maxSeconds();
+}
@@ -0,0 +1,88 @@
+package com.techzenacademy.TechFinance.config;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.techzenacademy.TechFinance.service.impl.sqlstats.SqlStats;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Thống kê SQL theo endpoint: số câu SQL, thời gian SQL, số dòng đọc và số entity nạp cho mỗi request
+ * (thời gian xử lý theo endpoint đã có sẵn ở metric http.server.requests của Actuator).
+ * Request chạy lâu hơn {@code sql-stats.slow-request-ms} được ghi log kèm chi tiết từng câu SQL.
+ * Chạy trước Spring Security để tính cả truy vấn nạp người dùng khi xác thực JWT.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(prefix = "sql-stats", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatsFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatsFilter.class);
+    private static final int SLOW_LOG_STATEMENTS = 10;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${sql-stats.slow-request-ms:1000}")
+    private long slowRequestMs;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        long start = System.nanoTime();
+        SqlStats stats = SqlStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            stats.end();
+            record(request, stats, System.nanoTime() - start);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStats stats, long elapsedNanos) {
+        // Dùng mẫu đường dẫn (/api/customers/{id}) thay vì URI thật để số lượng tag có giới hạn
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+
+        DistributionSummary.builder("http.server.sql.statements").tag("method", method).tag("uri", uri)
+                .register(meterRegistry).record(stats.getStatements());
+        DistributionSummary.builder("http.server.sql.rows").tag("method", method).tag("uri", uri)
+                .register(meterRegistry).record(stats.getRows());
+        DistributionSummary.builder("http.server.sql.entities").tag("method", method).tag("uri", uri)
+                .register(meterRegistry).record(stats.getEntitiesLoaded());
+        Timer.builder("http.server.sql.time").tag("method", method).tag("uri", uri)
+                .register(meterRegistry).record(stats.getSqlNanos(), TimeUnit.NANOSECONDS);
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        if (elapsedMs >= slowRequestMs) {
+            logger.warn("Slow request {} {} took {} ms: {} statements ({} ms in SQL), {} rows, {} entities loaded\n{}",
+                    method, request.getRequestURI(), elapsedMs, stats.getStatements(),
+                    TimeUnit.NANOSECONDS.toMillis(stats.getSqlNanos()), stats.getRows(), stats.getEntitiesLoaded(),
+                    stats.describe(SLOW_LOG_STATEMENTS));
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.techzenacademy.TechFinance.controller;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -19,8 +21,10 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.techzenacademy.TechFinance.dto.CustomerDTO;
 import com.techzenacademy.TechFinance.dto.CustomerRequest;
+import com.techzenacademy.TechFinance.dto.SuggestionDTO;
 import com.techzenacademy.TechFinance.dto.page.PageResponse;
 import com.techzenacademy.TechFinance.service.impl.CustomerService;
+import com.techzenacademy.TechFinance.service.impl.search.ContactSuggestionIndex;
 
 import jakarta.validation.Valid;
 
@@ -31,9 +35,12 @@ public class CustomerController {
     @Autowired
     private CustomerService customerService;
     
+    @Autowired
+    private ContactSuggestionIndex suggestionIndex;
+    
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<PageResponse<CustomerDTO>> getCustomers(
+    public ResponseEntity<PageResponse<?>> getCustomers(
             @RequestParam(name = "name", required = false) String name,
             @RequestParam(name = "email", required = false) String email,
             @RequestParam(name = "phone", required = false) String phone,
@@ -41,6 +48,7 @@ public class CustomerController {
             @RequestParam(name = "identification", required = false) String identification,
             @RequestParam(name = "taxCode", required = false) String taxCode,
             @RequestParam(name = "isActive", required = false) Boolean isActive,
+            @RequestParam(name = "fields", required = false) String fields,
             @RequestParam(name = "page", defaultValue = "0") int page,
             @RequestParam(name = "size", defaultValue = "8") int size,
             @RequestParam(name = "sort", defaultValue = "id,asc") String[] sort) {
@@ -56,6 +64,12 @@ public class CustomerController {
         // Tạo đối tượng Pageable
         Pageable pageable = PageRequest.of(page, size, sortObj);
         
+        // Chỉ trả về các trường được chọn (ví dụ fields=name,phone)
+        if (fields != null && !fields.isBlank()) {
+            return ResponseEntity.ok(customerService.getPagedCustomerFields(
+                    name, email, phone, address, identification, taxCode, isActive, fields, pageable));
+        }
+        
         // Lấy dữ liệu đã phân trang
         PageResponse<CustomerDTO> pagedResponse = 
                 customerService.getPagedCustomers(name, email, phone, address, identification, taxCode, isActive, pageable);
@@ -63,6 +77,18 @@ public class CustomerController {
         return ResponseEntity.ok(pagedResponse);
     }
     
+    /**
+     * Gợi ý khách hàng theo tiền tố của tên, email, số điện thoại, CCCD, mã số thuế (cho ô chọn)
+     */
+    @GetMapping("/suggest")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<SuggestionDTO>> suggestCustomers(
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "limit", defaultValue = "10") int limit,
+            @RequestParam(name = "activeOnly", defaultValue = "true") boolean activeOnly) {
+        return ResponseEntity.ok(suggestionIndex.suggestCustomers(query, limit, activeOnly));
+    }
+    
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")  
     public ResponseEntity<CustomerDTO> getCustomerById(@PathVariable("id") Integer id) {
@@ -0,0 +1,43 @@
+package com.techzenacademy.TechFinance.controller;
+
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.techzenacademy.TechFinance.dto.report.DashboardDTO;
+import com.techzenacademy.TechFinance.service.impl.dashboard.DashboardService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@Tag(name = "Dashboard", description = "API dữ liệu tổng hợp cho dashboard")
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @GetMapping
+    @Operation(summary = "Lấy dữ liệu dashboard trong một request (có thể thiếu một số phần nếu quá hạn)")
+    public ResponseEntity<DashboardDTO> getDashboard(
+            @RequestParam(name = "year", required = false) Integer year,
+            @RequestParam(name = "month", required = false) Integer month,
+            // Ví dụ sections=monthlyReport,yearlyReport; bỏ trống để lấy tất cả các phần
+            @RequestParam(name = "sections", required = false) String sections) {
+        
+        // Nếu không cung cấp năm và tháng, sử dụng tháng hiện tại
+        if (year == null || month == null) {
+            LocalDate now = LocalDate.now();
+            year = year != null ? year : now.getYear();
+            month = month != null ? month : now.getMonthValue();
+        }
+        
+        return ResponseEntity.ok(dashboardService.getDashboard(year, month, sections));
+    }
+}
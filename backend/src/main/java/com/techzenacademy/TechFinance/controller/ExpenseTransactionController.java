@@ -27,7 +27,7 @@ public class ExpenseTransactionController {
     private ExpenseTransactionService expenseTransactionService;
     
     @GetMapping
-    public ResponseEntity<PageResponse<ExpenseTransactionDTO>> getTransactions(
+    public ResponseEntity<PageResponse<?>> getTransactions(
             @RequestParam(name = "id", required = false) Integer id,
             @RequestParam(name = "supplierId", required = false) Integer supplierId,
             @RequestParam(name = "categoryId", required = false) Integer categoryId,
@@ -37,6 +37,8 @@ public class ExpenseTransactionController {
             @RequestParam(name = "maxAmount", required = false) BigDecimal maxAmount,
             @RequestParam(name = "paymentStatus", required = false) String paymentStatus,
             @RequestParam(name = "referenceNo", required = false) String referenceNo,
+            @RequestParam(name = "description", required = false) String description,
+            @RequestParam(name = "fields", required = false) String fields,
             @RequestParam(name = "page", defaultValue = "0") int page,
             @RequestParam(name = "size", defaultValue = "10") int size,
             @RequestParam(name = "sort", defaultValue = "transactionDate,desc") String[] sort) {
@@ -50,12 +52,6 @@ public class ExpenseTransactionController {
 
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortField));
 
-        // Nếu id được chỉ định, chỉ trả về giao dịch có id đó
-        if (id != null) {
-            PageResponse<ExpenseTransactionDTO> response = expenseTransactionService.getTransactionById(id, pageable);
-            return ResponseEntity.ok(response);
-        }
-
         // Xử lý khoảng thời gian không đầy đủ
         if (startDate != null && endDate == null) {
             // Nếu chỉ có startDate, lấy đến hiện tại
@@ -65,11 +61,25 @@ public class ExpenseTransactionController {
             startDate = LocalDate.of(2000, 1, 1); // Hoặc một ngày xa trong quá khứ
         }
 
+        // Chỉ trả về các trường được chọn (ví dụ fields=transactionDate,amount,supplierName)
+        if (fields != null && !fields.isBlank()) {
+            return ResponseEntity.ok(expenseTransactionService.getFilteredTransactionFields(
+                    id, supplierId, categoryId, startDate, endDate,
+                    minAmount, maxAmount, paymentStatus,
+                    referenceNo, description, fields, pageable));
+        }
+
+        // Nếu id được chỉ định, chỉ trả về giao dịch có id đó
+        if (id != null) {
+            PageResponse<ExpenseTransactionDTO> response = expenseTransactionService.getTransactionById(id, pageable);
+            return ResponseEntity.ok(response);
+        }
+
         // Gọi service để lấy dữ liệu với phân trang và tất cả các bộ lọc
         PageResponse<ExpenseTransactionDTO> result = expenseTransactionService.getFilteredTransactions(
                 supplierId, categoryId, startDate, endDate,
                 minAmount, maxAmount, paymentStatus,
-                referenceNo, pageable);
+                referenceNo, description, pageable);
 
         return ResponseEntity.ok(result);
     }
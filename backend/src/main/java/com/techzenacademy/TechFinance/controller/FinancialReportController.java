@@ -10,8 +10,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.techzenacademy.TechFinance.config.ReplicaLagTolerance;
 import com.techzenacademy.TechFinance.dto.report.MonthlyReportDTO;
+import com.techzenacademy.TechFinance.dto.report.RevenueForecastDTO;
 import com.techzenacademy.TechFinance.service.impl.FinancialReportService;
+import com.techzenacademy.TechFinance.service.impl.forecast.RevenueForecastService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -24,6 +27,9 @@ public class FinancialReportController {
     @Autowired
     private FinancialReportService reportService;
     
+    @Autowired
+    private RevenueForecastService revenueForecastService;
+    
     @GetMapping("/monthly")
     @Operation(summary = "Lấy báo cáo tháng")
     public ResponseEntity<MonthlyReportDTO> getMonthlyReport(
@@ -62,6 +68,7 @@ public class FinancialReportController {
     }
 
     @GetMapping("/yearly")
+    @ReplicaLagTolerance(maxSeconds = 60)
     @Operation(summary = "Lấy báo cáo năm theo từng tháng")
     public ResponseEntity<List<MonthlyReportDTO>> getYearlyReport(
             @RequestParam(name = "year", required = false) Integer year) {
@@ -75,6 +82,7 @@ public class FinancialReportController {
     }
 
     @GetMapping("/cash-flow")
+    @ReplicaLagTolerance(maxSeconds = 60)
     @Operation(summary = "Lấy báo cáo dòng tiền theo năm")
     public ResponseEntity<?> getCashFlowReport(
             @RequestParam(name = "year", required = false) Integer year) {
@@ -86,4 +94,11 @@ public class FinancialReportController {
         
         return ResponseEntity.ok(reportService.generateCashFlowReport(year));
     }
-}
\ No newline at end of file
+
+    @GetMapping("/revenue-forecast")
+    @Operation(summary = "Dự báo doanh thu theo tháng (tổng và theo danh mục)")
+    public ResponseEntity<RevenueForecastDTO> getRevenueForecast(
+            @RequestParam(name = "horizon", defaultValue = "3") int horizon) {
+        return ResponseEntity.ok(revenueForecastService.forecast(horizon));
+    }
+}
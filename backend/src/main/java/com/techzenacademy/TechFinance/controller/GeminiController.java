@@ -1,12 +1,13 @@
 package com.techzenacademy.TechFinance.controller;
 
-import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,12 +15,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.techzenacademy.TechFinance.dto.gemini.ChatConversationDTO;
 import com.techzenacademy.TechFinance.dto.gemini.GeminiRequestDTO;
 import com.techzenacademy.TechFinance.dto.gemini.GeminiResponseDTO;
 import com.techzenacademy.TechFinance.dto.gemini.PredictionInput;
+import com.techzenacademy.TechFinance.dto.page.PageResponse;
 import com.techzenacademy.TechFinance.service.impl.GeminiService;
 
 /**
@@ -58,6 +62,15 @@ public class GeminiController {
         }
     }
     
+    /**
+     * Streaming chat endpoint (Server-Sent Events)
+     */
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter chatStream(@RequestBody GeminiRequestDTO request) {
+        logger.info("Received streaming chat request: {}", request.getUserMessage());
+        return geminiService.chatStream(request);
+    }
+    
     /**
      * Revenue prediction endpoint
      */
@@ -86,10 +99,13 @@ public class GeminiController {
      * Get all conversations
      */
     @GetMapping("/conversations")
-    public ResponseEntity<?> getConversations() {
+    public ResponseEntity<?> getConversations(
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
         try {
             logger.info("Fetching user conversations");
-            List<ChatConversationDTO> conversations = geminiService.getUserConversations();
+            PageResponse<ChatConversationDTO> conversations = 
+                geminiService.getUserConversations(PageRequest.of(page, Math.min(size, 100)));
             return ResponseEntity.ok(conversations);
         } catch (Exception e) {
             logger.error("Error fetching conversations", e);
@@ -102,7 +118,10 @@ public class GeminiController {
      * Get a specific conversation
      */
     @GetMapping("/conversations/{id}")
-    public ResponseEntity<?> getConversation(@PathVariable("id") String id) {
+    public ResponseEntity<?> getConversation(
+            @PathVariable("id") String id,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", required = false) Integer limit) {
         try {
             logger.info("Fetching conversation with ID: {}", id);
             
@@ -111,7 +130,7 @@ public class GeminiController {
                     .body(createErrorResponse("Conversation ID cannot be empty"));
             }
             
-            GeminiResponseDTO response = geminiService.getConversation(id);
+            GeminiResponseDTO response = geminiService.getConversation(id, cursor, limit);
             
             if (!response.isSuccess()) {
                 logger.warn("Conversation retrieval failed: {}", response.getError());
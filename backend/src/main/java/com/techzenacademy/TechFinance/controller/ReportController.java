@@ -1,5 +1,6 @@
 package com.techzenacademy.TechFinance.controller;
 
+import com.techzenacademy.TechFinance.config.ReplicaLagTolerance;
 import com.techzenacademy.TechFinance.dto.CustomerReportDTO;
 import com.techzenacademy.TechFinance.dto.SupplierReportDTO;
 import com.techzenacademy.TechFinance.service.impl.ReportService;
@@ -17,6 +18,7 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/reports")
 @Tag(name = "Reports", description = "API báo cáo tài chính")
+@ReplicaLagTolerance(maxSeconds = 60)
 public class ReportController {
 
     @Autowired
@@ -0,0 +1,65 @@
+package com.techzenacademy.TechFinance.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.techzenacademy.TechFinance.dto.report.ReportJobDTO;
+import com.techzenacademy.TechFinance.dto.report.ReportJobRequest;
+import com.techzenacademy.TechFinance.service.impl.jobs.ReportJobService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/report-jobs")
+@Tag(name = "Report Jobs", description = "API tạo báo cáo chạy nền")
+public class ReportJobController {
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @PostMapping
+    @Operation(summary = "Tạo tác vụ báo cáo (yêu cầu trùng tham số dùng lại tác vụ đã có)")
+    public ResponseEntity<ReportJobDTO> submit(@Valid @RequestBody ReportJobRequest request) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reportJobService.submit(request, username));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Trạng thái và tiến độ của tác vụ báo cáo")
+    public ResponseEntity<ReportJobDTO> getJob(@PathVariable String id) {
+        return ResponseEntity.ok(reportJobService.getJob(id));
+    }
+
+    @GetMapping("/{id}/result")
+    @Operation(summary = "Tải kết quả (JSON) của tác vụ báo cáo đã hoàn thành")
+    public ResponseEntity<?> getResult(@PathVariable String id) {
+        ReportJobDTO job = reportJobService.getJob(id);
+        String result = reportJobService.getResult(id);
+        if (result == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", "Report job is " + job.getStatus() + ", result is not available");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        String filename = "report-" + job.getReportType().name().toLowerCase() + "-" + id + ".json";
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(result);
+    }
+}
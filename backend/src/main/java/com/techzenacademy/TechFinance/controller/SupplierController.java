@@ -1,5 +1,7 @@
 package com.techzenacademy.TechFinance.controller;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -19,8 +21,10 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.techzenacademy.TechFinance.dto.SupplierDTO;
 import com.techzenacademy.TechFinance.dto.SupplierRequest;
+import com.techzenacademy.TechFinance.dto.SuggestionDTO;
 import com.techzenacademy.TechFinance.dto.page.PageResponse;
 import com.techzenacademy.TechFinance.service.impl.SupplierService;
+import com.techzenacademy.TechFinance.service.impl.search.ContactSuggestionIndex;
 
 import jakarta.validation.Valid;
 
@@ -31,14 +35,18 @@ public class SupplierController {
     @Autowired
     private SupplierService supplierService;
     
+    @Autowired
+    private ContactSuggestionIndex suggestionIndex;
+    
     @GetMapping
-    public ResponseEntity<PageResponse<SupplierDTO>> getSuppliers(
+    public ResponseEntity<PageResponse<?>> getSuppliers(
             @RequestParam(name = "name", required = false) String name,
             @RequestParam(name = "email", required = false) String email,
             @RequestParam(name = "phone", required = false) String phone,
             @RequestParam(name = "address", required = false) String address,
             @RequestParam(name = "taxCode", required = false) String taxCode,
             @RequestParam(name = "isActive", required = false) Boolean isActive,
+            @RequestParam(name = "fields", required = false) String fields,
             @RequestParam(name = "page", defaultValue = "0") int page,
             @RequestParam(name = "size", defaultValue = "8") int size,
             @RequestParam(name = "sort", defaultValue = "id,asc") String[] sort) {
@@ -52,6 +60,12 @@ public class SupplierController {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortField));
         
+        // Chỉ trả về các trường được chọn (ví dụ fields=name,phone)
+        if (fields != null && !fields.isBlank()) {
+            return ResponseEntity.ok(supplierService.getPagedSupplierFields(
+                    name, email, phone, address, taxCode, isActive, fields, pageable));
+        }
+        
         // Gọi service để lấy dữ liệu với phân trang và filter
         return ResponseEntity.ok(supplierService.getPagedSuppliers(name, email, phone, address, taxCode, isActive, pageable));
     }
@@ -62,6 +76,17 @@ public class SupplierController {
     //     return ResponseEntity.ok(supplierService.getActiveSuppliers());
     // }
     
+    /**
+     * Gợi ý nhà cung cấp theo tiền tố của tên, email, số điện thoại, mã số thuế (cho ô chọn)
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggestSuppliers(
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "limit", defaultValue = "10") int limit,
+            @RequestParam(name = "activeOnly", defaultValue = "true") boolean activeOnly) {
+        return ResponseEntity.ok(suggestionIndex.suggestSuppliers(query, limit, activeOnly));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<SupplierDTO> getSupplierById(@PathVariable("id") Integer id) {
         return ResponseEntity.ok(supplierService.getSupplierById(id));
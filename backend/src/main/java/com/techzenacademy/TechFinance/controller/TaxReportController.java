@@ -6,7 +6,9 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -50,4 +52,15 @@ public class TaxReportController {
         
         return ResponseEntity.ok(taxReportService.getTaxReportsByDateRange(startDate, endDate));
     }
+
+    @PostMapping("/close")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Operation(summary = "Chốt kỳ thuế: lưu số liệu của tháng đã kết thúc, các lần xem sau dùng số liệu đã chốt")
+    public ResponseEntity<TaxReportDTO> closeTaxPeriod(
+            @RequestParam(name = "year") Integer year,
+            @RequestParam(name = "month") Integer month,
+            @RequestParam(name = "notes", required = false) String notes) {
+        
+        return ResponseEntity.ok(taxReportService.closePeriod(year, month, notes));
+    }
 }
\ No newline at end of file
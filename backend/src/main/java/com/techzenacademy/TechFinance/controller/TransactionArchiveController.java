@@ -0,0 +1,51 @@
+package com.techzenacademy.TechFinance.controller;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.techzenacademy.TechFinance.entity.TransactionArchiveRun;
+import com.techzenacademy.TechFinance.service.impl.archive.TransactionArchiveService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/api/transaction-archive")
+@Tag(name = "Transaction Archive", description = "API lưu trữ giao dịch của các năm đã chốt")
+@PreAuthorize("hasRole('ROLE_ADMIN')")
+public class TransactionArchiveController {
+
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+
+    @GetMapping
+    @Operation(summary = "Các năm đã/đang lưu trữ và số giao dịch đã chuyển")
+    public ResponseEntity<List<TransactionArchiveRun>> getRuns() {
+        return ResponseEntity.ok(transactionArchiveService.getRuns());
+    }
+
+    @PostMapping("/{year}")
+    @Operation(summary = "Lưu trữ giao dịch của một năm đã chốt (chạy nền)")
+    public ResponseEntity<Map<String, Object>> archiveYear(@PathVariable int year) {
+        Map<String, Object> response = new HashMap<>();
+        if (!transactionArchiveService.archiveYear(year)) {
+            response.put("status", "error");
+            response.put("message", "Another archive run is in progress");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        response.put("status", "accepted");
+        response.put("year", year);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+}
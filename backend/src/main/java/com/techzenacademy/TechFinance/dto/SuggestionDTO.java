@@ -0,0 +1,18 @@
+package com.techzenacademy.TechFinance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một gợi ý cho ô chọn khách hàng/nhà cung cấp
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+    private Integer id;
+    private String name;
+    private String matchedField;   // NAME, EMAIL, PHONE, TAX_CODE, IDENTIFICATION
+    private String matchedValue;
+}
@@ -11,4 +11,5 @@ public class TaxReportDTO {
     private BigDecimal expenseTax;    // Thuế chi phí (5% tổng chi phí)
     private BigDecimal taxDifference; // Chênh lệch thuế
     private String notes;             // Ghi chú (tùy chọn)
+    private Boolean closed;           // Kỳ đã chốt: số liệu lấy từ tax_records
 }
\ No newline at end of file
@@ -2,12 +2,16 @@ package com.techzenacademy.TechFinance.dto.gemini;
 
 import java.time.LocalDateTime;
 
+import com.techzenacademy.TechFinance.entity.ChatConversation;
+
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * DTO đại diện cho thông tin cuộc hội thoại chat với Gemini AI
  */
 @Data
+@NoArgsConstructor
 public class ChatConversationDTO {
     
     private String id;
@@ -18,6 +22,19 @@ public class ChatConversationDTO {
     private LocalDateTime updatedAt;
     private int messageCount;
     
+    /**
+     * Constructor dùng cho JPQL constructor projection (danh sách hội thoại)
+     */
+    public ChatConversationDTO(String id, ChatConversation.ConversationType type, String firstMessage,
+                               Integer messageCount, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.type = type != null ? type.name() : null;
+        this.firstMessage = firstMessage;
+        this.messageCount = messageCount != null ? messageCount : 0;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
     public String getId() {
         return id;
     }
@@ -33,4 +33,9 @@ public class GeminiResponseDTO {
      * List of messages in the conversation
      */
     private List<GeminiMessageDTO> messages;
+    
+    /**
+     * Cursor to load older messages (null when there are no more)
+     */
+    private String nextCursor;
 } 
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.techzenacademy.TechFinance.dto.report;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.techzenacademy.TechFinance.dto.ReceivablePayableReportDTO;
+import com.techzenacademy.TechFinance.dto.TaxReportDTO;
+
+/**
+ * Dữ liệu tổng hợp cho dashboard. Phần nào không kịp tính trước hạn chót hoặc bị lỗi sẽ là null
+ * và được liệt kê trong {@code missingSections}.
+ */
+@Data
+public class DashboardDTO {
+    private Integer year;
+    private Integer month;
+    private MonthlyReportDTO monthlyReport;
+    private List<MonthlyReportDTO> yearlyReport;
+    private CashFlowReportDTO cashFlow;
+    private Map<String, Object> budgetOverview;
+    private ReceivablePayableReportDTO receivablePayable;
+    private TaxReportDTO tax;
+    private boolean partial;
+    private List<String> missingSections = new ArrayList<>();
+}
@@ -0,0 +1,22 @@
+package com.techzenacademy.TechFinance.dto.report;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+import com.techzenacademy.TechFinance.entity.ReportJob.JobStatus;
+import com.techzenacademy.TechFinance.entity.ReportJob.ReportType;
+
+@Data
+public class ReportJobDTO {
+    private String id;
+    private ReportType reportType;
+    private String parameters;
+    private JobStatus status;
+    private Integer progress;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime expiresAt;
+    private String resultUrl;        // Đường dẫn tải kết quả, chỉ có khi status = COMPLETED
+}
@@ -0,0 +1,24 @@
+package com.techzenacademy.TechFinance.dto.report;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.techzenacademy.TechFinance.entity.ReportJob.ReportType;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Yêu cầu tạo báo cáo chạy nền. Các tham số dùng theo loại báo cáo:
+ * MONTHLY (year, month), QUARTERLY (year, quarter), BUDGET_OVERVIEW (year, month tùy chọn),
+ * MULTI_YEAR (fromYear, toYear), các loại còn lại (year).
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReportJobRequest {
+    @NotNull(message = "Report type is required")
+    private ReportType reportType;
+    private Integer year;
+    private Integer month;
+    private Integer quarter;
+    private Integer fromYear;
+    private Integer toYear;
+}
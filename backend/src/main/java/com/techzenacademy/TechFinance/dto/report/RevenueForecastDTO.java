@@ -0,0 +1,35 @@
+package com.techzenacademy.TechFinance.dto.report;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class RevenueForecastDTO {
+    private Integer horizon;
+    private Integer historyMonths;
+    private Double confidenceZ;
+    private Long computeMillis;
+    private SeriesForecastDTO total;
+    private List<SeriesForecastDTO> categories;
+
+    @Data
+    public static class SeriesForecastDTO {
+        private Integer categoryId;       // null cho chuỗi tổng doanh thu
+        private String categoryName;
+        private String model;             // HOLT_WINTERS, SEASONAL_NAIVE_TREND, LINEAR_TREND
+        private Integer observations;
+        private Double backtestMape;      // Sai số phần trăm tuyệt đối trung bình (%)
+        private Double backtestSmape;     // sMAPE (%)
+        private List<ForecastPointDTO> points;
+    }
+
+    @Data
+    public static class ForecastPointDTO {
+        private Integer year;
+        private Integer month;
+        private BigDecimal forecast;
+        private BigDecimal lower;
+        private BigDecimal upper;
+    }
+}
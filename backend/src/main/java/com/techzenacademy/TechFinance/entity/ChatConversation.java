@@ -46,6 +46,27 @@ public class ChatConversation {
     @Column(name = "is_active")
     private Boolean isActive = true;
     
+    /**
+     * Tóm tắt các tin nhắn cũ (đến summarizedUntilMessageId), dùng thay cho toàn bộ lịch sử khi gửi prompt
+     */
+    @Column(name = "history_summary", columnDefinition = "TEXT")
+    private String historySummary;
+    
+    @Column(name = "summarized_until_message_id")
+    private Integer summarizedUntilMessageId;
+    
+    /**
+     * Các cột tóm tắt do trigger after_chat_message_insert cập nhật khi thêm tin nhắn, JPA chỉ đọc
+     */
+    @Column(name = "first_message_preview", insertable = false, updatable = false)
+    private String firstMessagePreview;
+    
+    @Column(name = "message_count", insertable = false, updatable = false)
+    private Integer messageCount;
+    
+    @Column(name = "last_message_at", insertable = false, updatable = false)
+    private LocalDateTime lastMessageAt;
+    
     @OneToMany(mappedBy = "conversation", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private java.util.List<ChatMessage> messages;
     
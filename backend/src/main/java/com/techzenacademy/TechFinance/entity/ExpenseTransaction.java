@@ -19,12 +19,13 @@ public class ExpenseTransaction {
     @Column(name = "transaction_id")
     private Integer id;
     
+    // Bảng phân vùng theo năm không hỗ trợ khóa ngoại (V14): không để Hibernate tạo lại khóa ngoại
     @ManyToOne
-    @JoinColumn(name = "category_id", nullable = false)
+    @JoinColumn(name = "category_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private ExpenseCategory category;
     
     @ManyToOne
-    @JoinColumn(name = "supplier_id")
+    @JoinColumn(name = "supplier_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Supplier supplier;
     
     @Column(name = "transaction_date", nullable = false)
@@ -43,7 +44,7 @@ public class ExpenseTransaction {
     private String referenceNo;
     
     @ManyToOne
-    @JoinColumn(name = "created_by")
+    @JoinColumn(name = "created_by", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private User createdBy;
     
     @Column(name = "created_at", updatable = false)
@@ -19,12 +19,13 @@ public class IncomeTransaction {
     @Column(name = "transaction_id")
     private Integer id;
     
+    // Bảng phân vùng theo năm không hỗ trợ khóa ngoại (V14): không để Hibernate tạo lại khóa ngoại
     @ManyToOne
-    @JoinColumn(name = "category_id", nullable = false)
+    @JoinColumn(name = "category_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private IncomeCategory category;
     
     @ManyToOne
-    @JoinColumn(name = "customer_id")
+    @JoinColumn(name = "customer_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Customer customer;
     
     @Column(name = "transaction_date", nullable = false)
@@ -43,7 +44,7 @@ public class IncomeTransaction {
     private String referenceNo;
     
     @ManyToOne
-    @JoinColumn(name = "created_by")
+    @JoinColumn(name = "created_by", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private User createdBy;
     
     @Column(name = "created_at", updatable = false)
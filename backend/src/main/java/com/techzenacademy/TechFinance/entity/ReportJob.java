@@ -0,0 +1,80 @@
+package com.techzenacademy.TechFinance.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Tác vụ tạo báo cáo chạy nền
+ */
+@Entity
+@Table(name = "report_jobs")
+@Data
+public class ReportJob {
+    
+    @Id
+    @Column(name = "job_id", length = 36)
+    private String id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "report_type", nullable = false)
+    private ReportType reportType;
+    
+    @Column(nullable = false)
+    private String parameters;
+    
+    @Column(name = "params_hash", nullable = false)
+    private String paramsHash;
+    
+    @Column(name = "data_version", nullable = false)
+    private String dataVersion;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobStatus status;
+    
+    @Column(nullable = false)
+    private Integer progress = 0;
+    
+    @Lob
+    @Column(columnDefinition = "LONGTEXT")
+    private String result;
+    
+    @Column(name = "error_message")
+    private String errorMessage;
+    
+    @Column(name = "created_by")
+    private String createdBy;
+    
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    public enum ReportType {
+        MONTHLY,
+        QUARTERLY,
+        YEARLY,
+        MULTI_YEAR,
+        CASH_FLOW,
+        BUDGET_OVERVIEW,
+        RECEIVABLE_PAYABLE_YEARLY,
+        TAX_YEARLY
+    }
+    
+    public enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -42,6 +42,10 @@ public class TaxRecord {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Thời điểm chốt kỳ thuế; null = chưa chốt, số liệu được tính trực tiếp từ giao dịch
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
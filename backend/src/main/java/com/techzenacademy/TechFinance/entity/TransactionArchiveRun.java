@@ -0,0 +1,41 @@
+package com.techzenacademy.TechFinance.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Một lượt chuyển giao dịch của một năm sang bảng lưu trữ
+ */
+@Entity
+@Table(name = "transaction_archive_runs")
+@Data
+public class TransactionArchiveRun {
+    
+    @Id
+    @Column(name = "archive_year")
+    private Integer year;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+    
+    @Column(name = "income_rows", nullable = false)
+    private Integer incomeRows = 0;
+    
+    @Column(name = "expense_rows", nullable = false)
+    private Integer expenseRows = 0;
+    
+    @Column(name = "error_message")
+    private String errorMessage;
+    
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+}
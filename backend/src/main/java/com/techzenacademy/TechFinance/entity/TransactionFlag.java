@@ -0,0 +1,60 @@
+package com.techzenacademy.TechFinance.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Cờ bất thường của một giao dịch thu/chi, được ghi khi giao dịch được thêm, sửa hoặc xóa
+ */
+@Entity
+@Table(name = "transaction_flags")
+@Data
+public class TransactionFlag {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "flag_id")
+    private Integer id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false)
+    private TransactionType transactionType;
+    
+    @Column(name = "transaction_id", nullable = false)
+    private Integer transactionId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "flag_type", nullable = false)
+    private FlagType flagType;
+    
+    private String description;
+    
+    private BigDecimal amount;
+    
+    @Column(name = "transaction_date", nullable = false)
+    private LocalDate transactionDate;
+    
+    @Column(name = "reference_no")
+    private String referenceNo;
+    
+    private Double score;
+    
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    public enum TransactionType {
+        INCOME, EXPENSE
+    }
+    
+    public enum FlagType {
+        UNUSUAL_AMOUNT, DUPLICATE_REFERENCE
+    }
+}
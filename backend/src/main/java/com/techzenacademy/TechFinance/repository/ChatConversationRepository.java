@@ -3,9 +3,16 @@ package com.techzenacademy.TechFinance.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.techzenacademy.TechFinance.dto.gemini.ChatConversationDTO;
 import com.techzenacademy.TechFinance.entity.ChatConversation;
 import com.techzenacademy.TechFinance.entity.User;
 
@@ -39,4 +46,32 @@ public interface ChatConversationRepository extends JpaRepository<ChatConversati
      * Tìm cuộc hội thoại theo ID và User
      */
     Optional<ChatConversation> findByIdAndUser(String id, User user);
-} 
\ No newline at end of file
+    
+    /**
+     * Danh sách hội thoại của người dùng kèm các cột tóm tắt, hoạt động gần nhất trước (dùng idx_conversation_user_activity)
+     */
+    @Query(value = "SELECT new com.techzenacademy.TechFinance.dto.gemini.ChatConversationDTO(" +
+                   "c.id, c.type, c.firstMessagePreview, c.messageCount, c.createdAt, COALESCE(c.lastMessageAt, c.createdAt)) " +
+                   "FROM ChatConversation c WHERE c.user.id = :userId " +
+                   "ORDER BY c.lastMessageAt DESC, c.id DESC",
+           countQuery = "SELECT COUNT(c) FROM ChatConversation c WHERE c.user.id = :userId")
+    Page<ChatConversationDTO> findSummariesByUserId(@Param("userId") Integer userId, Pageable pageable);
+    
+    /**
+     * Cập nhật bản tóm tắt lịch sử. Chỉ ghi khi mốc mới lớn hơn mốc hiện tại để tránh ghi đè bản mới hơn.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChatConversation c SET c.historySummary = :summary, c.summarizedUntilMessageId = :untilId " +
+           "WHERE c.id = :conversationId AND (c.summarizedUntilMessageId IS NULL OR c.summarizedUntilMessageId < :untilId)")
+    int updateHistorySummary(@Param("conversationId") String conversationId,
+                             @Param("summary") String summary,
+                             @Param("untilId") Integer untilId);
+    
+    /**
+     * Xóa cuộc hội thoại bằng một câu lệnh DELETE (dữ liệu liên quan được xóa bởi ON DELETE CASCADE)
+     */
+    @Modifying
+    @Query("DELETE FROM ChatConversation c WHERE c.id = :conversationId")
+    int bulkDeleteById(@Param("conversationId") String conversationId);
+}
@@ -1,10 +1,14 @@
 package com.techzenacademy.TechFinance.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.techzenacademy.TechFinance.entity.ChatConversation;
@@ -43,4 +47,50 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
      */
     @Modifying
     void deleteByConversation(ChatConversation conversation);
-} 
\ No newline at end of file
+    
+    /**
+     * Lấy một trang tin nhắn cũ hơn cursor (timestamp, message_id), mới nhất trước.
+     * Cursor null nghĩa là trang đầu tiên (các tin nhắn mới nhất).
+     */
+    @Query("SELECT m FROM ChatMessage m WHERE m.conversation.id = :conversationId " +
+           "AND (:beforeTimestamp IS NULL OR m.timestamp < :beforeTimestamp " +
+           "     OR (m.timestamp = :beforeTimestamp AND m.id < :beforeId)) " +
+           "ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatMessage> findPageBefore(@Param("conversationId") String conversationId,
+                                     @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                     @Param("beforeId") Integer beforeId,
+                                     Pageable pageable);
+    
+    /**
+     * Các tin nhắn chưa được tóm tắt (message_id lớn hơn afterId), cũ nhất trước.
+     * Lọc và sắp xếp cùng theo message_id (tự tăng) để mốc "đã tóm tắt đến id" không bỏ sót tin nhắn cùng timestamp.
+     */
+    @Query("SELECT m FROM ChatMessage m WHERE m.conversation.id = :conversationId " +
+           "AND (:afterId IS NULL OR m.id > :afterId) ORDER BY m.id ASC")
+    List<ChatMessage> findAfter(@Param("conversationId") String conversationId,
+                                @Param("afterId") Integer afterId,
+                                Pageable pageable);
+    
+    /**
+     * Các tin nhắn chưa được tóm tắt (message_id lớn hơn afterId), mới nhất trước
+     */
+    @Query("SELECT m FROM ChatMessage m WHERE m.conversation.id = :conversationId " +
+           "AND (:afterId IS NULL OR m.id > :afterId) ORDER BY m.id DESC")
+    List<ChatMessage> findNewestAfter(@Param("conversationId") String conversationId,
+                                      @Param("afterId") Integer afterId,
+                                      Pageable pageable);
+    
+    /**
+     * Đếm số tin nhắn chưa được tóm tắt
+     */
+    @Query("SELECT COUNT(m) FROM ChatMessage m WHERE m.conversation.id = :conversationId " +
+           "AND (:afterId IS NULL OR m.id > :afterId)")
+    long countAfter(@Param("conversationId") String conversationId, @Param("afterId") Integer afterId);
+    
+    /**
+     * Xóa toàn bộ tin nhắn của cuộc hội thoại bằng một câu lệnh DELETE
+     */
+    @Modifying
+    @Query("DELETE FROM ChatMessage m WHERE m.conversation.id = :conversationId")
+    int bulkDeleteByConversationId(@Param("conversationId") String conversationId);
+}
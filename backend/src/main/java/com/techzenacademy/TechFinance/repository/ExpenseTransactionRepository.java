@@ -5,35 +5,47 @@ import com.techzenacademy.TechFinance.entity.ExpenseTransaction.PaymentStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
-public interface ExpenseTransactionRepository extends JpaRepository<ExpenseTransaction, Integer> {
-    
-    // Phương thức tìm kiếm với phân trang và nhiều bộ lọc
-    @Query("SELECT et FROM ExpenseTransaction et " +
-           "WHERE (:supplierId IS NULL OR et.supplier.id = :supplierId) " +
-           "AND (:categoryId IS NULL OR et.category.id = :categoryId) " +
-           "AND (:startDate IS NULL OR et.transactionDate >= :startDate) " + 
-           "AND (:endDate IS NULL OR et.transactionDate <= :endDate) " +
-           "AND (:minAmount IS NULL OR et.amount >= :minAmount) " +
-           "AND (:maxAmount IS NULL OR et.amount <= :maxAmount) " +
-           "AND (:paymentStatus IS NULL OR et.paymentStatus = :paymentStatus) " +
-           "AND (:referenceNo IS NULL OR LOWER(et.referenceNo) LIKE LOWER(CONCAT('%', :referenceNo, '%')))")
-    Page<ExpenseTransaction> findByFilters(
-            @Param("supplierId") Integer supplierId,
-            @Param("categoryId") Integer categoryId,
-            @Param("startDate") LocalDate startDate,
-            @Param("endDate") LocalDate endDate,
-            @Param("minAmount") BigDecimal minAmount,
-            @Param("maxAmount") BigDecimal maxAmount,
-            @Param("paymentStatus") PaymentStatus paymentStatus,
-            @Param("referenceNo") String referenceNo,
-            Pageable pageable);
+public interface ExpenseTransactionRepository extends JpaRepository<ExpenseTransaction, Integer>, JpaSpecificationExecutor<ExpenseTransaction> {
+    
+    // Dữ liệu nạp chỉ mục tìm kiếm, theo lô id tăng dần
+    @Query("SELECT et.id, et.referenceNo, et.description FROM ExpenseTransaction et " +
+           "WHERE et.id > :afterId ORDER BY et.id")
+    List<Object[]> findSearchRows(@Param("afterId") Integer afterId, Pageable pageable);
+    
+    // Dữ liệu nạp kho cột trong bộ nhớ, theo lô id tăng dần: id, ngày, số tiền, danh mục, đối tác, trạng thái
+    @Query("SELECT et.id, et.transactionDate, et.amount, et.category.id, p.id, et.paymentStatus " +
+           "FROM ExpenseTransaction et LEFT JOIN et.supplier p " +
+           "WHERE et.id > :afterId ORDER BY et.id")
+    List<Object[]> findColumnarRows(@Param("afterId") Integer afterId, Pageable pageable);
+    
+    // Kiểm tra trước khi xóa danh mục/đối tác/người dùng (bảng giao dịch không có khóa ngoại):
+    // tìm trong cả bảng chính và bảng lưu trữ, kết quả > 0 nghĩa là còn giao dịch tham chiếu
+    @Query(value = "SELECT EXISTS(SELECT 1 FROM expense_transactions WHERE category_id = :id) " +
+                   "+ EXISTS(SELECT 1 FROM expense_transactions_archive WHERE category_id = :id)", nativeQuery = true)
+    long countByCategoryIdIncludingArchive(@Param("id") Integer categoryId);
+    
+    @Query(value = "SELECT EXISTS(SELECT 1 FROM expense_transactions WHERE supplier_id = :id) " +
+                   "+ EXISTS(SELECT 1 FROM expense_transactions_archive WHERE supplier_id = :id)", nativeQuery = true)
+    long countBySupplierIdIncludingArchive(@Param("id") Integer supplierId);
+    
+    @Query(value = "SELECT EXISTS(SELECT 1 FROM expense_transactions WHERE created_by = :id) " +
+                   "+ EXISTS(SELECT 1 FROM expense_transactions_archive WHERE created_by = :id)", nativeQuery = true)
+    long countByCreatedByIdIncludingArchive(@Param("id") Integer userId);
+    
+    // Các giao dịch có cùng mã tham chiếu (chỉ mục idx_expense_reference_no)
+    List<ExpenseTransaction> findByReferenceNo(String referenceNo);
+    
+    // Số lượng, tổng và tổng bình phương số tiền theo danh mục (khởi tạo thống kê phát hiện bất thường)
+    @Query("SELECT et.category.id, COUNT(et), SUM(et.amount), SUM(et.amount * et.amount) " +
+           "FROM ExpenseTransaction et GROUP BY et.category.id")
+    List<Object[]> amountStatsByCategory();
     
     // Giữ lại các phương thức hiện có
     List<ExpenseTransaction> findByTransactionDateBetweenOrderByTransactionDateDesc(LocalDate startDate, LocalDate endDate);
@@ -47,4 +59,74 @@ public interface ExpenseTransactionRepository extends JpaRepository<ExpenseTrans
     
     Page<ExpenseTransaction> findByTransactionDateBetweenOrderByTransactionDateDesc(
         LocalDate startDate, LocalDate endDate, Pageable pageable);
+    
+    // Tổng hợp theo tháng và trạng thái thanh toán (dùng cho ngữ cảnh AI)
+    @Query("SELECT YEAR(et.transactionDate), MONTH(et.transactionDate), et.paymentStatus, SUM(et.amount), COUNT(et) " +
+           "FROM ExpenseTransaction et " +
+           "WHERE et.transactionDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY YEAR(et.transactionDate), MONTH(et.transactionDate), et.paymentStatus")
+    List<Object[]> sumByMonthAndStatus(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    // Tổng hợp theo danh mục, sắp xếp theo tổng tiền giảm dần
+    @Query("SELECT et.category.id, et.category.name, SUM(et.amount) " +
+           "FROM ExpenseTransaction et " +
+           "WHERE et.transactionDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY et.category.id, et.category.name " +
+           "ORDER BY SUM(et.amount) DESC")
+    List<Object[]> sumByCategory(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, Pageable pageable);
+    
+    // Tổng hợp theo nhà cung cấp, sắp xếp theo tổng tiền giảm dần
+    @Query("SELECT p.id, p.name, SUM(et.amount) " +
+           "FROM ExpenseTransaction et JOIN et.supplier p " +
+           "WHERE et.transactionDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY p.id, p.name " +
+           "ORDER BY SUM(et.amount) DESC")
+    List<Object[]> sumBySupplier(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, Pageable pageable);
+    
+    // Báo cáo nhà cung cấp: tổng tiền và số giao dịch theo nhà cung cấp, danh mục, tháng và trạng thái thanh toán
+    @Query("SELECT p.id, p.name, p.email, p.phone, c.id, c.name, " +
+           "YEAR(et.transactionDate), MONTH(et.transactionDate), et.paymentStatus, SUM(et.amount), COUNT(et) " +
+           "FROM ExpenseTransaction et LEFT JOIN et.supplier p LEFT JOIN et.category c " +
+           "WHERE et.transactionDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY p.id, p.name, p.email, p.phone, c.id, c.name, " +
+           "YEAR(et.transactionDate), MONTH(et.transactionDate), et.paymentStatus")
+    List<Object[]> sumBySupplierCategoryMonthAndStatus(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    // Các truy vấn *IncludingArchive đọc cả bảng chính và {@code expense_transactions_archive}; chỉ dùng khi khoảng ngày
+    // chạm vào năm đã lưu trữ (xem TransactionArchiveReader). Trạng thái thanh toán trả về dạng chuỗi.
+    @Query(value = "SELECT transaction_id, category_id, supplier_id, transaction_date, amount, payment_status, description, reference_no, created_by, created_at, updated_at FROM expense_transactions " +
+                   "WHERE transaction_date BETWEEN :startDate AND :endDate " +
+                   "UNION ALL " +
+                   "SELECT transaction_id, category_id, supplier_id, transaction_date, amount, payment_status, description, reference_no, created_by, created_at, updated_at FROM expense_transactions_archive " +
+                   "WHERE transaction_date BETWEEN :startDate AND :endDate " +
+                   "ORDER BY transaction_date DESC", nativeQuery = true)
+    List<ExpenseTransaction> findByTransactionDateBetweenIncludingArchive(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @Query(value = "SELECT YEAR(t.transaction_date), MONTH(t.transaction_date), t.payment_status, SUM(t.amount), COUNT(*) FROM (" +
+                   "SELECT transaction_date, payment_status, amount FROM expense_transactions " +
+                   "WHERE transaction_date BETWEEN :startDate AND :endDate " +
+                   "UNION ALL " +
+                   "SELECT transaction_date, payment_status, amount FROM expense_transactions_archive " +
+                   "WHERE transaction_date BETWEEN :startDate AND :endDate" +
+                   ") t GROUP BY YEAR(t.transaction_date), MONTH(t.transaction_date), t.payment_status", nativeQuery = true)
+    List<Object[]> sumByMonthAndStatusIncludingArchive(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @Query(value = "SELECT p.supplier_id, p.name, p.email, p.phone, c.category_id, c.name, " +
+                   "YEAR(t.transaction_date), MONTH(t.transaction_date), t.payment_status, SUM(t.amount), COUNT(*) FROM (" +
+                   "SELECT supplier_id, category_id, transaction_date, payment_status, amount FROM expense_transactions " +
+                   "WHERE transaction_date BETWEEN :startDate AND :endDate " +
+                   "UNION ALL " +
+                   "SELECT supplier_id, category_id, transaction_date, payment_status, amount FROM expense_transactions_archive " +
+                   "WHERE transaction_date BETWEEN :startDate AND :endDate" +
+                   ") t LEFT JOIN suppliers p ON p.supplier_id = t.supplier_id LEFT JOIN expense_categories c ON c.category_id = t.category_id " +
+                   "GROUP BY p.supplier_id, p.name, p.email, p.phone, c.category_id, c.name, " +
+                   "YEAR(t.transaction_date), MONTH(t.transaction_date), t.payment_status", nativeQuery = true)
+    List<Object[]> sumBySupplierCategoryMonthAndStatusIncludingArchive(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    // Số lượng, tổng tiền và ngày cũ nhất của các giao dịch theo trạng thái thanh toán
+    @Query("SELECT COUNT(et), COALESCE(SUM(et.amount), 0), MIN(et.transactionDate) " +
+           "FROM ExpenseTransaction et WHERE et.paymentStatus = :status")
+    List<Object[]> summarizeByStatus(@Param("status") PaymentStatus status);
+    
+    List<ExpenseTransaction> findTop5ByPaymentStatusOrderByAmountDesc(PaymentStatus status);
 }
\ No newline at end of file
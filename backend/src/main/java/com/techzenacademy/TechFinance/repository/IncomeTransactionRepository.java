@@ -5,36 +5,48 @@ import com.techzenacademy.TechFinance.entity.IncomeTransaction.PaymentStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
-public interface IncomeTransactionRepository extends JpaRepository<IncomeTransaction, Integer> {
-    
-    // Phương thức tìm kiếm với phân trang và nhiều bộ lọc
-    @Query("SELECT it FROM IncomeTransaction it " +
-           "WHERE (:customerId IS NULL OR it.customer.id = :customerId) " +
-           "AND (:categoryId IS NULL OR it.category.id = :categoryId) " +
-           "AND (:startDate IS NULL OR it.transactionDate >= :startDate) " + 
-           "AND (:endDate IS NULL OR it.transactionDate <= :endDate) " +
-           "AND (:minAmount IS NULL OR it.amount >= :minAmount) " +
-           "AND (:maxAmount IS NULL OR it.amount <= :maxAmount) " +
-           "AND (:paymentStatus IS NULL OR it.paymentStatus = :paymentStatus) " +
-           "AND (:referenceNo IS NULL OR LOWER(it.referenceNo) LIKE LOWER(CONCAT('%', :referenceNo, '%')))")
-    Page<IncomeTransaction> findByFilters(
-            @Param("customerId") Integer customerId,
-            @Param("categoryId") Integer categoryId,
-            @Param("startDate") LocalDate startDate,
-            @Param("endDate") LocalDate endDate,
-            @Param("minAmount") BigDecimal minAmount,
-            @Param("maxAmount") BigDecimal maxAmount,
-            @Param("paymentStatus") PaymentStatus paymentStatus,
-            @Param("referenceNo") String referenceNo,
-            Pageable pageable);
+public interface IncomeTransactionRepository extends JpaRepository<IncomeTransaction, Integer>, JpaSpecificationExecutor<IncomeTransaction> {
+    
+    // Dữ liệu nạp chỉ mục tìm kiếm, theo lô id tăng dần
+    @Query("SELECT it.id, it.referenceNo, it.description FROM IncomeTransaction it " +
+           "WHERE it.id > :afterId ORDER BY it.id")
+    List<Object[]> findSearchRows(@Param("afterId") Integer afterId, Pageable pageable);
+    
+    // Dữ liệu nạp kho cột trong bộ nhớ, theo lô id tăng dần: id, ngày, số tiền, danh mục, đối tác, trạng thái
+    @Query("SELECT it.id, it.transactionDate, it.amount, it.category.id, p.id, it.paymentStatus " +
+           "FROM IncomeTransaction it LEFT JOIN it.customer p " +
+           "WHERE it.id > :afterId ORDER BY it.id")
+    List<Object[]> findColumnarRows(@Param("afterId") Integer afterId, Pageable pageable);
+    
+    // Kiểm tra trước khi xóa danh mục/đối tác/người dùng (bảng giao dịch không có khóa ngoại):
+    // tìm trong cả bảng chính và bảng lưu trữ, kết quả > 0 nghĩa là còn giao dịch tham chiếu
+    @Query(value = "SELECT EXISTS(SELECT 1 FROM income_transactions WHERE category_id = :id) " +
+                   "+ EXISTS(SELECT 1 FROM income_transactions_archive WHERE category_id = :id)", nativeQuery = true)
+    long countByCategoryIdIncludingArchive(@Param("id") Integer categoryId);
+    
+    @Query(value = "SELECT EXISTS(SELECT 1 FROM income_transactions WHERE customer_id = :id) " +
+                   "+ EXISTS(SELECT 1 FROM income_transactions_archive WHERE customer_id = :id)", nativeQuery = true)
+    long countByCustomerIdIncludingArchive(@Param("id") Integer customerId);
+    
+    @Query(value = "SELECT EXISTS(SELECT 1 FROM income_transactions WHERE created_by = :id) " +
+                   "+ EXISTS(SELECT 1 FROM income_transactions_archive WHERE created_by = :id)", nativeQuery = true)
+    long countByCreatedByIdIncludingArchive(@Param("id") Integer userId);
+    
+    // Các giao dịch có cùng mã tham chiếu (chỉ mục idx_income_reference_no)
+    List<IncomeTransaction> findByReferenceNo(String referenceNo);
+    
+    // Số lượng, tổng và tổng bình phương số tiền theo danh mục (khởi tạo thống kê phát hiện bất thường)
+    @Query("SELECT it.category.id, COUNT(it), SUM(it.amount), SUM(it.amount * it.amount) " +
+           "FROM IncomeTransaction it GROUP BY it.category.id")
+    List<Object[]> amountStatsByCategory();
     
     // Giữ lại các phương thức hiện có
     List<IncomeTransaction> findByTransactionDateBetweenOrderByTransactionDateDesc(LocalDate startDate, LocalDate endDate);
@@ -48,4 +60,91 @@ public interface IncomeTransactionRepository extends JpaRepository<IncomeTransac
     
     Page<IncomeTransaction> findByTransactionDateBetweenOrderByTransactionDateDesc(
         LocalDate startDate, LocalDate endDate, Pageable pageable);
+    
+    // Tổng hợp theo tháng và trạng thái thanh toán (dùng cho ngữ cảnh AI)
+    @Query("SELECT YEAR(it.transactionDate), MONTH(it.transactionDate), it.paymentStatus, SUM(it.amount), COUNT(it) " +
+           "FROM IncomeTransaction it " +
+           "WHERE it.transactionDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY YEAR(it.transactionDate), MONTH(it.transactionDate), it.paymentStatus")
+    List<Object[]> sumByMonthAndStatus(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    // Tổng hợp theo danh mục, sắp xếp theo tổng tiền giảm dần
+    @Query("SELECT it.category.id, it.category.name, SUM(it.amount) " +
+           "FROM IncomeTransaction it " +
+           "WHERE it.transactionDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY it.category.id, it.category.name " +
+           "ORDER BY SUM(it.amount) DESC")
+    List<Object[]> sumByCategory(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, Pageable pageable);
+    
+    // Tổng hợp theo khách hàng, sắp xếp theo tổng tiền giảm dần
+    @Query("SELECT p.id, p.name, SUM(it.amount) " +
+           "FROM IncomeTransaction it JOIN it.customer p " +
+           "WHERE it.transactionDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY p.id, p.name " +
+           "ORDER BY SUM(it.amount) DESC")
+    List<Object[]> sumByCustomer(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, Pageable pageable);
+    
+    // Báo cáo khách hàng: tổng tiền và số giao dịch theo khách hàng, danh mục, tháng và trạng thái thanh toán
+    @Query("SELECT p.id, p.name, p.email, p.phone, c.id, c.name, " +
+           "YEAR(it.transactionDate), MONTH(it.transactionDate), it.paymentStatus, SUM(it.amount), COUNT(it) " +
+           "FROM IncomeTransaction it LEFT JOIN it.customer p LEFT JOIN it.category c " +
+           "WHERE it.transactionDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY p.id, p.name, p.email, p.phone, c.id, c.name, " +
+           "YEAR(it.transactionDate), MONTH(it.transactionDate), it.paymentStatus")
+    List<Object[]> sumByCustomerCategoryMonthAndStatus(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    // Các truy vấn *IncludingArchive đọc cả bảng chính và {@code income_transactions_archive}; chỉ dùng khi khoảng ngày
+    // chạm vào năm đã lưu trữ (xem TransactionArchiveReader). Trạng thái thanh toán trả về dạng chuỗi.
+    @Query(value = "SELECT transaction_id, category_id, customer_id, transaction_date, amount, payment_status, description, reference_no, created_by, created_at, updated_at FROM income_transactions " +
+                   "WHERE transaction_date BETWEEN :startDate AND :endDate " +
+                   "UNION ALL " +
+                   "SELECT transaction_id, category_id, customer_id, transaction_date, amount, payment_status, description, reference_no, created_by, created_at, updated_at FROM income_transactions_archive " +
+                   "WHERE transaction_date BETWEEN :startDate AND :endDate " +
+                   "ORDER BY transaction_date DESC", nativeQuery = true)
+    List<IncomeTransaction> findByTransactionDateBetweenIncludingArchive(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @Query(value = "SELECT YEAR(t.transaction_date), MONTH(t.transaction_date), t.payment_status, SUM(t.amount), COUNT(*) FROM (" +
+                   "SELECT transaction_date, payment_status, amount FROM income_transactions " +
+                   "WHERE transaction_date BETWEEN :startDate AND :endDate " +
+                   "UNION ALL " +
+                   "SELECT transaction_date, payment_status, amount FROM income_transactions_archive " +
+                   "WHERE transaction_date BETWEEN :startDate AND :endDate" +
+                   ") t GROUP BY YEAR(t.transaction_date), MONTH(t.transaction_date), t.payment_status", nativeQuery = true)
+    List<Object[]> sumByMonthAndStatusIncludingArchive(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @Query(value = "SELECT p.customer_id, p.name, p.email, p.phone, c.category_id, c.name, " +
+                   "YEAR(t.transaction_date), MONTH(t.transaction_date), t.payment_status, SUM(t.amount), COUNT(*) FROM (" +
+                   "SELECT customer_id, category_id, transaction_date, payment_status, amount FROM income_transactions " +
+                   "WHERE transaction_date BETWEEN :startDate AND :endDate " +
+                   "UNION ALL " +
+                   "SELECT customer_id, category_id, transaction_date, payment_status, amount FROM income_transactions_archive " +
+                   "WHERE transaction_date BETWEEN :startDate AND :endDate" +
+                   ") t LEFT JOIN customers p ON p.customer_id = t.customer_id LEFT JOIN income_categories c ON c.category_id = t.category_id " +
+                   "GROUP BY p.customer_id, p.name, p.email, p.phone, c.category_id, c.name, " +
+                   "YEAR(t.transaction_date), MONTH(t.transaction_date), t.payment_status", nativeQuery = true)
+    List<Object[]> sumByCustomerCategoryMonthAndStatusIncludingArchive(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @Query(value = "SELECT c.category_id, c.name, YEAR(t.transaction_date), MONTH(t.transaction_date), SUM(t.amount) FROM (" +
+                   "SELECT category_id, transaction_date, amount FROM income_transactions " +
+                   "WHERE transaction_date BETWEEN :startDate AND :endDate " +
+                   "UNION ALL " +
+                   "SELECT category_id, transaction_date, amount FROM income_transactions_archive " +
+                   "WHERE transaction_date BETWEEN :startDate AND :endDate" +
+                   ") t JOIN income_categories c ON c.category_id = t.category_id " +
+                   "GROUP BY c.category_id, c.name, YEAR(t.transaction_date), MONTH(t.transaction_date)", nativeQuery = true)
+    List<Object[]> sumByCategoryAndMonthIncludingArchive(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    // Số lượng, tổng tiền và ngày cũ nhất của các giao dịch theo trạng thái thanh toán
+    @Query("SELECT COUNT(it), COALESCE(SUM(it.amount), 0), MIN(it.transactionDate) " +
+           "FROM IncomeTransaction it WHERE it.paymentStatus = :status")
+    List<Object[]> summarizeByStatus(@Param("status") PaymentStatus status);
+    
+    List<IncomeTransaction> findTop5ByPaymentStatusOrderByAmountDesc(PaymentStatus status);
+    
+    // Tổng doanh thu theo danh mục và tháng (dùng cho mô hình dự báo doanh thu)
+    @Query("SELECT it.category.id, it.category.name, YEAR(it.transactionDate), MONTH(it.transactionDate), SUM(it.amount) " +
+           "FROM IncomeTransaction it " +
+           "WHERE it.transactionDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY it.category.id, it.category.name, YEAR(it.transactionDate), MONTH(it.transactionDate)")
+    List<Object[]> sumByCategoryAndMonth(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.techzenacademy.TechFinance.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.techzenacademy.TechFinance.entity.ReportJob;
+import com.techzenacademy.TechFinance.entity.ReportJob.JobStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, String> {
+    
+    // Tác vụ cùng tham số và cùng phiên bản dữ liệu còn dùng được: đang chờ/đang chạy, hoặc đã xong và chưa hết hạn.
+    // Tác vụ tạo trước một lần ghi không được dùng lại, kể cả khi chưa chạy xong.
+    @Query("SELECT j FROM ReportJob j WHERE j.paramsHash = :hash AND j.dataVersion = :dataVersion " +
+           "AND (j.status IN :active OR (j.status = :completed AND j.expiresAt > :now)) " +
+           "ORDER BY j.createdAt DESC")
+    List<ReportJob> findReusable(@Param("hash") String hash, @Param("active") Collection<JobStatus> active,
+                                 @Param("completed") JobStatus completed, @Param("dataVersion") String dataVersion,
+                                 @Param("now") LocalDateTime now);
+    
+    List<ReportJob> findByStatusIn(Collection<JobStatus> statuses);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportJob j SET j.progress = :progress WHERE j.id = :id")
+    int updateProgress(@Param("id") String id, @Param("progress") int progress);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ReportJob j WHERE j.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -6,6 +6,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.techzenacademy.TechFinance.entity.TaxRecord;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +17,42 @@ public interface TaxRecordRepository extends JpaRepository<TaxRecord, Integer> {
     
     List<TaxRecord> findByYearOrderByMonth(Integer year);
     
-    @Query(value = "CALL sp_generate_tax_report(:year, :month)", nativeQuery = true)
-    List<Object[]> generateTaxReport(@Param("year") Integer year, @Param("month") Integer month);
+    /**
+     * Kỳ đã chốt trong khoảng [fromPeriod, toPeriod], kỳ = năm * 100 + tháng
+     */
+    @Query("SELECT t FROM TaxRecord t WHERE t.closedAt IS NOT NULL " +
+           "AND t.year * 100 + t.month BETWEEN :fromPeriod AND :toPeriod")
+    List<TaxRecord> findClosedBetween(@Param("fromPeriod") Integer fromPeriod, @Param("toPeriod") Integer toPeriod);
+    
+    /**
+     * Tổng thu và tổng chi theo tháng trong khoảng ngày, một truy vấn cho cả hai bảng.
+     * Điều kiện lọc theo khoảng transaction_date nên dùng được chỉ mục ngày.
+     * Mỗi dòng: [năm, tháng, tổng thu, tổng chi]
+     */
+    @Query(value = "SELECT p.y, p.m, SUM(p.income), SUM(p.expense) FROM (" +
+                   "SELECT YEAR(transaction_date) AS y, MONTH(transaction_date) AS m, amount AS income, 0 AS expense " +
+                   "FROM income_transactions WHERE transaction_date BETWEEN :startDate AND :endDate " +
+                   "UNION ALL " +
+                   "SELECT YEAR(transaction_date), MONTH(transaction_date), 0, amount " +
+                   "FROM expense_transactions WHERE transaction_date BETWEEN :startDate AND :endDate" +
+                   ") p GROUP BY p.y, p.m", nativeQuery = true)
+    List<Object[]> sumAmountsByMonth(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    /**
+     * Như {@link #sumAmountsByMonth} nhưng đọc thêm các bảng lưu trữ, dùng khi khoảng ngày chạm vào năm đã lưu trữ
+     */
+    @Query(value = "SELECT p.y, p.m, SUM(p.income), SUM(p.expense) FROM (" +
+                   "SELECT YEAR(transaction_date) AS y, MONTH(transaction_date) AS m, amount AS income, 0 AS expense " +
+                   "FROM income_transactions WHERE transaction_date BETWEEN :startDate AND :endDate " +
+                   "UNION ALL " +
+                   "SELECT YEAR(transaction_date), MONTH(transaction_date), amount, 0 " +
+                   "FROM income_transactions_archive WHERE transaction_date BETWEEN :startDate AND :endDate " +
+                   "UNION ALL " +
+                   "SELECT YEAR(transaction_date), MONTH(transaction_date), 0, amount " +
+                   "FROM expense_transactions WHERE transaction_date BETWEEN :startDate AND :endDate " +
+                   "UNION ALL " +
+                   "SELECT YEAR(transaction_date), MONTH(transaction_date), 0, amount " +
+                   "FROM expense_transactions_archive WHERE transaction_date BETWEEN :startDate AND :endDate" +
+                   ") p GROUP BY p.y, p.m", nativeQuery = true)
+    List<Object[]> sumAmountsByMonthIncludingArchive(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.techzenacademy.TechFinance.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.techzenacademy.TechFinance.entity.TransactionArchiveRun;
+
+import java.util.List;
+
+@Repository
+public interface TransactionArchiveRunRepository extends JpaRepository<TransactionArchiveRun, Integer> {
+    
+    // Các năm đã có dữ liệu trong bảng lưu trữ (đã xong hoặc đang/đã dừng giữa chừng)
+    @Query("SELECT r.year FROM TransactionArchiveRun r")
+    List<Integer> findArchivedYears();
+}
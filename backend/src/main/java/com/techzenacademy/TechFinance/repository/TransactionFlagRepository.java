@@ -0,0 +1,35 @@
+package com.techzenacademy.TechFinance.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.techzenacademy.TechFinance.entity.TransactionFlag;
+import com.techzenacademy.TechFinance.entity.TransactionFlag.FlagType;
+import com.techzenacademy.TechFinance.entity.TransactionFlag.TransactionType;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TransactionFlagRepository extends JpaRepository<TransactionFlag, Integer> {
+    
+    // Dùng chỉ mục idx_flags_date: chỉ đọc các cờ trong kỳ báo cáo
+    List<TransactionFlag> findByTransactionDateBetweenOrderByTransactionDateDesc(LocalDate startDate, LocalDate endDate);
+    
+    Optional<TransactionFlag> findByTransactionTypeAndTransactionIdAndFlagType(
+        TransactionType transactionType, Integer transactionId, FlagType flagType);
+    
+    @Modifying
+    @Query("DELETE FROM TransactionFlag f WHERE f.transactionType = :type AND f.transactionId = :transactionId")
+    int deleteByTransaction(@Param("type") TransactionType type, @Param("transactionId") Integer transactionId);
+    
+    @Modifying
+    @Query("DELETE FROM TransactionFlag f WHERE f.transactionType = :type AND f.transactionId = :transactionId " +
+           "AND f.flagType = :flagType")
+    int deleteByTransactionAndFlagType(@Param("type") TransactionType type, @Param("transactionId") Integer transactionId,
+                                       @Param("flagType") FlagType flagType);
+}
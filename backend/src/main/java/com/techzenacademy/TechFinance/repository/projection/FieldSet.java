@@ -0,0 +1,78 @@
+package com.techzenacademy.TechFinance.repository.projection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Danh sách trường được phép chọn qua tham số {@code fields=} của một màn hình danh sách:
+ * tên trường (trùng tên trong DTO) ánh xạ tới đường dẫn thuộc tính của entity, ví dụ "categoryName" -> "category.name".
+ * Trường "id" luôn được trả về để client làm khóa dòng.
+ */
+public final class FieldSet<T> {
+
+    public static final String ID = "id";
+
+    private final Class<T> entityType;
+    private final Map<String, String> paths = new LinkedHashMap<>();
+
+    private FieldSet(Class<T> entityType) {
+        this.entityType = entityType;
+        paths.put(ID, ID);
+    }
+
+    public static <T> FieldSet<T> of(Class<T> entityType) {
+        return new FieldSet<>(entityType);
+    }
+
+    /**
+     * Trường có cùng tên với thuộc tính của entity
+     */
+    public FieldSet<T> field(String name) {
+        return field(name, name);
+    }
+
+    public FieldSet<T> field(String name, String path) {
+        paths.put(name, path);
+        return this;
+    }
+
+    public Class<T> getEntityType() {
+        return entityType;
+    }
+
+    public String path(String name) {
+        return paths.get(name);
+    }
+
+    public Set<String> names() {
+        return Collections.unmodifiableSet(paths.keySet());
+    }
+
+    /**
+     * Tách chuỗi "amount,transactionDate,customerName" thành danh sách trường theo thứ tự yêu cầu,
+     * "id" đứng đầu, bỏ trùng; tên không có trong danh sách cho phép -> IllegalArgumentException (400)
+     */
+    public List<String> select(String fields) {
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add(ID);
+        if (fields != null) {
+            for (String name : fields.split(",")) {
+                String trimmed = name.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                if (!paths.containsKey(trimmed)) {
+                    throw new IllegalArgumentException(
+                            "Unknown field '" + trimmed + "'. Allowed fields: " + String.join(",", paths.keySet()));
+                }
+                selected.add(trimmed);
+            }
+        }
+        return new ArrayList<>(selected);
+    }
+}
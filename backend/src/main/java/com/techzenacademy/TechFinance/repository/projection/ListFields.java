@@ -0,0 +1,57 @@
+package com.techzenacademy.TechFinance.repository.projection;
+
+import com.techzenacademy.TechFinance.entity.Customer;
+import com.techzenacademy.TechFinance.entity.ExpenseTransaction;
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.entity.Supplier;
+
+/**
+ * Các trường chọn được của từng màn hình danh sách, cùng tên với DTO tương ứng
+ * (IncomeTransactionDTO, ExpenseTransactionDTO, CustomerDTO, SupplierDTO)
+ */
+public final class ListFields {
+
+    public static final FieldSet<IncomeTransaction> INCOME_TRANSACTIONS = FieldSet.of(IncomeTransaction.class)
+            .field("categoryId", "category.id")
+            .field("categoryName", "category.name")
+            .field("customerId", "customer.id")
+            .field("customerName", "customer.name")
+            .field("transactionDate")
+            .field("amount")
+            .field("paymentStatus")
+            .field("description")
+            .field("referenceNo");
+
+    public static final FieldSet<ExpenseTransaction> EXPENSE_TRANSACTIONS = FieldSet.of(ExpenseTransaction.class)
+            .field("categoryId", "category.id")
+            .field("categoryName", "category.name")
+            .field("supplierId", "supplier.id")
+            .field("supplierName", "supplier.name")
+            .field("transactionDate")
+            .field("amount")
+            .field("paymentStatus")
+            .field("description")
+            .field("referenceNo");
+
+    public static final FieldSet<Customer> CUSTOMERS = FieldSet.of(Customer.class)
+            .field("name")
+            .field("email")
+            .field("phone")
+            .field("identification")
+            .field("address")
+            .field("taxCode")
+            .field("notes")
+            .field("isActive");
+
+    public static final FieldSet<Supplier> SUPPLIERS = FieldSet.of(Supplier.class)
+            .field("name")
+            .field("email")
+            .field("phone")
+            .field("address")
+            .field("taxCode")
+            .field("notes")
+            .field("isActive");
+
+    private ListFields() {
+    }
+}
@@ -0,0 +1,119 @@
+package com.techzenacademy.TechFinance.repository.projection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Truy vấn danh sách chỉ lấy các trường được chọn (Criteria Tuple thay vì nạp entity):
+ * SELECT chỉ gồm các cột tương ứng, bảng liên kết chỉ được JOIN khi có trường cần tới nó
+ * ("customerId" đọc thẳng khóa ngoại, "customerName" mới JOIN customers).
+ * Mỗi dòng trả về là một Map theo thứ tự trường yêu cầu, Jackson ghi trực tiếp không qua DTO.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class SparseFieldQuery {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public <T> Page<Map<String, Object>> findAll(FieldSet<T> fieldSet, List<String> fields,
+            Specification<T> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(fieldSet.getEntityType());
+
+        Map<String, From<?, ?>> joins = new HashMap<>();
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(path(root, joins, fieldSet.path(field)));
+        }
+        query.multiselect(selections);
+
+        Predicate predicate = toPredicate(specification, root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        List<Map<String, Object>> content = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>(fields.size() * 2);
+            for (int i = 0; i < fields.size(); i++) {
+                row.put(fields.get(i), tuple.get(i));
+            }
+            content.add(row);
+        }
+
+        // Bỏ qua câu COUNT khi trang hiện tại đã cho biết tổng số dòng (như SimpleJpaRepository)
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(fieldSet.getEntityType(), specification));
+    }
+
+    private <T> long count(Class<T> entityType, Specification<T> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(entityType);
+        Predicate predicate = toPredicate(specification, root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(cb.count(root));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static <T> Predicate toPredicate(Specification<T> specification, Root<T> root,
+            CriteriaQuery<?> query, CriteriaBuilder cb) {
+        return specification == null ? null : specification.toPredicate(root, query, cb);
+    }
+
+    /**
+     * "amount" -> root.amount; "customer.id" -> khóa ngoại, không JOIN; "customer.name" -> LEFT JOIN customer
+     * (LEFT để giao dịch không có khách hàng vẫn được trả về, giống DTO đầy đủ)
+     */
+    private static Path<?> path(Root<?> root, Map<String, From<?, ?>> joins, String attribute) {
+        String[] parts = attribute.split("\\.");
+        if (parts.length == 2 && FieldSet.ID.equals(parts[1])) {
+            return root.get(parts[0]).get(FieldSet.ID);
+        }
+        From<?, ?> from = root;
+        String joinPath = "";
+        for (int i = 0; i < parts.length - 1; i++) {
+            joinPath = joinPath.isEmpty() ? parts[i] : joinPath + "." + parts[i];
+            From<?, ?> parent = from;
+            String association = parts[i];
+            from = joins.computeIfAbsent(joinPath, key -> parent.join(association, JoinType.LEFT));
+        }
+        return from.get(parts[parts.length - 1]);
+    }
+}
@@ -0,0 +1,106 @@
+package com.techzenacademy.TechFinance.repository.specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.techzenacademy.TechFinance.entity.Customer;
+import com.techzenacademy.TechFinance.entity.ExpenseCategory;
+import com.techzenacademy.TechFinance.entity.ExpenseTransaction;
+import com.techzenacademy.TechFinance.entity.IncomeCategory;
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.entity.Supplier;
+
+/**
+ * Specification cho các màn hình danh sách có bộ lọc. Mỗi tổ hợp bộ lọc cho một câu SQL riêng,
+ * Hibernate cache plan của criteria và driver MySQL cache prepared statement theo từng câu SQL đó.
+ */
+public final class FilterSpecifications {
+
+    private FilterSpecifications() {
+    }
+
+    /**
+     * Bộ lọc giao dịch thu; {@code ids} (nếu có) là danh sách ứng viên từ chỉ mục tìm kiếm
+     */
+    public static Specification<IncomeTransaction> incomeTransactions(
+            Integer customerId, Integer categoryId, LocalDate startDate, LocalDate endDate,
+            BigDecimal minAmount, BigDecimal maxAmount, IncomeTransaction.PaymentStatus paymentStatus,
+            String referenceNo, String description, Collection<Integer> ids) {
+        return SpecificationBuilder.of(IncomeTransaction.class)
+                .equal("customer.id", customerId)
+                .equal("category.id", categoryId)
+                .greaterThanOrEqual("transactionDate", startDate)
+                .lessThanOrEqual("transactionDate", endDate)
+                .greaterThanOrEqual("amount", minAmount)
+                .lessThanOrEqual("amount", maxAmount)
+                .equal("paymentStatus", paymentStatus)
+                .containsIgnoreCase("referenceNo", referenceNo)
+                .containsIgnoreCase("description", description)
+                .in("id", ids)
+                .build();
+    }
+
+    /**
+     * Bộ lọc giao dịch chi; {@code ids} (nếu có) là danh sách ứng viên từ chỉ mục tìm kiếm
+     */
+    public static Specification<ExpenseTransaction> expenseTransactions(
+            Integer supplierId, Integer categoryId, LocalDate startDate, LocalDate endDate,
+            BigDecimal minAmount, BigDecimal maxAmount, ExpenseTransaction.PaymentStatus paymentStatus,
+            String referenceNo, String description, Collection<Integer> ids) {
+        return SpecificationBuilder.of(ExpenseTransaction.class)
+                .equal("supplier.id", supplierId)
+                .equal("category.id", categoryId)
+                .greaterThanOrEqual("transactionDate", startDate)
+                .lessThanOrEqual("transactionDate", endDate)
+                .greaterThanOrEqual("amount", minAmount)
+                .lessThanOrEqual("amount", maxAmount)
+                .equal("paymentStatus", paymentStatus)
+                .containsIgnoreCase("referenceNo", referenceNo)
+                .containsIgnoreCase("description", description)
+                .in("id", ids)
+                .build();
+    }
+
+    public static Specification<Customer> customers(
+            String name, String email, String phone, String address,
+            String identification, String taxCode, Boolean isActive) {
+        return SpecificationBuilder.of(Customer.class)
+                .containsIgnoreCase("name", name)
+                .containsIgnoreCase("email", email)
+                .containsIgnoreCase("phone", phone)
+                .containsIgnoreCase("address", address)
+                .containsIgnoreCase("identification", identification)
+                .containsIgnoreCase("taxCode", taxCode)
+                .equal("isActive", isActive)
+                .build();
+    }
+
+    public static Specification<Supplier> suppliers(
+            String name, String email, String phone, String address, String taxCode, Boolean isActive) {
+        return SpecificationBuilder.of(Supplier.class)
+                .containsIgnoreCase("name", name)
+                .containsIgnoreCase("email", email)
+                .containsIgnoreCase("phone", phone)
+                .containsIgnoreCase("address", address)
+                .containsIgnoreCase("taxCode", taxCode)
+                .equal("isActive", isActive)
+                .build();
+    }
+
+    public static Specification<IncomeCategory> incomeCategories(String name, Boolean isActive) {
+        return SpecificationBuilder.of(IncomeCategory.class)
+                .containsIgnoreCase("name", name)
+                .equal("isActive", isActive)
+                .build();
+    }
+
+    public static Specification<ExpenseCategory> expenseCategories(String name, Boolean isActive) {
+        return SpecificationBuilder.of(ExpenseCategory.class)
+                .containsIgnoreCase("name", name)
+                .equal("isActive", isActive)
+                .build();
+    }
+}
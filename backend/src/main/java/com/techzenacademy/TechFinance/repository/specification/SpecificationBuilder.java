@@ -0,0 +1,95 @@
+package com.techzenacademy.TechFinance.repository.specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Ghép Specification chỉ từ các bộ lọc được cung cấp (giá trị null/rỗng bị bỏ qua).
+ * Câu SQL sinh ra chỉ chứa các điều kiện thực sự có, nên MySQL chọn được index phù hợp
+ * cho từng tổ hợp bộ lọc thay vì một plan chung cho "(:x IS NULL OR ...)".
+ */
+public final class SpecificationBuilder<T> {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final List<Specification<T>> specifications = new ArrayList<>();
+
+    private SpecificationBuilder() {
+    }
+
+    public static <T> SpecificationBuilder<T> of(Class<T> type) {
+        return new SpecificationBuilder<>();
+    }
+
+    /**
+     * {@code attribute = value}; thuộc tính lồng nhau viết dạng "customer.id"
+     */
+    public SpecificationBuilder<T> equal(String attribute, Object value) {
+        if (value != null) {
+            specifications.add((root, query, cb) -> cb.equal(path(root, attribute), value));
+        }
+        return this;
+    }
+
+    public <Y extends Comparable<? super Y>> SpecificationBuilder<T> greaterThanOrEqual(String attribute, Y value) {
+        if (value != null) {
+            specifications.add((root, query, cb) -> cb.greaterThanOrEqualTo(path(root, attribute), value));
+        }
+        return this;
+    }
+
+    public <Y extends Comparable<? super Y>> SpecificationBuilder<T> lessThanOrEqual(String attribute, Y value) {
+        if (value != null) {
+            specifications.add((root, query, cb) -> cb.lessThanOrEqualTo(path(root, attribute), value));
+        }
+        return this;
+    }
+
+    /**
+     * {@code LOWER(attribute) LIKE '%value%'}, các ký tự % và _ trong giá trị được escape
+     */
+    public SpecificationBuilder<T> containsIgnoreCase(String attribute, String value) {
+        if (value != null && !value.isEmpty()) {
+            String pattern = "%" + escapeLike(value.toLowerCase(Locale.ROOT)) + "%";
+            specifications.add((root, query, cb) ->
+                    cb.like(cb.lower(path(root, attribute)), pattern, LIKE_ESCAPE));
+        }
+        return this;
+    }
+
+    /**
+     * {@code attribute IN (values)}; danh sách rỗng không khớp bản ghi nào
+     */
+    public SpecificationBuilder<T> in(String attribute, Collection<?> values) {
+        if (values != null) {
+            specifications.add((root, query, cb) ->
+                    values.isEmpty() ? cb.disjunction() : path(root, attribute).in(values));
+        }
+        return this;
+    }
+
+    public Specification<T> build() {
+        return Specification.allOf(specifications);
+    }
+
+    private static <Y> Path<Y> path(Root<?> root, String attribute) {
+        Path<?> path = root;
+        for (String part : attribute.split("\\.")) {
+            path = path.get(part);
+        }
+        @SuppressWarnings("unchecked")
+        Path<Y> typed = (Path<Y>) path;
+        return typed;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
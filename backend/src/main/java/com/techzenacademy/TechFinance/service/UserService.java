@@ -3,6 +3,8 @@ package com.techzenacademy.TechFinance.service;
 import com.techzenacademy.TechFinance.dto.UserDTO;
 import com.techzenacademy.TechFinance.dto.UserRequest;
 import com.techzenacademy.TechFinance.entity.User;
+import com.techzenacademy.TechFinance.repository.ExpenseTransactionRepository;
+import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
 import com.techzenacademy.TechFinance.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +24,12 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private IncomeTransactionRepository incomeTransactionRepository;
+    
+    @Autowired
+    private ExpenseTransactionRepository expenseTransactionRepository;
+    
     public List<UserDTO> getAllUsers() {
         return userRepository.findAll().stream()
                 .map(this::mapToDTO)
@@ -122,6 +130,11 @@ public class UserService {
         if (!userRepository.existsById(id)) {
             throw new EntityNotFoundException("User not found with id: " + id);
         }
+        // Bảng giao dịch không có khóa ngoại tới users (phân vùng theo năm) nên kiểm tra ở đây
+        if (incomeTransactionRepository.countByCreatedByIdIncludingArchive(id) > 0
+                || expenseTransactionRepository.countByCreatedByIdIncludingArchive(id) > 0) {
+            throw new IllegalArgumentException("User has created transactions and cannot be deleted");
+        }
         userRepository.deleteById(id);
     }
     
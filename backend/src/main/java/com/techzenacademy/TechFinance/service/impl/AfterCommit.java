@@ -0,0 +1,27 @@
+package com.techzenacademy.TechFinance.service.impl;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cập nhật trạng thái trong bộ nhớ (chỉ mục, thống kê) sau khi transaction commit (hoặc ngay lập tức nếu không có transaction),
+ * để trạng thái đó không chứa dữ liệu của transaction bị rollback.
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -9,19 +9,25 @@ import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.techzenacademy.TechFinance.entity.ExpenseBudget;
-import com.techzenacademy.TechFinance.entity.ExpenseTransaction;
 import com.techzenacademy.TechFinance.entity.IncomeBudget;
-import com.techzenacademy.TechFinance.entity.IncomeTransaction;
 import com.techzenacademy.TechFinance.repository.ExpenseBudgetRepository;
-import com.techzenacademy.TechFinance.repository.ExpenseTransactionRepository;
 import com.techzenacademy.TechFinance.repository.IncomeBudgetRepository;
-import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
+import com.techzenacademy.TechFinance.service.impl.cache.ReportCache;
+import com.techzenacademy.TechFinance.service.impl.columnar.ColumnarTransactionStore;
+import com.techzenacademy.TechFinance.util.Money;
+import com.techzenacademy.TechFinance.util.MoneyAccumulator;
 
 @Service
+@Transactional(readOnly = true)
 public class BudgetOverviewService {
 
+    // Kiểu của tổng quan ngân sách trong ReportCache
+    public static final TypeReference<Map<String, Object>> BUDGET_OVERVIEW = new TypeReference<>() {};
+
     @Autowired
     private IncomeBudgetRepository incomeBudgetRepository;
 
@@ -29,10 +35,10 @@ public class BudgetOverviewService {
     private ExpenseBudgetRepository expenseBudgetRepository;
 
     @Autowired
-    private IncomeTransactionRepository incomeTransactionRepository;
+    private ReportCache reportCache;
 
     @Autowired
-    private ExpenseTransactionRepository expenseTransactionRepository;
+    private ColumnarTransactionStore columnarStore;
 
     /**
      * Lấy tổng quan ngân sách
@@ -41,14 +47,31 @@ public class BudgetOverviewService {
      * @return Map chứa dữ liệu tổng quan ngân sách
      */
     public Map<String, Object> getBudgetOverview(Integer year, Integer month) {
+        return reportCache.getOrCompute(ReportCache.key("budget-overview", year, month != null ? month : "all"),
+                BUDGET_OVERVIEW, () -> {
+            // Một truy vấn tổng hợp theo tháng và trạng thái cho mỗi loại giao dịch, thay vì truy vấn lại từng tháng
+            LocalDate startDate = LocalDate.of(year, 1, 1);
+            LocalDate endDate = LocalDate.of(year, 12, 31);
+            PeriodTotals totals = PeriodTotals.fromAggregates(
+                    columnarStore.incomeByMonthAndStatus(startDate, endDate),
+                    columnarStore.expenseByMonthAndStatus(startDate, endDate));
+        
+            return getBudgetOverview(year, month, totals);
+        });
+    }
+    
+    /**
+     * Lấy tổng quan ngân sách từ tổng tiền theo tháng đã tính sẵn
+     */
+    public Map<String, Object> getBudgetOverview(Integer year, Integer month, PeriodTotals totals) {
         Map<String, Object> result = new HashMap<>();
         
         // Dữ liệu thu nhập
-        Map<String, Object> incomeData = getIncomeBudgetOverview(year, month);
+        Map<String, Object> incomeData = getIncomeBudgetOverview(month, totals);
         result.put("income", incomeData);
         
         // Dữ liệu chi tiêu
-        Map<String, Object> expenseData = getExpenseBudgetOverview(year, month);
+        Map<String, Object> expenseData = getExpenseBudgetOverview(month, totals);
         result.put("expense", expenseData);
         
         return result;
@@ -57,32 +80,24 @@ public class BudgetOverviewService {
     /**
      * Lấy tổng quan ngân sách thu nhập
      */
-    private Map<String, Object> getIncomeBudgetOverview(Integer year, Integer month) {
+    private Map<String, Object> getIncomeBudgetOverview(Integer month, PeriodTotals totals) {
         Map<String, Object> incomeData = new HashMap<>();
         
         // Tổng ngân sách thu nhập (tất cả giao dịch, cả đã thanh toán và chưa thanh toán)
-        BigDecimal totalBudget = calculateTotalIncomeActual(year, month);
+        BigDecimal totalBudget = totals.getIncomeTotal(month);
         
         // Tổng thu nhập thực tế (chỉ tính các khoản đã thanh toán)
-        BigDecimal totalActual = calculateTotalIncomeActualPaid(year, month);
+        BigDecimal totalActual = totals.getIncomeReceived(month);
         
         // Chênh lệch
         BigDecimal difference = totalActual.subtract(totalBudget);
         
         // Tỷ lệ hoàn thành
-        double percentage = 0;
-        if (totalBudget.compareTo(BigDecimal.ZERO) > 0) {
-            try {
-                percentage = totalActual.divide(totalBudget, 4, BigDecimal.ROUND_HALF_UP)
-                    .multiply(BigDecimal.valueOf(100))
-                    .doubleValue();
-            } catch (Exception e) {
-                percentage = 0;
-            }
-        }
+        // HALF_UP, 2 chữ số thập phân; ngân sách bằng 0 thì 0%
+        double percentage = totalBudget.signum() > 0 ? Money.percent(totalActual, totalBudget).doubleValue() : 0;
         
         // Dữ liệu theo tháng
-        List<Map<String, Object>> monthlyData = getMonthlyIncomeData(year);
+        List<Map<String, Object>> monthlyData = getMonthlyIncomeData(totals);
         
         incomeData.put("totalBudget", totalBudget);
         incomeData.put("totalActual", totalActual);
@@ -96,32 +111,24 @@ public class BudgetOverviewService {
     /**
      * Lấy tổng quan ngân sách chi tiêu
      */
-    private Map<String, Object> getExpenseBudgetOverview(Integer year, Integer month) {
+    private Map<String, Object> getExpenseBudgetOverview(Integer month, PeriodTotals totals) {
         Map<String, Object> expenseData = new HashMap<>();
         
         // Tổng ngân sách chi tiêu (tất cả giao dịch, cả đã thanh toán và chưa thanh toán)
-        BigDecimal totalBudget = calculateTotalExpenseActual(year, month);
+        BigDecimal totalBudget = totals.getExpenseTotal(month);
         
         // Tổng chi tiêu thực tế (chỉ tính các khoản đã thanh toán)
-        BigDecimal totalActual = calculateTotalExpenseActualPaid(year, month);
+        BigDecimal totalActual = totals.getExpensePaid(month);
         
         // Chênh lệch
         BigDecimal difference = totalBudget.subtract(totalActual);
         
         // Tỷ lệ hoàn thành
-        double percentage = 0;
-        if (totalBudget.compareTo(BigDecimal.ZERO) > 0) {
-            try {
-                percentage = totalActual.divide(totalBudget, 4, BigDecimal.ROUND_HALF_UP)
-                    .multiply(BigDecimal.valueOf(100))
-                    .doubleValue();
-            } catch (Exception e) {
-                percentage = 0;
-            }
-        }
+        // HALF_UP, 2 chữ số thập phân; ngân sách bằng 0 thì 0%
+        double percentage = totalBudget.signum() > 0 ? Money.percent(totalActual, totalBudget).doubleValue() : 0;
         
         // Dữ liệu theo tháng
-        List<Map<String, Object>> monthlyData = getMonthlyExpenseData(year);
+        List<Map<String, Object>> monthlyData = getMonthlyExpenseData(totals);
         
         expenseData.put("totalBudget", totalBudget);
         expenseData.put("totalActual", totalActual);
@@ -146,56 +153,11 @@ public class BudgetOverviewService {
             budgets = incomeBudgetRepository.findByYear(year);
         }
         
-        return budgets.stream()
-            .map(IncomeBudget::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-    
-    /**
-     * Tính tổng thu nhập thực tế (tất cả các giao dịch)
-     */
-    private BigDecimal calculateTotalIncomeActual(Integer year, Integer month) {
-        LocalDate startDate;
-        LocalDate endDate;
-        
-        if (month != null) {
-            // Chỉ tính cho một tháng cụ thể
-            startDate = LocalDate.of(year, month, 1);
-            endDate = startDate.plusMonths(1).minusDays(1);
-        } else {
-            // Tính cho cả năm
-            startDate = LocalDate.of(year, 1, 1);
-            endDate = LocalDate.of(year, 12, 31);
+        MoneyAccumulator total = new MoneyAccumulator();
+        for (IncomeBudget budget : budgets) {
+            total.add(budget.getAmount());
         }
-        
-        List<IncomeTransaction> transactions = incomeTransactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
-        return transactions.stream()
-            .map(IncomeTransaction::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-    
-    /**
-     * Tính tổng thu nhập thực tế (chỉ các giao dịch đã thanh toán)
-     */
-    private BigDecimal calculateTotalIncomeActualPaid(Integer year, Integer month) {
-        LocalDate startDate;
-        LocalDate endDate;
-        
-        if (month != null) {
-            // Chỉ tính cho một tháng cụ thể
-            startDate = LocalDate.of(year, month, 1);
-            endDate = startDate.plusMonths(1).minusDays(1);
-        } else {
-            // Tính cho cả năm
-            startDate = LocalDate.of(year, 1, 1);
-            endDate = LocalDate.of(year, 12, 31);
-        }
-        
-        List<IncomeTransaction> transactions = incomeTransactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
-        return transactions.stream()
-            .filter(transaction -> transaction.getPaymentStatus() == IncomeTransaction.PaymentStatus.RECEIVED)
-            .map(IncomeTransaction::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return total.toBigDecimal();
     }
     
     /**
@@ -212,81 +174,28 @@ public class BudgetOverviewService {
             budgets = expenseBudgetRepository.findByYear(year);
         }
         
-        return budgets.stream()
-            .map(ExpenseBudget::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-    
-    /**
-     * Tính tổng chi tiêu thực tế (tất cả các giao dịch)
-     */
-    private BigDecimal calculateTotalExpenseActual(Integer year, Integer month) {
-        LocalDate startDate;
-        LocalDate endDate;
-        
-        if (month != null) {
-            // Chỉ tính cho một tháng cụ thể
-            startDate = LocalDate.of(year, month, 1);
-            endDate = startDate.plusMonths(1).minusDays(1);
-        } else {
-            // Tính cho cả năm
-            startDate = LocalDate.of(year, 1, 1);
-            endDate = LocalDate.of(year, 12, 31);
-        }
-        
-        List<ExpenseTransaction> transactions = expenseTransactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
-        return transactions.stream()
-            .map(ExpenseTransaction::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-    
-    /**
-     * Tính tổng chi tiêu thực tế (chỉ các giao dịch đã thanh toán)
-     */
-    private BigDecimal calculateTotalExpenseActualPaid(Integer year, Integer month) {
-        LocalDate startDate;
-        LocalDate endDate;
-        
-        if (month != null) {
-            // Chỉ tính cho một tháng cụ thể
-            startDate = LocalDate.of(year, month, 1);
-            endDate = startDate.plusMonths(1).minusDays(1);
-        } else {
-            // Tính cho cả năm
-            startDate = LocalDate.of(year, 1, 1);
-            endDate = LocalDate.of(year, 12, 31);
+        MoneyAccumulator total = new MoneyAccumulator();
+        for (ExpenseBudget budget : budgets) {
+            total.add(budget.getAmount());
         }
-        
-        List<ExpenseTransaction> transactions = expenseTransactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
-        return transactions.stream()
-            .filter(transaction -> transaction.getPaymentStatus() == ExpenseTransaction.PaymentStatus.PAID)
-            .map(ExpenseTransaction::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return total.toBigDecimal();
     }
     
     /**
      * Lấy dữ liệu thu nhập theo tháng cho biểu đồ
      */
-    private List<Map<String, Object>> getMonthlyIncomeData(Integer year) {
+    private List<Map<String, Object>> getMonthlyIncomeData(PeriodTotals totals) {
         List<Map<String, Object>> monthlyData = new ArrayList<>();
         
         for (int month = 1; month <= 12; month++) {
             Map<String, Object> monthData = new HashMap<>();
             
             // Tính ngân sách (tất cả giao dịch) và thu nhập thực tế (chỉ đã thanh toán) cho tháng này
-            BigDecimal budget = calculateTotalIncomeActual(year, month);
-            BigDecimal actual = calculateTotalIncomeActualPaid(year, month);
+            BigDecimal budget = totals.getIncomeTotal(month);
+            BigDecimal actual = totals.getIncomeReceived(month);
             BigDecimal difference = actual.subtract(budget);
-            double percentage = 0;
-            if (budget.compareTo(BigDecimal.ZERO) > 0) {
-                try {
-                    percentage = actual.divide(budget, 4, BigDecimal.ROUND_HALF_UP)
-                        .multiply(BigDecimal.valueOf(100))
-                        .doubleValue();
-                } catch (Exception e) {
-                    percentage = 0;
-                }
-            }
+            // HALF_UP, 2 chữ số thập phân; ngân sách bằng 0 thì 0%
+            double percentage = budget.signum() > 0 ? Money.percent(actual, budget).doubleValue() : 0;
             
             monthData.put("month", month);
             monthData.put("budget", budget);
@@ -303,26 +212,18 @@ public class BudgetOverviewService {
     /**
      * Lấy dữ liệu chi tiêu theo tháng cho biểu đồ
      */
-    private List<Map<String, Object>> getMonthlyExpenseData(Integer year) {
+    private List<Map<String, Object>> getMonthlyExpenseData(PeriodTotals totals) {
         List<Map<String, Object>> monthlyData = new ArrayList<>();
         
         for (int month = 1; month <= 12; month++) {
             Map<String, Object> monthData = new HashMap<>();
             
             // Tính ngân sách (tất cả giao dịch) và chi tiêu thực tế (chỉ đã thanh toán) cho tháng này
-            BigDecimal budget = calculateTotalExpenseActual(year, month);
-            BigDecimal actual = calculateTotalExpenseActualPaid(year, month);
+            BigDecimal budget = totals.getExpenseTotal(month);
+            BigDecimal actual = totals.getExpensePaid(month);
             BigDecimal difference = budget.subtract(actual);
-            double percentage = 0;
-            if (budget.compareTo(BigDecimal.ZERO) > 0) {
-                try {
-                    percentage = actual.divide(budget, 4, BigDecimal.ROUND_HALF_UP)
-                        .multiply(BigDecimal.valueOf(100))
-                        .doubleValue();
-                } catch (Exception e) {
-                    percentage = 0;
-                }
-            }
+            // HALF_UP, 2 chữ số thập phân; ngân sách bằng 0 thì 0%
+            double percentage = budget.signum() > 0 ? Money.percent(actual, budget).doubleValue() : 0;
             
             monthData.put("month", month);
             monthData.put("budget", budget);
@@ -1,6 +1,7 @@
 package com.techzenacademy.TechFinance.service.impl;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,7 +16,12 @@ import com.techzenacademy.TechFinance.dto.page.PageResponse;
 import com.techzenacademy.TechFinance.entity.Customer;
 import com.techzenacademy.TechFinance.entity.User;
 import com.techzenacademy.TechFinance.repository.CustomerRepository;
+import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
 import com.techzenacademy.TechFinance.repository.UserRepository;
+import com.techzenacademy.TechFinance.repository.projection.ListFields;
+import com.techzenacademy.TechFinance.repository.projection.SparseFieldQuery;
+import com.techzenacademy.TechFinance.repository.specification.FilterSpecifications;
+import com.techzenacademy.TechFinance.service.impl.search.ContactSuggestionIndex;
 
 import jakarta.persistence.EntityNotFoundException;
 
@@ -27,6 +33,18 @@ public class CustomerService {
     
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private IncomeTransactionRepository incomeTransactionRepository;
+    
+    @Autowired
+    private DataVersionService dataVersionService;
+    
+    @Autowired
+    private ContactSuggestionIndex suggestionIndex;
+    
+    @Autowired
+    private SparseFieldQuery sparseFieldQuery;
     
     public List<CustomerDTO> getAllCustomers() {
         return customerRepository.findAll().stream()
@@ -82,6 +100,7 @@ public class CustomerService {
         customer.setCreatedBy(getCurrentUser());
         
         Customer savedCustomer = customerRepository.save(customer);
+        suggestionIndex.indexCustomer(savedCustomer);
         return mapToDTO(savedCustomer);
     }
     
@@ -150,6 +169,9 @@ public class CustomerService {
         }
         
         Customer updatedCustomer = customerRepository.save(customer);
+        suggestionIndex.indexCustomer(updatedCustomer);
+        // Tên hiển thị trong báo cáo thay đổi: báo cáo đã cache hết hiệu lực
+        dataVersionService.markChanged();
         return mapToDTO(updatedCustomer);
     }
     
@@ -157,7 +179,13 @@ public class CustomerService {
         if (!customerRepository.existsById(id)) {
             throw new EntityNotFoundException("Customer not found with id: " + id);
         }
+        // Bảng giao dịch không có khóa ngoại (phân vùng theo năm) nên kiểm tra ở đây
+        if (incomeTransactionRepository.countByCustomerIdIncludingArchive(id) > 0) {
+            throw new IllegalArgumentException("Customer is used by transactions and cannot be deleted");
+        }
         customerRepository.deleteById(id);
+        suggestionIndex.removeCustomer(id);
+        dataVersionService.markChanged();
     }
     
     private CustomerDTO mapToDTO(Customer customer) {
@@ -194,7 +222,8 @@ public class CustomerService {
      */
     public List<CustomerDTO> filterCustomers(String name, String email, String phone, String address, 
                                            String identification, String taxCode, Boolean isActive) {
-        return customerRepository.findWithFilters(name, email, phone, address, identification, taxCode, isActive)
+        return customerRepository.findAll(
+                FilterSpecifications.customers(name, email, phone, address, identification, taxCode, isActive))
                 .stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
@@ -223,8 +252,8 @@ public class CustomerService {
             Boolean isActive, 
             Pageable pageable) {
         
-        Page<Customer> customersPage = customerRepository.findWithFiltersPageable(
-                name, email, phone, address, identification, taxCode, isActive, pageable);
+        Page<Customer> customersPage = customerRepository.findAll(
+                FilterSpecifications.customers(name, email, phone, address, identification, taxCode, isActive), pageable);
         
         // Map to CustomerDTO
         Page<CustomerDTO> dtoPage = customersPage.map(this::mapToDTO);
@@ -232,4 +261,16 @@ public class CustomerService {
         // Return the custom page response
         return new PageResponse<>(dtoPage);
     }
+    
+    /**
+     * Như {@link #getPagedCustomers} nhưng chỉ lấy các trường trong {@code fields} (ví dụ "name,phone")
+     */
+    public PageResponse<Map<String, Object>> getPagedCustomerFields(
+            String name, String email, String phone, String address, String identification,
+            String taxCode, Boolean isActive,
+            String fields, Pageable pageable) {
+        List<String> selected = ListFields.CUSTOMERS.select(fields);
+        return new PageResponse<>(sparseFieldQuery.findAll(ListFields.CUSTOMERS, selected,
+                FilterSpecifications.customers(name, email, phone, address, identification, taxCode, isActive), pageable));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.techzenacademy.TechFinance.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Theo dõi phiên bản dữ liệu giao dịch để các bộ nhớ đệm (cache) biết khi nào cần tính lại.
+ * Mỗi lần thêm/sửa/xóa giao dịch, phiên bản được tăng sau khi transaction commit.
+ */
+@Service
+public class DataVersionService {
+
+    // Lần ghi của một người dùng chỉ cần nhớ trong khoảng replica có thể chưa bắt kịp
+    private static final long WRITER_RETENTION_MS = 10 * 60_000;
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong lastChangedAt = new AtomicLong(System.currentTimeMillis());
+    private final AtomicLong lastStaleReadAt = new AtomicLong();
+    private final Map<String, Long> lastChangedByUser = new ConcurrentHashMap<>();
+
+    /**
+     * Phiên bản dữ liệu hiện tại
+     */
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Thời điểm (epoch millis) dữ liệu thay đổi lần cuối
+     */
+    public long lastChangedAt() {
+        return lastChangedAt.get();
+    }
+
+    /**
+     * Thời điểm (epoch millis) người dùng {@code username} thay đổi dữ liệu lần cuối, 0 nếu không có gần đây
+     */
+    public long lastChangedAt(String username) {
+        if (username == null) {
+            return 0;
+        }
+        Long changedAt = lastChangedByUser.get(username);
+        return changedAt != null ? changedAt : 0;
+    }
+
+    /**
+     * Ghi nhận một lần đọc từ replica có thể chưa gồm thay đổi mới nhất (do ReadReplicaRoutingDataSource báo),
+     * để cache báo cáo không lưu kết quả tính trong lúc đó dưới phiên bản dữ liệu hiện tại
+     */
+    public void markStaleRead() {
+        lastStaleReadAt.set(System.currentTimeMillis());
+    }
+
+    /**
+     * Thời điểm (epoch millis) của lần đọc replica có thể thiếu dữ liệu gần nhất, 0 nếu chưa có
+     */
+    public long lastStaleReadAt() {
+        return lastStaleReadAt.get();
+    }
+
+    /**
+     * Đánh dấu dữ liệu đã thay đổi. Nếu đang trong transaction thì chỉ tăng phiên bản
+     * sau khi commit, tránh trường hợp cache đọc dữ liệu chưa commit dưới phiên bản mới.
+     */
+    public void markChanged() {
+        String writer = currentUsername();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(writer);
+                }
+            });
+        } else {
+            increment(writer);
+        }
+    }
+
+    private void increment(String writer) {
+        long now = System.currentTimeMillis();
+        lastChangedAt.set(now);
+        version.incrementAndGet();
+        if (writer != null) {
+            lastChangedByUser.put(writer, now);
+            lastChangedByUser.values().removeIf(changedAt -> now - changedAt > WRITER_RETENTION_MS);
+        }
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+}
@@ -45,6 +45,9 @@ public class ExpenseBudgetService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private DataVersionService dataVersionService;
+    
     public List<ExpenseBudgetDTO> getAllBudgets() {
         return budgetRepository.findAll().stream()
                 .map(this::mapToDTO)
@@ -203,6 +206,8 @@ public class ExpenseBudgetService {
                 budgetRepository.save(newBudget);
             }
         }
+        // Ngân sách thay đổi: báo cáo đã cache hết hiệu lực
+        dataVersionService.markChanged();
     }
     
     private ExpenseBudgetDTO mapToDTO(ExpenseBudget budget) {
@@ -5,7 +5,9 @@ import com.techzenacademy.TechFinance.dto.ExpenseCategoryRequest;
 import com.techzenacademy.TechFinance.entity.ExpenseCategory;
 import com.techzenacademy.TechFinance.entity.User;
 import com.techzenacademy.TechFinance.repository.ExpenseCategoryRepository;
+import com.techzenacademy.TechFinance.repository.ExpenseTransactionRepository;
 import com.techzenacademy.TechFinance.repository.UserRepository;
+import com.techzenacademy.TechFinance.repository.specification.FilterSpecifications;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -25,6 +27,12 @@ public class ExpenseCategoryService {
     
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private ExpenseTransactionRepository expenseTransactionRepository;
+    
+    @Autowired
+    private DataVersionService dataVersionService;
     
     public List<ExpenseCategoryDTO> getAllCategories() {
         return expenseCategoryRepository.findAll().stream()
@@ -84,6 +92,8 @@ public class ExpenseCategoryService {
         }
         
         ExpenseCategory updatedCategory = expenseCategoryRepository.save(category);
+        // Tên hiển thị trong báo cáo thay đổi: báo cáo đã cache hết hiệu lực
+        dataVersionService.markChanged();
         return mapToDTO(updatedCategory);
     }
     
@@ -91,7 +101,12 @@ public class ExpenseCategoryService {
         if (!expenseCategoryRepository.existsById(id)) {
             throw new EntityNotFoundException("Expense category not found with id: " + id);
         }
+        // Bảng giao dịch không có khóa ngoại (phân vùng theo năm) nên kiểm tra ở đây
+        if (expenseTransactionRepository.countByCategoryIdIncludingArchive(id) > 0) {
+            throw new IllegalArgumentException("Expense category is used by transactions and cannot be deleted");
+        }
         expenseCategoryRepository.deleteById(id);
+        dataVersionService.markChanged();
     }
     
     /**
@@ -145,7 +160,8 @@ public class ExpenseCategoryService {
      * @return PageResponse containing filtered expense categories
      */
     public PageResponse<ExpenseCategoryDTO> getPagedCategories(String name, Boolean isActive, Pageable pageable) {
-        Page<ExpenseCategory> categoryPage = expenseCategoryRepository.findWithFilters(name, isActive, pageable);
+        Page<ExpenseCategory> categoryPage = expenseCategoryRepository.findAll(
+                FilterSpecifications.expenseCategories(name, isActive), pageable);
         
         // Map the contents using the existing mapToDTO method
         Page<ExpenseCategoryDTO> dtoPage = categoryPage.map(this::mapToDTO);
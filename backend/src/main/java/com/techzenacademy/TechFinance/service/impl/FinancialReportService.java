@@ -1,7 +1,6 @@
 package com.techzenacademy.TechFinance.service.impl;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.ArrayList;
@@ -12,7 +11,9 @@ import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.techzenacademy.TechFinance.dto.report.CashFlowReportDTO;
 import com.techzenacademy.TechFinance.dto.report.MonthlyReportDTO;
 import com.techzenacademy.TechFinance.dto.report.MonthlyReportDTO.CategoryComparisonDTO;
@@ -20,12 +21,20 @@ import com.techzenacademy.TechFinance.dto.report.MonthlyReportDTO.ReportSummaryD
 import com.techzenacademy.TechFinance.entity.ExpenseTransaction;
 import com.techzenacademy.TechFinance.entity.IncomeTransaction;
 import com.techzenacademy.TechFinance.repository.ExpenseBudgetRepository;
-import com.techzenacademy.TechFinance.repository.ExpenseTransactionRepository;
 import com.techzenacademy.TechFinance.repository.IncomeBudgetRepository;
-import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
+import com.techzenacademy.TechFinance.service.impl.archive.TransactionArchiveReader;
+import com.techzenacademy.TechFinance.service.impl.cache.ReportCache;
+import com.techzenacademy.TechFinance.service.impl.columnar.ColumnarTransactionStore;
+import com.techzenacademy.TechFinance.util.MoneyAccumulator;
 
 @Service
+@Transactional(readOnly = true)
 public class FinancialReportService {
+
+    // Kiểu của các báo cáo trong ReportCache, dùng chung với dashboard
+    public static final TypeReference<MonthlyReportDTO> MONTHLY_REPORT = new TypeReference<>() {};
+    public static final TypeReference<List<MonthlyReportDTO>> YEARLY_REPORT = new TypeReference<>() {};
+    public static final TypeReference<CashFlowReportDTO> CASH_FLOW = new TypeReference<>() {};
     
     @Autowired
     private IncomeBudgetRepository incomeBudgetRepository;
@@ -34,10 +43,13 @@ public class FinancialReportService {
     private ExpenseBudgetRepository expenseBudgetRepository;
     
     @Autowired
-    private IncomeTransactionRepository incomeTransactionRepository;
+    private TransactionArchiveReader archiveReader;
     
     @Autowired
-    private ExpenseTransactionRepository expenseTransactionRepository;
+    private ReportCache reportCache;
+
+    @Autowired
+    private ColumnarTransactionStore columnarStore;
     
     /**
      * Tạo báo cáo tài chính tháng
@@ -48,42 +60,52 @@ public class FinancialReportService {
             throw new IllegalArgumentException("Invalid year or month");
         }
         
-        MonthlyReportDTO report = new MonthlyReportDTO();
-        report.setYear(year);
-        report.setMonth(month);
-        
-        // Tính toán khoảng thời gian
-        LocalDate startDate = LocalDate.of(year, month, 1);
-        LocalDate endDate = YearMonth.of(year, month).atEndOfMonth();
-        
-        // Lấy tất cả giao dịch trong khoảng thời gian
-        List<IncomeTransaction> incomeTransactions = incomeTransactionRepository
-                .findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
+        return reportCache.getOrCompute(ReportCache.key("monthly-report", year, month), MONTHLY_REPORT, () -> {
+            // Tính toán khoảng thời gian
+            LocalDate startDate = LocalDate.of(year, month, 1);
+            LocalDate endDate = YearMonth.of(year, month).atEndOfMonth();
         
-        List<ExpenseTransaction> expenseTransactions = expenseTransactionRepository
-                .findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
+            // Lấy tất cả giao dịch trong khoảng thời gian
+            List<IncomeTransaction> incomeTransactions = archiveReader.incomesBetween(startDate, endDate);
         
-        // 1. Tính kế hoạch thu nhập (tất cả giao dịch)
-        BigDecimal totalIncomeBudget = incomeTransactions.stream()
-                .map(IncomeTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+            List<ExpenseTransaction> expenseTransactions = archiveReader.expensesBetween(startDate, endDate);
         
-        // 2. Tính kế hoạch chi tiêu (tất cả giao dịch)
-        BigDecimal totalExpenseBudget = expenseTransactions.stream()
-                .map(ExpenseTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+            return generateMonthlyReport(year, month, incomeTransactions, expenseTransactions);
+        });
+    }
+    
+    /**
+     * Tạo báo cáo tài chính tháng từ danh sách giao dịch của tháng đã tải sẵn
+     */
+    public MonthlyReportDTO generateMonthlyReport(Integer year, Integer month,
+                                                  List<IncomeTransaction> incomeTransactions,
+                                                  List<ExpenseTransaction> expenseTransactions) {
+        MonthlyReportDTO report = new MonthlyReportDTO();
+        report.setYear(year);
+        report.setMonth(month);
         
-        // 3. Tính thu nhập thực tế (chỉ tính đã thanh toán)
-        BigDecimal totalIncomeActual = incomeTransactions.stream()
-                .filter(t -> t.getPaymentStatus() == IncomeTransaction.PaymentStatus.RECEIVED)
-                .map(IncomeTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // 1-4. Kế hoạch (tất cả giao dịch) và thực tế (chỉ tính đã thanh toán), một lượt cho mỗi danh sách
+        MoneyAccumulator incomeBudget = new MoneyAccumulator();
+        MoneyAccumulator incomeActual = new MoneyAccumulator();
+        for (IncomeTransaction transaction : incomeTransactions) {
+            incomeBudget.add(transaction.getAmount());
+            if (transaction.getPaymentStatus() == IncomeTransaction.PaymentStatus.RECEIVED) {
+                incomeActual.add(transaction.getAmount());
+            }
+        }
         
-        // 4. Tính chi tiêu thực tế (chỉ tính đã thanh toán)
-        BigDecimal totalExpenseActual = expenseTransactions.stream()
-                .filter(t -> t.getPaymentStatus() == ExpenseTransaction.PaymentStatus.PAID)
-                .map(ExpenseTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        MoneyAccumulator expenseBudget = new MoneyAccumulator();
+        MoneyAccumulator expenseActual = new MoneyAccumulator();
+        for (ExpenseTransaction transaction : expenseTransactions) {
+            expenseBudget.add(transaction.getAmount());
+            if (transaction.getPaymentStatus() == ExpenseTransaction.PaymentStatus.PAID) {
+                expenseActual.add(transaction.getAmount());
+            }
+        }
+        BigDecimal totalIncomeBudget = incomeBudget.toBigDecimal();
+        BigDecimal totalIncomeActual = incomeActual.toBigDecimal();
+        BigDecimal totalExpenseBudget = expenseBudget.toBigDecimal();
+        BigDecimal totalExpenseActual = expenseActual.toBigDecimal();
         
         // 5. Tạo summary
         ReportSummaryDTO summary = new ReportSummaryDTO();
@@ -132,18 +154,35 @@ public class FinancialReportService {
      * Tạo báo cáo tài chính năm (theo từng tháng)
      */
     public List<MonthlyReportDTO> generateYearlyReport(Integer year) {
+        return reportCache.getOrCompute(ReportCache.key("yearly-report", year), YEARLY_REPORT, () -> {
+            // Tải giao dịch của cả năm một lần rồi chia theo tháng, thay vì truy vấn lại từng tháng
+            LocalDate startDate = LocalDate.of(year, 1, 1);
+            LocalDate endDate = LocalDate.of(year, 12, 31);
+        
+            return generateYearlyReport(year,
+                    archiveReader.incomesBetween(startDate, endDate),
+                    archiveReader.expensesBetween(startDate, endDate));
+        });
+    }
+    
+    /**
+     * Tạo báo cáo tài chính năm (theo từng tháng) từ danh sách giao dịch của năm đã tải sẵn
+     */
+    public List<MonthlyReportDTO> generateYearlyReport(Integer year,
+                                                       List<IncomeTransaction> incomeTransactions,
+                                                       List<ExpenseTransaction> expenseTransactions) {
+        Map<Integer, List<IncomeTransaction>> incomeByMonth = incomeTransactions.stream()
+                .collect(Collectors.groupingBy(t -> t.getTransactionDate().getMonthValue()));
+        Map<Integer, List<ExpenseTransaction>> expenseByMonth = expenseTransactions.stream()
+                .collect(Collectors.groupingBy(t -> t.getTransactionDate().getMonthValue()));
+        
         List<MonthlyReportDTO> reports = new ArrayList<>();
         
         // Tạo báo cáo cho mỗi tháng trong năm
         for (int month = 1; month <= 12; month++) {
-            try {
-                MonthlyReportDTO monthlyReport = generateMonthlyReport(year, month);
-                reports.add(monthlyReport);
-            } catch (Exception e) {
-                // Nếu không có dữ liệu cho tháng, tạo báo cáo trống
-                MonthlyReportDTO emptyReport = createEmptyMonthlyReport(year, month);
-                reports.add(emptyReport);
-            }
+            reports.add(generateMonthlyReport(year, month,
+                    incomeByMonth.getOrDefault(month, List.of()),
+                    expenseByMonth.getOrDefault(month, List.of())));
         }
         
         return reports;
@@ -175,9 +214,9 @@ public class FinancialReportService {
      */
     private List<CategoryComparisonDTO> generateIncomeCategoryComparisons(List<IncomeTransaction> transactions) {
         // Tạo map để tính tổng theo danh mục (kế hoạch - tất cả giao dịch)
-        Map<Integer, BigDecimal> budgetByCategory = new HashMap<>();
+        Map<Integer, MoneyAccumulator> budgetByCategory = new HashMap<>();
         // Tạo map để tính tổng thực tế theo danh mục (chỉ giao dịch đã thanh toán)
-        Map<Integer, BigDecimal> actualByCategory = new HashMap<>();
+        Map<Integer, MoneyAccumulator> actualByCategory = new HashMap<>();
         Map<Integer, String> categoryNames = new HashMap<>();
         
         // Tính toán kế hoạch (tất cả giao dịch)
@@ -185,19 +224,19 @@ public class FinancialReportService {
             Integer categoryId = transaction.getCategory().getId();
             categoryNames.put(categoryId, transaction.getCategory().getName());
             
-            BigDecimal currentAmount = budgetByCategory.getOrDefault(categoryId, BigDecimal.ZERO);
-            budgetByCategory.put(categoryId, currentAmount.add(transaction.getAmount()));
+            budgetByCategory.computeIfAbsent(categoryId, id -> new MoneyAccumulator()).add(transaction.getAmount());
             
             // Nếu đã thanh toán, cập nhật cả thực tế
             if (transaction.getPaymentStatus() == IncomeTransaction.PaymentStatus.RECEIVED) {
-                BigDecimal currentActual = actualByCategory.getOrDefault(categoryId, BigDecimal.ZERO);
-                actualByCategory.put(categoryId, currentActual.add(transaction.getAmount()));
+                actualByCategory.computeIfAbsent(categoryId, id -> new MoneyAccumulator()).add(transaction.getAmount());
             }
         }
         
         // Tính tổng thực tế để tính phần trăm
-        BigDecimal totalActual = actualByCategory.values().stream()
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        MoneyAccumulator totalActual = new MoneyAccumulator();
+        for (MoneyAccumulator actual : actualByCategory.values()) {
+            totalActual.add(actual);
+        }
         
         // Tạo danh sách so sánh
         List<CategoryComparisonDTO> comparisons = new ArrayList<>();
@@ -207,20 +246,13 @@ public class FinancialReportService {
             CategoryComparisonDTO comparison = new CategoryComparisonDTO();
             comparison.setCategoryId(categoryId);
             comparison.setCategoryName(categoryNames.get(categoryId));
-            comparison.setBudgetAmount(budgetByCategory.get(categoryId));
-            comparison.setActualAmount(actualByCategory.getOrDefault(categoryId, BigDecimal.ZERO));
+            MoneyAccumulator actual = actualByCategory.getOrDefault(categoryId, new MoneyAccumulator());
+            comparison.setBudgetAmount(budgetByCategory.get(categoryId).toBigDecimal());
+            comparison.setActualAmount(actual.toBigDecimal());
             comparison.setDifference(comparison.getActualAmount().subtract(comparison.getBudgetAmount()));
             
-            // Tính % của tổng thực tế
-            if (totalActual.compareTo(BigDecimal.ZERO) > 0) {
-                double percentage = comparison.getActualAmount()
-                        .multiply(BigDecimal.valueOf(100))
-                        .divide(totalActual, 2, RoundingMode.HALF_UP)
-                        .doubleValue();
-                comparison.setPercentageOfTotal(percentage);
-            } else {
-                comparison.setPercentageOfTotal(0.0);
-            }
+            // Tính % của tổng thực tế (HALF_UP, 2 chữ số thập phân; tổng bằng 0 thì 0%)
+            comparison.setPercentageOfTotal(actual.percentOf(totalActual).doubleValue());
             
             comparisons.add(comparison);
         }
@@ -237,9 +269,9 @@ public class FinancialReportService {
     private List<CategoryComparisonDTO> generateExpenseCategoryComparisons(List<ExpenseTransaction> transactions) {
         // Tương tự như phương thức trên, nhưng cho chi tiêu
         // Tạo map để tính tổng theo danh mục (kế hoạch - tất cả giao dịch)
-        Map<Integer, BigDecimal> budgetByCategory = new HashMap<>();
+        Map<Integer, MoneyAccumulator> budgetByCategory = new HashMap<>();
         // Tạo map để tính tổng thực tế theo danh mục (chỉ giao dịch đã thanh toán)
-        Map<Integer, BigDecimal> actualByCategory = new HashMap<>();
+        Map<Integer, MoneyAccumulator> actualByCategory = new HashMap<>();
         Map<Integer, String> categoryNames = new HashMap<>();
         
         // Tính toán kế hoạch (tất cả giao dịch)
@@ -247,19 +279,19 @@ public class FinancialReportService {
             Integer categoryId = transaction.getCategory().getId();
             categoryNames.put(categoryId, transaction.getCategory().getName());
             
-            BigDecimal currentAmount = budgetByCategory.getOrDefault(categoryId, BigDecimal.ZERO);
-            budgetByCategory.put(categoryId, currentAmount.add(transaction.getAmount()));
+            budgetByCategory.computeIfAbsent(categoryId, id -> new MoneyAccumulator()).add(transaction.getAmount());
             
             // Nếu đã thanh toán, cập nhật cả thực tế
             if (transaction.getPaymentStatus() == ExpenseTransaction.PaymentStatus.PAID) {
-                BigDecimal currentActual = actualByCategory.getOrDefault(categoryId, BigDecimal.ZERO);
-                actualByCategory.put(categoryId, currentActual.add(transaction.getAmount()));
+                actualByCategory.computeIfAbsent(categoryId, id -> new MoneyAccumulator()).add(transaction.getAmount());
             }
         }
         
         // Tính tổng thực tế để tính phần trăm
-        BigDecimal totalActual = actualByCategory.values().stream()
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        MoneyAccumulator totalActual = new MoneyAccumulator();
+        for (MoneyAccumulator actual : actualByCategory.values()) {
+            totalActual.add(actual);
+        }
         
         List<CategoryComparisonDTO> comparisons = new ArrayList<>();
         
@@ -268,19 +300,13 @@ public class FinancialReportService {
             CategoryComparisonDTO comparison = new CategoryComparisonDTO();
             comparison.setCategoryId(categoryId);
             comparison.setCategoryName(categoryNames.get(categoryId));
-            comparison.setBudgetAmount(budgetByCategory.get(categoryId));
-            comparison.setActualAmount(actualByCategory.getOrDefault(categoryId, BigDecimal.ZERO));
+            MoneyAccumulator actual = actualByCategory.getOrDefault(categoryId, new MoneyAccumulator());
+            comparison.setBudgetAmount(budgetByCategory.get(categoryId).toBigDecimal());
+            comparison.setActualAmount(actual.toBigDecimal());
             comparison.setDifference(comparison.getActualAmount().subtract(comparison.getBudgetAmount()));
             
-            if (totalActual.compareTo(BigDecimal.ZERO) > 0) {
-                double percentage = comparison.getActualAmount()
-                        .multiply(BigDecimal.valueOf(100))
-                        .divide(totalActual, 2, RoundingMode.HALF_UP)
-                        .doubleValue();
-                comparison.setPercentageOfTotal(percentage);
-            } else {
-                comparison.setPercentageOfTotal(0.0);
-            }
+            // Tính % của tổng thực tế (HALF_UP, 2 chữ số thập phân; tổng bằng 0 thì 0%)
+            comparison.setPercentageOfTotal(actual.percentOf(totalActual).doubleValue());
             
             comparisons.add(comparison);
         }
@@ -294,6 +320,21 @@ public class FinancialReportService {
      * Tạo báo cáo dòng tiền theo năm
      */
     public CashFlowReportDTO generateCashFlowReport(Integer year) {
+        return reportCache.getOrCompute(ReportCache.key("cash-flow", year), CASH_FLOW, () -> {
+            // Một truy vấn tổng hợp theo tháng và trạng thái cho cả năm
+            LocalDate startDate = LocalDate.of(year, 1, 1);
+            LocalDate endDate = LocalDate.of(year, 12, 31);
+        
+            return generateCashFlowReport(year, PeriodTotals.fromAggregates(
+                    columnarStore.incomeByMonthAndStatus(startDate, endDate),
+                    columnarStore.expenseByMonthAndStatus(startDate, endDate)));
+        });
+    }
+    
+    /**
+     * Tạo báo cáo dòng tiền theo năm từ tổng tiền theo tháng đã tính sẵn
+     */
+    public CashFlowReportDTO generateCashFlowReport(Integer year, PeriodTotals totals) {
         CashFlowReportDTO report = new CashFlowReportDTO();
         report.setYear(year);
         
@@ -307,31 +348,9 @@ public class FinancialReportService {
             CashFlowReportDTO.MonthlyDataDTO monthData = new CashFlowReportDTO.MonthlyDataDTO();
             monthData.setMonth(month);
             
-            // Khoảng thời gian của tháng
-            LocalDate startDate = LocalDate.of(year, month, 1);
-            LocalDate endDate = YearMonth.of(year, month).atEndOfMonth();
-            
-            // Lấy tất cả giao dịch thu nhập và chi phí đã thanh toán trong tháng
-            List<IncomeTransaction> incomeTransactions = incomeTransactionRepository
-                    .findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate)
-                    .stream()
-                    .filter(t -> t.getPaymentStatus() == IncomeTransaction.PaymentStatus.RECEIVED)
-                    .collect(Collectors.toList());
-            
-            List<ExpenseTransaction> expenseTransactions = expenseTransactionRepository
-                    .findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate)
-                    .stream()
-                    .filter(t -> t.getPaymentStatus() == ExpenseTransaction.PaymentStatus.PAID)
-                    .collect(Collectors.toList());
-            
-            // Tính tổng thu nhập và chi phí của tháng
-            BigDecimal monthlyIncome = incomeTransactions.stream()
-                    .map(IncomeTransaction::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            BigDecimal monthlyExpense = expenseTransactions.stream()
-                    .map(ExpenseTransaction::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            // Tổng thu nhập và chi phí đã thanh toán của tháng
+            BigDecimal monthlyIncome = totals.getIncomeReceived(month);
+            BigDecimal monthlyExpense = totals.getExpensePaid(month);
             
             // Tính lợi nhuận/lỗ của tháng
             BigDecimal monthlyProfit = monthlyIncome.subtract(monthlyExpense);
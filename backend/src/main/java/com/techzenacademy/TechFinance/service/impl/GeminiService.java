@@ -1,59 +1,57 @@
 package com.techzenacademy.TechFinance.service.impl;
 
 import java.io.IOException;
-import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
-import java.math.BigDecimal;
-import java.time.YearMonth;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.io.UncheckedIOException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.techzenacademy.TechFinance.dto.gemini.ChatConversationDTO;
 import com.techzenacademy.TechFinance.dto.gemini.GeminiMessageDTO;
 import com.techzenacademy.TechFinance.dto.gemini.GeminiRequestDTO;
 import com.techzenacademy.TechFinance.dto.gemini.GeminiResponseDTO;
 import com.techzenacademy.TechFinance.dto.gemini.PredictionInput;
+import com.techzenacademy.TechFinance.dto.page.PageResponse;
+import com.techzenacademy.TechFinance.dto.report.RevenueForecastDTO;
 import com.techzenacademy.TechFinance.entity.ChatConversation;
 import com.techzenacademy.TechFinance.entity.ChatMessage;
 import com.techzenacademy.TechFinance.entity.MonthlyReport;
 import com.techzenacademy.TechFinance.entity.User;
-import com.techzenacademy.TechFinance.entity.IncomeTransaction;
-import com.techzenacademy.TechFinance.entity.ExpenseTransaction;
 import com.techzenacademy.TechFinance.repository.ChatConversationRepository;
 import com.techzenacademy.TechFinance.repository.ChatMessageRepository;
 import com.techzenacademy.TechFinance.repository.MonthlyReportRepository;
 import com.techzenacademy.TechFinance.repository.PredictionInputRepository;
 import com.techzenacademy.TechFinance.repository.UserRepository;
-import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
-import com.techzenacademy.TechFinance.repository.ExpenseTransactionRepository;
+import com.techzenacademy.TechFinance.service.impl.forecast.RevenueForecastService;
+import com.techzenacademy.TechFinance.service.impl.gemini.ChatHistoryService;
+import com.techzenacademy.TechFinance.service.impl.gemini.FinancialContextBuilder;
+import com.techzenacademy.TechFinance.service.impl.gemini.GeminiHttpClient;
+import com.techzenacademy.TechFinance.service.impl.gemini.GeminiStreamingClient;
+import com.techzenacademy.TechFinance.service.impl.gemini.PromptResponseCache;
 import com.techzenacademy.TechFinance.service.impl.gemini.PromptTemplateService;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 /**
  * Service to interact with Google Gemini API.
@@ -62,11 +60,26 @@ import jakarta.annotation.PostConstruct;
 public class GeminiService {
     
     private static final Logger logger = LoggerFactory.getLogger(GeminiService.class);
-    private RestTemplate restTemplate;
+    private static final int FORECAST_HORIZON = 6;
     
     @Autowired
     private PromptTemplateService promptTemplateService;
     
+    @Autowired
+    private FinancialContextBuilder financialContextBuilder;
+    
+    @Autowired
+    private ChatHistoryService chatHistoryService;
+    
+    @Autowired
+    private GeminiHttpClient geminiHttpClient;
+    
+    @Autowired
+    private GeminiStreamingClient geminiStreamingClient;
+    
+    @Autowired
+    private PromptResponseCache promptResponseCache;
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -86,10 +99,7 @@ public class GeminiService {
     private MonthlyReportRepository monthlyReportRepository;
     
     @Autowired
-    private IncomeTransactionRepository incomeTransactionRepository;
-    
-    @Autowired
-    private ExpenseTransactionRepository expenseTransactionRepository;
+    private RevenueForecastService revenueForecastService;
     
     @Value("${gemini.api.key}")
     private String apiKey;
@@ -103,12 +113,23 @@ public class GeminiService {
     @Value("${gemini.region}")
     private String region;
     
+    @Value("${gemini.stream.emitter-timeout-ms:180000}")
+    private long streamTimeoutMs;
+    
+    // Hoàn tất chat streaming (gửi kết quả, lưu tin nhắn) trên virtual thread thay vì common pool
+    private ExecutorService streamExecutor;
+    
     @PostConstruct
     public void init() {
-        this.restTemplate = new RestTemplate();
+        this.streamExecutor = Executors.newVirtualThreadPerTaskExecutor();
         logger.info("Gemini service initialized with API key: {}", maskApiKey(apiKey));
     }
     
+    @PreDestroy
+    public void shutdown() {
+        streamExecutor.shutdownNow();
+    }
+    
     /**
      * Get current user from security context
      */
@@ -160,16 +181,20 @@ public class GeminiService {
             userMessage.setContent(request.getUserMessage());
             userMessage.setSender(ChatMessage.MessageSender.USER);
             
+            // Conversation context (summary + recent tail) is read before the new message is stored
+            String conversationHistory = "";
             if (isNewConversation) {
                 conversationRepository.save(conversation);
+            } else {
+                conversationHistory = chatHistoryService.buildPromptHistory(conversation);
             }
             messageRepository.save(userMessage);
             
-            // Get database data for this user
-            String databaseData = getRelevantDataForUser(currentUser, request.getUserMessage());
+            // Get pre-aggregated financial digest for this user (cached per data version)
+            String databaseData = financialContextBuilder.buildContext(currentUser).getDigest();
             
             // Create prompt with the universal template
-            String prompt = promptTemplateService.createPrompt(request.getUserMessage(), databaseData);
+            String prompt = promptTemplateService.createPrompt(request.getUserMessage(), databaseData, conversationHistory);
             
             // TODO: Call actual Gemini API
             // For now, simulate responses
@@ -181,8 +206,9 @@ public class GeminiService {
             aiMessage.setContent(response);
             aiMessage.setSender(ChatMessage.MessageSender.AI);
             messageRepository.save(aiMessage);
+            chatHistoryService.scheduleSummarization(conversation.getId());
             
-            return createSuccessResponse(response, conversation.getId(), buildMessagesList(conversation));
+            return createSuccessResponse(response, conversation.getId(), chatHistoryService.getPage(conversation.getId(), null, null));
             
         } catch (Exception e) {
             logger.error("Error in chat with Gemini API", e);
@@ -190,6 +216,102 @@ public class GeminiService {
         }
     }
     
+    /**
+     * Handle chat request as a Server-Sent Events stream.
+     * Tokens are forwarded as "token" events while the model is generating; the AI message
+     * is saved once the stream completes and a final "done" event carries the conversation id.
+     */
+    public SseEmitter chatStream(GeminiRequestDTO request) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        
+        User currentUser = getCurrentUser();
+        if (currentUser == null) {
+            completeWithError(emitter, "User authentication failed");
+            return emitter;
+        }
+        
+        ChatConversation conversation;
+        String conversationHistory = "";
+        if (request.getConversationId() != null) {
+            Optional<ChatConversation> existingConversation = 
+                conversationRepository.findById(request.getConversationId());
+            
+            if (existingConversation.isPresent() && existingConversation.get().getUser().getId().equals(currentUser.getId())) {
+                conversation = existingConversation.get();
+                conversationHistory = chatHistoryService.buildPromptHistory(conversation);
+            } else {
+                completeWithError(emitter, "Conversation not found");
+                return emitter;
+            }
+        } else {
+            conversation = new ChatConversation();
+            conversation.setId(UUID.randomUUID().toString());
+            conversation.setUser(currentUser);
+            conversation.setType(ChatConversation.ConversationType.GENERAL);
+            conversationRepository.save(conversation);
+        }
+        
+        ChatMessage userMessage = new ChatMessage();
+        userMessage.setConversation(conversation);
+        userMessage.setContent(request.getUserMessage());
+        userMessage.setSender(ChatMessage.MessageSender.USER);
+        messageRepository.save(userMessage);
+        
+        String databaseData = financialContextBuilder.buildContext(currentUser).getDigest();
+        String prompt = promptTemplateService.createPrompt(request.getUserMessage(), databaseData, conversationHistory);
+        
+        // Cached answer for the same prompt and data version is used as is; identical prompts already
+        // in flight share that model call. Only the request that starts the call streams tokens,
+        // the others receive the full answer in one "token" event.
+        AtomicBoolean streamedHere = new AtomicBoolean();
+        AtomicReference<CompletableFuture<String>> subscription = new AtomicReference<>();
+        CompletableFuture<String> streamed = promptResponseCache.getOrComputeAsync(prompt, () -> {
+            streamedHere.set(true);
+            // The servlet thread is released here; the model call runs on a virtual thread
+            return geminiStreamingClient.streamAsync(prompt, chunk -> sendToken(emitter, chunk, subscription));
+        });
+        subscription.set(streamed);
+        
+        // Client disconnected or timed out: stop waiting. The model call itself is cancelled
+        // (closing the upstream connection) once no identical request is waiting for it.
+        emitter.onTimeout(() -> streamed.cancel(true));
+        emitter.onError(error -> streamed.cancel(true));
+        emitter.onCompletion(() -> streamed.cancel(true));
+        
+        streamed.whenCompleteAsync((response, error) -> {
+            if (streamed.isCancelled()) {
+                logger.debug("Chat stream for conversation {} cancelled by client", conversation.getId());
+                return;
+            }
+            if (error != null) {
+                logger.error("Error streaming chat from Gemini API: {}", error.getMessage());
+                completeWithError(emitter, "Error chatting with AI: " + error.getMessage());
+                return;
+            }
+            
+            try {
+                if (!streamedHere.get()) {
+                    sendEvent(emitter, "token", response);
+                }
+                
+                ChatMessage aiMessage = new ChatMessage();
+                aiMessage.setConversation(conversation);
+                aiMessage.setContent(response);
+                aiMessage.setSender(ChatMessage.MessageSender.AI);
+                messageRepository.save(aiMessage);
+                chatHistoryService.scheduleSummarization(conversation.getId());
+                
+                sendEvent(emitter, "done", Map.of("conversationId", conversation.getId()));
+                emitter.complete();
+            } catch (Exception e) {
+                logger.error("Error completing chat stream for conversation {}", conversation.getId(), e);
+                completeWithError(emitter, "Error saving AI response: " + e.getMessage());
+            }
+        }, streamExecutor);
+        
+        return emitter;
+    }
+    
     /**
      * Revenue prediction function
      */
@@ -246,36 +368,9 @@ public class GeminiService {
                 historicalData = sb.toString();
             }
             
-            // Get historical income transaction data
-            List<IncomeTransaction> incomeTransactions = incomeTransactionRepository
-                .findAll(Sort.by(Sort.Direction.DESC, "transactionDate"));
-            
-            if (!incomeTransactions.isEmpty()) {
-                StringBuilder sb = new StringBuilder();
-                sb.append("Historical income transaction data:\n");
-                
-                // Group transactions by month for more useful trend analysis
-                Map<YearMonth, BigDecimal> monthlyIncome = new HashMap<>();
-                
-                for (IncomeTransaction transaction : incomeTransactions) {
-                    YearMonth yearMonth = YearMonth.from(transaction.getTransactionDate());
-                    BigDecimal currentTotal = monthlyIncome.getOrDefault(yearMonth, BigDecimal.ZERO);
-                    monthlyIncome.put(yearMonth, currentTotal.add(transaction.getAmount()));
-                }
-                
-                // Sort by date and format
-                List<YearMonth> sortedMonths = new ArrayList<>(monthlyIncome.keySet());
-                Collections.sort(sortedMonths);
-                
-                for (YearMonth month : sortedMonths) {
-                    sb.append(month.format(DateTimeFormatter.ofPattern("MM/yyyy")))
-                      .append(": ")
-                      .append(monthlyIncome.get(month))
-                      .append("\n");
-                }
-                
-                historicalData = sb.toString();
-            }
+            // Dự báo thống kê từ dữ liệu tổng hợp theo tháng làm đầu vào cho AI
+            RevenueForecastDTO forecast = revenueForecastService.forecast(FORECAST_HORIZON);
+            historicalData = historicalData + revenueForecastService.summarize(forecast);
             
             // Create prompt with the universal template
             String userInput = "Predict revenue for " + input.getTimePeriod() + " based on the following business information: " + input.getBusinessData();
@@ -292,8 +387,7 @@ public class GeminiService {
             aiMessage.setSender(ChatMessage.MessageSender.AI);
             messageRepository.save(aiMessage);
             
-            List<GeminiMessageDTO> messages = buildMessagesList(conversation);
-            return createSuccessResponse(response, conversation.getId(), messages);
+            return createSuccessResponse(response, conversation.getId(), chatHistoryService.getPage(conversation.getId(), null, null));
             
         } catch (Exception e) {
             logger.error("Error in revenue prediction", e);
@@ -301,166 +395,30 @@ public class GeminiService {
         }
     }
     
-    /**
-     * Get relevant data from the database based on the user's query
-     */
-    private String getRelevantDataForUser(User user, String userQuery) {
-        StringBuilder data = new StringBuilder();
-        
-        // Determine how many transactions to fetch based on query content
-        int limit = 20; // Default limit
-        if (userQuery.toLowerCase().contains("detailed") || 
-            userQuery.toLowerCase().contains("all transactions") ||
-            userQuery.toLowerCase().contains("comprehensive")) {
-            limit = 50; // More data for detailed requests
-        }
-        
-        // Determine date range - default to last 3 months if not specified
-        LocalDate endDate = LocalDate.now();
-        LocalDate startDate = endDate.minusMonths(3);
-        
-        // Look for time-related keywords in the query
-        if (userQuery.toLowerCase().contains("year") || 
-            userQuery.toLowerCase().contains("annual") || 
-            userQuery.toLowerCase().contains("yearly")) {
-            startDate = endDate.minusYears(1);
-        } else if (userQuery.toLowerCase().contains("month") || 
-                  userQuery.toLowerCase().contains("monthly")) {
-            startDate = endDate.minusMonths(1);
-        }
-        
-        // Fetch income transactions
-        Page<IncomeTransaction> incomeTransactions = incomeTransactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(
-            startDate, endDate, PageRequest.of(0, limit));
-        
-        // Fetch expense transactions
-        Page<ExpenseTransaction> expenseTransactions = expenseTransactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(
-            startDate, endDate, PageRequest.of(0, limit));
-            
-        // Add income transactions data
-        if (incomeTransactions.hasContent()) {
-            data.append("Income Transactions:\n");
-            for (IncomeTransaction transaction : incomeTransactions.getContent()) {
-                data.append(transaction.getTransactionDate())
-                    .append(" | Category: ").append(transaction.getCategory().getName())
-                    .append(" | Amount: ").append(transaction.getAmount())
-                    .append(" | Status: ").append(transaction.getPaymentStatus().getValue());
-                
-                if (transaction.getCustomer() != null) {
-                    data.append(" | Customer: ").append(transaction.getCustomer().getName());
-                }
-                
-                if (transaction.getDescription() != null && !transaction.getDescription().isEmpty()) {
-                    data.append(" | Note: ").append(transaction.getDescription());
-                }
-                
-                data.append("\n");
-            }
-            data.append("\n");
-        }
-        
-        // Add expense transactions data
-        if (expenseTransactions.hasContent()) {
-            data.append("Expense Transactions:\n");
-            for (ExpenseTransaction transaction : expenseTransactions.getContent()) {
-                data.append(transaction.getTransactionDate())
-                    .append(" | Category: ").append(transaction.getCategory().getName())
-                    .append(" | Amount: ").append(transaction.getAmount())
-                    .append(" | Status: ").append(transaction.getPaymentStatus().getValue());
-                
-                if (transaction.getSupplier() != null) {
-                    data.append(" | Supplier: ").append(transaction.getSupplier().getName());
-                }
-                
-                if (transaction.getDescription() != null && !transaction.getDescription().isEmpty()) {
-                    data.append(" | Note: ").append(transaction.getDescription());
-                }
-                
-                data.append("\n");
-            }
-            data.append("\n");
-        }
-        
-        // Calculate summary statistics
-        if (incomeTransactions.hasContent() || expenseTransactions.hasContent()) {
-            data.append("Summary Statistics:\n");
-            
-            // Total income
-            BigDecimal totalIncome = BigDecimal.ZERO;
-            for (IncomeTransaction transaction : incomeTransactions.getContent()) {
-                totalIncome = totalIncome.add(transaction.getAmount());
-            }
-            data.append("Total Income: ").append(totalIncome).append("\n");
-            
-            // Total expense
-            BigDecimal totalExpense = BigDecimal.ZERO;
-            for (ExpenseTransaction transaction : expenseTransactions.getContent()) {
-                totalExpense = totalExpense.add(transaction.getAmount());
-            }
-            data.append("Total Expense: ").append(totalExpense).append("\n");
-            
-            // Net profit
-            BigDecimal netProfit = totalIncome.subtract(totalExpense);
-            data.append("Net Profit: ").append(netProfit).append("\n");
-        }
-        
-        // Add monthly reports data for context (keeping this for historical trends)
-        List<MonthlyReport> reports = monthlyReportRepository.findByUserIdOrderByReportDateDesc(user.getId().longValue());
-        if (!reports.isEmpty()) {
-            data.append("\nMonthly Reports:\n");
-            for (MonthlyReport report : reports) {
-                data.append(report.getReportDate().format(DateTimeFormatter.ofPattern("MM/yyyy")))
-                    .append(" - Revenue: ").append(report.getRevenue())
-                    .append(", Expenses: ").append(report.getExpenses())
-                    .append(", Profit: ").append(report.getProfit())
-                    .append("\n");
-            }
-        }
-        
-        return data.toString();
-    }
-    
     /**
      * Get user conversations
      */
-    public List<ChatConversationDTO> getUserConversations() {
+    public PageResponse<ChatConversationDTO> getUserConversations(Pageable pageable) {
         User currentUser = getCurrentUser();
         if (currentUser == null) {
-            return new ArrayList<>();
-        }
-        
-        List<ChatConversation> conversations = conversationRepository.findByUserOrderByLastUpdatedAtDesc(currentUser);
-        List<ChatConversationDTO> result = new ArrayList<>();
-        
-        for (ChatConversation convo : conversations) {
-            ChatConversationDTO dto = new ChatConversationDTO();
-            dto.setId(convo.getId());
-            dto.setType(convo.getType().name());
-            dto.setCreatedAt(convo.getCreatedAt());
-            
-            // Get first user message
-            List<ChatMessage> messages = messageRepository.findByConversationAndSenderOrderByTimestampAsc(
-                convo, ChatMessage.MessageSender.USER);
-            
-            if (!messages.isEmpty()) {
-                ChatMessage firstMessage = messages.get(0);
-                dto.setFirstMessage(firstMessage.getContent());
-            }
-            
-            // Get message count
-            long messageCount = messageRepository.countByConversation(convo);
-            dto.setMessageCount((int) messageCount);
-            
-            result.add(dto);
+            return new PageResponse<>(Page.empty(pageable));
         }
         
-        return result;
+        // Single paged query over the summary columns kept up to date on message insert
+        return new PageResponse<>(conversationRepository.findSummariesByUserId(currentUser.getId(), pageable));
     }
     
     /**
      * Get specific conversation
      */
     public GeminiResponseDTO getConversation(String conversationId) {
+        return getConversation(conversationId, null, null);
+    }
+    
+    /**
+     * Get one page of a conversation, newest messages first page; pass the returned cursor to load older ones
+     */
+    public GeminiResponseDTO getConversation(String conversationId, String cursor, Integer limit) {
         try {
             User currentUser = getCurrentUser();
             if (currentUser == null) {
@@ -492,13 +450,16 @@ public class GeminiService {
                 return createErrorResponse("You don't have permission to access this conversation");
             }
             
-            List<GeminiMessageDTO> messages = buildMessagesList(conversation);
+            ChatHistoryService.HistoryPage page = chatHistoryService.getPage(conversationId, cursor, limit);
             
             GeminiResponseDTO response = new GeminiResponseDTO();
             response.setSuccess(true);
             response.setConversationId(conversationId);
-            response.setMessages(messages);
+            response.setMessages(buildMessagesList(page.getMessages()));
+            response.setNextCursor(page.getNextCursor());
             return response;
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse(e.getMessage());
         } catch (Exception e) {
             logger.error("Error retrieving conversation {}: {}", conversationId, e.getMessage(), e);
             return createErrorResponse("An error occurred while retrieving the conversation: " + e.getMessage());
@@ -521,28 +482,18 @@ public class GeminiService {
             return false;
         }
         
-        ChatConversation conversation = conversationOpt.get();
-        
-        // Delete all messages first
-        messageRepository.deleteByConversation(conversation);
-        
-        // Then delete the conversation
-        conversationRepository.delete(conversation);
+        // Bulk deletes: one statement for the messages, one for the conversation
+        messageRepository.bulkDeleteByConversationId(conversationId);
+        conversationRepository.bulkDeleteById(conversationId);
         
         return true;
     }
     
     /**
-     * Build list of messages for a conversation
+     * Build list of message DTOs for one page of a conversation
      */
-    private List<GeminiMessageDTO> buildMessagesList(ChatConversation conversation) {
+    private List<GeminiMessageDTO> buildMessagesList(List<ChatMessage> messages) {
         try {
-            if (conversation == null) {
-                logger.error("Attempted to build message list for null conversation");
-                return new ArrayList<>();
-            }
-            
-            List<ChatMessage> messages = messageRepository.findByConversationOrderByTimestampAsc(conversation);
             List<GeminiMessageDTO> result = new ArrayList<>();
             
             for (ChatMessage message : messages) {
@@ -595,89 +546,47 @@ public class GeminiService {
     }
     
     /**
-     * Gọi API Gemini sử dụng HTTP trực tiếp
+     * Gọi API Gemini qua client dùng chung (pool kết nối, retry, circuit breaker, hedge sang model dự phòng).
+     * Prompt giống nhau trên cùng phiên bản dữ liệu được trả từ cache, request đồng thời được gộp thành một lời gọi.
      */
     private String callGeminiAPI(String prompt) throws IOException {
         logger.info("Calling Gemini API with prompt length: {} characters", prompt.length());
-        
-        // Kiểm tra API key có sẵn không
-        if (apiKey == null || apiKey.isEmpty()) {
-            throw new IOException("API key không được cấu hình");
-        }
-        
-        // Sử dụng API trực tiếp thay vì sử dụng thư viện
-        RestTemplate restTemplate = new RestTemplate();
-        
-        // Chuẩn bị URL với API key và model ID từ cấu hình
-        String url = String.format("https://generativelanguage.googleapis.com/v1/models/%s:generateContent?key=%s", 
-            modelId, apiKey);
-        
-        logger.info("Using Gemini model: {}", modelId);
-        
-        // Chuẩn bị headers
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        
-        // Tạo JSON request sử dụng một chuỗi
-        String requestBody = String.format(
-            "{\"contents\":[{\"parts\":[{\"text\":\"%s\"}]}],\"generationConfig\":{\"temperature\":0.7,\"topK\":40,\"topP\":0.95,\"maxOutputTokens\":2048}}",
-            prompt.replace("\"", "\\\"").replace("\n", "\\n"));
-        
-        // Gửi request
+        return promptResponseCache.getOrCompute(prompt, () -> geminiHttpClient.generate(prompt));
+    }
+    
+    /**
+     * Gửi một đoạn nội dung đang stream. Nếu người dùng đã ngắt kết nối thì hủy việc chờ của request này,
+     * không ném lỗi vào stream phía model vì các request giống hệt có thể vẫn đang chờ cùng lời gọi đó.
+     */
+    private void sendToken(SseEmitter emitter, String chunk, AtomicReference<CompletableFuture<String>> subscription) {
         try {
-            HttpEntity<String> entity = new HttpEntity<>(requestBody, headers);
-            ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
-            
-            // Xử lý response
-            if (response.getStatusCode().is2xxSuccessful()) {
-                String responseBody = response.getBody();
-                
-                // Sử dụng Jackson để xử lý JSON
-                ObjectMapper mapper = new ObjectMapper();
-                JsonNode rootNode = mapper.readTree(responseBody);
-                
-                // Trích xuất nội dung text
-                String result = rootNode.path("candidates").path(0).path("content").path("parts").path(0).path("text").asText();
-                
-                if (result != null && !result.isEmpty()) {
-                    logger.info("Received response from Gemini API: {} characters", result.length());
-                    return result;
-                } else {
-                    throw new IOException("Không thể tìm thấy text trong phản hồi API");
-                }
-            } else {
-                throw new IOException("Lỗi khi gọi API: " + response.getStatusCode());
-            }
+            emitter.send(SseEmitter.event().name("token").data(chunk));
         } catch (Exception e) {
-            logger.error("Error in Gemini API call: {}", e.getMessage(), e);
-            
-            // Nếu là lỗi 404 và đang sử dụng model không phải gemini-pro, thử với gemini-pro
-            if (e.getMessage() != null && e.getMessage().contains("404") && !modelId.equals("gemini-pro")) {
-                logger.warn("Model {} not found. Attempting fallback to gemini-pro...", modelId);
-                String fallbackUrl = String.format("https://generativelanguage.googleapis.com/v1/models/gemini-pro:generateContent?key=%s", apiKey);
-                
-                try {
-                    HttpEntity<String> entity = new HttpEntity<>(requestBody, headers);
-                    ResponseEntity<String> response = restTemplate.postForEntity(fallbackUrl, entity, String.class);
-                    
-                    if (response.getStatusCode().is2xxSuccessful()) {
-                        String responseBody = response.getBody();
-                        ObjectMapper mapper = new ObjectMapper();
-                        JsonNode rootNode = mapper.readTree(responseBody);
-                        
-                        String result = rootNode.path("candidates").path(0).path("content").path("parts").path(0).path("text").asText();
-                        
-                        if (result != null && !result.isEmpty()) {
-                            logger.info("Received response from fallback model gemini-pro: {} characters", result.length());
-                            return result;
-                        }
-                    }
-                } catch (Exception fallbackError) {
-                    logger.error("Fallback to gemini-pro also failed: {}", fallbackError.getMessage());
-                }
+            CompletableFuture<String> waiting = subscription.get();
+            if (waiting != null) {
+                waiting.cancel(true);
             }
-            
-            throw new IOException("Lỗi khi gọi Gemini API: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Gửi một sự kiện SSE; lỗi gửi (người dùng ngắt kết nối) được ném ra cho người gọi xử lý.
+     */
+    private void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void completeWithError(SseEmitter emitter, String errorMessage) {
+        try {
+            emitter.send(SseEmitter.event().name("error").data(errorMessage));
+            emitter.complete();
+        } catch (Exception e) {
+            logger.debug("Could not deliver error event: {}", e.getMessage());
+            emitter.completeWithError(e);
         }
     }
     
@@ -691,12 +600,13 @@ public class GeminiService {
         return key.substring(0, 4) + "..." + key.substring(key.length() - 4);
     }
     
-    private GeminiResponseDTO createSuccessResponse(String response, String conversationId, List<GeminiMessageDTO> messages) {
+    private GeminiResponseDTO createSuccessResponse(String response, String conversationId, ChatHistoryService.HistoryPage page) {
         GeminiResponseDTO responseDTO = new GeminiResponseDTO();
         responseDTO.setSuccess(true);
         responseDTO.setResponse(response);
         responseDTO.setConversationId(conversationId);
-        responseDTO.setMessages(messages);
+        responseDTO.setMessages(buildMessagesList(page.getMessages()));
+        responseDTO.setNextCursor(page.getNextCursor());
         return responseDTO;
     }
     
@@ -45,6 +45,9 @@ public class IncomeBudgetService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private DataVersionService dataVersionService;
+    
     public List<IncomeBudgetDTO> getAllBudgets() {
         return budgetRepository.findAll().stream()
                 .map(this::mapToDTO)
@@ -154,6 +157,7 @@ public class IncomeBudgetService {
             budget.setCreatedBy(getCurrentUser());
             
             IncomeBudget savedBudget = budgetRepository.save(budget);
+            dataVersionService.markChanged();
             return mapToDTO(savedBudget);
         } catch (Exception e) {
             // Log chi tiết lỗi
@@ -220,6 +224,7 @@ public class IncomeBudgetService {
         }
         
         IncomeBudget updatedBudget = budgetRepository.save(budget);
+        dataVersionService.markChanged();
         return mapToDTO(updatedBudget);
     }
     
@@ -229,6 +234,7 @@ public class IncomeBudgetService {
             throw new EntityNotFoundException("Income budget not found with id: " + id);
         }
         budgetRepository.deleteById(id);
+        dataVersionService.markChanged();
     }
     
     /**
@@ -296,6 +302,8 @@ public class IncomeBudgetService {
                 budgetRepository.save(newBudget);
             }
         }
+        // Ngân sách thay đổi: báo cáo đã cache hết hiệu lực
+        dataVersionService.markChanged();
     }
     
     private void updateBudgetFromRequest(IncomeBudget budget, IncomeBudgetRequest request) {
@@ -5,7 +5,9 @@ import com.techzenacademy.TechFinance.dto.IncomeCategoryRequest;
 import com.techzenacademy.TechFinance.entity.IncomeCategory;
 import com.techzenacademy.TechFinance.entity.User;
 import com.techzenacademy.TechFinance.repository.IncomeCategoryRepository;
+import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
 import com.techzenacademy.TechFinance.repository.UserRepository;
+import com.techzenacademy.TechFinance.repository.specification.FilterSpecifications;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -25,6 +27,12 @@ public class IncomeCategoryService {
     
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private IncomeTransactionRepository incomeTransactionRepository;
+    
+    @Autowired
+    private DataVersionService dataVersionService;
     
     public List<IncomeCategoryDTO> getAllCategories() {
         return incomeCategoryRepository.findAll().stream()
@@ -84,6 +92,8 @@ public class IncomeCategoryService {
         }
         
         IncomeCategory updatedCategory = incomeCategoryRepository.save(category);
+        // Tên hiển thị trong báo cáo thay đổi: báo cáo đã cache hết hiệu lực
+        dataVersionService.markChanged();
         return mapToDTO(updatedCategory);
     }
     
@@ -91,7 +101,12 @@ public class IncomeCategoryService {
         if (!incomeCategoryRepository.existsById(id)) {
             throw new EntityNotFoundException("Income category not found with id: " + id);
         }
+        // Bảng giao dịch không có khóa ngoại (phân vùng theo năm) nên kiểm tra ở đây
+        if (incomeTransactionRepository.countByCategoryIdIncludingArchive(id) > 0) {
+            throw new IllegalArgumentException("Income category is used by transactions and cannot be deleted");
+        }
         incomeCategoryRepository.deleteById(id);
+        dataVersionService.markChanged();
     }
     
     private IncomeCategoryDTO mapToDTO(IncomeCategory category) {
@@ -160,7 +175,8 @@ public class IncomeCategoryService {
      * @return PageResponse of filtered income categories
      */
     public PageResponse<IncomeCategoryDTO> getPagedCategories(String name, Boolean isActive, Pageable pageable) {
-        Page<IncomeCategory> categoryPage = incomeCategoryRepository.findWithFilters(name, isActive, pageable);
+        Page<IncomeCategory> categoryPage = incomeCategoryRepository.findAll(
+                FilterSpecifications.incomeCategories(name, isActive), pageable);
         
         // Map the contents using the existing mapToDTO method
         Page<IncomeCategoryDTO> dtoPage = categoryPage.map(this::mapToDTO);
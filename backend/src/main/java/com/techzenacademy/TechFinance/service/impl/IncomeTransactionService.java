@@ -11,14 +11,21 @@ import com.techzenacademy.TechFinance.entity.User;
 import com.techzenacademy.TechFinance.repository.CustomerRepository;
 import com.techzenacademy.TechFinance.repository.IncomeCategoryRepository;
 import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
+import com.techzenacademy.TechFinance.repository.projection.ListFields;
+import com.techzenacademy.TechFinance.repository.projection.SparseFieldQuery;
+import com.techzenacademy.TechFinance.repository.specification.FilterSpecifications;
 import com.techzenacademy.TechFinance.repository.UserRepository;
 import com.techzenacademy.TechFinance.service.impl.IncomeBudgetService;
+import com.techzenacademy.TechFinance.service.impl.anomaly.AnomalyDetectionService;
+import com.techzenacademy.TechFinance.service.impl.columnar.ColumnarTransactionStore;
+import com.techzenacademy.TechFinance.service.impl.search.TransactionSearchIndex;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
@@ -26,6 +33,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -47,6 +55,21 @@ public class IncomeTransactionService {
     @Autowired
     private IncomeBudgetService incomeBudgetService;
     
+    @Autowired
+    private DataVersionService dataVersionService;
+    
+    @Autowired
+    private TransactionSearchIndex searchIndex;
+    
+    @Autowired
+    private SparseFieldQuery sparseFieldQuery;
+    
+    @Autowired
+    private ColumnarTransactionStore columnarStore;
+    
+    @Autowired
+    private AnomalyDetectionService anomalyDetectionService;
+    
     /**
      * Lấy giao dịch theo ID với phân trang (chỉ trả về 1 kết quả hoặc không có kết quả)
      */
@@ -85,8 +108,62 @@ public class IncomeTransactionService {
             BigDecimal maxAmount, 
             String paymentStatus,
             String referenceNo,
+            String description,
+            Pageable pageable) {
+        
+        // Lấy dữ liệu từ repository, câu truy vấn chỉ chứa các bộ lọc được cung cấp
+        Specification<IncomeTransaction> specification = filterSpecification(
+                customerId, categoryId, startDate, endDate, minAmount, maxAmount,
+                paymentStatus, referenceNo, description);
+        Page<IncomeTransaction> transactionPage = specification == null
+                ? Page.empty(pageable)
+                : transactionRepository.findAll(specification, pageable);
+        
+        // Chuyển đổi trang kết quả sang DTOs
+        Page<IncomeTransactionDTO> dtoPage = transactionPage.map(this::mapToDTO);
+        
+        // Trả về đối tượng PageResponse với dữ liệu đã chuyển đổi
+        return new PageResponse<>(dtoPage);
+    }
+    
+    /**
+     * Như {@link #getFilteredTransactions} nhưng chỉ lấy các trường trong {@code fields} (ví dụ "amount,customerName"),
+     * mỗi dòng là một Map tên trường -> giá trị; {@code id} (nếu có) bỏ qua các bộ lọc khác như API cũ
+     */
+    public PageResponse<Map<String, Object>> getFilteredTransactionFields(
+            Integer id,
+            Integer customerId, 
+            Integer categoryId, 
+            LocalDate startDate, 
+            LocalDate endDate, 
+            BigDecimal minAmount, 
+            BigDecimal maxAmount, 
+            String paymentStatus,
+            String referenceNo,
+            String description,
+            String fields,
             Pageable pageable) {
         
+        List<String> selected = ListFields.INCOME_TRANSACTIONS.select(fields);
+        Specification<IncomeTransaction> specification = id != null
+                ? FilterSpecifications.incomeTransactions(null, null, null, null, null, null, null, null, null, List.of(id))
+                : filterSpecification(customerId, categoryId, startDate, endDate, minAmount, maxAmount,
+                        paymentStatus, referenceNo, description);
+        if (specification == null) {
+            return new PageResponse<>(Page.empty(pageable));
+        }
+        return new PageResponse<>(sparseFieldQuery.findAll(
+                ListFields.INCOME_TRANSACTIONS, selected, specification, pageable));
+    }
+    
+    /**
+     * Specification cho các bộ lọc của màn hình danh sách; null khi chỉ mục tìm kiếm cho biết không có kết quả
+     */
+    private Specification<IncomeTransaction> filterSpecification(
+            Integer customerId, Integer categoryId, LocalDate startDate, LocalDate endDate,
+            BigDecimal minAmount, BigDecimal maxAmount, String paymentStatus,
+            String referenceNo, String description) {
+        
         // Chuyển đổi chuỗi paymentStatus sang enum nếu được chỉ định
         PaymentStatus status = null;
         if (paymentStatus != null && !paymentStatus.isEmpty()) {
@@ -97,16 +174,19 @@ public class IncomeTransactionService {
             }
         }
         
-        // Lấy dữ liệu từ repository với các bộ lọc
-        Page<IncomeTransaction> transactionPage = transactionRepository.findByFilters(
+        // Tìm theo số tham chiếu/mô tả qua chỉ mục trigram; null nghĩa là phải dùng truy vấn LIKE
+        List<Integer> matchingIds = searchIndex.searchIncome(referenceNo, description);
+        if (matchingIds == null) {
+            return FilterSpecifications.incomeTransactions(
+                    customerId, categoryId, startDate, endDate, minAmount, maxAmount, 
+                    status, referenceNo, description, null);
+        }
+        if (matchingIds.isEmpty()) {
+            return null;
+        }
+        return FilterSpecifications.incomeTransactions(
                 customerId, categoryId, startDate, endDate, minAmount, maxAmount, 
-                status, referenceNo, pageable);
-        
-        // Chuyển đổi trang kết quả sang DTOs
-        Page<IncomeTransactionDTO> dtoPage = transactionPage.map(this::mapToDTO);
-        
-        // Trả về đối tượng PageResponse với dữ liệu đã chuyển đổi
-        return new PageResponse<>(dtoPage);
+                status, null, null, matchingIds);
     }
     
     // Giữ lại tất cả các phương thức hiện có cho tương thích ngược
@@ -159,6 +239,10 @@ public class IncomeTransactionService {
             transaction.getTransactionDate().getYear(),
             transaction.getTransactionDate().getMonthValue()
         );
+        dataVersionService.markChanged();
+        searchIndex.indexIncome(savedTransaction.getId(), savedTransaction.getReferenceNo(), savedTransaction.getDescription());
+        columnarStore.putIncome(savedTransaction);
+        anomalyDetectionService.onIncomeSaved(savedTransaction, null, null, null);
         
         return mapToDTO(savedTransaction);
     }
@@ -170,6 +254,9 @@ public class IncomeTransactionService {
         
         int oldYear = transaction.getTransactionDate().getYear();
         int oldMonth = transaction.getTransactionDate().getMonthValue();
+        Integer oldCategoryId = transaction.getCategory().getId();
+        BigDecimal oldAmount = transaction.getAmount();
+        String oldReferenceNo = transaction.getReferenceNo();
         
         updateTransactionFromRequest(transaction, request);
         IncomeTransaction updatedTransaction = transactionRepository.save(transaction);
@@ -183,6 +270,10 @@ public class IncomeTransactionService {
                 updatedTransaction.getTransactionDate().getMonthValue()
             );
         }
+        dataVersionService.markChanged();
+        searchIndex.indexIncome(updatedTransaction.getId(), updatedTransaction.getReferenceNo(), updatedTransaction.getDescription());
+        columnarStore.putIncome(updatedTransaction);
+        anomalyDetectionService.onIncomeSaved(updatedTransaction, oldCategoryId, oldAmount, oldReferenceNo);
         
         return mapToDTO(updatedTransaction);
     }
@@ -198,6 +289,10 @@ public class IncomeTransactionService {
         transactionRepository.deleteById(id);
         
         incomeBudgetService.refreshBudgets(year, month);
+        dataVersionService.markChanged();
+        searchIndex.removeIncome(id);
+        columnarStore.removeIncome(id);
+        anomalyDetectionService.onIncomeDeleted(transaction);
     }
     
     private void updateTransactionFromRequest(IncomeTransaction transaction, IncomeTransactionRequest request) {
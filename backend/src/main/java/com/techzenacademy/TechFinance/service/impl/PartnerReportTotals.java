@@ -0,0 +1,149 @@
+package com.techzenacademy.TechFinance.service.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.techzenacademy.TechFinance.dto.CategorySummaryDTO;
+import com.techzenacademy.TechFinance.dto.TransactionSummaryDTO;
+import com.techzenacademy.TechFinance.util.Money;
+import com.techzenacademy.TechFinance.util.MoneyAccumulator;
+
+/**
+ * Cộng dồn báo cáo khách hàng/nhà cung cấp từ các dòng đã gộp sẵn trong SQL theo
+ * (đối tác, danh mục, tháng, trạng thái thanh toán). Nhóm theo id đối tác/danh mục, không giữ danh sách giao dịch.
+ * <p>
+ * Mỗi dòng: [id đối tác, tên, email, điện thoại, id danh mục, tên danh mục, năm, tháng, trạng thái, SUM, COUNT];
+ * id đối tác/danh mục null khi giao dịch không gắn đối tác/danh mục.
+ */
+final class PartnerReportTotals {
+
+    final MoneyAccumulator total = new MoneyAccumulator();
+    // Đã nhận/đã trả và chưa nhận/chưa trả
+    final MoneyAccumulator settled = new MoneyAccumulator();
+    final MoneyAccumulator outstanding = new MoneyAccumulator();
+    private final Map<Integer, Partner> partners = new HashMap<>();
+
+    /**
+     * Cộng một dòng tổng hợp; {@code isSettled} là trạng thái thanh toán của dòng đã quy về đúng/sai
+     */
+    void add(Object[] row, boolean isSettled) {
+        BigDecimal amount = (BigDecimal) row[9];
+        total.add(amount);
+        (isSettled ? settled : outstanding).add(amount);
+
+        Integer partnerId = (Integer) row[0];
+        if (partnerId == null) {
+            return;
+        }
+        Partner partner = partners.get(partnerId);
+        if (partner == null) {
+            partner = new Partner(partnerId, (String) row[1], (String) row[2], (String) row[3]);
+            partners.put(partnerId, partner);
+        }
+        partner.add((Integer) row[4], (String) row[5], ((Number) row[6]).intValue(), ((Number) row[7]).intValue(),
+                isSettled, amount, ((Number) row[10]).longValue());
+    }
+
+    Collection<Partner> partners() {
+        return partners.values();
+    }
+
+    static final class Partner {
+        final int id;
+        final String name;
+        final String email;
+        final String phone;
+        final MoneyAccumulator total = new MoneyAccumulator();
+        final MoneyAccumulator settled = new MoneyAccumulator();
+        final MoneyAccumulator outstanding = new MoneyAccumulator();
+        // Khóa năm * 100 + tháng, TreeMap để giữ thứ tự thời gian
+        private final Map<Integer, Month> months = new TreeMap<>();
+        private final Map<Integer, Category> categories = new HashMap<>();
+
+        Partner(int id, String name, String email, String phone) {
+            this.id = id;
+            this.name = name;
+            this.email = email;
+            this.phone = phone;
+        }
+
+        private void add(Integer categoryId, String categoryName, int year, int month,
+                boolean isSettled, BigDecimal amount, long count) {
+            total.add(amount);
+            (isSettled ? settled : outstanding).add(amount);
+
+            months.computeIfAbsent(year * 100 + month, key -> new Month(year, month)).add(amount, count);
+            if (categoryId != null) {
+                categories.computeIfAbsent(categoryId, key -> new Category(categoryId, categoryName)).amount.add(amount);
+            }
+        }
+
+        /**
+         * Thống kê theo tháng, tăng dần theo thời gian
+         */
+        List<TransactionSummaryDTO> monthlySummary() {
+            List<TransactionSummaryDTO> result = new ArrayList<>(months.size());
+            for (Month month : months.values()) {
+                TransactionSummaryDTO summary = new TransactionSummaryDTO();
+                summary.setYear(month.year);
+                summary.setMonth(month.month);
+                summary.setTransactionCount((int) month.count);
+                summary.setAmount(month.amount.toBigDecimal());
+                result.add(summary);
+            }
+            return result;
+        }
+
+        /**
+         * Thống kê theo danh mục, giảm dần theo số tiền; phần trăm so với tổng của đối tác
+         */
+        List<CategorySummaryDTO> categorySummary() {
+            BigDecimal partnerTotal = total.toBigDecimal();
+            List<CategorySummaryDTO> result = new ArrayList<>(categories.size());
+            for (Category category : categories.values()) {
+                CategorySummaryDTO summary = new CategorySummaryDTO();
+                summary.setCategoryId(category.id);
+                summary.setCategoryName(category.name);
+                BigDecimal amount = category.amount.toBigDecimal();
+                summary.setAmount(amount);
+                summary.setPercentage(Money.percent(amount, partnerTotal));
+                result.add(summary);
+            }
+            result.sort((a, b) -> b.getAmount().compareTo(a.getAmount()));
+            return result;
+        }
+    }
+
+    private static final class Month {
+        final int year;
+        final int month;
+        final MoneyAccumulator amount = new MoneyAccumulator();
+        long count;
+
+        Month(int year, int month) {
+            this.year = year;
+            this.month = month;
+        }
+
+        void add(BigDecimal value, long rows) {
+            amount.add(value);
+            count += rows;
+        }
+    }
+
+    private static final class Category {
+        final int id;
+        final String name;
+        final MoneyAccumulator amount = new MoneyAccumulator();
+
+        Category(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.techzenacademy.TechFinance.service.impl;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.techzenacademy.TechFinance.entity.ExpenseTransaction;
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.util.MoneyAccumulator;
+
+/**
+ * Tổng tiền theo tháng của một năm: tất cả giao dịch và giao dịch đã thanh toán, cho thu và chi.
+ * Được dùng chung bởi tổng quan ngân sách, dòng tiền và dashboard để không phải quét lại từng tháng.
+ */
+public class PeriodTotals {
+
+    // Chỉ số 1..12 theo tháng, cộng dồn bằng long (đơn vị 1/100) thay vì tạo BigDecimal mới mỗi phép cộng
+    private final MoneyAccumulator[] incomeTotal = accumulators();
+    private final MoneyAccumulator[] incomeReceived = accumulators();
+    private final MoneyAccumulator[] expenseTotal = accumulators();
+    private final MoneyAccumulator[] expensePaid = accumulators();
+
+    /**
+     * Từ kết quả sumByMonthAndStatus của hai repository: (năm, tháng, trạng thái, tổng tiền, số lượng)
+     */
+    public static PeriodTotals fromAggregates(List<Object[]> incomeRows, List<Object[]> expenseRows) {
+        PeriodTotals totals = new PeriodTotals();
+        for (Object[] row : incomeRows) {
+            int month = ((Number) row[1]).intValue();
+            BigDecimal amount = toBigDecimal(row[3]);
+            totals.incomeTotal[month].add(amount);
+            if (row[2] == IncomeTransaction.PaymentStatus.RECEIVED) {
+                totals.incomeReceived[month].add(amount);
+            }
+        }
+        for (Object[] row : expenseRows) {
+            int month = ((Number) row[1]).intValue();
+            BigDecimal amount = toBigDecimal(row[3]);
+            totals.expenseTotal[month].add(amount);
+            if (row[2] == ExpenseTransaction.PaymentStatus.PAID) {
+                totals.expensePaid[month].add(amount);
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Từ danh sách giao dịch của một năm đã tải sẵn
+     */
+    public static PeriodTotals fromTransactions(List<IncomeTransaction> incomes, List<ExpenseTransaction> expenses) {
+        PeriodTotals totals = new PeriodTotals();
+        for (IncomeTransaction t : incomes) {
+            int month = t.getTransactionDate().getMonthValue();
+            totals.incomeTotal[month].add(t.getAmount());
+            if (t.getPaymentStatus() == IncomeTransaction.PaymentStatus.RECEIVED) {
+                totals.incomeReceived[month].add(t.getAmount());
+            }
+        }
+        for (ExpenseTransaction t : expenses) {
+            int month = t.getTransactionDate().getMonthValue();
+            totals.expenseTotal[month].add(t.getAmount());
+            if (t.getPaymentStatus() == ExpenseTransaction.PaymentStatus.PAID) {
+                totals.expensePaid[month].add(t.getAmount());
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Tổng tiền của tất cả giao dịch thu trong tháng (null = cả năm)
+     */
+    public BigDecimal getIncomeTotal(Integer month) {
+        return sum(incomeTotal, month);
+    }
+
+    public BigDecimal getIncomeReceived(Integer month) {
+        return sum(incomeReceived, month);
+    }
+
+    public BigDecimal getExpenseTotal(Integer month) {
+        return sum(expenseTotal, month);
+    }
+
+    public BigDecimal getExpensePaid(Integer month) {
+        return sum(expensePaid, month);
+    }
+
+    private static BigDecimal sum(MoneyAccumulator[] values, Integer month) {
+        if (month != null) {
+            return values[month].toBigDecimal();
+        }
+        MoneyAccumulator total = new MoneyAccumulator();
+        for (MoneyAccumulator value : values) {
+            total.add(value);
+        }
+        return total.toBigDecimal();
+    }
+
+    private static MoneyAccumulator[] accumulators() {
+        MoneyAccumulator[] values = new MoneyAccumulator[13];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new MoneyAccumulator();
+        }
+        return values;
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+    }
+}
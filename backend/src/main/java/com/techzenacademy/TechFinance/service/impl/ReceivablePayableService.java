@@ -1,7 +1,6 @@
 package com.techzenacademy.TechFinance.service.impl;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.Period;
 import java.time.YearMonth;
@@ -14,7 +13,9 @@ import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.techzenacademy.TechFinance.dto.AgedPayableDTO;
 import com.techzenacademy.TechFinance.dto.AgedReceivableDTO;
 import com.techzenacademy.TechFinance.dto.PayableDetailDTO;
@@ -24,20 +25,29 @@ import com.techzenacademy.TechFinance.dto.ReceivablePayableReportDTO;
 import com.techzenacademy.TechFinance.dto.TransactionErrorDTO;
 import com.techzenacademy.TechFinance.entity.ExpenseTransaction;
 import com.techzenacademy.TechFinance.entity.IncomeTransaction;
-import com.techzenacademy.TechFinance.repository.ExpenseTransactionRepository;
-import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
+import com.techzenacademy.TechFinance.service.impl.anomaly.AnomalyDetectionService;
+import com.techzenacademy.TechFinance.service.impl.archive.TransactionArchiveReader;
+import com.techzenacademy.TechFinance.service.impl.cache.ReportCache;
+import com.techzenacademy.TechFinance.util.MoneyAccumulator;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 
 @Service
+@Transactional(readOnly = true)
 public class ReceivablePayableService {
 
+    // Kiểu của báo cáo phải thu/phải trả trong ReportCache
+    public static final TypeReference<ReceivablePayableReportDTO> RECEIVABLE_PAYABLE = new TypeReference<>() {};
+
+    @Autowired
+    private TransactionArchiveReader archiveReader;
+
     @Autowired
-    private IncomeTransactionRepository incomeTransactionRepository;
+    private AnomalyDetectionService anomalyDetectionService;
 
     @Autowired
-    private ExpenseTransactionRepository expenseTransactionRepository;
+    private ReportCache reportCache;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -70,35 +80,38 @@ public class ReceivablePayableService {
         List<ExpenseTransaction> expenseTransactions;
         
         if (startDate != null && endDate != null) {
-            incomeTransactions = incomeTransactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
-            expenseTransactions = expenseTransactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
+            incomeTransactions = archiveReader.incomesBetween(startDate, endDate);
+            expenseTransactions = archiveReader.expensesBetween(startDate, endDate);
         } else {
-            // Get all transactions if no date filter
-            incomeTransactions = incomeTransactionRepository.findAll();
-            expenseTransactions = expenseTransactionRepository.findAll();
+            // Get all transactions if no date filter (including archived years)
+            incomeTransactions = archiveReader.allIncomes();
+            expenseTransactions = archiveReader.allExpenses();
         }
         
-        // Calculate receivable summaries
-        BigDecimal totalReceived = incomeTransactions.stream()
-                .filter(it -> it.getPaymentStatus() == IncomeTransaction.PaymentStatus.RECEIVED)
-                .map(IncomeTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-                
-        BigDecimal totalPending = incomeTransactions.stream()
-                .filter(it -> it.getPaymentStatus() == IncomeTransaction.PaymentStatus.PENDING)
-                .map(IncomeTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        // Calculate payable summaries
-        BigDecimal totalPaid = expenseTransactions.stream()
-                .filter(et -> et.getPaymentStatus() == ExpenseTransaction.PaymentStatus.PAID)
-                .map(ExpenseTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-                
-        BigDecimal totalUnpaid = expenseTransactions.stream()
-                .filter(et -> et.getPaymentStatus() == ExpenseTransaction.PaymentStatus.UNPAID)
-                .map(ExpenseTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Calculate receivable and payable summaries in one pass per list
+        MoneyAccumulator received = new MoneyAccumulator();
+        MoneyAccumulator pending = new MoneyAccumulator();
+        for (IncomeTransaction transaction : incomeTransactions) {
+            if (transaction.getPaymentStatus() == IncomeTransaction.PaymentStatus.RECEIVED) {
+                received.add(transaction.getAmount());
+            } else if (transaction.getPaymentStatus() == IncomeTransaction.PaymentStatus.PENDING) {
+                pending.add(transaction.getAmount());
+            }
+        }
+
+        MoneyAccumulator paid = new MoneyAccumulator();
+        MoneyAccumulator unpaid = new MoneyAccumulator();
+        for (ExpenseTransaction transaction : expenseTransactions) {
+            if (transaction.getPaymentStatus() == ExpenseTransaction.PaymentStatus.PAID) {
+                paid.add(transaction.getAmount());
+            } else if (transaction.getPaymentStatus() == ExpenseTransaction.PaymentStatus.UNPAID) {
+                unpaid.add(transaction.getAmount());
+            }
+        }
+        BigDecimal totalReceived = received.toBigDecimal();
+        BigDecimal totalPending = pending.toBigDecimal();
+        BigDecimal totalPaid = paid.toBigDecimal();
+        BigDecimal totalUnpaid = unpaid.toBigDecimal();
         
         // Calculate monthly data for charts
         List<ReceivablePayableDTO.MonthlyDataDTO> receivablesByMonth = calculateMonthlyChartData(incomeTransactions, true);
@@ -165,73 +178,35 @@ public class ReceivablePayableService {
             throw new IllegalArgumentException("Invalid year or month");
         }
 
+        return reportCache.getOrCompute(ReportCache.key("receivable-payable", year, month), RECEIVABLE_PAYABLE, () -> {
+            // Calculate start and end dates of the month
+            LocalDate startDate = LocalDate.of(year, month, 1);
+            LocalDate endDate = YearMonth.of(year, month).atEndOfMonth();
+
+            // Get transactions for the month
+            List<IncomeTransaction> incomeTransactions = 
+                    archiveReader.incomesBetween(startDate, endDate);
+        
+            List<ExpenseTransaction> expenseTransactions = 
+                    archiveReader.expensesBetween(startDate, endDate);
+
+            return getReceivablePayableReport(year, month, incomeTransactions, expenseTransactions);
+        });
+    }
+
+    /**
+     * Lấy báo cáo tiền phải thu, phải trả theo tháng từ danh sách giao dịch của tháng đã tải sẵn
+     */
+    public ReceivablePayableReportDTO getReceivablePayableReport(Integer year, Integer month,
+                                                                 List<IncomeTransaction> incomeTransactions,
+                                                                 List<ExpenseTransaction> expenseTransactions) {
         ReceivablePayableReportDTO report = new ReceivablePayableReportDTO();
         report.setYear(year);
         report.setMonth(month);
-
-        // Calculate start and end dates of the month
+        
         LocalDate startDate = LocalDate.of(year, month, 1);
         LocalDate endDate = YearMonth.of(year, month).atEndOfMonth();
-
-        // Get transactions for the month
-        List<IncomeTransaction> incomeTransactions = 
-                incomeTransactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
-        
-        List<ExpenseTransaction> expenseTransactions = 
-                expenseTransactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
-
-        // Calculate receivables (pending income)
-        List<IncomeTransaction> pendingIncomes = incomeTransactions.stream()
-                .filter(t -> t.getPaymentStatus() == IncomeTransaction.PaymentStatus.PENDING)
-                .collect(Collectors.toList());
-                
-        BigDecimal totalReceivables = pendingIncomes.stream()
-                .map(IncomeTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Calculate payables (unpaid expenses)
-        List<ExpenseTransaction> unpaidExpenses = expenseTransactions.stream()
-                .filter(t -> t.getPaymentStatus() == ExpenseTransaction.PaymentStatus.UNPAID)
-                .collect(Collectors.toList());
-                
-        BigDecimal totalPayables = unpaidExpenses.stream()
-                .map(ExpenseTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Calculate received income and paid expenses
-        BigDecimal receivedIncome = incomeTransactions.stream()
-                .filter(t -> t.getPaymentStatus() == IncomeTransaction.PaymentStatus.RECEIVED)
-                .map(IncomeTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-                
-        BigDecimal paidExpense = expenseTransactions.stream()
-                .filter(t -> t.getPaymentStatus() == ExpenseTransaction.PaymentStatus.PAID)
-                .map(ExpenseTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Calculate total income and expense
-        BigDecimal totalIncome = incomeTransactions.stream()
-                .map(IncomeTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-                
-        BigDecimal totalExpense = expenseTransactions.stream()
-                .map(ExpenseTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Set summary information
-        report.setTotalReceivables(totalReceivables);
-        report.setTotalPayables(totalPayables);
-        report.setNetWorkingCapitalImpact(totalReceivables.subtract(totalPayables));
-        report.setActualProfit(receivedIncome.subtract(paidExpense));
-        report.setPotentialProfit(totalIncome.subtract(totalExpense));
-
-        // Generate detailed reports
-        report.setTopReceivables(getTopReceivables(pendingIncomes, 10));
-        report.setTopPayables(getTopPayables(unpaidExpenses, 10));
-        report.setAgedReceivables(getAgedReceivables(pendingIncomes));
-        report.setAgedPayables(getAgedPayables(unpaidExpenses));
-        report.setTransactionErrors(getTransactionErrors(incomeTransactions, expenseTransactions));
-
+        populateReport(report, startDate, endDate, incomeTransactions, expenseTransactions);
         return report;
     }
 
@@ -284,64 +259,64 @@ public class ReceivablePayableService {
         
         // Get transactions for the period
         List<IncomeTransaction> incomeTransactions = 
-                incomeTransactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
+                archiveReader.incomesBetween(startDate, endDate);
         
         List<ExpenseTransaction> expenseTransactions = 
-                expenseTransactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
-
-        // Calculate receivables (pending income)
-        List<IncomeTransaction> pendingIncomes = incomeTransactions.stream()
-                .filter(t -> t.getPaymentStatus() == IncomeTransaction.PaymentStatus.PENDING)
-                .collect(Collectors.toList());
-                
-        BigDecimal totalReceivables = pendingIncomes.stream()
-                .map(IncomeTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                archiveReader.expensesBetween(startDate, endDate);
 
-        // Calculate payables (unpaid expenses)
-        List<ExpenseTransaction> unpaidExpenses = expenseTransactions.stream()
-                .filter(t -> t.getPaymentStatus() == ExpenseTransaction.PaymentStatus.UNPAID)
-                .collect(Collectors.toList());
-                
-        BigDecimal totalPayables = unpaidExpenses.stream()
-                .map(ExpenseTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        populateReport(report, startDate, endDate, incomeTransactions, expenseTransactions);
+        return report;
+    }
 
-        // Calculate received income and paid expenses
-        BigDecimal receivedIncome = incomeTransactions.stream()
-                .filter(t -> t.getPaymentStatus() == IncomeTransaction.PaymentStatus.RECEIVED)
-                .map(IncomeTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-                
-        BigDecimal paidExpense = expenseTransactions.stream()
-                .filter(t -> t.getPaymentStatus() == ExpenseTransaction.PaymentStatus.PAID)
-                .map(ExpenseTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Tính các chỉ số phải thu/phải trả từ giao dịch trong kỳ
+     */
+    private void populateReport(ReceivablePayableReportDTO report, LocalDate startDate, LocalDate endDate,
+                                List<IncomeTransaction> incomeTransactions, List<ExpenseTransaction> expenseTransactions) {
+        // Phân loại và cộng dồn trong một lượt cho mỗi danh sách
+        List<IncomeTransaction> pendingIncomes = new ArrayList<>();
+        MoneyAccumulator receivables = new MoneyAccumulator();
+        MoneyAccumulator receivedIncome = new MoneyAccumulator();
+        MoneyAccumulator totalIncome = new MoneyAccumulator();
+        for (IncomeTransaction transaction : incomeTransactions) {
+            totalIncome.add(transaction.getAmount());
+            if (transaction.getPaymentStatus() == IncomeTransaction.PaymentStatus.PENDING) {
+                pendingIncomes.add(transaction);
+                receivables.add(transaction.getAmount());
+            } else if (transaction.getPaymentStatus() == IncomeTransaction.PaymentStatus.RECEIVED) {
+                receivedIncome.add(transaction.getAmount());
+            }
+        }
 
-        // Calculate total income and expense
-        BigDecimal totalIncome = incomeTransactions.stream()
-                .map(IncomeTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-                
-        BigDecimal totalExpense = expenseTransactions.stream()
-                .map(ExpenseTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<ExpenseTransaction> unpaidExpenses = new ArrayList<>();
+        MoneyAccumulator payables = new MoneyAccumulator();
+        MoneyAccumulator paidExpense = new MoneyAccumulator();
+        MoneyAccumulator totalExpense = new MoneyAccumulator();
+        for (ExpenseTransaction transaction : expenseTransactions) {
+            totalExpense.add(transaction.getAmount());
+            if (transaction.getPaymentStatus() == ExpenseTransaction.PaymentStatus.UNPAID) {
+                unpaidExpenses.add(transaction);
+                payables.add(transaction.getAmount());
+            } else if (transaction.getPaymentStatus() == ExpenseTransaction.PaymentStatus.PAID) {
+                paidExpense.add(transaction.getAmount());
+            }
+        }
+        BigDecimal totalReceivables = receivables.toBigDecimal();
+        BigDecimal totalPayables = payables.toBigDecimal();
 
         // Set summary information
         report.setTotalReceivables(totalReceivables);
         report.setTotalPayables(totalPayables);
         report.setNetWorkingCapitalImpact(totalReceivables.subtract(totalPayables));
-        report.setActualProfit(receivedIncome.subtract(paidExpense));
-        report.setPotentialProfit(totalIncome.subtract(totalExpense));
+        report.setActualProfit(receivedIncome.toBigDecimal().subtract(paidExpense.toBigDecimal()));
+        report.setPotentialProfit(totalIncome.toBigDecimal().subtract(totalExpense.toBigDecimal()));
 
         // Generate detailed reports
         report.setTopReceivables(getTopReceivables(pendingIncomes, 10));
         report.setTopPayables(getTopPayables(unpaidExpenses, 10));
         report.setAgedReceivables(getAgedReceivables(pendingIncomes));
         report.setAgedPayables(getAgedPayables(unpaidExpenses));
-        report.setTransactionErrors(getTransactionErrors(incomeTransactions, expenseTransactions));
-
-        return report;
+        report.setTransactionErrors(getTransactionErrors(startDate, endDate));
     }
 
     /**
@@ -373,13 +348,13 @@ public class ReceivablePayableService {
         LocalDate today = LocalDate.now();
         
         // Group by aging buckets
-        Map<String, BigDecimal> agingBuckets = new HashMap<>();
-        agingBuckets.put("0-30 ngày", BigDecimal.ZERO);
-        agingBuckets.put("31-60 ngày", BigDecimal.ZERO);
-        agingBuckets.put("61-90 ngày", BigDecimal.ZERO);
-        agingBuckets.put("90+ ngày", BigDecimal.ZERO);
+        Map<String, MoneyAccumulator> agingBuckets = new HashMap<>();
+        agingBuckets.put("0-30 ngày", new MoneyAccumulator());
+        agingBuckets.put("31-60 ngày", new MoneyAccumulator());
+        agingBuckets.put("61-90 ngày", new MoneyAccumulator());
+        agingBuckets.put("90+ ngày", new MoneyAccumulator());
         
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        MoneyAccumulator totalAmount = new MoneyAccumulator();
         
         for (IncomeTransaction transaction : pendingIncomes) {
             int daysOutstanding = Period.between(transaction.getTransactionDate(), today).getDays();
@@ -395,27 +370,19 @@ public class ReceivablePayableService {
                 bucket = "90+ ngày";
             }
             
-            BigDecimal currentAmount = agingBuckets.get(bucket);
-            agingBuckets.put(bucket, currentAmount.add(transaction.getAmount()));
-            totalAmount = totalAmount.add(transaction.getAmount());
+            agingBuckets.get(bucket).add(transaction.getAmount());
+            totalAmount.add(transaction.getAmount());
         }
         
         // Convert to DTOs
         List<AgedReceivableDTO> result = new ArrayList<>();
-        for (Map.Entry<String, BigDecimal> entry : agingBuckets.entrySet()) {
+        for (Map.Entry<String, MoneyAccumulator> entry : agingBuckets.entrySet()) {
             AgedReceivableDTO dto = new AgedReceivableDTO();
             dto.setAgingBucket(entry.getKey());
-            dto.setAmount(entry.getValue());
+            dto.setAmount(entry.getValue().toBigDecimal());
             
-            // Calculate percentage
-            if (totalAmount.compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal percentage = entry.getValue()
-                        .multiply(new BigDecimal("100"))
-                        .divide(totalAmount, 2, RoundingMode.HALF_UP);
-                dto.setPercentage(percentage);
-            } else {
-                dto.setPercentage(BigDecimal.ZERO);
-            }
+            // Calculate percentage (HALF_UP, 2 decimals)
+            dto.setPercentage(entry.getValue().percentOf(totalAmount));
             
             result.add(dto);
         }
@@ -430,13 +397,13 @@ public class ReceivablePayableService {
         LocalDate today = LocalDate.now();
         
         // Group by aging buckets
-        Map<String, BigDecimal> agingBuckets = new HashMap<>();
-        agingBuckets.put("0-30 ngày", BigDecimal.ZERO);
-        agingBuckets.put("31-60 ngày", BigDecimal.ZERO);
-        agingBuckets.put("61-90 ngày", BigDecimal.ZERO);
-        agingBuckets.put("90+ ngày", BigDecimal.ZERO);
+        Map<String, MoneyAccumulator> agingBuckets = new HashMap<>();
+        agingBuckets.put("0-30 ngày", new MoneyAccumulator());
+        agingBuckets.put("31-60 ngày", new MoneyAccumulator());
+        agingBuckets.put("61-90 ngày", new MoneyAccumulator());
+        agingBuckets.put("90+ ngày", new MoneyAccumulator());
         
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        MoneyAccumulator totalAmount = new MoneyAccumulator();
         
         for (ExpenseTransaction transaction : unpaidExpenses) {
             int daysOutstanding = Period.between(transaction.getTransactionDate(), today).getDays();
@@ -452,27 +419,19 @@ public class ReceivablePayableService {
                 bucket = "90+ ngày";
             }
             
-            BigDecimal currentAmount = agingBuckets.get(bucket);
-            agingBuckets.put(bucket, currentAmount.add(transaction.getAmount()));
-            totalAmount = totalAmount.add(transaction.getAmount());
+            agingBuckets.get(bucket).add(transaction.getAmount());
+            totalAmount.add(transaction.getAmount());
         }
         
         // Convert to DTOs
         List<AgedPayableDTO> result = new ArrayList<>();
-        for (Map.Entry<String, BigDecimal> entry : agingBuckets.entrySet()) {
+        for (Map.Entry<String, MoneyAccumulator> entry : agingBuckets.entrySet()) {
             AgedPayableDTO dto = new AgedPayableDTO();
             dto.setAgingBucket(entry.getKey());
-            dto.setAmount(entry.getValue());
+            dto.setAmount(entry.getValue().toBigDecimal());
             
-            // Calculate percentage
-            if (totalAmount.compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal percentage = entry.getValue()
-                        .multiply(new BigDecimal("100"))
-                        .divide(totalAmount, 2, RoundingMode.HALF_UP);
-                dto.setPercentage(percentage);
-            } else {
-                dto.setPercentage(BigDecimal.ZERO);
-            }
+            // Calculate percentage (HALF_UP, 2 decimals)
+            dto.setPercentage(entry.getValue().percentOf(totalAmount));
             
             result.add(dto);
         }
@@ -481,106 +440,23 @@ public class ReceivablePayableService {
     }
     
     /**
-     * Phát hiện lỗi giao dịch
+     * Lấy các giao dịch bất thường trong kỳ từ bảng cờ (được ghi khi thêm/sửa giao dịch),
+     * nên mã tham chiếu trùng với giao dịch ngoài kỳ cũng được phát hiện
      */
-    private List<TransactionErrorDTO> getTransactionErrors(List<IncomeTransaction> incomeTransactions, 
-                                                      List<ExpenseTransaction> expenseTransactions) {
-        List<TransactionErrorDTO> errors = new ArrayList<>();
-        LocalDate today = LocalDate.now();
-        
-        // Check for unusual high amounts in income transactions (more than 3 times average)
-        BigDecimal totalIncome = incomeTransactions.stream()
-                .map(IncomeTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        if (!incomeTransactions.isEmpty()) {
-            BigDecimal averageIncome = totalIncome.divide(
-                new BigDecimal(incomeTransactions.size()), 2, RoundingMode.HALF_UP);
-            BigDecimal threshold = averageIncome.multiply(new BigDecimal("3"));
-            
-            incomeTransactions.stream()
-                .filter(t -> t.getAmount().compareTo(threshold) > 0)
-                .forEach(t -> {
-                    TransactionErrorDTO error = new TransactionErrorDTO();
-                    error.setTransactionId(t.getId());
-                    error.setErrorType("UNUSUAL_AMOUNT");
-                    error.setDescription("Giao dịch thu nhập có giá trị cao bất thường");
-                    error.setAmount(t.getAmount());
-                    error.setTransactionDate(t.getTransactionDate());
-                    error.setTransactionType("INCOME");
-                    error.setReferenceNo(t.getReferenceNo());
-                    errors.add(error);
-                });
-        }
-        
-        // Check for unusual high amounts in expense transactions (more than 3 times average)
-        BigDecimal totalExpense = expenseTransactions.stream()
-                .map(ExpenseTransaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        if (!expenseTransactions.isEmpty()) {
-            BigDecimal averageExpense = totalExpense.divide(
-                new BigDecimal(expenseTransactions.size()), 2, RoundingMode.HALF_UP);
-            BigDecimal threshold = averageExpense.multiply(new BigDecimal("3"));
-            
-            expenseTransactions.stream()
-                .filter(t -> t.getAmount().compareTo(threshold) > 0)
-                .forEach(t -> {
+    private List<TransactionErrorDTO> getTransactionErrors(LocalDate startDate, LocalDate endDate) {
+        return anomalyDetectionService.getFlags(startDate, endDate).stream()
+                .map(flag -> {
                     TransactionErrorDTO error = new TransactionErrorDTO();
-                    error.setTransactionId(t.getId());
-                    error.setErrorType("UNUSUAL_AMOUNT");
-                    error.setDescription("Giao dịch chi phí có giá trị cao bất thường");
-                    error.setAmount(t.getAmount());
-                    error.setTransactionDate(t.getTransactionDate());
-                    error.setTransactionType("EXPENSE");
-                    error.setReferenceNo(t.getReferenceNo());
-                    errors.add(error);
-                });
-        }
-        
-        // Check for duplicate references
-        Map<String, Long> referenceMap = new HashMap<>();
-        
-        // Check income transactions
-        incomeTransactions.stream()
-            .filter(t -> t.getReferenceNo() != null && !t.getReferenceNo().isBlank())
-            .forEach(t -> {
-                referenceMap.put(t.getReferenceNo(), 
-                    referenceMap.getOrDefault(t.getReferenceNo(), 0L) + 1);
-            });
-            
-        referenceMap.entrySet().stream()
-            .filter(e -> e.getValue() > 1)
-            .forEach(e -> {
-                TransactionErrorDTO error = new TransactionErrorDTO();
-                error.setErrorType("DUPLICATE_REFERENCE");
-                error.setDescription("Mã tham chiếu bị trùng lặp trong giao dịch thu nhập: " + e.getKey());
-                error.setTransactionType("INCOME");
-                error.setReferenceNo(e.getKey());
-                errors.add(error);
-            });
-        
-        // Reset and check expense transactions
-        referenceMap.clear();
-        expenseTransactions.stream()
-            .filter(t -> t.getReferenceNo() != null && !t.getReferenceNo().isBlank())
-            .forEach(t -> {
-                referenceMap.put(t.getReferenceNo(), 
-                    referenceMap.getOrDefault(t.getReferenceNo(), 0L) + 1);
-            });
-            
-        referenceMap.entrySet().stream()
-            .filter(e -> e.getValue() > 1)
-            .forEach(e -> {
-                TransactionErrorDTO error = new TransactionErrorDTO();
-                error.setErrorType("DUPLICATE_REFERENCE");
-                error.setDescription("Mã tham chiếu bị trùng lặp trong giao dịch chi phí: " + e.getKey());
-                error.setTransactionType("EXPENSE");
-                error.setReferenceNo(e.getKey());
-                errors.add(error);
-            });
-        
-        return errors;
+                    error.setTransactionId(flag.getTransactionId());
+                    error.setErrorType(flag.getFlagType().name());
+                    error.setDescription(flag.getDescription());
+                    error.setAmount(flag.getAmount());
+                    error.setTransactionDate(flag.getTransactionDate());
+                    error.setTransactionType(flag.getTransactionType().name());
+                    error.setReferenceNo(flag.getReferenceNo());
+                    return error;
+                })
+                .collect(Collectors.toList());
     }
 
     /**
@@ -12,6 +12,7 @@ import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.techzenacademy.TechFinance.dto.CategorySummaryDTO;
 import com.techzenacademy.TechFinance.dto.CustomerReportDTO;
@@ -29,6 +30,7 @@ import jakarta.persistence.EntityNotFoundException;
 import jakarta.persistence.PersistenceContext;
 
 @Service
+@Transactional(readOnly = true)
 public class ReportService {
 
     @Autowired
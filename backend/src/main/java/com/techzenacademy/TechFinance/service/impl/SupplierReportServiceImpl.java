@@ -1,31 +1,28 @@
 package com.techzenacademy.TechFinance.service.impl;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.techzenacademy.TechFinance.dto.CategorySummaryDTO;
 import com.techzenacademy.TechFinance.dto.SupplierReportDTO;
-import com.techzenacademy.TechFinance.dto.TransactionSummaryDTO;
-import com.techzenacademy.TechFinance.entity.ExpenseCategory;
 import com.techzenacademy.TechFinance.entity.ExpenseTransaction;
-import com.techzenacademy.TechFinance.entity.Supplier;
-import com.techzenacademy.TechFinance.repository.ExpenseTransactionRepository;
 import com.techzenacademy.TechFinance.service.SupplierReportService;
+import com.techzenacademy.TechFinance.service.impl.archive.TransactionArchiveReader;
+import com.techzenacademy.TechFinance.util.Money;
 
 @Service
+@Transactional(readOnly = true)
 public class SupplierReportServiceImpl implements SupplierReportService {
 
     @Autowired
-    private ExpenseTransactionRepository expenseTransactionRepository;
+    private TransactionArchiveReader archiveReader;
 
     @Override
     public Map<String, Object> generateMonthlyReport(int year, int month) {
@@ -33,13 +30,7 @@ public class SupplierReportServiceImpl implements SupplierReportService {
         LocalDate startDate = LocalDate.of(year, month, 1);
         LocalDate endDate = startDate.plusMonths(1).minusDays(1);
         
-        // Lấy dữ liệu giao dịch chi tiêu trong khoảng thời gian
-        List<ExpenseTransaction> transactions = expenseTransactionRepository.findAll().stream()
-                .filter(t -> !t.getTransactionDate().isBefore(startDate) && 
-                             !t.getTransactionDate().isAfter(endDate))
-                .collect(Collectors.toList());
-        
-        return generateReport(transactions);
+        return generateReport(startDate, endDate);
     }
 
     @Override
@@ -49,13 +40,7 @@ public class SupplierReportServiceImpl implements SupplierReportService {
         LocalDate startDate = LocalDate.of(year, startMonth, 1);
         LocalDate endDate = startDate.plusMonths(3).minusDays(1);
         
-        // Lấy dữ liệu giao dịch chi tiêu trong khoảng thời gian
-        List<ExpenseTransaction> transactions = expenseTransactionRepository.findAll().stream()
-                .filter(t -> !t.getTransactionDate().isBefore(startDate) && 
-                             !t.getTransactionDate().isAfter(endDate))
-                .collect(Collectors.toList());
-        
-        return generateReport(transactions);
+        return generateReport(startDate, endDate);
     }
     
     @Override
@@ -64,89 +49,39 @@ public class SupplierReportServiceImpl implements SupplierReportService {
         LocalDate startDate = LocalDate.of(year, 1, 1);
         LocalDate endDate = LocalDate.of(year, 12, 31);
         
-        // Lấy dữ liệu giao dịch chi tiêu trong khoảng thời gian
-        List<ExpenseTransaction> transactions = expenseTransactionRepository.findAll().stream()
-                .filter(t -> !t.getTransactionDate().isBefore(startDate) && 
-                             !t.getTransactionDate().isAfter(endDate))
-                .collect(Collectors.toList());
-        
-        return generateReport(transactions);
+        return generateReport(startDate, endDate);
     }
     
-    private Map<String, Object> generateReport(List<ExpenseTransaction> transactions) {
-        Map<String, Object> result = new HashMap<>();
-        List<SupplierReportDTO> supplierReports = new ArrayList<>();
-        
-        // Tính tổng số tiền
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        BigDecimal paidAmount = BigDecimal.ZERO;
-        BigDecimal unpaidAmount = BigDecimal.ZERO;
-        
-        for (ExpenseTransaction transaction : transactions) {
-            totalAmount = totalAmount.add(transaction.getAmount());
-            if (transaction.getPaymentStatus() == ExpenseTransaction.PaymentStatus.PAID) {
-                paidAmount = paidAmount.add(transaction.getAmount());
-            } else {
-                unpaidAmount = unpaidAmount.add(transaction.getAmount());
-            }
-        }
-        
-        // Nhóm giao dịch theo nhà cung cấp
-        Map<Supplier, List<ExpenseTransaction>> transactionsBySupplier = new HashMap<>();
-        for (ExpenseTransaction transaction : transactions) {
-            Supplier supplier = transaction.getSupplier();
-            if (supplier != null) {
-                if (!transactionsBySupplier.containsKey(supplier)) {
-                    transactionsBySupplier.put(supplier, new ArrayList<>());
-                }
-                transactionsBySupplier.get(supplier).add(transaction);
-            }
+    /**
+     * Tổng hợp trong database theo (nhà cung cấp, danh mục, tháng, trạng thái) cho khoảng [startDate, endDate],
+     * sau đó cộng dồn theo id nên chi phí chỉ phụ thuộc số giao dịch trong kỳ
+     */
+    private Map<String, Object> generateReport(LocalDate startDate, LocalDate endDate) {
+        PartnerReportTotals totals = new PartnerReportTotals();
+        for (Object[] row : archiveReader.supplierReportRows(startDate, endDate)) {
+            totals.add(row, row[8] == ExpenseTransaction.PaymentStatus.PAID);
         }
+        BigDecimal totalAmount = totals.total.toBigDecimal();
         
         // Tạo báo cáo cho từng nhà cung cấp
-        for (Map.Entry<Supplier, List<ExpenseTransaction>> entry : transactionsBySupplier.entrySet()) {
-            Supplier supplier = entry.getKey();
-            List<ExpenseTransaction> supplierTransactions = entry.getValue();
-            
+        List<SupplierReportDTO> supplierReports = new ArrayList<>();
+        for (PartnerReportTotals.Partner supplier : totals.partners()) {
             SupplierReportDTO report = new SupplierReportDTO();
-            report.setSupplierId(supplier.getId());
-            report.setSupplierName(supplier.getName());
-            report.setEmail(supplier.getEmail());
-            report.setPhone(supplier.getPhone());
-            
-            // Tính tổng số tiền giao dịch của nhà cung cấp
-            BigDecimal supplierTotal = BigDecimal.ZERO;
-            BigDecimal supplierPaid = BigDecimal.ZERO;
-            BigDecimal supplierUnpaid = BigDecimal.ZERO;
-            
-            for (ExpenseTransaction transaction : supplierTransactions) {
-                supplierTotal = supplierTotal.add(transaction.getAmount());
-                if (transaction.getPaymentStatus() == ExpenseTransaction.PaymentStatus.PAID) {
-                    supplierPaid = supplierPaid.add(transaction.getAmount());
-                } else {
-                    supplierUnpaid = supplierUnpaid.add(transaction.getAmount());
-                }
-            }
+            report.setSupplierId(supplier.id);
+            report.setSupplierName(supplier.name);
+            report.setEmail(supplier.email);
+            report.setPhone(supplier.phone);
             
+            BigDecimal supplierTotal = supplier.total.toBigDecimal();
             report.setTotalAmount(supplierTotal);
-            report.setPaidAmount(supplierPaid);
-            report.setUnpaidAmount(supplierUnpaid);
+            report.setPaidAmount(supplier.settled.toBigDecimal());
+            report.setUnpaidAmount(supplier.outstanding.toBigDecimal());
             
             // Tính phần trăm đóng góp vào tổng chi phí
-            if (totalAmount.compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal percentage = supplierTotal
-                        .multiply(new BigDecimal("100"))
-                        .divide(totalAmount, 2, RoundingMode.HALF_UP);
-                report.setPercentage(percentage);
-            } else {
-                report.setPercentage(BigDecimal.ZERO);
-            }
-            
-            // Tạo thống kê theo tháng
-            report.setTransactionsByMonth(generateMonthlyTransactionSummary(supplierTransactions));
+            report.setPercentage(Money.percent(supplierTotal, totalAmount));
             
-            // Tạo thống kê theo danh mục
-            report.setTransactionsByCategory(generateCategorySummary(supplierTransactions));
+            report.setTransactionsByMonth(supplier.monthlySummary());
+            report.setTransactionsByCategory(supplier.categorySummary());
             
             supplierReports.add(report);
         }
@@ -155,108 +90,12 @@ public class SupplierReportServiceImpl implements SupplierReportService {
         supplierReports.sort((a, b) -> b.getTotalAmount().compareTo(a.getTotalAmount()));
         
         // Tạo kết quả báo cáo
+        Map<String, Object> result = new HashMap<>();
         result.put("entities", supplierReports);
         result.put("totalAmount", totalAmount);
-        result.put("paidAmount", paidAmount);
-        result.put("unpaidAmount", unpaidAmount);
-        
-        return result;
-    }
-    
-    private List<TransactionSummaryDTO> generateMonthlyTransactionSummary(List<ExpenseTransaction> transactions) {
-        Map<String, List<ExpenseTransaction>> transactionsByMonth = new HashMap<>();
-        
-        for (ExpenseTransaction transaction : transactions) {
-            LocalDate date = transaction.getTransactionDate();
-            String key = date.getYear() + "-" + date.getMonthValue();
-            
-            if (!transactionsByMonth.containsKey(key)) {
-                transactionsByMonth.put(key, new ArrayList<>());
-            }
-            transactionsByMonth.get(key).add(transaction);
-        }
-        
-        List<TransactionSummaryDTO> result = new ArrayList<>();
-        
-        for (Map.Entry<String, List<ExpenseTransaction>> entry : transactionsByMonth.entrySet()) {
-            String[] yearMonth = entry.getKey().split("-");
-            int year = Integer.parseInt(yearMonth[0]);
-            int month = Integer.parseInt(yearMonth[1]);
-            List<ExpenseTransaction> monthTransactions = entry.getValue();
-            
-            TransactionSummaryDTO summary = new TransactionSummaryDTO();
-            summary.setYear(year);
-            summary.setMonth(month);
-            summary.setTransactionCount(monthTransactions.size());
-            
-            BigDecimal totalAmount = BigDecimal.ZERO;
-            for (ExpenseTransaction transaction : monthTransactions) {
-                totalAmount = totalAmount.add(transaction.getAmount());
-            }
-            summary.setAmount(totalAmount);
-            
-            result.add(summary);
-        }
-        
-        // Sắp xếp theo năm và tháng
-        result.sort((a, b) -> {
-            if (a.getYear().equals(b.getYear())) {
-                return a.getMonth().compareTo(b.getMonth());
-            }
-            return a.getYear().compareTo(b.getYear());
-        });
-        
-        return result;
-    }
-    
-    private List<CategorySummaryDTO> generateCategorySummary(List<ExpenseTransaction> transactions) {
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        for (ExpenseTransaction transaction : transactions) {
-            totalAmount = totalAmount.add(transaction.getAmount());
-        }
-        
-        Map<ExpenseCategory, List<ExpenseTransaction>> transactionsByCategory = new HashMap<>();
-        
-        for (ExpenseTransaction transaction : transactions) {
-            ExpenseCategory category = transaction.getCategory();
-            if (category != null) {
-                if (!transactionsByCategory.containsKey(category)) {
-                    transactionsByCategory.put(category, new ArrayList<>());
-                }
-                transactionsByCategory.get(category).add(transaction);
-            }
-        }
-        
-        List<CategorySummaryDTO> result = new ArrayList<>();
-        
-        for (Map.Entry<ExpenseCategory, List<ExpenseTransaction>> entry : transactionsByCategory.entrySet()) {
-            ExpenseCategory category = entry.getKey();
-            List<ExpenseTransaction> categoryTransactions = entry.getValue();
-            
-            CategorySummaryDTO summary = new CategorySummaryDTO();
-            summary.setCategoryId(category.getId());
-            summary.setCategoryName(category.getName());
-            
-            BigDecimal categoryAmount = BigDecimal.ZERO;
-            for (ExpenseTransaction transaction : categoryTransactions) {
-                categoryAmount = categoryAmount.add(transaction.getAmount());
-            }
-            summary.setAmount(categoryAmount);
-            
-            if (totalAmount.compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal percentage = categoryAmount
-                        .multiply(new BigDecimal("100"))
-                        .divide(totalAmount, 2, RoundingMode.HALF_UP);
-                summary.setPercentage(percentage);
-            } else {
-                summary.setPercentage(BigDecimal.ZERO);
-            }
-            
-            result.add(summary);
-        }
-        
-        result.sort((a, b) -> b.getAmount().compareTo(a.getAmount()));
+        result.put("paidAmount", totals.settled.toBigDecimal());
+        result.put("unpaidAmount", totals.outstanding.toBigDecimal());
         
         return result;
     }
-} 
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package com.techzenacademy.TechFinance.service.impl;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,7 +16,12 @@ import com.techzenacademy.TechFinance.dto.page.PageResponse;
 import com.techzenacademy.TechFinance.entity.Supplier;
 import com.techzenacademy.TechFinance.entity.User;
 import com.techzenacademy.TechFinance.repository.SupplierRepository;
+import com.techzenacademy.TechFinance.repository.ExpenseTransactionRepository;
 import com.techzenacademy.TechFinance.repository.UserRepository;
+import com.techzenacademy.TechFinance.repository.projection.ListFields;
+import com.techzenacademy.TechFinance.repository.projection.SparseFieldQuery;
+import com.techzenacademy.TechFinance.repository.specification.FilterSpecifications;
+import com.techzenacademy.TechFinance.service.impl.search.ContactSuggestionIndex;
 
 import jakarta.persistence.EntityNotFoundException;
 
@@ -27,6 +33,18 @@ public class SupplierService {
     
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private ExpenseTransactionRepository expenseTransactionRepository;
+    
+    @Autowired
+    private DataVersionService dataVersionService;
+    
+    @Autowired
+    private ContactSuggestionIndex suggestionIndex;
+    
+    @Autowired
+    private SparseFieldQuery sparseFieldQuery;
     
     public List<SupplierDTO> getAllSuppliers() {
         return supplierRepository.findAll().stream()
@@ -61,13 +79,24 @@ public class SupplierService {
             Boolean isActive, 
             Pageable pageable) {
         
-        Page<Supplier> supplierPage = supplierRepository.findWithFiltersPageable(
-                name, email, phone, address, taxCode, isActive, pageable);
+        Page<Supplier> supplierPage = supplierRepository.findAll(
+                FilterSpecifications.suppliers(name, email, phone, address, taxCode, isActive), pageable);
         
         Page<SupplierDTO> dtoPage = supplierPage.map(this::mapToDTO);
         return new PageResponse<>(dtoPage);
     }
     
+    /**
+     * Như {@link #getPagedSuppliers} nhưng chỉ lấy các trường trong {@code fields} (ví dụ "name,phone")
+     */
+    public PageResponse<Map<String, Object>> getPagedSupplierFields(
+            String name, String email, String phone, String address, String taxCode, Boolean isActive,
+            String fields, Pageable pageable) {
+        List<String> selected = ListFields.SUPPLIERS.select(fields);
+        return new PageResponse<>(sparseFieldQuery.findAll(ListFields.SUPPLIERS, selected,
+                FilterSpecifications.suppliers(name, email, phone, address, taxCode, isActive), pageable));
+    }
+    
     public SupplierDTO getSupplierById(Integer id) {
         return supplierRepository.findById(id)
                 .map(this::mapToDTO)
@@ -103,6 +132,7 @@ public class SupplierService {
         supplier.setCreatedBy(getCurrentUser());
         
         Supplier savedSupplier = supplierRepository.save(supplier);
+        suggestionIndex.indexSupplier(savedSupplier);
         return mapToDTO(savedSupplier);
     }
     
@@ -159,6 +189,9 @@ public class SupplierService {
         }
         
         Supplier updatedSupplier = supplierRepository.save(supplier);
+        suggestionIndex.indexSupplier(updatedSupplier);
+        // Tên hiển thị trong báo cáo thay đổi: báo cáo đã cache hết hiệu lực
+        dataVersionService.markChanged();
         return mapToDTO(updatedSupplier);
     }
     
@@ -166,7 +199,13 @@ public class SupplierService {
         if (!supplierRepository.existsById(id)) {
             throw new EntityNotFoundException("Supplier not found with id: " + id);
         }
+        // Bảng giao dịch không có khóa ngoại (phân vùng theo năm) nên kiểm tra ở đây
+        if (expenseTransactionRepository.countBySupplierIdIncludingArchive(id) > 0) {
+            throw new IllegalArgumentException("Supplier is used by transactions and cannot be deleted");
+        }
         supplierRepository.deleteById(id);
+        suggestionIndex.removeSupplier(id);
+        dataVersionService.markChanged();
     }
     
     private SupplierDTO mapToDTO(Supplier supplier) {
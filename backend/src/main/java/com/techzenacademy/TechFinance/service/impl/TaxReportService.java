@@ -2,22 +2,50 @@ package com.techzenacademy.TechFinance.service.impl;
 
 import com.techzenacademy.TechFinance.dto.TaxReportDTO;
 import com.techzenacademy.TechFinance.entity.TaxRecord;
+import com.techzenacademy.TechFinance.entity.User;
 import com.techzenacademy.TechFinance.repository.TaxRecordRepository;
+import com.techzenacademy.TechFinance.repository.UserRepository;
+import com.techzenacademy.TechFinance.service.impl.archive.TransactionArchiveReader;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityNotFoundException;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Báo cáo thuế chỉ đọc: số liệu được tính trực tiếp từ giao dịch bằng một truy vấn gộp theo tháng
+ * cho cả năm/khoảng thời gian. tax_records chỉ được ghi khi chốt kỳ ({@link #closePeriod}),
+ * sau đó kỳ đã chốt luôn đọc số liệu đã lưu.
+ */
 @Service
+@Transactional(readOnly = true)
 public class TaxReportService {
 
+    // Thuế thu nhập 10% tổng thu nhập, thuế chi phí 5% tổng chi phí
+    private static final BigDecimal INCOME_TAX_RATE = new BigDecimal("0.10");
+    private static final BigDecimal EXPENSE_TAX_RATE = new BigDecimal("0.05");
+
     @Autowired
     private TaxRecordRepository taxRecordRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionArchiveReader archiveReader;
+
     /**
      * Lấy báo cáo thuế theo tháng và năm
      */
@@ -26,26 +54,10 @@ public class TaxReportService {
         if (year < 2000 || month < 1 || month > 12) {
             throw new IllegalArgumentException("Giá trị năm hoặc tháng không hợp lệ");
         }
-        
-        // Gọi stored procedure để tính và lưu báo cáo thuế
-        List<Object[]> result = taxRecordRepository.generateTaxReport(year, month);
-        
-        if (result.isEmpty()) {
-            throw new IllegalArgumentException("Không thể tạo báo cáo thuế cho " + month + "/" + year);
-        }
-        
-        // Lấy kết quả từ stored procedure
-        Object[] row = result.get(0);
-        TaxReportDTO report = new TaxReportDTO();
-        report.setYear((Integer) row[0]);
-        report.setMonth((Integer) row[1]);
-        report.setIncomeTax(new BigDecimal(row[2].toString()));
-        report.setExpenseTax(new BigDecimal(row[3].toString()));
-        report.setTaxDifference(new BigDecimal(row[4].toString()));
-        
-        return report;
+
+        return getReports(YearMonth.of(year, month), YearMonth.of(year, month)).get(0);
     }
-    
+
     /**
      * Lấy báo cáo thuế theo năm
      */
@@ -54,47 +66,114 @@ public class TaxReportService {
         if (year < 2000) {
             throw new IllegalArgumentException("Giá trị năm không hợp lệ");
         }
-        
-        List<TaxReportDTO> reports = new ArrayList<>();
-        
-        // Tạo báo cáo cho tất cả các tháng trong năm
-        for (int month = 1; month <= 12; month++) {
-            try {
-                TaxReportDTO report = getTaxReport(year, month);
-                reports.add(report);
-            } catch (Exception e) {
-                // Nếu không có dữ liệu cho tháng, tạo báo cáo trống
-                TaxReportDTO emptyReport = new TaxReportDTO();
-                emptyReport.setYear(year);
-                emptyReport.setMonth(month);
-                emptyReport.setIncomeTax(BigDecimal.ZERO);
-                emptyReport.setExpenseTax(BigDecimal.ZERO);
-                emptyReport.setTaxDifference(BigDecimal.ZERO);
-                reports.add(emptyReport);
-            }
-        }
-        
-        return reports;
+
+        return getReports(YearMonth.of(year, 1), YearMonth.of(year, 12));
     }
-    
+
     /**
-     * Lấy báo cáo thuế theo khoảng thời gian
+     * Lấy báo cáo thuế theo khoảng thời gian (tính theo tháng trọn vẹn)
      */
     public List<TaxReportDTO> getTaxReportsByDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return new ArrayList<>();
+        }
+
+        return getReports(YearMonth.from(startDate), YearMonth.from(endDate));
+    }
+
+    /**
+     * Chốt kỳ thuế: lưu số liệu hiện tại vào tax_records, các lần đọc sau dùng số liệu đã chốt
+     */
+    @Transactional
+    public TaxReportDTO closePeriod(Integer year, Integer month, String notes) {
+        if (year < 2000 || month < 1 || month > 12) {
+            throw new IllegalArgumentException("Giá trị năm hoặc tháng không hợp lệ");
+        }
+        YearMonth period = YearMonth.of(year, month);
+        if (!period.isBefore(YearMonth.now())) {
+            throw new IllegalArgumentException("Chỉ có thể chốt kỳ thuế đã kết thúc");
+        }
+
+        TaxRecord record = taxRecordRepository.findByYearAndMonth(year, month).orElseGet(TaxRecord::new);
+        if (record.getClosedAt() != null) {
+            throw new IllegalArgumentException("Kỳ thuế " + month + "/" + year + " đã được chốt");
+        }
+
+        TaxReportDTO report = getReports(period, period).get(0);
+        record.setYear(year);
+        record.setMonth(month);
+        record.setIncomeTax(report.getIncomeTax());
+        record.setExpenseTax(report.getExpenseTax());
+        record.setTaxDifference(report.getTaxDifference());
+        record.setNotes(notes);
+        record.setCreatedBy(getCurrentUser());
+        record.setClosedAt(LocalDateTime.now());
+
+        return mapToDTO(taxRecordRepository.save(record));
+    }
+
+    /**
+     * Báo cáo cho từng tháng trong [from, to]: kỳ đã chốt lấy từ tax_records, kỳ còn lại tính từ giao dịch
+     */
+    private List<TaxReportDTO> getReports(YearMonth from, YearMonth to) {
+        Map<YearMonth, TaxRecord> closed = new HashMap<>();
+        for (TaxRecord record : taxRecordRepository.findClosedBetween(periodOf(from), periodOf(to))) {
+            closed.put(YearMonth.of(record.getYear(), record.getMonth()), record);
+        }
+
+        // Chỉ truy vấn giao dịch khi còn kỳ chưa chốt
+        Map<YearMonth, BigDecimal[]> totals = new HashMap<>();
+        long months = from.until(to, ChronoUnit.MONTHS) + 1;
+        if (closed.size() < months) {
+            for (Object[] row : archiveReader.taxAmountsByMonth(from.atDay(1), to.atEndOfMonth())) {
+                YearMonth period = YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+                totals.put(period, new BigDecimal[] {
+                        new BigDecimal(row[2].toString()), new BigDecimal(row[3].toString()) });
+            }
+        }
+
         List<TaxReportDTO> reports = new ArrayList<>();
-        
-        LocalDate currentDate = startDate.withDayOfMonth(1);
-        while (!currentDate.isAfter(endDate)) {
-            try {
-                TaxReportDTO report = getTaxReport(currentDate.getYear(), currentDate.getMonthValue());
-                reports.add(report);
-            } catch (Exception e) {
-                // Bỏ qua nếu không có dữ liệu
+        for (YearMonth period = from; !period.isAfter(to); period = period.plusMonths(1)) {
+            TaxRecord record = closed.get(period);
+            if (record != null) {
+                reports.add(mapToDTO(record));
+                continue;
             }
-            
-            currentDate = currentDate.plusMonths(1);
+            BigDecimal[] amounts = totals.getOrDefault(period, new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO });
+            BigDecimal incomeTax = amounts[0].multiply(INCOME_TAX_RATE).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal expenseTax = amounts[1].multiply(EXPENSE_TAX_RATE).setScale(2, RoundingMode.HALF_UP);
+
+            TaxReportDTO report = new TaxReportDTO();
+            report.setYear(period.getYear());
+            report.setMonth(period.getMonthValue());
+            report.setIncomeTax(incomeTax);
+            report.setExpenseTax(expenseTax);
+            report.setTaxDifference(incomeTax.subtract(expenseTax));
+            report.setClosed(false);
+            reports.add(report);
         }
-        
         return reports;
     }
-}
\ No newline at end of file
+
+    private static int periodOf(YearMonth period) {
+        return period.getYear() * 100 + period.getMonthValue();
+    }
+
+    private TaxReportDTO mapToDTO(TaxRecord record) {
+        TaxReportDTO report = new TaxReportDTO();
+        report.setYear(record.getYear());
+        report.setMonth(record.getMonth());
+        report.setIncomeTax(record.getIncomeTax());
+        report.setExpenseTax(record.getExpenseTax());
+        report.setTaxDifference(record.getTaxDifference());
+        report.setNotes(record.getNotes());
+        report.setClosed(record.getClosedAt() != null);
+        return report;
+    }
+
+    private User getCurrentUser() {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+    }
+}
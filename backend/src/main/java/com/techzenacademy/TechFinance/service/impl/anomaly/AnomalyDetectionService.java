@@ -0,0 +1,249 @@
+package com.techzenacademy.TechFinance.service.impl.anomaly;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.techzenacademy.TechFinance.entity.ExpenseTransaction;
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.entity.TransactionFlag;
+import com.techzenacademy.TechFinance.entity.TransactionFlag.FlagType;
+import com.techzenacademy.TechFinance.entity.TransactionFlag.TransactionType;
+import com.techzenacademy.TechFinance.repository.ExpenseTransactionRepository;
+import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
+import com.techzenacademy.TechFinance.repository.TransactionFlagRepository;
+import com.techzenacademy.TechFinance.service.impl.AfterCommit;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Phát hiện giao dịch bất thường ngay khi ghi, thay vì tính lại trên toàn bộ kỳ mỗi lần xem báo cáo.
+ * <ul>
+ *   <li>UNUSUAL_AMOUNT: số tiền cao hơn trung bình của danh mục quá {@code anomaly.z-threshold} độ lệch chuẩn.
+ *       Thống kê (số lượng, trung bình, phương sai) của từng danh mục được giữ trong bộ nhớ và cập nhật sau commit</li>
+ *   <li>DUPLICATE_REFERENCE: mã tham chiếu trùng với giao dịch khác cùng loại trên toàn bộ dữ liệu,
+ *       tra cứu qua chỉ mục reference_no nên chỉ đọc các giao dịch cùng mã</li>
+ *   <li>Cờ được lưu trong bảng transaction_flags (cùng transaction với giao dịch) và đọc theo khoảng ngày</li>
+ * </ul>
+ */
+@Service
+public class AnomalyDetectionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnomalyDetectionService.class);
+
+    @Autowired
+    private IncomeTransactionRepository incomeTransactionRepository;
+
+    @Autowired
+    private ExpenseTransactionRepository expenseTransactionRepository;
+
+    @Autowired
+    private TransactionFlagRepository flagRepository;
+
+    @Value("${anomaly.z-threshold:3.0}")
+    private double zThreshold;
+
+    @Value("${anomaly.min-samples:5}")
+    private int minSamples;
+
+    private final Side income = new Side(TransactionType.INCOME,
+            "Giao dịch thu nhập có giá trị cao bất thường",
+            "Mã tham chiếu bị trùng lặp trong giao dịch thu nhập: ");
+    private final Side expense = new Side(TransactionType.EXPENSE,
+            "Giao dịch chi phí có giá trị cao bất thường",
+            "Mã tham chiếu bị trùng lặp trong giao dịch chi phí: ");
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadStatistics() {
+        load(income, incomeTransactionRepository.amountStatsByCategory());
+        load(expense, expenseTransactionRepository.amountStatsByCategory());
+        logger.info("Anomaly statistics loaded for {} income and {} expense categories",
+                income.stats.size(), expense.stats.size());
+    }
+
+    /**
+     * Gọi sau khi lưu giao dịch thu. Với giao dịch mới, các tham số old* là null.
+     */
+    @Transactional
+    public void onIncomeSaved(IncomeTransaction t, Integer oldCategoryId, BigDecimal oldAmount, String oldReferenceNo) {
+        onSaved(income, t.getId(), t.getCategory().getId(), t.getAmount(), t.getTransactionDate(), t.getReferenceNo(),
+                oldCategoryId, oldAmount, oldReferenceNo);
+    }
+
+    /**
+     * Gọi sau khi xóa giao dịch thu
+     */
+    @Transactional
+    public void onIncomeDeleted(IncomeTransaction t) {
+        onDeleted(income, t.getId(), t.getCategory().getId(), t.getAmount(), t.getReferenceNo());
+    }
+
+    /**
+     * Gọi sau khi lưu giao dịch chi. Với giao dịch mới, các tham số old* là null.
+     */
+    @Transactional
+    public void onExpenseSaved(ExpenseTransaction t, Integer oldCategoryId, BigDecimal oldAmount, String oldReferenceNo) {
+        onSaved(expense, t.getId(), t.getCategory().getId(), t.getAmount(), t.getTransactionDate(), t.getReferenceNo(),
+                oldCategoryId, oldAmount, oldReferenceNo);
+    }
+
+    /**
+     * Gọi sau khi xóa giao dịch chi
+     */
+    @Transactional
+    public void onExpenseDeleted(ExpenseTransaction t) {
+        onDeleted(expense, t.getId(), t.getCategory().getId(), t.getAmount(), t.getReferenceNo());
+    }
+
+    /**
+     * Các cờ bất thường của giao dịch có ngày nằm trong khoảng
+     */
+    public List<TransactionFlag> getFlags(LocalDate startDate, LocalDate endDate) {
+        return flagRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
+    }
+
+    private void onSaved(Side side, Integer id, Integer categoryId, BigDecimal amount, LocalDate date, String referenceNo,
+                         Integer oldCategoryId, BigDecimal oldAmount, String oldReferenceNo) {
+        boolean isUpdate = oldAmount != null;
+
+        // So sánh với thống kê của danh mục khi chưa có giao dịch này
+        RunningStats baseline = side.snapshot(categoryId);
+        if (isUpdate && categoryId.equals(oldCategoryId)) {
+            baseline.remove(oldAmount.doubleValue());
+        }
+        double z = baseline.zScore(amount.doubleValue());
+        if (baseline.getCount() >= minSamples && z > zThreshold) {
+            upsert(side, FlagType.UNUSUAL_AMOUNT, id, side.unusualDescription, amount, date, referenceNo, z);
+        } else if (isUpdate) {
+            flagRepository.deleteByTransactionAndFlagType(side.type, id, FlagType.UNUSUAL_AMOUNT);
+        }
+
+        if (isUpdate && oldReferenceNo != null && !oldReferenceNo.equals(referenceNo)) {
+            refreshReferenceGroup(side, oldReferenceNo);
+        }
+        if (isBlank(referenceNo)) {
+            if (isUpdate) {
+                flagRepository.deleteByTransactionAndFlagType(side.type, id, FlagType.DUPLICATE_REFERENCE);
+            }
+        } else {
+            refreshReferenceGroup(side, referenceNo);
+        }
+
+        AfterCommit.run(() -> side.update(oldCategoryId, oldAmount, categoryId, amount));
+    }
+
+    private void onDeleted(Side side, Integer id, Integer categoryId, BigDecimal amount, String referenceNo) {
+        flagRepository.deleteByTransaction(side.type, id);
+        if (!isBlank(referenceNo)) {
+            refreshReferenceGroup(side, referenceNo);
+        }
+        AfterCommit.run(() -> side.update(categoryId, amount, null, null));
+    }
+
+    /**
+     * Đánh giá lại cờ trùng mã tham chiếu cho mọi giao dịch có mã {@code referenceNo}
+     */
+    private void refreshReferenceGroup(Side side, String referenceNo) {
+        if (isBlank(referenceNo)) {
+            return;
+        }
+        List<Row> rows;
+        if (side == income) {
+            rows = incomeTransactionRepository.findByReferenceNo(referenceNo).stream()
+                    .map(t -> new Row(t.getId(), t.getAmount(), t.getTransactionDate())).toList();
+        } else {
+            rows = expenseTransactionRepository.findByReferenceNo(referenceNo).stream()
+                    .map(t -> new Row(t.getId(), t.getAmount(), t.getTransactionDate())).toList();
+        }
+
+        if (rows.size() > 1) {
+            for (Row row : rows) {
+                upsert(side, FlagType.DUPLICATE_REFERENCE, row.id(), side.duplicateDescription + referenceNo,
+                        row.amount(), row.date(), referenceNo, null);
+            }
+        } else {
+            for (Row row : rows) {
+                flagRepository.deleteByTransactionAndFlagType(side.type, row.id(), FlagType.DUPLICATE_REFERENCE);
+            }
+        }
+    }
+
+    private void upsert(Side side, FlagType flagType, Integer transactionId, String description,
+                        BigDecimal amount, LocalDate date, String referenceNo, Double score) {
+        TransactionFlag flag = flagRepository
+                .findByTransactionTypeAndTransactionIdAndFlagType(side.type, transactionId, flagType)
+                .orElseGet(TransactionFlag::new);
+        flag.setTransactionType(side.type);
+        flag.setTransactionId(transactionId);
+        flag.setFlagType(flagType);
+        flag.setDescription(description);
+        flag.setAmount(amount);
+        flag.setTransactionDate(date);
+        flag.setReferenceNo(referenceNo);
+        flag.setScore(score);
+        flagRepository.save(flag);
+    }
+
+    private void load(Side side, List<Object[]> rows) {
+        Map<Integer, RunningStats> loaded = new HashMap<>();
+        for (Object[] row : rows) {
+            loaded.put((Integer) row[0], RunningStats.of(
+                    ((Number) row[1]).longValue(), toDouble(row[2]), toDouble(row[3])));
+        }
+        synchronized (side) {
+            side.stats.clear();
+            side.stats.putAll(loaded);
+        }
+    }
+
+    private static double toDouble(Object value) {
+        return value == null ? 0 : ((Number) value).doubleValue();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private record Row(Integer id, BigDecimal amount, LocalDate date) {
+    }
+
+    /**
+     * Trạng thái phát hiện bất thường của một loại giao dịch (thu hoặc chi)
+     */
+    private static class Side {
+        private final TransactionType type;
+        private final String unusualDescription;
+        private final String duplicateDescription;
+        private final Map<Integer, RunningStats> stats = new HashMap<>();
+
+        Side(TransactionType type, String unusualDescription, String duplicateDescription) {
+            this.type = type;
+            this.unusualDescription = unusualDescription;
+            this.duplicateDescription = duplicateDescription;
+        }
+
+        synchronized RunningStats snapshot(Integer categoryId) {
+            RunningStats current = stats.get(categoryId);
+            return current != null ? current.copy() : new RunningStats();
+        }
+
+        synchronized void update(Integer oldCategoryId, BigDecimal oldAmount, Integer newCategoryId, BigDecimal newAmount) {
+            if (oldCategoryId != null && oldAmount != null) {
+                stats.computeIfAbsent(oldCategoryId, k -> new RunningStats()).remove(oldAmount.doubleValue());
+            }
+            if (newCategoryId != null && newAmount != null) {
+                stats.computeIfAbsent(newCategoryId, k -> new RunningStats()).add(newAmount.doubleValue());
+            }
+        }
+    }
+}
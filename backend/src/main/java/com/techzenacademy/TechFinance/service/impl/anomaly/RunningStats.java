@@ -0,0 +1,80 @@
+package com.techzenacademy.TechFinance.service.impl.anomaly;
+
+/**
+ * Thống kê chạy (số lượng, trung bình, phương sai) theo thuật toán Welford,
+ * hỗ trợ cả thêm và bớt một giá trị để cập nhật khi giao dịch bị sửa hoặc xóa.
+ * Không thread-safe: nơi sử dụng tự đồng bộ.
+ */
+public class RunningStats {
+
+    private long count;
+    private double mean;
+    private double m2;
+
+    public RunningStats() {
+    }
+
+    private RunningStats(long count, double mean, double m2) {
+        this.count = count;
+        this.mean = mean;
+        this.m2 = m2;
+    }
+
+    /**
+     * Khởi tạo từ kết quả tổng hợp SQL: COUNT, SUM và SUM của bình phương
+     */
+    public static RunningStats of(long count, double sum, double sumOfSquares) {
+        if (count <= 0) {
+            return new RunningStats();
+        }
+        double mean = sum / count;
+        return new RunningStats(count, mean, Math.max(0, sumOfSquares - sum * mean));
+    }
+
+    public RunningStats copy() {
+        return new RunningStats(count, mean, m2);
+    }
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    public void remove(double value) {
+        if (count <= 1) {
+            count = 0;
+            mean = 0;
+            m2 = 0;
+            return;
+        }
+        double delta = value - mean;
+        count--;
+        mean -= delta / count;
+        m2 = Math.max(0, m2 - delta * (value - mean));
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Độ lệch chuẩn mẫu (chia cho n - 1)
+     */
+    public double getStdDev() {
+        return count > 1 ? Math.sqrt(m2 / (count - 1)) : 0;
+    }
+
+    /**
+     * Số độ lệch chuẩn mà {@code value} cách trung bình; 0 nếu chưa đủ dữ liệu hoặc mọi giá trị bằng nhau
+     */
+    public double zScore(double value) {
+        double stdDev = getStdDev();
+        return stdDev > 0 ? (value - mean) / stdDev : 0;
+    }
+}
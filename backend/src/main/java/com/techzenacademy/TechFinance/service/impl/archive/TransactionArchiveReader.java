@@ -0,0 +1,197 @@
+package com.techzenacademy.TechFinance.service.impl.archive;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.techzenacademy.TechFinance.entity.ExpenseTransaction;
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.repository.ExpenseTransactionRepository;
+import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
+import com.techzenacademy.TechFinance.repository.TaxRecordRepository;
+import com.techzenacademy.TechFinance.repository.TransactionArchiveRunRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Đọc giao dịch cho báo cáo, tự thêm các bảng lưu trữ khi khoảng ngày chạm vào năm đã lưu trữ.
+ * Khoảng ngày chỉ gồm các năm chưa lưu trữ dùng đúng truy vấn như trước (chỉ bảng chính, được cắt phân vùng).
+ * <p>
+ * Danh sách năm đã lưu trữ được nạp khi khởi động, cập nhật ngay khi job lưu trữ chạy trên instance này
+ * và đọc lại định kỳ cho các instance khác.
+ */
+@Service
+public class TransactionArchiveReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiveReader.class);
+
+    // Khoảng ngày bao mọi giao dịch, dùng cho các báo cáo không lọc theo thời gian
+    private static final LocalDate ALL_START = LocalDate.of(1900, 1, 1);
+    private static final LocalDate ALL_END = LocalDate.of(9999, 12, 31);
+
+    @Autowired
+    private IncomeTransactionRepository incomeTransactionRepository;
+
+    @Autowired
+    private ExpenseTransactionRepository expenseTransactionRepository;
+
+    @Autowired
+    private TaxRecordRepository taxRecordRepository;
+
+    @Autowired
+    private TransactionArchiveRunRepository archiveRunRepository;
+
+    // Các năm có dữ liệu trong bảng lưu trữ, thay cả tập khi cập nhật
+    private volatile Set<Integer> archivedYears = Set.of();
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${transaction-archive.refresh-interval-ms:60000}")
+    public void refresh() {
+        try {
+            archivedYears = Set.copyOf(archiveRunRepository.findArchivedYears());
+        } catch (RuntimeException e) {
+            logger.warn("Could not load archived transaction years: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Đánh dấu năm bắt đầu có dữ liệu trong bảng lưu trữ (gọi trước khi chuyển lô đầu tiên)
+     */
+    void markArchived(int year) {
+        Set<Integer> years = new TreeSet<>(archivedYears);
+        years.add(year);
+        archivedYears = Set.copyOf(years);
+    }
+
+    public Set<Integer> archivedYears() {
+        return archivedYears;
+    }
+
+    /**
+     * Khoảng [startDate, endDate] có chứa năm đã lưu trữ hay không
+     */
+    public boolean includesArchived(LocalDate startDate, LocalDate endDate) {
+        for (int year : archivedYears) {
+            if (year >= startDate.getYear() && year <= endDate.getYear()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<IncomeTransaction> incomesBetween(LocalDate startDate, LocalDate endDate) {
+        if (includesArchived(startDate, endDate)) {
+            return incomeTransactionRepository.findByTransactionDateBetweenIncludingArchive(startDate, endDate);
+        }
+        return incomeTransactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
+    }
+
+    public List<ExpenseTransaction> expensesBetween(LocalDate startDate, LocalDate endDate) {
+        if (includesArchived(startDate, endDate)) {
+            return expenseTransactionRepository.findByTransactionDateBetweenIncludingArchive(startDate, endDate);
+        }
+        return expenseTransactionRepository.findByTransactionDateBetweenOrderByTransactionDateDesc(startDate, endDate);
+    }
+
+    /**
+     * Tất cả giao dịch thu, kể cả các năm đã lưu trữ
+     */
+    public List<IncomeTransaction> allIncomes() {
+        if (archivedYears.isEmpty()) {
+            return incomeTransactionRepository.findAll();
+        }
+        return incomeTransactionRepository.findByTransactionDateBetweenIncludingArchive(ALL_START, ALL_END);
+    }
+
+    /**
+     * Tất cả giao dịch chi, kể cả các năm đã lưu trữ
+     */
+    public List<ExpenseTransaction> allExpenses() {
+        if (archivedYears.isEmpty()) {
+            return expenseTransactionRepository.findAll();
+        }
+        return expenseTransactionRepository.findByTransactionDateBetweenIncludingArchive(ALL_START, ALL_END);
+    }
+
+    /**
+     * Như {@link IncomeTransactionRepository#sumByMonthAndStatus}: (năm, tháng, trạng thái, tổng tiền, số lượng)
+     */
+    public List<Object[]> incomeByMonthAndStatus(LocalDate startDate, LocalDate endDate) {
+        if (includesArchived(startDate, endDate)) {
+            return withStatus(incomeTransactionRepository.sumByMonthAndStatusIncludingArchive(startDate, endDate),
+                    2, IncomeTransaction.PaymentStatus::valueOf);
+        }
+        return incomeTransactionRepository.sumByMonthAndStatus(startDate, endDate);
+    }
+
+    /**
+     * Như {@link ExpenseTransactionRepository#sumByMonthAndStatus}: (năm, tháng, trạng thái, tổng tiền, số lượng)
+     */
+    public List<Object[]> expenseByMonthAndStatus(LocalDate startDate, LocalDate endDate) {
+        if (includesArchived(startDate, endDate)) {
+            return withStatus(expenseTransactionRepository.sumByMonthAndStatusIncludingArchive(startDate, endDate),
+                    2, ExpenseTransaction.PaymentStatus::valueOf);
+        }
+        return expenseTransactionRepository.sumByMonthAndStatus(startDate, endDate);
+    }
+
+    /**
+     * Như {@link IncomeTransactionRepository#sumByCategoryAndMonth}: (id danh mục, tên, năm, tháng, tổng tiền)
+     */
+    public List<Object[]> incomeByCategoryAndMonth(LocalDate startDate, LocalDate endDate) {
+        if (includesArchived(startDate, endDate)) {
+            return incomeTransactionRepository.sumByCategoryAndMonthIncludingArchive(startDate, endDate);
+        }
+        return incomeTransactionRepository.sumByCategoryAndMonth(startDate, endDate);
+    }
+
+    public List<Object[]> customerReportRows(LocalDate startDate, LocalDate endDate) {
+        if (includesArchived(startDate, endDate)) {
+            return withStatus(incomeTransactionRepository.sumByCustomerCategoryMonthAndStatusIncludingArchive(startDate, endDate),
+                    8, IncomeTransaction.PaymentStatus::valueOf);
+        }
+        return incomeTransactionRepository.sumByCustomerCategoryMonthAndStatus(startDate, endDate);
+    }
+
+    public List<Object[]> supplierReportRows(LocalDate startDate, LocalDate endDate) {
+        if (includesArchived(startDate, endDate)) {
+            return withStatus(expenseTransactionRepository.sumBySupplierCategoryMonthAndStatusIncludingArchive(startDate, endDate),
+                    8, ExpenseTransaction.PaymentStatus::valueOf);
+        }
+        return expenseTransactionRepository.sumBySupplierCategoryMonthAndStatus(startDate, endDate);
+    }
+
+    /**
+     * Như {@link TaxRecordRepository#sumAmountsByMonth}: (năm, tháng, tổng thu, tổng chi)
+     */
+    public List<Object[]> taxAmountsByMonth(LocalDate startDate, LocalDate endDate) {
+        if (includesArchived(startDate, endDate)) {
+            return taxRecordRepository.sumAmountsByMonthIncludingArchive(startDate, endDate);
+        }
+        return taxRecordRepository.sumAmountsByMonth(startDate, endDate);
+    }
+
+    /**
+     * Truy vấn native trả trạng thái dạng chuỗi: đổi sang enum để dòng giống hệt kết quả JPQL
+     */
+    private static List<Object[]> withStatus(List<Object[]> rows, int column, Function<String, ?> toStatus) {
+        for (Object[] row : rows) {
+            if (row[column] != null) {
+                row[column] = toStatus.apply(row[column].toString());
+            }
+        }
+        return rows;
+    }
+}
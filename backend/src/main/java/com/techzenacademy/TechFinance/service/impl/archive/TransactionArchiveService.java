@@ -0,0 +1,320 @@
+package com.techzenacademy.TechFinance.service.impl.archive;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.techzenacademy.TechFinance.entity.TransactionArchiveRun;
+import com.techzenacademy.TechFinance.repository.TaxRecordRepository;
+import com.techzenacademy.TechFinance.repository.TransactionArchiveRunRepository;
+import com.techzenacademy.TechFinance.service.impl.DataVersionService;
+import com.techzenacademy.TechFinance.service.impl.columnar.ColumnarTransactionStore;
+import com.techzenacademy.TechFinance.service.impl.search.TransactionSearchIndex;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Quản lý phân vùng theo năm và lưu trữ giao dịch cũ:
+ * <ul>
+ *   <li>Luôn có sẵn phân vùng cho năm nay và năm sau (tách từ {@code p_future})</li>
+ *   <li>Năm đủ điều kiện (cũ hơn {@code transaction-archive.retain-years} năm, đã chốt thuế cả 12 tháng,
+ *       không còn khoản chưa thu/chưa trả) được chuyển sang bảng {@code *_archive} nén</li>
+ *   <li>Chuyển theo lô id tăng dần, mỗi lô chép rồi xóa trong một transaction ngắn, nghỉ giữa các lô
+ *       để không giữ khóa lâu trên bảng đang ghi</li>
+ * </ul>
+ * Báo cáo đọc năm đã lưu trữ qua {@link TransactionArchiveReader}. Tắt mặc định ({@code transaction-archive.enabled}).
+ */
+@Service
+public class TransactionArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiveService.class);
+
+    private static final String INCOME_COLUMNS = "transaction_id, category_id, customer_id, transaction_date, amount, "
+            + "payment_status, description, reference_no, created_by, created_at, updated_at";
+    private static final String EXPENSE_COLUMNS = "transaction_id, category_id, supplier_id, transaction_date, amount, "
+            + "payment_status, description, reference_no, created_by, created_at, updated_at";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransactionArchiveRunRepository archiveRunRepository;
+
+    @Autowired
+    private TaxRecordRepository taxRecordRepository;
+
+    @Autowired
+    private TransactionArchiveReader archiveReader;
+
+    @Autowired
+    private ColumnarTransactionStore columnarStore;
+
+    @Autowired
+    private TransactionSearchIndex searchIndex;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${transaction-archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${transaction-archive.retain-years:2}")
+    private int retainYears;
+
+    @Value("${transaction-archive.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${transaction-archive.chunk-pause-ms:200}")
+    private long chunkPauseMs;
+
+    @Value("${transaction-archive.refresh-interval-ms:60000}")
+    private long refreshIntervalMs;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ensurePartitions(LocalDate.now().getYear());
+    }
+
+    /**
+     * Chạy ngoài giờ: thêm phân vùng cho năm mới rồi lưu trữ các năm đủ điều kiện (chạy nền)
+     */
+    @Scheduled(cron = "${transaction-archive.cron:0 30 2 * * *}")
+    public void scheduledRun() {
+        int currentYear = LocalDate.now().getYear();
+        ensurePartitions(currentYear);
+        if (enabled) {
+            List<Integer> years = eligibleYears(currentYear);
+            if (!years.isEmpty()) {
+                startArchive(years);
+            }
+        }
+    }
+
+    /**
+     * Lưu trữ một năm theo yêu cầu (quản trị viên). Trả về false nếu đang có lượt lưu trữ khác chạy.
+     */
+    public boolean archiveYear(int year) {
+        if (!enabled) {
+            throw new IllegalArgumentException("Lưu trữ giao dịch đang tắt (transaction-archive.enabled=false)");
+        }
+        String reason = ineligibleReason(year, LocalDate.now().getYear());
+        if (reason != null) {
+            throw new IllegalArgumentException("Năm " + year + " chưa thể lưu trữ: " + reason);
+        }
+        return startArchive(List.of(year));
+    }
+
+    public List<TransactionArchiveRun> getRuns() {
+        return archiveRunRepository.findAll();
+    }
+
+    /**
+     * Tách phân vùng cho năm nay và năm sau từ {@code p_future} nếu chưa có. Bỏ qua nếu bảng chưa được phân vùng.
+     */
+    void ensurePartitions(int currentYear) {
+        for (String table : List.of("income_transactions", "expense_transactions")) {
+            try {
+                List<String> partitions = jdbcTemplate.queryForList(
+                        "SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL",
+                        String.class, table);
+                if (!partitions.contains("p_future")) {
+                    continue;
+                }
+                for (int year = currentYear; year <= currentYear + 1; year++) {
+                    if (!partitions.contains("p" + year)) {
+                        jdbcTemplate.execute("ALTER TABLE " + table + " REORGANIZE PARTITION p_future INTO ("
+                                + "PARTITION p" + year + " VALUES LESS THAN (" + (year + 1) + "), "
+                                + "PARTITION p_future VALUES LESS THAN MAXVALUE)");
+                        logger.info("Added partition p{} to {}", year, table);
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not maintain partitions of {}: {}", table, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Các năm còn dữ liệu trong bảng chính và đủ điều kiện lưu trữ, tăng dần
+     */
+    List<Integer> eligibleYears(int currentYear) {
+        Integer firstYear = jdbcTemplate.queryForObject(
+                "SELECT MIN(y) FROM (SELECT MIN(YEAR(transaction_date)) AS y FROM income_transactions "
+                        + "UNION ALL SELECT MIN(YEAR(transaction_date)) FROM expense_transactions) t",
+                Integer.class);
+        if (firstYear == null) {
+            return Collections.emptyList();
+        }
+        List<Integer> years = new ArrayList<>();
+        for (int year = firstYear; year < currentYear - retainYears; year++) {
+            if (ineligibleReason(year, currentYear) == null) {
+                years.add(year);
+            }
+        }
+        return years;
+    }
+
+    /**
+     * Lý do năm chưa được lưu trữ, null nếu đủ điều kiện
+     */
+    String ineligibleReason(int year, int currentYear) {
+        if (year >= currentYear - retainYears) {
+            return "chỉ lưu trữ các năm trước " + (currentYear - retainYears);
+        }
+        TransactionArchiveRun run = archiveRunRepository.findById(year).orElse(null);
+        if (run != null && run.getStatus() == TransactionArchiveRun.Status.COMPLETED) {
+            return "đã lưu trữ";
+        }
+        if (taxRecordRepository.findClosedBetween(year * 100 + 1, year * 100 + 12).size() < 12) {
+            return "chưa chốt thuế đủ 12 tháng";
+        }
+        LocalDate start = LocalDate.of(year, 1, 1);
+        LocalDate end = LocalDate.of(year, 12, 31);
+        Long outstanding = jdbcTemplate.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM income_transactions "
+                        + "WHERE transaction_date BETWEEN ? AND ? AND payment_status = 'PENDING') + "
+                        + "(SELECT COUNT(*) FROM expense_transactions "
+                        + "WHERE transaction_date BETWEEN ? AND ? AND payment_status = 'UNPAID')",
+                Long.class, start, end, start, end);
+        if (outstanding != null && outstanding > 0) {
+            return "còn " + outstanding + " giao dịch chưa thu/chưa trả";
+        }
+        return null;
+    }
+
+    private boolean startArchive(List<Integer> years) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("transaction-archive").start(() -> {
+            try {
+                for (int year : years) {
+                    archive(year);
+                }
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    private void archive(int year) {
+        TransactionArchiveRun run = archiveRunRepository.findById(year).orElseGet(TransactionArchiveRun::new);
+        run.setYear(year);
+        run.setStatus(TransactionArchiveRun.Status.RUNNING);
+        run.setErrorMessage(null);
+        run.setStartedAt(LocalDateTime.now());
+        run.setCompletedAt(null);
+        archiveRunRepository.save(run);
+
+        // Từ đây báo cáo của năm này đọc cả hai bảng; chờ các instance khác đọc lại danh sách năm trước khi chuyển
+        archiveReader.markArchived(year);
+        long startedAt = System.currentTimeMillis();
+        try {
+            pause(refreshIntervalMs);
+
+            LocalDate start = LocalDate.of(year, 1, 1);
+            LocalDate end = LocalDate.of(year, 12, 31);
+            run.setIncomeRows(run.getIncomeRows() + moveAll("income_transactions", INCOME_COLUMNS, start, end, id -> {
+                columnarStore.removeIncome(id);
+                searchIndex.removeIncome(id);
+            }));
+            run.setExpenseRows(run.getExpenseRows() + moveAll("expense_transactions", EXPENSE_COLUMNS, start, end, id -> {
+                columnarStore.removeExpense(id);
+                searchIndex.removeExpense(id);
+            }));
+            run.setStatus(TransactionArchiveRun.Status.COMPLETED);
+            run.setCompletedAt(LocalDateTime.now());
+            logger.info("Archived transactions of {}: {} income, {} expense rows in {} ms", year,
+                    run.getIncomeRows(), run.getExpenseRows(), System.currentTimeMillis() - startedAt);
+        } catch (RuntimeException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            run.setStatus(TransactionArchiveRun.Status.FAILED);
+            String message = String.valueOf(e.getMessage());
+            run.setErrorMessage(message.length() > 500 ? message.substring(0, 500) : message);
+            meterRegistry.counter("transaction_archive.failures").increment();
+            logger.error("Archiving transactions of {} failed, will resume on next run", year, e);
+        } finally {
+            archiveRunRepository.save(run);
+            dataVersionService.markChanged();
+        }
+    }
+
+    /**
+     * Chuyển các giao dịch trong [start, end] của {@code table} sang {@code table_archive} theo lô, trả về số dòng đã chuyển
+     */
+    private int moveAll(String table, String columns, LocalDate start, LocalDate end, Consumer<Integer> onMoved)
+            throws InterruptedException {
+        int moved = 0;
+        while (true) {
+            List<Integer> ids = transactionTemplate.execute(status -> moveChunk(table, columns, start, end));
+            if (ids == null || ids.isEmpty()) {
+                return moved;
+            }
+            ids.forEach(onMoved);
+            moved += ids.size();
+            meterRegistry.counter("transaction_archive.rows", "table", table).increment(ids.size());
+            pause(chunkPauseMs);
+        }
+    }
+
+    /**
+     * Một lô: chọn {@code chunkSize} id nhỏ nhất của năm, chép sang bảng lưu trữ rồi xóa khỏi bảng chính.
+     * Điều kiện ngày giúp MySQL chỉ đọc phân vùng của năm đó.
+     */
+    private List<Integer> moveChunk(String table, String columns, LocalDate start, LocalDate end) {
+        List<Integer> ids = jdbcTemplate.queryForList(
+                "SELECT transaction_id FROM " + table + " WHERE transaction_date BETWEEN ? AND ? "
+                        + "ORDER BY transaction_id LIMIT ?",
+                Integer.class, start, end, chunkSize);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        int lastId = ids.get(ids.size() - 1);
+        jdbcTemplate.update("INSERT INTO " + table + "_archive (" + columns + ") SELECT " + columns + " FROM " + table
+                + " WHERE transaction_date BETWEEN ? AND ? AND transaction_id <= ?", start, end, lastId);
+        jdbcTemplate.update("DELETE FROM " + table + " WHERE transaction_date BETWEEN ? AND ? AND transaction_id <= ?",
+                start, end, lastId);
+        return ids;
+    }
+
+    private static void pause(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+}
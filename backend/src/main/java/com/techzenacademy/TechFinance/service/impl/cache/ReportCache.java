@@ -0,0 +1,212 @@
+package com.techzenacademy.TechFinance.service.impl.cache;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techzenacademy.TechFinance.service.impl.DataVersionService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cache kết quả báo cáo theo khóa (loại báo cáo + kỳ) và phiên bản dữ liệu.
+ * <ul>
+ *   <li>Mọi thay đổi giao dịch làm tăng phiên bản dữ liệu, nên toàn bộ cache cũ hết hiệu lực</li>
+ *   <li>Giới hạn số phần tử (LRU) và thời gian sống (TTL)</li>
+ *   <li>Single-flight: các request cùng khóa đồng thời chỉ tính báo cáo một lần</li>
+ * </ul>
+ * Báo cáo được lưu dưới dạng JSON (cùng ObjectMapper với response) và mỗi lần đọc tạo một bản sao mới,
+ * nên DTO trả về thuộc riêng nơi gọi: sửa đổi không ảnh hưởng tới cache hay request khác.
+ */
+@Service
+public class ReportCache {
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${report-cache.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${report-cache.max-entries:200}")
+    private int maxEntries;
+
+    private final Map<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private ObjectMapper snapshotMapper;
+    private Map<String, Entry> entries;
+    private long entriesVersion;
+    private Counter hits;
+    private Counter misses;
+    private Counter coalesced;
+
+    @PostConstruct
+    public void init() {
+        // Số thực trong Map (ví dụ tổng quan ngân sách) đọc lại thành BigDecimal để giữ nguyên số chữ số thập phân
+        this.snapshotMapper = objectMapper.copy()
+                .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        // LinkedHashMap theo thứ tự truy cập: phần tử ít dùng nhất bị loại khi vượt giới hạn
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = Counter.builder("report_cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("report_cache.requests").tag("result", "miss").register(meterRegistry);
+        this.coalesced = Counter.builder("report_cache.requests").tag("result", "coalesced").register(meterRegistry);
+        Gauge.builder("report_cache.size", this, ReportCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Lấy báo cáo từ cache hoặc tính bằng {@code loader}. Các lời gọi đồng thời với cùng khóa chỉ tính một lần,
+     * mỗi nơi gọi nhận một bản sao riêng kiểu {@code type}.
+     */
+    public <T> T getOrCompute(String key, TypeReference<T> type, Supplier<T> loader) {
+        long version = dataVersionService.current();
+        byte[] cached = lookup(key, version);
+        if (cached != null) {
+            hits.increment();
+            return restore(cached, type);
+        }
+
+        String flightKey = key + "@" + version;
+        CompletableFuture<byte[]> mine = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(flightKey, mine);
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                byte[] snapshot = existing.join();
+                return snapshot != null ? restore(snapshot, type) : null;
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        misses.increment();
+        try {
+            long startedAt = System.currentTimeMillis();
+            T result = loader.get();
+            // Bản chụp lấy trước khi trả kết quả: nơi gọi có sửa result thì cache vẫn giữ giá trị vừa tính
+            byte[] snapshot = result != null ? snapshot(result) : null;
+            // Trong lúc tính có lần đọc replica chưa chắc gồm thay đổi mới nhất: trả kết quả nhưng không lưu cache
+            if (snapshot != null && dataVersionService.lastStaleReadAt() < startedAt) {
+                store(key, version, snapshot);
+            }
+            mine.complete(snapshot);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, mine);
+        }
+    }
+
+    /**
+     * Bản sao của báo cáo đã có trong cache với phiên bản dữ liệu hiện tại, hoặc null
+     */
+    public <T> T getIfPresent(String key, TypeReference<T> type) {
+        byte[] cached = lookup(key, dataVersionService.current());
+        if (cached == null) {
+            return null;
+        }
+        hits.increment();
+        return restore(cached, type);
+    }
+
+    /**
+     * Kiểm tra khóa còn trong cache (không tính là một lượt truy cập)
+     */
+    public boolean contains(String key) {
+        return lookup(key, dataVersionService.current()) != null;
+    }
+
+    /**
+     * Khóa cache của một báo cáo, ví dụ key("monthly-report", 2025, 3) = "monthly-report:2025:3"
+     */
+    public static String key(String report, Object... parts) {
+        StringBuilder sb = new StringBuilder(report);
+        for (Object part : parts) {
+            sb.append(':').append(part);
+        }
+        return sb.toString();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private byte[] snapshot(Object value) {
+        try {
+            return snapshotMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not snapshot report " + value.getClass().getName(), e);
+        }
+    }
+
+    private <T> T restore(byte[] snapshot, TypeReference<T> type) {
+        try {
+            return snapshotMapper.readValue(snapshot, type);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not restore cached report as " + type.getType(), e);
+        }
+    }
+
+    private synchronized byte[] lookup(String key, long version) {
+        if (version != entriesVersion) {
+            return null;
+        }
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private synchronized void store(String key, long version, byte[] value) {
+        // Dữ liệu đã đổi kể từ lần tính này: bỏ kết quả; đã sang phiên bản mới: xóa toàn bộ cache cũ
+        if (version < dataVersionService.current() || version < entriesVersion) {
+            return;
+        }
+        if (version != entriesVersion) {
+            entries.clear();
+            entriesVersion = version;
+        }
+        entries.put(key, new Entry(value, System.currentTimeMillis() + ttlMinutes * 60_000));
+    }
+
+    private static class Entry {
+        private final byte[] value;
+        private final long expiresAt;
+
+        Entry(byte[] value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
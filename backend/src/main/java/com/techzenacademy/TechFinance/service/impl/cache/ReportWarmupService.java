@@ -0,0 +1,222 @@
+package com.techzenacademy.TechFinance.service.impl.cache;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.techzenacademy.TechFinance.service.impl.BudgetOverviewService;
+import com.techzenacademy.TechFinance.service.impl.DataVersionService;
+import com.techzenacademy.TechFinance.service.impl.FinancialReportService;
+import com.techzenacademy.TechFinance.service.impl.ReceivablePayableService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Tính sẵn các báo cáo hay xem nhất vào {@link ReportCache}:
+ * <ul>
+ *   <li>Tháng hiện tại và tháng trước: báo cáo tháng, tổng quan ngân sách, phải thu/phải trả</li>
+ *   <li>Từ đầu năm: báo cáo năm, dòng tiền, tổng quan ngân sách cả năm</li>
+ * </ul>
+ * Chạy khi ứng dụng khởi động, theo lịch ngoài giờ cao điểm ({@code report-cache.warmup.cron}) và sau mỗi
+ * đợt ghi dữ liệu khi đã yên lặng {@code report-cache.warmup.quiet-seconds} giây. Mỗi lúc chỉ có một lượt
+ * warm-up, các báo cáo trong lượt chạy trên tối đa {@code report-cache.warmup.concurrency} luồng.
+ */
+@Service
+public class ReportWarmupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportWarmupService.class);
+
+    @Autowired
+    private FinancialReportService financialReportService;
+
+    @Autowired
+    private BudgetOverviewService budgetOverviewService;
+
+    @Autowired
+    private ReceivablePayableService receivablePayableService;
+
+    @Autowired
+    private ReportCache reportCache;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${report-cache.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${report-cache.warmup.concurrency:2}")
+    private int concurrency;
+
+    @Value("${report-cache.warmup.quiet-seconds:30}")
+    private long quietSeconds;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    // Phiên bản dữ liệu của lượt warm-up gần nhất mà mọi báo cáo đều tính được; -1 = chưa có
+    private volatile long warmedVersion = -1;
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Mỗi lượt có tối đa 9 báo cáo, hàng đợi đủ chứa một lượt
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-warmup-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        Gauge.builder("report_cache.warmup.coverage", this, ReportWarmupService::coverage).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        warmUp("startup");
+    }
+
+    /**
+     * Warm-up định kỳ ngoài giờ cao điểm, kể cả khi dữ liệu không đổi (cache có TTL)
+     */
+    @Scheduled(cron = "${report-cache.warmup.cron:0 0 5 * * *}")
+    public void warmUpOffPeak() {
+        warmUp("off-peak");
+    }
+
+    /**
+     * Sau một đợt ghi: chờ đến khi không còn thay đổi trong {@code quietSeconds} rồi mới tính lại,
+     * để một loạt thao tác nhập liệu chỉ gây ra một lượt warm-up. Lượt trước có báo cáo lỗi cũng được chạy lại.
+     */
+    @Scheduled(fixedDelayString = "${report-cache.warmup.check-interval-ms:10000}")
+    public void warmUpAfterWrites() {
+        if (dataVersionService.current() == warmedVersion) {
+            return;
+        }
+        if (System.currentTimeMillis() - dataVersionService.lastChangedAt() < quietSeconds * 1000) {
+            return;
+        }
+        warmUp("after-writes");
+    }
+
+    /**
+     * Bắt đầu một lượt warm-up chạy nền. Trả về false nếu bị tắt hoặc đang có lượt khác chạy.
+     */
+    public boolean warmUp(String trigger) {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return false;
+        }
+        long version = dataVersionService.current();
+        List<Target> targets = targets(LocalDate.now());
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        AtomicInteger failures = new AtomicInteger();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Target target : targets) {
+            futures.add(CompletableFuture.runAsync(target.loader, executor).exceptionally(e -> {
+                failures.incrementAndGet();
+                meterRegistry.counter("report_cache.warmup.failures", "report", target.report).increment();
+                logger.warn("Could not pre-warm report {}: {}", target.key, e.getMessage());
+                return null;
+            }));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).whenComplete((ignored, e) -> {
+            long nanos = sample.stop(meterRegistry.timer("report_cache.warmup.duration", "trigger", trigger));
+            // Còn báo cáo lỗi thì giữ phiên bản cũ để warmUpAfterWrites() thử lại; báo cáo đã có trong cache
+            // chỉ là cache hit ở lượt sau
+            if (failures.get() == 0) {
+                warmedVersion = version;
+            }
+            running.set(false);
+            logger.info("Report cache warm-up ({}) finished in {} ms, coverage {}, {} failed",
+                    trigger, TimeUnit.NANOSECONDS.toMillis(nanos), coverage(), failures.get());
+        });
+        return true;
+    }
+
+    /**
+     * Tỉ lệ báo cáo nóng hiện có trong cache (0..1)
+     */
+    public double coverage() {
+        List<Target> targets = targets(LocalDate.now());
+        int present = 0;
+        for (Target target : targets) {
+            if (reportCache.contains(target.key)) {
+                present++;
+            }
+        }
+        return (double) present / targets.size();
+    }
+
+    boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Các báo cáo cần tính sẵn tại ngày {@code today}. Khóa phải trùng với khóa các service báo cáo dùng.
+     */
+    List<Target> targets(LocalDate today) {
+        int year = today.getYear();
+        LocalDate previous = today.minusMonths(1);
+
+        List<Target> targets = new ArrayList<>();
+        addMonthTargets(targets, year, today.getMonthValue());
+        addMonthTargets(targets, previous.getYear(), previous.getMonthValue());
+
+        targets.add(new Target("yearly-report", ReportCache.key("yearly-report", year),
+                () -> financialReportService.generateYearlyReport(year)));
+        targets.add(new Target("cash-flow", ReportCache.key("cash-flow", year),
+                () -> financialReportService.generateCashFlowReport(year)));
+        targets.add(new Target("budget-overview", ReportCache.key("budget-overview", year, "all"),
+                () -> budgetOverviewService.getBudgetOverview(year, null)));
+        return targets;
+    }
+
+    private void addMonthTargets(List<Target> targets, int year, int month) {
+        targets.add(new Target("monthly-report", ReportCache.key("monthly-report", year, month),
+                () -> financialReportService.generateMonthlyReport(year, month)));
+        targets.add(new Target("budget-overview", ReportCache.key("budget-overview", year, month),
+                () -> budgetOverviewService.getBudgetOverview(year, month)));
+        targets.add(new Target("receivable-payable", ReportCache.key("receivable-payable", year, month),
+                () -> receivablePayableService.getReceivablePayableReport(year, month)));
+    }
+
+    static class Target {
+        final String report;
+        final String key;
+        final Runnable loader;
+
+        Target(String report, String key, Runnable loader) {
+            this.report = report;
+            this.key = key;
+            this.loader = loader;
+        }
+    }
+}
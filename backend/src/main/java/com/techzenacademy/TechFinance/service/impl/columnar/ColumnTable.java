@@ -0,0 +1,302 @@
+package com.techzenacademy.TechFinance.service.impl.columnar;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.techzenacademy.TechFinance.util.Money;
+import com.techzenacademy.TechFinance.util.MoneyAccumulator;
+
+/**
+ * Giao dịch của một bảng (thu hoặc chi) lưu theo cột bằng mảng nguyên thủy: ngày (epoch day), khóa tháng,
+ * số tiền (long, đơn vị 1/100), id danh mục, id đối tác, trạng thái thanh toán.
+ * <p>
+ * Xóa bằng cách chuyển dòng cuối vào chỗ trống nên thứ tự dòng không cố định. Nhiều luồng quét đồng thời,
+ * ghi giữ khóa ghi trong thời gian rất ngắn.
+ */
+final class ColumnTable {
+
+    static final byte STATUS_UNPAID = 0;
+    static final byte STATUS_PAID = 1;
+
+    private static final int NO_ROW = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    final String name;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Id đã được ghi trong lúc nạp ban đầu: dòng đọc từ database cho các id này đã cũ.
+    // Chỉ đọc/ghi khi giữ khóa ghi để kiểm tra và chèn trong load() không bị put() chen vào giữa
+    private final Set<Integer> touchedDuringBuild = new HashSet<>();
+    volatile boolean ready;
+
+    private int size;
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] days = new int[INITIAL_CAPACITY];
+    private int[] months = new int[INITIAL_CAPACITY];
+    private long[] cents = new long[INITIAL_CAPACITY];
+    private int[] categories = new int[INITIAL_CAPACITY];
+    private int[] partners = new int[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    // id giao dịch -> chỉ số dòng; id tự tăng nên mảng gần như dày đặc
+    private int[] rowById = new int[0];
+
+    // Cận trên/dưới của các khóa nhóm (không thu hẹp khi xóa) và số tiền lớn nhất để kiểm tra tràn số
+    private int maxCategory;
+    private int maxPartner;
+    private int minMonth = Integer.MAX_VALUE;
+    private int maxMonth = Integer.MIN_VALUE;
+    private long maxAbsCents;
+
+    ColumnTable(String name) {
+        this.name = name;
+    }
+
+    static int monthKey(int year, int month) {
+        return year * 12 + (month - 1);
+    }
+
+    static int monthKey(LocalDate date) {
+        return monthKey(date.getYear(), date.getMonthValue());
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Nạp một dòng đọc từ database; bỏ qua nếu giao dịch đã được ghi trong lúc nạp (giá trị đó mới hơn)
+     */
+    void load(int id, LocalDate date, long amountCents, int categoryId, int partnerId, byte status) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringBuild.contains(id)) {
+                return;
+            }
+            upsert(id, date, amountCents, categoryId, partnerId, status);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void put(int id, LocalDate date, long amountCents, int categoryId, int partnerId, byte status) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                touchedDuringBuild.add(id);
+            }
+            upsert(id, date, amountCents, categoryId, partnerId, status);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                touchedDuringBuild.add(id);
+            }
+            int row = rowOf(id);
+            if (row == NO_ROW) {
+                return;
+            }
+            int last = size - 1;
+            if (row != last) {
+                ids[row] = ids[last];
+                days[row] = days[last];
+                months[row] = months[last];
+                cents[row] = cents[last];
+                categories[row] = categories[last];
+                partners[row] = partners[last];
+                statuses[row] = statuses[last];
+                rowById[ids[row]] = row;
+            }
+            rowById[id] = NO_ROW;
+            size--;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void finishBuild() {
+        lock.writeLock().lock();
+        try {
+            ready = true;
+            touchedDuringBuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quét các dòng thỏa {@code query} và cộng tổng tiền, số lượng theo {@code groupBy}
+     */
+    GroupedTotals aggregate(ColumnarQuery query, GroupBy groupBy) {
+        lock.readLock().lock();
+        try {
+            if (size == 0) {
+                return new GroupedTotals(new int[0], new BigDecimal[0], new long[0]);
+            }
+            int offset = offset(groupBy);
+            int range = range(groupBy);
+            long[] counts = new long[range];
+
+            // Tổng lớn nhất có thể vẫn nằm trong long: cộng thẳng không cần kiểm tra tràn từng phép cộng
+            if (maxAbsCents <= Long.MAX_VALUE / size) {
+                long[] sums = new long[range];
+                for (int i = 0; i < size; i++) {
+                    if (matches(query, i)) {
+                        int key = key(groupBy, i) - offset;
+                        sums[key] += cents[i];
+                        counts[key]++;
+                    }
+                }
+                return result(offset, counts, sums, null);
+            }
+
+            MoneyAccumulator[] accumulators = new MoneyAccumulator[range];
+            for (int i = 0; i < size; i++) {
+                if (matches(query, i)) {
+                    int key = key(groupBy, i) - offset;
+                    if (accumulators[key] == null) {
+                        accumulators[key] = new MoneyAccumulator();
+                    }
+                    accumulators[key].addCents(cents[i]);
+                    counts[key]++;
+                }
+            }
+            return result(offset, counts, null, accumulators);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean matches(ColumnarQuery query, int row) {
+        int day = days[row];
+        return day >= query.fromDay && day <= query.toDay
+                && (query.categoryId == ColumnarQuery.ANY || categories[row] == query.categoryId)
+                && (query.partnerId == ColumnarQuery.ANY || partners[row] == query.partnerId)
+                && (query.status == ColumnarQuery.ANY || statuses[row] == query.status);
+    }
+
+    private int key(GroupBy groupBy, int row) {
+        switch (groupBy) {
+            case CATEGORY:
+                return categories[row];
+            case PARTNER:
+                return partners[row];
+            case STATUS:
+                return statuses[row];
+            case MONTH:
+                return months[row];
+            case MONTH_STATUS:
+                return months[row] * 2 + statuses[row];
+            default:
+                return 0;
+        }
+    }
+
+    private int offset(GroupBy groupBy) {
+        switch (groupBy) {
+            case MONTH:
+                return minMonth;
+            case MONTH_STATUS:
+                return minMonth * 2;
+            default:
+                return 0;
+        }
+    }
+
+    private int range(GroupBy groupBy) {
+        switch (groupBy) {
+            case CATEGORY:
+                return maxCategory + 1;
+            case PARTNER:
+                return maxPartner + 1;
+            case STATUS:
+                return 2;
+            case MONTH:
+                return maxMonth - minMonth + 1;
+            case MONTH_STATUS:
+                return (maxMonth - minMonth + 1) * 2;
+            default:
+                return 1;
+        }
+    }
+
+    private static GroupedTotals result(int offset, long[] counts, long[] sums, MoneyAccumulator[] accumulators) {
+        int groups = 0;
+        for (long count : counts) {
+            if (count > 0) {
+                groups++;
+            }
+        }
+        int[] keys = new int[groups];
+        BigDecimal[] amounts = new BigDecimal[groups];
+        long[] groupCounts = new long[groups];
+        int index = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                keys[index] = i + offset;
+                amounts[index] = sums != null ? Money.toBigDecimal(sums[i]) : accumulators[i].toBigDecimal();
+                groupCounts[index] = counts[i];
+                index++;
+            }
+        }
+        return new GroupedTotals(keys, amounts, groupCounts);
+    }
+
+    private void upsert(int id, LocalDate date, long amountCents, int categoryId, int partnerId, byte status) {
+        int row = rowOf(id);
+        if (row == NO_ROW) {
+            ensureCapacity(size + 1);
+            row = size++;
+            ids[row] = id;
+            if (id >= rowById.length) {
+                int previous = rowById.length;
+                rowById = Arrays.copyOf(rowById, Math.max(id + 1, previous * 2));
+                Arrays.fill(rowById, previous, rowById.length, NO_ROW);
+            }
+            rowById[id] = row;
+        }
+        int month = monthKey(date);
+        days[row] = (int) date.toEpochDay();
+        months[row] = month;
+        cents[row] = amountCents;
+        categories[row] = categoryId;
+        partners[row] = partnerId;
+        statuses[row] = status;
+
+        maxCategory = Math.max(maxCategory, categoryId);
+        maxPartner = Math.max(maxPartner, partnerId);
+        minMonth = Math.min(minMonth, month);
+        maxMonth = Math.max(maxMonth, month);
+        maxAbsCents = Math.max(maxAbsCents, amountCents == Long.MIN_VALUE ? Long.MAX_VALUE : Math.abs(amountCents));
+    }
+
+    private int rowOf(int id) {
+        return id >= 0 && id < rowById.length ? rowById[id] : NO_ROW;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        days = Arrays.copyOf(days, newCapacity);
+        months = Arrays.copyOf(months, newCapacity);
+        cents = Arrays.copyOf(cents, newCapacity);
+        categories = Arrays.copyOf(categories, newCapacity);
+        partners = Arrays.copyOf(partners, newCapacity);
+        statuses = Arrays.copyOf(statuses, newCapacity);
+    }
+}
@@ -0,0 +1,51 @@
+package com.techzenacademy.TechFinance.service.impl.columnar;
+
+import java.time.LocalDate;
+
+/**
+ * Bộ lọc cho một lượt quét {@link ColumnarTransactionStore}: khoảng ngày (bắt buộc) và tùy chọn danh mục,
+ * đối tác (khách hàng/nhà cung cấp), trạng thái thanh toán.
+ */
+public final class ColumnarQuery {
+
+    static final int ANY = -1;
+
+    final int fromDay;
+    final int toDay;
+    int categoryId = ANY;
+    int partnerId = ANY;
+    int status = ANY;
+
+    private ColumnarQuery(int fromDay, int toDay) {
+        this.fromDay = fromDay;
+        this.toDay = toDay;
+    }
+
+    /**
+     * Giao dịch có ngày trong [startDate, endDate]
+     */
+    public static ColumnarQuery between(LocalDate startDate, LocalDate endDate) {
+        return new ColumnarQuery((int) startDate.toEpochDay(), (int) endDate.toEpochDay());
+    }
+
+    public ColumnarQuery category(Integer categoryId) {
+        this.categoryId = categoryId == null ? ANY : categoryId;
+        return this;
+    }
+
+    /**
+     * Lọc theo khách hàng (giao dịch thu) hoặc nhà cung cấp (giao dịch chi)
+     */
+    public ColumnarQuery partner(Integer partnerId) {
+        this.partnerId = partnerId == null ? ANY : partnerId;
+        return this;
+    }
+
+    /**
+     * {@code paid} = true: đã nhận/đã trả, false: chưa nhận/chưa trả
+     */
+    public ColumnarQuery paid(boolean paid) {
+        this.status = paid ? ColumnTable.STATUS_PAID : ColumnTable.STATUS_UNPAID;
+        return this;
+    }
+}
@@ -0,0 +1,202 @@
+package com.techzenacademy.TechFinance.service.impl.columnar;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.techzenacademy.TechFinance.entity.ExpenseTransaction;
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.repository.ExpenseTransactionRepository;
+import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
+import com.techzenacademy.TechFinance.service.impl.AfterCommit;
+import com.techzenacademy.TechFinance.service.impl.archive.TransactionArchiveReader;
+import com.techzenacademy.TechFinance.util.Money;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Kho giao dịch dạng cột trong bộ nhớ cho các phép tổng hợp theo danh mục, đối tác, trạng thái và tháng
+ * mà không cần truy vấn database (tùy chọn, bật bằng {@code columnar-store.enabled}).
+ * <ul>
+ *   <li>Nạp nền từ database khi ứng dụng khởi động, theo từng lô id tăng dần</li>
+ *   <li>Cập nhật sau khi transaction commit mỗi lần thêm/sửa/xóa giao dịch</li>
+ *   <li>Khi kho chưa sẵn sàng hoặc bị tắt, các phương thức tổng hợp dùng truy vấn database tương ứng</li>
+ * </ul>
+ */
+@Service
+public class ColumnarTransactionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarTransactionStore.class);
+
+    @Autowired
+    private IncomeTransactionRepository incomeTransactionRepository;
+
+    @Autowired
+    private ExpenseTransactionRepository expenseTransactionRepository;
+
+    @Autowired
+    private TransactionArchiveReader archiveReader;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${columnar-store.enabled:false}")
+    private boolean enabled;
+
+    @Value("${columnar-store.batch-size:20000}")
+    private int batchSize;
+
+    private final ColumnTable income = new ColumnTable("income");
+    private final ColumnTable expense = new ColumnTable("expense");
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder("columnar.store.rows", income, ColumnTable::size).tag("table", "income").register(meterRegistry);
+        Gauge.builder("columnar.store.rows", expense, ColumnTable::size).tag("table", "expense").register(meterRegistry);
+
+        Thread.ofVirtual().name("columnar-transaction-store").start(() -> {
+            build(income, (afterId, page) -> incomeTransactionRepository.findColumnarRows(afterId, page));
+            build(expense, (afterId, page) -> expenseTransactionRepository.findColumnarRows(afterId, page));
+        });
+    }
+
+    public boolean isReady() {
+        return enabled && income.ready && expense.ready;
+    }
+
+    /**
+     * Tổng hợp giao dịch thu. Chỉ gọi khi {@link #isReady()}.
+     */
+    public GroupedTotals income(ColumnarQuery query, GroupBy groupBy) {
+        return income.aggregate(query, groupBy);
+    }
+
+    /**
+     * Tổng hợp giao dịch chi. Chỉ gọi khi {@link #isReady()}.
+     */
+    public GroupedTotals expense(ColumnarQuery query, GroupBy groupBy) {
+        return expense.aggregate(query, groupBy);
+    }
+
+    /**
+     * Như {@link IncomeTransactionRepository#sumByMonthAndStatus}: (năm, tháng, trạng thái, tổng tiền, số lượng)
+     */
+    public List<Object[]> incomeByMonthAndStatus(LocalDate startDate, LocalDate endDate) {
+        // Kho chỉ chứa giao dịch chưa lưu trữ
+        if (!isReady() || archiveReader.includesArchived(startDate, endDate)) {
+            return archiveReader.incomeByMonthAndStatus(startDate, endDate);
+        }
+        return toMonthStatusRows(income.aggregate(ColumnarQuery.between(startDate, endDate), GroupBy.MONTH_STATUS),
+                IncomeTransaction.PaymentStatus.RECEIVED, IncomeTransaction.PaymentStatus.PENDING);
+    }
+
+    /**
+     * Như {@link ExpenseTransactionRepository#sumByMonthAndStatus}: (năm, tháng, trạng thái, tổng tiền, số lượng)
+     */
+    public List<Object[]> expenseByMonthAndStatus(LocalDate startDate, LocalDate endDate) {
+        // Kho chỉ chứa giao dịch chưa lưu trữ
+        if (!isReady() || archiveReader.includesArchived(startDate, endDate)) {
+            return archiveReader.expenseByMonthAndStatus(startDate, endDate);
+        }
+        return toMonthStatusRows(expense.aggregate(ColumnarQuery.between(startDate, endDate), GroupBy.MONTH_STATUS),
+                ExpenseTransaction.PaymentStatus.PAID, ExpenseTransaction.PaymentStatus.UNPAID);
+    }
+
+    public void putIncome(IncomeTransaction t) {
+        if (!enabled) {
+            return;
+        }
+        Integer customerId = t.getCustomer() != null ? t.getCustomer().getId() : null;
+        put(income, t.getId(), t.getTransactionDate(), t.getAmount(), t.getCategory().getId(), customerId,
+                t.getPaymentStatus() == IncomeTransaction.PaymentStatus.RECEIVED);
+    }
+
+    public void removeIncome(Integer id) {
+        if (enabled) {
+            AfterCommit.run(() -> income.remove(id));
+        }
+    }
+
+    public void putExpense(ExpenseTransaction t) {
+        if (!enabled) {
+            return;
+        }
+        Integer supplierId = t.getSupplier() != null ? t.getSupplier().getId() : null;
+        put(expense, t.getId(), t.getTransactionDate(), t.getAmount(), t.getCategory().getId(), supplierId,
+                t.getPaymentStatus() == ExpenseTransaction.PaymentStatus.PAID);
+    }
+
+    public void removeExpense(Integer id) {
+        if (enabled) {
+            AfterCommit.run(() -> expense.remove(id));
+        }
+    }
+
+    private void put(ColumnTable table, Integer id, LocalDate date, BigDecimal amount,
+                     Integer categoryId, Integer partnerId, boolean paid) {
+        // Đọc giá trị ngay (entity có thể bị sửa tiếp trong transaction), ghi vào kho sau khi commit
+        long amountCents = Money.toCents(amount);
+        int partner = partnerId != null ? partnerId : 0;
+        byte status = paid ? ColumnTable.STATUS_PAID : ColumnTable.STATUS_UNPAID;
+        AfterCommit.run(() -> table.put(id, date, amountCents, categoryId, partner, status));
+    }
+
+    private void build(ColumnTable table, RowLoader loader) {
+        long start = System.currentTimeMillis();
+        try {
+            int afterId = 0;
+            List<Object[]> rows;
+            do {
+                rows = loader.load(afterId, PageRequest.of(0, batchSize));
+                for (Object[] row : rows) {
+                    Integer id = (Integer) row[0];
+                    Integer partnerId = (Integer) row[4];
+                    Enum<?> status = (Enum<?>) row[5];
+                    table.load(id, (LocalDate) row[1], Money.toCents((BigDecimal) row[2]), (Integer) row[3],
+                            partnerId != null ? partnerId : 0,
+                            status == IncomeTransaction.PaymentStatus.RECEIVED || status == ExpenseTransaction.PaymentStatus.PAID
+                                    ? ColumnTable.STATUS_PAID : ColumnTable.STATUS_UNPAID);
+                    afterId = id;
+                }
+            } while (rows.size() == batchSize);
+
+            table.finishBuild();
+            logger.info("Columnar store for {} transactions loaded: {} rows in {} ms",
+                    table.name, table.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Could not load columnar store for {} transactions, falling back to database aggregates",
+                    table.name, e);
+        }
+    }
+
+    private static List<Object[]> toMonthStatusRows(GroupedTotals totals, Enum<?> paid, Enum<?> unpaid) {
+        List<Object[]> rows = new ArrayList<>(totals.size());
+        for (int i = 0; i < totals.size(); i++) {
+            int key = totals.keyAt(i);
+            int month = key / 2;
+            rows.add(new Object[] {
+                    month / 12, month % 12 + 1, key % 2 == ColumnTable.STATUS_PAID ? paid : unpaid,
+                    totals.amountAt(i), totals.countAt(i) });
+        }
+        return rows;
+    }
+
+    @FunctionalInterface
+    private interface RowLoader {
+        List<Object[]> load(Integer afterId, PageRequest page);
+    }
+}
@@ -0,0 +1,19 @@
+package com.techzenacademy.TechFinance.service.impl.columnar;
+
+/**
+ * Chiều gom nhóm của một lượt quét. Khóa nhóm là số nguyên:
+ * <ul>
+ *   <li>CATEGORY, PARTNER: id danh mục / đối tác (0 = giao dịch không có đối tác)</li>
+ *   <li>STATUS: 0 = chưa thanh toán, 1 = đã thanh toán</li>
+ *   <li>MONTH: năm * 12 + (tháng - 1), xem {@link ColumnTable#monthKey}</li>
+ *   <li>MONTH_STATUS: MONTH * 2 + STATUS</li>
+ * </ul>
+ */
+public enum GroupBy {
+    NONE,
+    CATEGORY,
+    PARTNER,
+    STATUS,
+    MONTH,
+    MONTH_STATUS
+}
@@ -0,0 +1,73 @@
+package com.techzenacademy.TechFinance.service.impl.columnar;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.techzenacademy.TechFinance.util.Money;
+
+/**
+ * Kết quả một lượt quét: tổng tiền và số giao dịch theo từng khóa nhóm, khóa tăng dần.
+ * Chỉ chứa các nhóm có ít nhất một giao dịch.
+ */
+public final class GroupedTotals {
+
+    private final int[] keys;
+    private final BigDecimal[] amounts;
+    private final long[] counts;
+
+    GroupedTotals(int[] keys, BigDecimal[] amounts, long[] counts) {
+        this.keys = keys;
+        this.amounts = amounts;
+        this.counts = counts;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public int keyAt(int index) {
+        return keys[index];
+    }
+
+    public BigDecimal amountAt(int index) {
+        return amounts[index];
+    }
+
+    public long countAt(int index) {
+        return counts[index];
+    }
+
+    /**
+     * Tổng tiền của khóa, 0 nếu không có giao dịch
+     */
+    public BigDecimal amount(int key) {
+        int index = Arrays.binarySearch(keys, key);
+        return index >= 0 ? amounts[index] : Money.toBigDecimal(0);
+    }
+
+    public long count(int key) {
+        int index = Arrays.binarySearch(keys, key);
+        return index >= 0 ? counts[index] : 0;
+    }
+
+    /**
+     * Tổng tiền của tất cả các nhóm
+     */
+    public BigDecimal total() {
+        BigDecimal total = Money.toBigDecimal(0);
+        for (BigDecimal amount : amounts) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    public Map<Integer, BigDecimal> toMap() {
+        Map<Integer, BigDecimal> map = new LinkedHashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], amounts[i]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,229 @@
+package com.techzenacademy.TechFinance.service.impl.dashboard;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.techzenacademy.TechFinance.config.ReadReplicaRoutingDataSource;
+import com.techzenacademy.TechFinance.dto.ReceivablePayableReportDTO;
+import com.techzenacademy.TechFinance.dto.TaxReportDTO;
+import com.techzenacademy.TechFinance.dto.report.CashFlowReportDTO;
+import com.techzenacademy.TechFinance.dto.report.DashboardDTO;
+import com.techzenacademy.TechFinance.dto.report.MonthlyReportDTO;
+import com.techzenacademy.TechFinance.entity.ExpenseTransaction;
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.service.impl.BudgetOverviewService;
+import com.techzenacademy.TechFinance.service.impl.FinancialReportService;
+import com.techzenacademy.TechFinance.service.impl.ReceivablePayableService;
+import com.techzenacademy.TechFinance.service.impl.TaxReportService;
+import com.techzenacademy.TechFinance.service.impl.archive.TransactionArchiveReader;
+import com.techzenacademy.TechFinance.service.impl.cache.ReportCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Dữ liệu dashboard trong một request:
+ * <ul>
+ *   <li>Phần đã có trong {@link ReportCache} được trả ngay, không tính lại</li>
+ *   <li>Giao dịch thu/chi của năm được tải một lần (hai truy vấn song song) và dùng chung cho mọi phần</li>
+ *   <li>Các phần (báo cáo tháng, năm, dòng tiền, ngân sách, phải thu/phải trả, thuế) được tính đồng thời trên virtual thread</li>
+ *   <li>Hết {@code dashboard.deadline-ms}, các phần chưa xong được bỏ qua và trả về kết quả một phần</li>
+ *   <li>Chỉ các phần được yêu cầu (tham số {@code sections}) mới được tính; phần không yêu cầu để null</li>
+ * </ul>
+ */
+@Service
+public class DashboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
+    public static final List<String> SECTIONS = List.of(
+            "monthlyReport", "yearlyReport", "cashFlow", "budgetOverview", "receivablePayable", "tax");
+
+    // Đọc qua reader để năm đã lưu trữ vẫn có dữ liệu, giống /api/reports/*
+    @Autowired
+    private TransactionArchiveReader archiveReader;
+
+    @Autowired
+    private FinancialReportService financialReportService;
+
+    @Autowired
+    private BudgetOverviewService budgetOverviewService;
+
+    @Autowired
+    private ReceivablePayableService receivablePayableService;
+
+    @Autowired
+    private TaxReportService taxReportService;
+
+    @Autowired
+    private ReportCache reportCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${dashboard.deadline-ms:3000}")
+    private long deadlineMs;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public DashboardDTO getDashboard(Integer year, Integer month) {
+        return getDashboard(year, month, null);
+    }
+
+    /**
+     * @param sections danh sách phần cần tính, cách nhau bởi dấu phẩy (null hoặc rỗng: tất cả)
+     */
+    public DashboardDTO getDashboard(Integer year, Integer month, String sections) {
+        if (year < 2000 || month < 1 || month > 12) {
+            throw new IllegalArgumentException("Invalid year or month");
+        }
+        Set<String> requested = parseSections(sections);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        // Các phần chạy trên virtual thread dùng cùng độ trễ replica cho phép và người đọc với request
+        Executor executor = ReadReplicaRoutingDataSource.withCurrentContext(this.executor);
+        LocalDate startDate = LocalDate.of(year, 1, 1);
+        LocalDate endDate = LocalDate.of(year, 12, 31);
+
+        // Thuế đọc từ stored procedure riêng nên chạy ngay, không chờ snapshot
+        CompletableFuture<TaxReportDTO> tax = requested.contains("tax")
+                ? CompletableFuture.supplyAsync(() -> taxReportService.getTaxReport(year, month), executor)
+                : null;
+
+        // Phần nào đã có trong cache báo cáo (ví dụ nhờ pre-warm) thì dùng luôn; chỉ tải giao dịch khi còn phần cần tính
+        MonthlyReportDTO cachedMonthly = requested.contains("monthlyReport")
+                ? reportCache.getIfPresent(ReportCache.key("monthly-report", year, month),
+                        FinancialReportService.MONTHLY_REPORT) : null;
+        List<MonthlyReportDTO> cachedYearly = requested.contains("yearlyReport")
+                ? reportCache.getIfPresent(ReportCache.key("yearly-report", year),
+                        FinancialReportService.YEARLY_REPORT) : null;
+        CashFlowReportDTO cachedCashFlow = requested.contains("cashFlow")
+                ? reportCache.getIfPresent(ReportCache.key("cash-flow", year),
+                        FinancialReportService.CASH_FLOW) : null;
+        Map<String, Object> cachedBudget = requested.contains("budgetOverview")
+                ? reportCache.getIfPresent(ReportCache.key("budget-overview", year, month),
+                        BudgetOverviewService.BUDGET_OVERVIEW) : null;
+        ReceivablePayableReportDTO cachedReceivable = requested.contains("receivablePayable")
+                ? reportCache.getIfPresent(ReportCache.key("receivable-payable", year, month),
+                        ReceivablePayableService.RECEIVABLE_PAYABLE) : null;
+
+        CompletableFuture<PeriodSnapshot> snapshot = null;
+        if ((requested.contains("monthlyReport") && cachedMonthly == null)
+                || (requested.contains("yearlyReport") && cachedYearly == null)
+                || (requested.contains("cashFlow") && cachedCashFlow == null)
+                || (requested.contains("budgetOverview") && cachedBudget == null)
+                || (requested.contains("receivablePayable") && cachedReceivable == null)) {
+            CompletableFuture<List<IncomeTransaction>> incomes = CompletableFuture.supplyAsync(
+                    () -> archiveReader.incomesBetween(startDate, endDate), executor);
+            CompletableFuture<List<ExpenseTransaction>> expenses = CompletableFuture.supplyAsync(
+                    () -> archiveReader.expensesBetween(startDate, endDate), executor);
+            snapshot = incomes.thenCombine(expenses, (i, e) -> new PeriodSnapshot(month, i, e));
+        }
+
+        CompletableFuture<MonthlyReportDTO> monthlyReport = cachedOrCompute(requested.contains("monthlyReport"),
+                cachedMonthly, snapshot, executor,
+                s -> financialReportService.generateMonthlyReport(year, month, s.getMonthIncomes(), s.getMonthExpenses()));
+        CompletableFuture<List<MonthlyReportDTO>> yearlyReport = cachedOrCompute(requested.contains("yearlyReport"),
+                cachedYearly, snapshot, executor,
+                s -> financialReportService.generateYearlyReport(year, s.getYearIncomes(), s.getYearExpenses()));
+        CompletableFuture<CashFlowReportDTO> cashFlow = cachedOrCompute(requested.contains("cashFlow"),
+                cachedCashFlow, snapshot, executor,
+                s -> financialReportService.generateCashFlowReport(year, s.getTotals()));
+        CompletableFuture<Map<String, Object>> budgetOverview = cachedOrCompute(requested.contains("budgetOverview"),
+                cachedBudget, snapshot, executor,
+                s -> budgetOverviewService.getBudgetOverview(year, month, s.getTotals()));
+        CompletableFuture<ReceivablePayableReportDTO> receivablePayable = cachedOrCompute(requested.contains("receivablePayable"),
+                cachedReceivable, snapshot, executor,
+                s -> receivablePayableService.getReceivablePayableReport(year, month, s.getMonthIncomes(), s.getMonthExpenses()));
+
+        DashboardDTO dashboard = new DashboardDTO();
+        dashboard.setYear(year);
+        dashboard.setMonth(month);
+        dashboard.setMonthlyReport(await("monthlyReport", monthlyReport, deadline, dashboard));
+        dashboard.setYearlyReport(await("yearlyReport", yearlyReport, deadline, dashboard));
+        dashboard.setCashFlow(await("cashFlow", cashFlow, deadline, dashboard));
+        dashboard.setBudgetOverview(await("budgetOverview", budgetOverview, deadline, dashboard));
+        dashboard.setReceivablePayable(await("receivablePayable", receivablePayable, deadline, dashboard));
+        dashboard.setTax(await("tax", tax, deadline, dashboard));
+        return dashboard;
+    }
+
+    private static Set<String> parseSections(String sections) {
+        if (sections == null || sections.isBlank()) {
+            return new LinkedHashSet<>(SECTIONS);
+        }
+        Set<String> requested = new LinkedHashSet<>();
+        for (String section : sections.split(",")) {
+            String name = section.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!SECTIONS.contains(name)) {
+                throw new IllegalArgumentException("Unknown dashboard section: " + name);
+            }
+            requested.add(name);
+        }
+        return requested;
+    }
+
+    private <T> CompletableFuture<T> cachedOrCompute(boolean requested, T cached, CompletableFuture<PeriodSnapshot> snapshot,
+                                                     Executor executor, Function<PeriodSnapshot, T> compute) {
+        if (!requested) {
+            return null;
+        }
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return snapshot.thenApplyAsync(compute, executor);
+    }
+
+    /**
+     * Chờ một phần tới hạn chót chung; nếu quá hạn hoặc lỗi thì đánh dấu phần đó bị thiếu
+     */
+    private <T> T await(String section, CompletableFuture<T> future, long deadline, DashboardDTO dashboard) {
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Dashboard section {} missed the {} ms deadline", section, deadlineMs);
+        } catch (ExecutionException e) {
+            logger.warn("Dashboard section {} failed: {}", section, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        future.cancel(true);
+        meterRegistry.counter("dashboard.sections.missing", "section", section).increment();
+        dashboard.setPartial(true);
+        dashboard.getMissingSections().add(section);
+        return null;
+    }
+}
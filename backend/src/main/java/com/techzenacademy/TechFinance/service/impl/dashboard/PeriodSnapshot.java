@@ -0,0 +1,54 @@
+package com.techzenacademy.TechFinance.service.impl.dashboard;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.techzenacademy.TechFinance.entity.ExpenseTransaction;
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.service.impl.PeriodTotals;
+
+/**
+ * Giao dịch của một năm được tải một lần cho mỗi request dashboard, cùng các phần suy ra từ đó
+ * (giao dịch của tháng đang xem, tổng tiền theo tháng) để các phần của dashboard dùng chung.
+ * Chỉ đọc sau khi tạo nên có thể dùng đồng thời từ nhiều luồng.
+ */
+public class PeriodSnapshot {
+
+    private final List<IncomeTransaction> yearIncomes;
+    private final List<ExpenseTransaction> yearExpenses;
+    private final List<IncomeTransaction> monthIncomes;
+    private final List<ExpenseTransaction> monthExpenses;
+    private final PeriodTotals totals;
+
+    public PeriodSnapshot(int month, List<IncomeTransaction> yearIncomes, List<ExpenseTransaction> yearExpenses) {
+        this.yearIncomes = List.copyOf(yearIncomes);
+        this.yearExpenses = List.copyOf(yearExpenses);
+        this.monthIncomes = this.yearIncomes.stream()
+                .filter(t -> t.getTransactionDate().getMonthValue() == month)
+                .collect(Collectors.toUnmodifiableList());
+        this.monthExpenses = this.yearExpenses.stream()
+                .filter(t -> t.getTransactionDate().getMonthValue() == month)
+                .collect(Collectors.toUnmodifiableList());
+        this.totals = PeriodTotals.fromTransactions(this.yearIncomes, this.yearExpenses);
+    }
+
+    public List<IncomeTransaction> getYearIncomes() {
+        return yearIncomes;
+    }
+
+    public List<ExpenseTransaction> getYearExpenses() {
+        return yearExpenses;
+    }
+
+    public List<IncomeTransaction> getMonthIncomes() {
+        return monthIncomes;
+    }
+
+    public List<ExpenseTransaction> getMonthExpenses() {
+        return monthExpenses;
+    }
+
+    public PeriodTotals getTotals() {
+        return totals;
+    }
+}
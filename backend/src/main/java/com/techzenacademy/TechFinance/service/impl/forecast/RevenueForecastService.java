@@ -0,0 +1,183 @@
+package com.techzenacademy.TechFinance.service.impl.forecast;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.techzenacademy.TechFinance.dto.report.RevenueForecastDTO;
+import com.techzenacademy.TechFinance.dto.report.RevenueForecastDTO.ForecastPointDTO;
+import com.techzenacademy.TechFinance.dto.report.RevenueForecastDTO.SeriesForecastDTO;
+import com.techzenacademy.TechFinance.service.impl.archive.TransactionArchiveReader;
+
+/**
+ * Dự báo doanh thu theo tháng cho từng danh mục thu và tổng doanh thu.
+ * Chỉ đọc dữ liệu đã tổng hợp theo tháng từ database, không gọi LLM.
+ */
+@Service
+public class RevenueForecastService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevenueForecastService.class);
+    private static final int SEASON_LENGTH = 12;
+    private static final int MAX_HORIZON = 24;
+
+    // Lịch sử nhiều năm: đọc qua reader để các năm đã lưu trữ không làm ngắn chuỗi
+    @Autowired
+    private TransactionArchiveReader archiveReader;
+
+    @Value("${forecast.history-months:36}")
+    private int historyMonths;
+
+    @Value("${forecast.backtest-months:3}")
+    private int backtestMonths;
+
+    @Value("${forecast.confidence-z:1.96}")
+    private double confidenceZ;
+
+    private final SeasonalForecaster forecaster = new SeasonalForecaster(SEASON_LENGTH);
+
+    /**
+     * Dự báo {@code horizon} tháng tới, bắt đầu từ tháng hiện tại.
+     * Lịch sử dừng ở tháng trước vì tháng hiện tại chưa đủ dữ liệu.
+     */
+    @Transactional(readOnly = true)
+    public RevenueForecastDTO forecast(int horizon) {
+        if (horizon < 1 || horizon > MAX_HORIZON) {
+            throw new IllegalArgumentException("Horizon must be between 1 and " + MAX_HORIZON);
+        }
+
+        long started = System.nanoTime();
+        YearMonth lastMonth = YearMonth.now().minusMonths(1);
+        YearMonth firstMonth = lastMonth.minusMonths(historyMonths - 1L);
+
+        List<Object[]> rows = archiveReader.incomeByCategoryAndMonth(firstMonth.atDay(1), lastMonth.atEndOfMonth());
+
+        // Gom dữ liệu vào chuỗi theo tháng, tháng không có giao dịch được điền 0
+        Map<Integer, double[]> seriesByCategory = new LinkedHashMap<>();
+        Map<Integer, String> categoryNames = new LinkedHashMap<>();
+        Map<Integer, Integer> firstObservedByCategory = new LinkedHashMap<>();
+        double[] total = new double[historyMonths];
+        int firstObservedIndex = historyMonths;
+
+        for (Object[] row : rows) {
+            Integer categoryId = ((Number) row[0]).intValue();
+            YearMonth month = YearMonth.of(((Number) row[2]).intValue(), ((Number) row[3]).intValue());
+            int index = (int) (month.getYear() * 12L + month.getMonthValue()
+                    - (firstMonth.getYear() * 12L + firstMonth.getMonthValue()));
+            double amount = row[4] != null ? ((Number) row[4]).doubleValue() : 0;
+
+            categoryNames.put(categoryId, (String) row[1]);
+            seriesByCategory.computeIfAbsent(categoryId, k -> new double[historyMonths])[index] += amount;
+            total[index] += amount;
+            firstObservedIndex = Math.min(firstObservedIndex, index);
+            firstObservedByCategory.merge(categoryId, index, Math::min);
+        }
+
+        RevenueForecastDTO result = new RevenueForecastDTO();
+        result.setHorizon(horizon);
+        result.setHistoryMonths(historyMonths);
+        result.setConfidenceZ(confidenceZ);
+
+        // Mỗi chuỗi bỏ qua các tháng trước giao dịch đầu tiên của chính nó để không kéo xu hướng về 0
+        YearMonth nextMonth = lastMonth.plusMonths(1);
+        result.setTotal(forecastSeries(null, "Tổng doanh thu", trim(total, firstObservedIndex), nextMonth, horizon));
+
+        List<SeriesForecastDTO> categories = new ArrayList<>();
+        for (Map.Entry<Integer, double[]> entry : seriesByCategory.entrySet()) {
+            categories.add(forecastSeries(entry.getKey(), categoryNames.get(entry.getKey()),
+                    trim(entry.getValue(), firstObservedByCategory.get(entry.getKey())), nextMonth, horizon));
+        }
+        categories.sort(Comparator.comparing((SeriesForecastDTO s) -> s.getPoints().get(0).getForecast()).reversed());
+        result.setCategories(categories);
+
+        result.setComputeMillis((System.nanoTime() - started) / 1_000_000);
+        logger.debug("Revenue forecast for {} series computed in {} ms", categories.size() + 1, result.getComputeMillis());
+        return result;
+    }
+
+    /**
+     * Tóm tắt kết quả dự báo dạng văn bản để đưa vào prompt AI
+     */
+    public String summarize(RevenueForecastDTO forecast) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/yyyy");
+        StringBuilder sb = new StringBuilder();
+        SeriesForecastDTO total = forecast.getTotal();
+
+        sb.append("Statistical revenue forecast (model: ").append(total.getModel())
+          .append(", ").append(total.getObservations()).append(" months of history");
+        if (total.getBacktestMape() != null) {
+            sb.append(", backtest MAPE ").append(String.format("%.1f", total.getBacktestMape())).append("%");
+        }
+        sb.append("):\n");
+
+        for (ForecastPointDTO point : total.getPoints()) {
+            sb.append(YearMonth.of(point.getYear(), point.getMonth()).format(formatter))
+              .append(": ").append(point.getForecast())
+              .append(" (").append(point.getLower()).append(" - ").append(point.getUpper()).append(")\n");
+        }
+
+        if (!forecast.getCategories().isEmpty()) {
+            sb.append("Next month forecast by income category:\n");
+            for (SeriesForecastDTO category : forecast.getCategories()) {
+                ForecastPointDTO first = category.getPoints().get(0);
+                sb.append("- ").append(category.getCategoryName()).append(": ").append(first.getForecast())
+                  .append(" (").append(first.getLower()).append(" - ").append(first.getUpper()).append(")\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    private SeriesForecastDTO forecastSeries(Integer categoryId, String categoryName, double[] history,
+                                             YearMonth nextMonth, int horizon) {
+        SeasonalForecaster.Forecast forecast = forecaster.forecast(history, horizon, confidenceZ);
+        SeasonalForecaster.Backtest backtest = forecaster.backtest(history, backtestMonths);
+
+        SeriesForecastDTO dto = new SeriesForecastDTO();
+        dto.setCategoryId(categoryId);
+        dto.setCategoryName(categoryName);
+        dto.setModel(forecast.getModel());
+        dto.setObservations(history.length);
+        dto.setBacktestMape(Double.isNaN(backtest.getMape()) ? null : round(backtest.getMape()));
+        dto.setBacktestSmape(Double.isNaN(backtest.getSmape()) ? null : round(backtest.getSmape()));
+
+        List<ForecastPointDTO> points = new ArrayList<>();
+        for (int h = 0; h < horizon; h++) {
+            YearMonth month = nextMonth.plusMonths(h);
+            ForecastPointDTO point = new ForecastPointDTO();
+            point.setYear(month.getYear());
+            point.setMonth(month.getMonthValue());
+            point.setForecast(toMoney(forecast.getPoint()[h]));
+            point.setLower(toMoney(forecast.getLower()[h]));
+            point.setUpper(toMoney(forecast.getUpper()[h]));
+            points.add(point);
+        }
+        dto.setPoints(points);
+        return dto;
+    }
+
+    private static double[] trim(double[] series, int offset) {
+        double[] result = new double[series.length - offset];
+        System.arraycopy(series, offset, result, 0, result.length);
+        return result;
+    }
+
+    private static BigDecimal toMoney(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
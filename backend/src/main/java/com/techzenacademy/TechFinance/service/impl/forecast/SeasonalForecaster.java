@@ -0,0 +1,303 @@
+package com.techzenacademy.TechFinance.service.impl.forecast;
+
+/**
+ * Mô hình dự báo chuỗi thời gian theo tháng, chạy hoàn toàn trong bộ nhớ.
+ * <ul>
+ *   <li>Có ít nhất 2 mùa dữ liệu: Holt-Winters cộng tính (tham số chọn bằng grid search)</li>
+ *   <li>Có ít nhất 1 mùa: seasonal naive trên phần dư sau khi loại xu hướng tuyến tính</li>
+ *   <li>Ít hơn 1 mùa: xu hướng tuyến tính</li>
+ * </ul>
+ * Khoảng tin cậy được ước lượng bằng độ lệch chuẩn sai số dự báo một bước, mở rộng theo sqrt(h).
+ */
+public class SeasonalForecaster {
+
+    public static final String HOLT_WINTERS = "HOLT_WINTERS";
+    public static final String SEASONAL_NAIVE_TREND = "SEASONAL_NAIVE_TREND";
+    public static final String LINEAR_TREND = "LINEAR_TREND";
+
+    private static final double[] ALPHA_GRID = {0.1, 0.3, 0.5, 0.7, 0.9};
+    private static final double[] BETA_GRID = {0.01, 0.1, 0.2, 0.4};
+    private static final double[] GAMMA_GRID = {0.05, 0.2, 0.4, 0.6};
+
+    private final int seasonLength;
+
+    public SeasonalForecaster(int seasonLength) {
+        if (seasonLength < 2) {
+            throw new IllegalArgumentException("Season length must be at least 2");
+        }
+        this.seasonLength = seasonLength;
+    }
+
+    /**
+     * Dự báo {@code horizon} kỳ tiếp theo với khoảng tin cậy ±z·σ·sqrt(h)
+     */
+    public Forecast forecast(double[] history, int horizon, double z) {
+        if (horizon < 1) {
+            throw new IllegalArgumentException("Horizon must be at least 1");
+        }
+
+        Fit fit;
+        if (history.length >= 2 * seasonLength) {
+            fit = fitHoltWinters(history, horizon);
+        } else if (history.length >= seasonLength + 1) {
+            fit = fitSeasonalNaiveTrend(history, horizon);
+        } else {
+            fit = fitLinearTrend(history, horizon);
+        }
+
+        double[] lower = new double[horizon];
+        double[] upper = new double[horizon];
+        for (int h = 0; h < horizon; h++) {
+            double width = z * fit.sigma * Math.sqrt(h + 1.0);
+            // Doanh thu không âm
+            fit.points[h] = Math.max(0, fit.points[h]);
+            lower[h] = Math.max(0, fit.points[h] - width);
+            upper[h] = fit.points[h] + width;
+        }
+        return new Forecast(fit.model, fit.points, lower, upper, fit.sigma);
+    }
+
+    /**
+     * Backtest: huấn luyện trên dữ liệu trừ {@code holdout} kỳ cuối và so sánh với thực tế
+     */
+    public Backtest backtest(double[] history, int holdout) {
+        if (holdout < 1 || history.length - holdout < 2) {
+            return new Backtest(Double.NaN, Double.NaN, 0);
+        }
+
+        int trainLength = history.length - holdout;
+        double[] train = new double[trainLength];
+        System.arraycopy(history, 0, train, 0, trainLength);
+        double[] predicted = forecast(train, holdout, 0).getPoint();
+
+        double apeSum = 0;
+        int apeCount = 0;
+        double sapeSum = 0;
+        for (int i = 0; i < holdout; i++) {
+            double actual = history[trainLength + i];
+            double error = Math.abs(actual - predicted[i]);
+            if (actual != 0) {
+                apeSum += error / Math.abs(actual);
+                apeCount++;
+            }
+            double denominator = Math.abs(actual) + Math.abs(predicted[i]);
+            sapeSum += denominator == 0 ? 0 : 2 * error / denominator;
+        }
+
+        double mape = apeCount == 0 ? Double.NaN : 100 * apeSum / apeCount;
+        double smape = 100 * sapeSum / holdout;
+        return new Backtest(mape, smape, holdout);
+    }
+
+    private Fit fitHoltWinters(double[] y, int horizon) {
+        double bestSse = Double.MAX_VALUE;
+        double[] best = null;
+
+        for (double alpha : ALPHA_GRID) {
+            for (double beta : BETA_GRID) {
+                for (double gamma : GAMMA_GRID) {
+                    double sse = runHoltWinters(y, alpha, beta, gamma, 0, null);
+                    if (sse < bestSse) {
+                        bestSse = sse;
+                        best = new double[] {alpha, beta, gamma};
+                    }
+                }
+            }
+        }
+
+        double[] points = new double[horizon];
+        runHoltWinters(y, best[0], best[1], best[2], horizon, points);
+        double sigma = Math.sqrt(bestSse / (y.length - seasonLength));
+        return new Fit(HOLT_WINTERS, points, sigma);
+    }
+
+    /**
+     * Chạy Holt-Winters cộng tính, trả về SSE của dự báo một bước và ghi dự báo vào {@code out}
+     */
+    private double runHoltWinters(double[] y, double alpha, double beta, double gamma, int horizon, double[] out) {
+        int n = y.length;
+        int m = seasonLength;
+
+        double firstSeasonMean = 0;
+        double secondSeasonMean = 0;
+        for (int i = 0; i < m; i++) {
+            firstSeasonMean += y[i];
+            secondSeasonMean += y[i + m];
+        }
+        firstSeasonMean /= m;
+        secondSeasonMean /= m;
+
+        double level = firstSeasonMean;
+        double trend = (secondSeasonMean - firstSeasonMean) / m;
+        double[] seasonal = new double[n];
+        for (int i = 0; i < m; i++) {
+            seasonal[i] = y[i] - firstSeasonMean;
+        }
+
+        double sse = 0;
+        for (int t = m; t < n; t++) {
+            double oneStep = level + trend + seasonal[t - m];
+            double error = y[t] - oneStep;
+            sse += error * error;
+
+            double newLevel = alpha * (y[t] - seasonal[t - m]) + (1 - alpha) * (level + trend);
+            trend = beta * (newLevel - level) + (1 - beta) * trend;
+            seasonal[t] = gamma * (y[t] - newLevel) + (1 - gamma) * seasonal[t - m];
+            level = newLevel;
+        }
+
+        for (int h = 1; h <= horizon; h++) {
+            out[h - 1] = level + h * trend + seasonal[n - m + (h - 1) % m];
+        }
+        return sse;
+    }
+
+    private Fit fitSeasonalNaiveTrend(double[] y, int horizon) {
+        int n = y.length;
+        double[] line = linearRegression(y);
+        double intercept = line[0];
+        double slope = line[1];
+
+        double[] residual = new double[n];
+        for (int t = 0; t < n; t++) {
+            residual[t] = y[t] - (intercept + slope * t);
+        }
+
+        double sse = 0;
+        for (int t = seasonLength; t < n; t++) {
+            double error = residual[t] - residual[t - seasonLength];
+            sse += error * error;
+        }
+        double sigma = Math.sqrt(sse / (n - seasonLength));
+
+        double[] points = new double[horizon];
+        for (int h = 1; h <= horizon; h++) {
+            points[h - 1] = intercept + slope * (n - 1 + h) + residual[n - seasonLength + (h - 1) % seasonLength];
+        }
+        return new Fit(SEASONAL_NAIVE_TREND, points, sigma);
+    }
+
+    private Fit fitLinearTrend(double[] y, int horizon) {
+        int n = y.length;
+        double[] points = new double[horizon];
+        if (n == 0) {
+            return new Fit(LINEAR_TREND, points, 0);
+        }
+
+        double[] line = linearRegression(y);
+        double sse = 0;
+        for (int t = 0; t < n; t++) {
+            double error = y[t] - (line[0] + line[1] * t);
+            sse += error * error;
+        }
+        double sigma = n > 2 ? Math.sqrt(sse / (n - 2)) : 0;
+
+        for (int h = 1; h <= horizon; h++) {
+            points[h - 1] = line[0] + line[1] * (n - 1 + h);
+        }
+        return new Fit(LINEAR_TREND, points, sigma);
+    }
+
+    /**
+     * Hồi quy tuyến tính bình phương tối thiểu theo chỉ số thời gian, trả về {intercept, slope}
+     */
+    private static double[] linearRegression(double[] y) {
+        int n = y.length;
+        if (n == 1) {
+            return new double[] {y[0], 0};
+        }
+        double meanX = (n - 1) / 2.0;
+        double meanY = 0;
+        for (double value : y) {
+            meanY += value;
+        }
+        meanY /= n;
+
+        double covariance = 0;
+        double variance = 0;
+        for (int t = 0; t < n; t++) {
+            covariance += (t - meanX) * (y[t] - meanY);
+            variance += (t - meanX) * (t - meanX);
+        }
+        double slope = covariance / variance;
+        return new double[] {meanY - slope * meanX, slope};
+    }
+
+    private static class Fit {
+        private final String model;
+        private final double[] points;
+        private final double sigma;
+
+        Fit(String model, double[] points, double sigma) {
+            this.model = model;
+            this.points = points;
+            this.sigma = sigma;
+        }
+    }
+
+    /**
+     * Kết quả dự báo: giá trị điểm và cận dưới/cận trên cho từng kỳ
+     */
+    public static class Forecast {
+        private final String model;
+        private final double[] point;
+        private final double[] lower;
+        private final double[] upper;
+        private final double sigma;
+
+        public Forecast(String model, double[] point, double[] lower, double[] upper, double sigma) {
+            this.model = model;
+            this.point = point;
+            this.lower = lower;
+            this.upper = upper;
+            this.sigma = sigma;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        public double[] getPoint() {
+            return point;
+        }
+
+        public double[] getLower() {
+            return lower;
+        }
+
+        public double[] getUpper() {
+            return upper;
+        }
+
+        public double getSigma() {
+            return sigma;
+        }
+    }
+
+    /**
+     * Độ chính xác backtest (MAPE và sMAPE tính theo %)
+     */
+    public static class Backtest {
+        private final double mape;
+        private final double smape;
+        private final int holdout;
+
+        public Backtest(double mape, double smape, int holdout) {
+            this.mape = mape;
+            this.smape = smape;
+            this.holdout = holdout;
+        }
+
+        public double getMape() {
+            return mape;
+        }
+
+        public double getSmape() {
+            return smape;
+        }
+
+        public int getHoldout() {
+            return holdout;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.techzenacademy.TechFinance.service.impl.gemini;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.techzenacademy.TechFinance.entity.ChatConversation;
+import com.techzenacademy.TechFinance.entity.ChatMessage;
+import com.techzenacademy.TechFinance.repository.ChatConversationRepository;
+import com.techzenacademy.TechFinance.repository.ChatMessageRepository;
+import com.techzenacademy.TechFinance.service.impl.AfterCommit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Quản lý lịch sử hội thoại:
+ * <ul>
+ *   <li>Phân trang tin nhắn theo cursor (timestamp, message_id) thay vì tải toàn bộ</li>
+ *   <li>Ngữ cảnh gửi model = bản tóm tắt các lượt cũ + mọi tin nhắn chưa được tóm tắt (có giới hạn)</li>
+ *   <li>Tóm tắt các lượt cũ chạy nền sau mỗi câu trả lời khi số tin nhắn chưa tóm tắt vượt ngưỡng</li>
+ * </ul>
+ */
+@Service
+public class ChatHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatHistoryService.class);
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SUMMARY_BATCH = 200;
+
+    @Autowired
+    private ChatMessageRepository messageRepository;
+
+    @Autowired
+    private ChatConversationRepository conversationRepository;
+
+    @Autowired
+    private GeminiHttpClient geminiHttpClient;
+
+    @Value("${gemini.history.page-size:30}")
+    private int defaultPageSize;
+
+    @Value("${gemini.history.tail-size:10}")
+    private int tailSize;
+
+    // Giới hạn cứng số tin nhắn chưa tóm tắt đưa vào prompt khi tác vụ tóm tắt nền chưa theo kịp
+    @Value("${gemini.history.max-unsummarized:60}")
+    private int maxUnsummarized;
+
+    @Value("${gemini.history.summarize-threshold:20}")
+    private int summarizeThreshold;
+
+    @Value("${gemini.history.message-chars:1000}")
+    private int maxMessageChars;
+
+    private final Set<String> summarizing = ConcurrentHashMap.newKeySet();
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Lấy một trang tin nhắn cũ hơn {@code cursor} (null = trang mới nhất), trả về theo thứ tự thời gian
+     */
+    public HistoryPage getPage(String conversationId, String cursor, Integer limit) {
+        int size = limit == null || limit < 1 ? defaultPageSize : Math.min(limit, MAX_PAGE_SIZE);
+
+        LocalDateTime beforeTimestamp = null;
+        Integer beforeId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                String[] parts = decodeCursor(cursor);
+                beforeTimestamp = LocalDateTime.parse(parts[0]);
+                beforeId = Integer.valueOf(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+
+        // Lấy dư một phần tử để biết còn trang tiếp theo hay không
+        List<ChatMessage> rows = new ArrayList<>(messageRepository.findPageBefore(
+                conversationId, beforeTimestamp, beforeId, PageRequest.of(0, size + 1)));
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+        }
+        Collections.reverse(rows);
+
+        String nextCursor = hasMore && !rows.isEmpty() ? encodeCursor(rows.get(0)) : null;
+        return new HistoryPage(rows, nextCursor);
+    }
+
+    /**
+     * Ngữ cảnh hội thoại cho prompt: bản tóm tắt (nếu có) và mọi tin nhắn sau mốc đã tóm tắt, tối đa
+     * {@code maxUnsummarized} tin nhắn gần nhất. Tóm tắt chỉ bắt đầu khi phần ngoài tail đủ ngưỡng và chạy nền,
+     * nên chỉ lấy {@code tailSize} tin nhắn sẽ làm mất các tin nhắn nằm giữa bản tóm tắt và tail.
+     */
+    public String buildPromptHistory(ChatConversation conversation) {
+        List<ChatMessage> tail = new ArrayList<>(messageRepository.findNewestAfter(
+                conversation.getId(), conversation.getSummarizedUntilMessageId(),
+                PageRequest.of(0, Math.max(maxUnsummarized, tailSize))));
+        if (tail.isEmpty() && conversation.getHistorySummary() == null) {
+            return "";
+        }
+        Collections.reverse(tail);
+
+        StringBuilder sb = new StringBuilder();
+        if (conversation.getHistorySummary() != null) {
+            sb.append("Tóm tắt các trao đổi trước:\n").append(conversation.getHistorySummary()).append("\n");
+        }
+        if (!tail.isEmpty()) {
+            sb.append("Các tin nhắn gần nhất:\n");
+            appendMessages(sb, tail);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Lên lịch tóm tắt nền cho cuộc hội thoại sau khi transaction hiện tại commit (tin nhắn vừa lưu mới đọc được).
+     * Mỗi cuộc hội thoại chỉ có tối đa một tác vụ tóm tắt chạy cùng lúc.
+     */
+    public void scheduleSummarization(String conversationId) {
+        AfterCommit.run(() -> submitSummarization(conversationId));
+    }
+
+    private void submitSummarization(String conversationId) {
+        if (!summarizing.add(conversationId)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                summarize(conversationId);
+            } catch (Exception e) {
+                logger.warn("Could not summarize conversation {}: {}", conversationId, e.getMessage());
+            } finally {
+                summarizing.remove(conversationId);
+            }
+        });
+    }
+
+    private void summarize(String conversationId) throws Exception {
+        Optional<ChatConversation> conversationOpt = conversationRepository.findById(conversationId);
+        if (!conversationOpt.isPresent()) {
+            return;
+        }
+        ChatConversation conversation = conversationOpt.get();
+        Integer summarizedUntil = conversation.getSummarizedUntilMessageId();
+
+        // Chỉ tóm tắt phần nằm ngoài cửa sổ tail, khi phần đó đủ lớn
+        long outsideTail = messageRepository.countAfter(conversationId, summarizedUntil) - tailSize;
+        if (outsideTail < summarizeThreshold) {
+            return;
+        }
+
+        List<ChatMessage> batch = messageRepository.findAfter(
+                conversationId, summarizedUntil, PageRequest.of(0, (int) Math.min(outsideTail, MAX_SUMMARY_BATCH)));
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("Hãy tóm tắt ngắn gọn (tối đa 200 từ) cuộc trao đổi tài chính sau, ")
+              .append("giữ lại các câu hỏi, kết luận và con số quan trọng.\n");
+        if (conversation.getHistorySummary() != null) {
+            prompt.append("Tóm tắt trước đó:\n").append(conversation.getHistorySummary()).append("\n");
+        }
+        prompt.append("Các tin nhắn cần tóm tắt thêm:\n");
+        appendMessages(prompt, batch);
+
+        String summary = geminiHttpClient.generate(prompt.toString());
+        Integer untilId = batch.get(batch.size() - 1).getId();
+        conversationRepository.updateHistorySummary(conversationId, summary, untilId);
+        logger.info("Summarized {} messages of conversation {} up to message {}", batch.size(), conversationId, untilId);
+    }
+
+    private void appendMessages(StringBuilder sb, List<ChatMessage> messages) {
+        for (ChatMessage message : messages) {
+            String content = message.getContent() != null ? message.getContent() : "";
+            if (content.length() > maxMessageChars) {
+                content = content.substring(0, maxMessageChars) + "...";
+            }
+            sb.append(message.getSender() == ChatMessage.MessageSender.USER ? "Người dùng: " : "AI: ")
+              .append(content)
+              .append("\n");
+        }
+    }
+
+    private static String encodeCursor(ChatMessage message) {
+        String raw = message.getTimestamp() + "|" + message.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = raw.split("\\|");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return parts;
+    }
+
+    /**
+     * Một trang tin nhắn và cursor để tải trang cũ hơn (null nếu đã hết)
+     */
+    public static class HistoryPage {
+        private final List<ChatMessage> messages;
+        private final String nextCursor;
+
+        public HistoryPage(List<ChatMessage> messages, String nextCursor) {
+            this.messages = messages;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<ChatMessage> getMessages() {
+            return messages;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.techzenacademy.TechFinance.service.impl.gemini;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker đơn giản cho một endpoint model.
+ * <ul>
+ *   <li>CLOSED: cho phép mọi request, mở mạch khi số lỗi liên tiếp đạt ngưỡng</li>
+ *   <li>OPEN: từ chối ngay cho đến khi hết thời gian chờ</li>
+ *   <li>HALF_OPEN: cho một request thử; thành công thì đóng mạch, lỗi thì mở lại</li>
+ * </ul>
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationMillis;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int failureThreshold, long openDurationMillis) {
+        this(failureThreshold, openDurationMillis, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(int failureThreshold, long openDurationMillis, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Kiểm tra có được phép gửi request hay không
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openDurationMillis) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+        }
+    }
+
+    /**
+     * Lời gọi bị hủy phía người gọi: không tính thành công hay lỗi, chỉ trả lại lượt thử ở trạng thái HALF_OPEN
+     */
+    public synchronized void recordIgnored() {
+        trialInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
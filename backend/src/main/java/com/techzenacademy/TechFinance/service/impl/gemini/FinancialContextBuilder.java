@@ -0,0 +1,357 @@
+package com.techzenacademy.TechFinance.service.impl.gemini;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.techzenacademy.TechFinance.entity.ExpenseTransaction;
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.entity.MonthlyReport;
+import com.techzenacademy.TechFinance.entity.User;
+import com.techzenacademy.TechFinance.repository.ExpenseTransactionRepository;
+import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
+import com.techzenacademy.TechFinance.repository.MonthlyReportRepository;
+import com.techzenacademy.TechFinance.service.impl.DataVersionService;
+import com.techzenacademy.TechFinance.service.impl.columnar.ColumnarTransactionStore;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Builds a compact, pre-aggregated financial digest that is injected into Gemini prompts.
+ * Digests are cached per user and data version, so chat turns only hit the database
+ * after transactions change (or the day rolls over). The cache keeps at most
+ * {@code gemini.context.cache-max-users} users and evicts the least recently used one.
+ */
+@Service
+public class FinancialContextBuilder {
+
+    private static final Logger logger = LoggerFactory.getLogger(FinancialContextBuilder.class);
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("MM/yyyy");
+
+    @Autowired
+    private IncomeTransactionRepository incomeTransactionRepository;
+
+    @Autowired
+    private ExpenseTransactionRepository expenseTransactionRepository;
+
+    @Autowired
+    private MonthlyReportRepository monthlyReportRepository;
+
+    @Autowired
+    private ColumnarTransactionStore columnarStore;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Value("${gemini.context.token-budget:1500}")
+    private int tokenBudget;
+
+    @Value("${gemini.context.months:12}")
+    private int months;
+
+    @Value("${gemini.context.top-n:5}")
+    private int topN;
+
+    @Value("${gemini.context.cache-max-users:500}")
+    private int cacheMaxUsers;
+
+    private Map<Integer, FinancialContext> cache;
+
+    @PostConstruct
+    public void init() {
+        // LinkedHashMap theo thứ tự truy cập: người dùng lâu không chat nhất bị loại khi vượt giới hạn
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, FinancialContext> eldest) {
+                return size() > cacheMaxUsers;
+            }
+        };
+    }
+
+    /**
+     * Get the financial digest for a user, rebuilding it only when the data version changed
+     */
+    public FinancialContext buildContext(User user) {
+        return buildContext(user, LocalDate.now());
+    }
+
+    FinancialContext buildContext(User user, LocalDate today) {
+        long version = dataVersionService.current();
+
+        FinancialContext cached = lookup(user.getId());
+        if (cached != null && cached.getDataVersion() == version && today.equals(cached.getBuiltOn())) {
+            return cached;
+        }
+
+        long start = System.nanoTime();
+        String digest = render(buildSections(user, today));
+        FinancialContext context = new FinancialContext(digest, version, today);
+        store(user.getId(), context);
+        logger.debug("Built financial digest for user {} (version {}) in {} ms, ~{} tokens",
+            user.getId(), version, (System.nanoTime() - start) / 1_000_000, estimateTokens(digest));
+        return context;
+    }
+
+    public synchronized int cacheSize() {
+        return cache.size();
+    }
+
+    private synchronized FinancialContext lookup(Integer userId) {
+        return cache.get(userId);
+    }
+
+    private synchronized void store(Integer userId, FinancialContext context) {
+        cache.put(userId, context);
+    }
+
+    /**
+     * Sections in priority order; lower-priority sections are cut first when over budget
+     */
+    private List<Section> buildSections(User user, LocalDate today) {
+        LocalDate endDate = today;
+        LocalDate startDate = YearMonth.from(today).minusMonths(months - 1L).atDay(1);
+        LocalDate currentMonthStart = YearMonth.from(today).atDay(1);
+
+        List<Section> sections = new ArrayList<>();
+        sections.add(buildOpenBalancesSection());
+        sections.add(buildMonthlyTotalsSection(startDate, endDate));
+        sections.add(buildTopCategoriesSection(currentMonthStart, startDate, endDate));
+        sections.add(buildTopPartnersSection(startDate, endDate));
+        sections.add(buildLargestOpenItemsSection());
+        sections.add(buildMonthlyReportsSection(user, startDate, endDate));
+        return sections;
+    }
+
+    private Section buildOpenBalancesSection() {
+        Section section = new Section("Open receivables and payables:");
+
+        Object[] receivables = firstRow(incomeTransactionRepository.summarizeByStatus(IncomeTransaction.PaymentStatus.PENDING));
+        Object[] payables = firstRow(expenseTransactionRepository.summarizeByStatus(ExpenseTransaction.PaymentStatus.UNPAID));
+
+        BigDecimal receivableAmount = toBigDecimal(receivables[1]);
+        BigDecimal payableAmount = toBigDecimal(payables[1]);
+
+        section.add("Receivables (pending income): " + toLong(receivables[0]) + " transactions, total " + receivableAmount
+            + (receivables[2] != null ? ", oldest " + receivables[2] : ""));
+        section.add("Payables (unpaid expenses): " + toLong(payables[0]) + " transactions, total " + payableAmount
+            + (payables[2] != null ? ", oldest " + payables[2] : ""));
+        section.add("Net working capital impact: " + receivableAmount.subtract(payableAmount));
+        return section;
+    }
+
+    private Section buildMonthlyTotalsSection(LocalDate startDate, LocalDate endDate) {
+        Section section = new Section("Monthly totals (income received/total, expense paid/total, net):");
+
+        // Tổng hợp theo tháng, thứ tự tháng mới nhất trước
+        Map<YearMonth, BigDecimal[]> totals = new TreeMap<>(Comparator.reverseOrder());
+        for (Object[] row : columnarStore.incomeByMonthAndStatus(startDate, endDate)) {
+            BigDecimal[] values = totals.computeIfAbsent(toYearMonth(row), k -> zeros());
+            BigDecimal amount = toBigDecimal(row[3]);
+            values[1] = values[1].add(amount);
+            if (row[2] == IncomeTransaction.PaymentStatus.RECEIVED) {
+                values[0] = values[0].add(amount);
+            }
+        }
+        for (Object[] row : columnarStore.expenseByMonthAndStatus(startDate, endDate)) {
+            BigDecimal[] values = totals.computeIfAbsent(toYearMonth(row), k -> zeros());
+            BigDecimal amount = toBigDecimal(row[3]);
+            values[3] = values[3].add(amount);
+            if (row[2] == ExpenseTransaction.PaymentStatus.PAID) {
+                values[2] = values[2].add(amount);
+            }
+        }
+
+        for (Map.Entry<YearMonth, BigDecimal[]> entry : totals.entrySet()) {
+            BigDecimal[] v = entry.getValue();
+            section.add(entry.getKey().format(MONTH_FORMAT)
+                + " | Income: " + v[0] + "/" + v[1]
+                + " | Expense: " + v[2] + "/" + v[3]
+                + " | Net: " + v[1].subtract(v[3]));
+        }
+        return section;
+    }
+
+    private Section buildTopCategoriesSection(LocalDate currentMonthStart, LocalDate startDate, LocalDate endDate) {
+        Section section = new Section("Top categories:");
+        PageRequest limit = PageRequest.of(0, topN);
+
+        appendRanking(section, "Income this month", incomeTransactionRepository.sumByCategory(currentMonthStart, endDate, limit));
+        appendRanking(section, "Expense this month", expenseTransactionRepository.sumByCategory(currentMonthStart, endDate, limit));
+        appendRanking(section, "Income last " + months + " months", incomeTransactionRepository.sumByCategory(startDate, endDate, limit));
+        appendRanking(section, "Expense last " + months + " months", expenseTransactionRepository.sumByCategory(startDate, endDate, limit));
+        return section;
+    }
+
+    private Section buildTopPartnersSection(LocalDate startDate, LocalDate endDate) {
+        Section section = new Section("Top partners (last " + months + " months):");
+        PageRequest limit = PageRequest.of(0, topN);
+
+        appendRanking(section, "Customers", incomeTransactionRepository.sumByCustomer(startDate, endDate, limit));
+        appendRanking(section, "Suppliers", expenseTransactionRepository.sumBySupplier(startDate, endDate, limit));
+        return section;
+    }
+
+    private Section buildLargestOpenItemsSection() {
+        Section section = new Section("Largest open items:");
+
+        for (IncomeTransaction t : incomeTransactionRepository.findTop5ByPaymentStatusOrderByAmountDesc(IncomeTransaction.PaymentStatus.PENDING)) {
+            section.add("Receivable " + t.getTransactionDate()
+                + " | " + t.getAmount()
+                + " | " + (t.getCustomer() != null ? t.getCustomer().getName() : "Unknown")
+                + (t.getReferenceNo() != null ? " | Ref: " + t.getReferenceNo() : ""));
+        }
+        for (ExpenseTransaction t : expenseTransactionRepository.findTop5ByPaymentStatusOrderByAmountDesc(ExpenseTransaction.PaymentStatus.UNPAID)) {
+            section.add("Payable " + t.getTransactionDate()
+                + " | " + t.getAmount()
+                + " | " + (t.getSupplier() != null ? t.getSupplier().getName() : "Unknown")
+                + (t.getReferenceNo() != null ? " | Ref: " + t.getReferenceNo() : ""));
+        }
+        return section;
+    }
+
+    private Section buildMonthlyReportsSection(User user, LocalDate startDate, LocalDate endDate) {
+        Section section = new Section("Saved monthly reports:");
+
+        List<MonthlyReport> reports = monthlyReportRepository.findByUserIdAndReportDateBetweenOrderByReportDateAsc(
+            user.getId().longValue(), startDate, endDate);
+        for (int i = reports.size() - 1; i >= 0; i--) {
+            MonthlyReport report = reports.get(i);
+            section.add(report.getReportDate().format(MONTH_FORMAT)
+                + " - Revenue: " + report.getRevenue()
+                + ", Expenses: " + report.getExpenses()
+                + ", Profit: " + report.getProfit());
+        }
+        return section;
+    }
+
+    /**
+     * Render sections line by line until the token budget is reached
+     */
+    private String render(List<Section> sections) {
+        StringBuilder data = new StringBuilder();
+        int usedTokens = 0;
+
+        for (Section section : sections) {
+            if (section.lines.isEmpty()) {
+                continue;
+            }
+            int headerTokens = estimateTokens(section.title) + estimateTokens(section.lines.get(0));
+            if (usedTokens + headerTokens > tokenBudget) {
+                break;
+            }
+            data.append(section.title).append("\n");
+            usedTokens += estimateTokens(section.title);
+
+            for (String line : section.lines) {
+                int lineTokens = estimateTokens(line);
+                if (usedTokens + lineTokens > tokenBudget) {
+                    return data.toString();
+                }
+                data.append(line).append("\n");
+                usedTokens += lineTokens;
+            }
+            data.append("\n");
+        }
+
+        return data.toString();
+    }
+
+    private void appendRanking(Section section, String label, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        StringBuilder line = new StringBuilder(label).append(": ");
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            if (i > 0) {
+                line.append(", ");
+            }
+            line.append(row[1]).append(" (").append(toBigDecimal(row[2])).append(")");
+        }
+        section.add(line.toString());
+    }
+
+    /**
+     * Rough token estimate (about 4 characters per token)
+     */
+    private static int estimateTokens(String text) {
+        return (text.length() + 3) / 4 + 1;
+    }
+
+    private static Object[] firstRow(List<Object[]> rows) {
+        return rows.isEmpty() ? new Object[] { 0L, BigDecimal.ZERO, null } : rows.get(0);
+    }
+
+    private static YearMonth toYearMonth(Object[] row) {
+        return YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+    }
+
+    private static long toLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    private static BigDecimal[] zeros() {
+        return new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO };
+    }
+
+    private static class Section {
+        private final String title;
+        private final List<String> lines = new ArrayList<>();
+
+        Section(String title) {
+            this.title = title;
+        }
+
+        void add(String line) {
+            lines.add(line);
+        }
+    }
+
+    /**
+     * A rendered digest together with the data version it was built from
+     */
+    public static class FinancialContext {
+        private final String digest;
+        private final long dataVersion;
+        private final LocalDate builtOn;
+
+        public FinancialContext(String digest, long dataVersion, LocalDate builtOn) {
+            this.digest = digest;
+            this.dataVersion = dataVersion;
+            this.builtOn = builtOn;
+        }
+
+        public String getDigest() {
+            return digest;
+        }
+
+        public long getDataVersion() {
+            return dataVersion;
+        }
+
+        public LocalDate getBuiltOn() {
+            return builtOn;
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.techzenacademy.TechFinance.service.impl.gemini;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Client gọi generateContent của Gemini với:
+ * <ul>
+ *   <li>HttpClient dùng chung (pool keep-alive) và timeout cho từng request</li>
+ *   <li>Retry với exponential backoff + jitter cho lỗi tạm thời (IO, 429, 5xx)</li>
+ *   <li>Circuit breaker riêng cho từng model</li>
+ *   <li>Model lỗi thì chuyển ngay sang model dự phòng</li>
+ *   <li>Hedged request (tùy chọn, {@code gemini.http.hedge-enabled}): nếu model chính chậm hơn p95 đã quan sát
+ *       thì gửi song song sang model dự phòng, lấy kết quả đến trước và hủy các request còn lại</li>
+ * </ul>
+ * Độ trễ và kết quả của từng model được ghi vào metric {@code gemini.requests}; client streaming
+ * cũng đi qua {@link #callWithRetry(String, String, ModelCall, BooleanSupplier)} để dùng chung retry,
+ * circuit breaker và metric.
+ */
+@Service
+public class GeminiHttpClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiHttpClient.class);
+    private static final double HEDGE_PERCENTILE = 0.95;
+
+    static final String CALL_GENERATE = "generate";
+    static final String CALL_STREAM = "stream";
+
+    @Autowired
+    private HttpClient geminiHttpClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${gemini.api.key}")
+    private String apiKey;
+
+    @Value("${gemini.model.id}")
+    private String modelId;
+
+    @Value("${gemini.api.base-url:https://generativelanguage.googleapis.com/v1}")
+    private String baseUrl;
+
+    @Value("${gemini.http.fallback-models:gemini-pro}")
+    private List<String> fallbackModels;
+
+    @Value("${gemini.http.read-timeout-ms:30000}")
+    private long readTimeoutMs;
+
+    @Value("${gemini.http.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${gemini.http.backoff-base-ms:200}")
+    private long backoffBaseMs;
+
+    // Hedge gửi thêm một lời gọi model (tốn gấp đôi chi phí) nên mặc định tắt
+    @Value("${gemini.http.hedge-enabled:false}")
+    private boolean hedgeEnabled;
+
+    // Độ trễ hedge = max(giá trị này, p95 các lời gọi thành công của model chính)
+    @Value("${gemini.http.hedge-min-delay-ms:15000}")
+    private long hedgeMinDelayMs;
+
+    // Chưa đủ số mẫu thì chưa hedge, tránh dựa trên p95 không đáng tin
+    @Value("${gemini.http.hedge-min-samples:50}")
+    private long hedgeMinSamples;
+
+    @Value("${gemini.circuit.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${gemini.circuit.open-duration-ms:30000}")
+    private long openDurationMs;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Gửi prompt và trả về nội dung text của câu trả lời
+     */
+    public String generate(String prompt) throws IOException {
+        if (apiKey == null || apiKey.isEmpty()) {
+            throw new IOException("API key không được cấu hình");
+        }
+
+        List<String> models = new ArrayList<>();
+        models.add(modelId);
+        for (String fallback : fallbackModels) {
+            if (!fallback.isBlank() && !models.contains(fallback.trim())) {
+                models.add(fallback.trim());
+            }
+        }
+
+        String requestBody = buildRequestBody(prompt);
+        long hedgeDelay = hedgeDelayMs();
+        CompletableFuture<String> winner = new CompletableFuture<>();
+        List<Future<?>> attempts = new CopyOnWriteArrayList<>();
+        AtomicInteger nextModel = new AtomicInteger();
+        AtomicInteger pending = new AtomicInteger(models.size());
+        AtomicReference<Exception> lastError = new AtomicReference<>();
+
+        Runnable launchNext = new Runnable() {
+            @Override
+            public void run() {
+                int index = nextModel.getAndIncrement();
+                if (index >= models.size() || winner.isDone()) {
+                    return;
+                }
+                String model = models.get(index);
+                Runnable self = this;
+
+                attempts.add(executor.submit(() -> {
+                    try {
+                        winner.complete(callWithRetry(model, CALL_GENERATE, () -> send(model, requestBody), () -> true));
+                    } catch (Exception e) {
+                        lastError.set(e);
+                        logger.warn("Gemini model {} failed: {}", model, e.getMessage());
+                        // Lỗi thì chuyển ngay sang model kế tiếp, không chờ hết thời gian hedge
+                        self.run();
+                        if (pending.decrementAndGet() == 0) {
+                            winner.completeExceptionally(lastError.get());
+                        }
+                    }
+                }));
+
+                if (hedgeDelay >= 0 && index + 1 < models.size()) {
+                    CompletableFuture.delayedExecutor(hedgeDelay, TimeUnit.MILLISECONDS, executor).execute(self);
+                }
+            }
+        };
+        launchNext.run();
+
+        try {
+            long overallTimeoutMs = (readTimeoutMs + backoffBaseMs * (1L << maxAttempts)) * maxAttempts + Math.max(0, hedgeDelay);
+            return winner.get(overallTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause
+                    : new IOException("Lỗi khi gọi Gemini API: " + cause.getMessage(), cause);
+        } catch (TimeoutException e) {
+            throw new IOException("Gemini API không phản hồi trong thời gian cho phép", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Yêu cầu Gemini API bị gián đoạn", e);
+        } finally {
+            // Hủy các request còn đang chạy (request thua khi hedge)
+            for (Future<?> attempt : attempts) {
+                attempt.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Trạng thái circuit breaker của từng model (dùng cho giám sát)
+     */
+    public Map<String, CircuitBreaker.State> getCircuitStates() {
+        Map<String, CircuitBreaker.State> states = new ConcurrentHashMap<>();
+        circuitBreakers.forEach((model, breaker) -> states.put(model, breaker.getState()));
+        return states;
+    }
+
+    /**
+     * Model chính ({@code gemini.model.id})
+     */
+    public String getModelId() {
+        return modelId;
+    }
+
+    /**
+     * Gọi model với retry, circuit breaker và metric. {@code canRetry} trả về false khi không được gọi lại
+     * nữa (ví dụ stream đã gửi một phần nội dung cho người dùng).
+     */
+    public <T> T callWithRetry(String model, String call, ModelCall<T> modelCall, BooleanSupplier canRetry)
+            throws IOException, InterruptedException {
+        CircuitBreaker breaker = circuitBreaker(model);
+        IOException lastError = null;
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            if (!breaker.tryAcquire()) {
+                record(model, call, "rejected", 0);
+                throw new IOException("Circuit breaker open for model " + model);
+            }
+
+            long started = System.nanoTime();
+            try {
+                T result = modelCall.call();
+                breaker.recordSuccess();
+                record(model, call, "success", System.nanoTime() - started);
+                return result;
+            } catch (GeminiHttpException e) {
+                lastError = e;
+                if (!e.isRetryable()) {
+                    // 4xx khác 404: endpoint vẫn hoạt động, lỗi nằm ở request
+                    if (e.getStatusCode() == 404) {
+                        breaker.recordFailure();
+                    } else {
+                        breaker.recordSuccess();
+                    }
+                    record(model, call, "client_error", System.nanoTime() - started);
+                    throw e;
+                }
+                breaker.recordFailure();
+                record(model, call, "server_error", System.nanoTime() - started);
+            } catch (IOException e) {
+                lastError = e;
+                breaker.recordFailure();
+                record(model, call, e instanceof HttpTimeoutException ? "timeout" : "io_error", System.nanoTime() - started);
+            } catch (RuntimeException | InterruptedException e) {
+                // Bị hủy (hedge thua, người dùng ngắt kết nối): không phải lỗi của model, không retry
+                breaker.recordIgnored();
+                record(model, call, "aborted", System.nanoTime() - started);
+                throw e;
+            }
+
+            if (attempt == maxAttempts || !canRetry.getAsBoolean()) {
+                break;
+            }
+            Counter.builder("gemini.requests.retries").tag("model", model).register(meterRegistry).increment();
+            // Full jitter: chờ ngẫu nhiên trong [0, base * 2^(attempt-1)]
+            long backoff = backoffBaseMs * (1L << (attempt - 1));
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoff + 1));
+        }
+        throw lastError;
+    }
+
+    private String send(String model, String requestBody) throws IOException, InterruptedException {
+        String url = String.format("%s/models/%s:generateContent?key=%s", baseUrl, model, apiKey);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(readTimeoutMs))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(requestBody))
+                .build();
+
+        HttpResponse<String> response = geminiHttpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        if (status / 100 != 2) {
+            throw new GeminiHttpException(status, "Lỗi khi gọi API model " + model + ": HTTP " + status);
+        }
+
+        JsonNode root = objectMapper.readTree(response.body());
+        String text = root.path("candidates").path(0).path("content").path("parts").path(0).path("text").asText();
+        if (text == null || text.isEmpty()) {
+            throw new IOException("Không thể tìm thấy text trong phản hồi API");
+        }
+        logger.info("Received response from Gemini model {}: {} characters", model, text.length());
+        return text;
+    }
+
+    /**
+     * Body JSON cho generateContent và streamGenerateContent (cùng cấu hình sinh nội dung)
+     */
+    String buildRequestBody(String prompt) throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.putArray("contents").addObject().putArray("parts").addObject().put("text", prompt);
+        root.putObject("generationConfig")
+                .put("temperature", 0.7)
+                .put("topK", 40)
+                .put("topP", 0.95)
+                .put("maxOutputTokens", 2048);
+        return objectMapper.writeValueAsString(root);
+    }
+
+    /**
+     * Độ trễ trước khi hedge sang model dự phòng, -1 nếu không hedge (tắt hoặc chưa đủ mẫu để tính p95)
+     */
+    long hedgeDelayMs() {
+        if (!hedgeEnabled) {
+            return -1;
+        }
+        Timer timer = meterRegistry.find("gemini.requests")
+                .tags("model", modelId, "call", CALL_GENERATE, "outcome", "success")
+                .timer();
+        if (timer == null || timer.count() < hedgeMinSamples) {
+            return -1;
+        }
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == HEDGE_PERCENTILE) {
+                return Math.max(hedgeMinDelayMs, (long) value.value(TimeUnit.MILLISECONDS));
+            }
+        }
+        return -1;
+    }
+
+    private CircuitBreaker circuitBreaker(String model) {
+        return circuitBreakers.computeIfAbsent(model, key -> {
+            CircuitBreaker breaker = new CircuitBreaker(failureThreshold, openDurationMs);
+            Gauge.builder("gemini.circuit.open", breaker, b -> b.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                    .tag("model", key)
+                    .register(meterRegistry);
+            return breaker;
+        });
+    }
+
+    private void record(String model, String call, String outcome, long nanos) {
+        Timer.builder("gemini.requests")
+                .tag("model", model)
+                .tag("call", call)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, HEDGE_PERCENTILE, 0.99)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Một lần gọi model (generate hoặc stream)
+     */
+    @FunctionalInterface
+    public interface ModelCall<T> {
+        T call() throws IOException, InterruptedException;
+    }
+
+    /**
+     * Lỗi HTTP từ Gemini API; 429 và 5xx được coi là lỗi tạm thời có thể retry
+     */
+    static class GeminiHttpException extends IOException {
+        private final int statusCode;
+
+        GeminiHttpException(int statusCode, String message) {
+            super(message);
+            this.statusCode = statusCode;
+        }
+
+        int getStatusCode() {
+            return statusCode;
+        }
+
+        boolean isRetryable() {
+            return statusCode == 429 || statusCode >= 500;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.techzenacademy.TechFinance.service.impl.gemini;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Gọi Gemini API ở chế độ streaming (Server-Sent Events).
+ * Mỗi lời gọi chạy trên một virtual thread riêng, số lời gọi đồng thời bị giới hạn
+ * bởi semaphore (bulkhead) để các phản hồi chậm không chiếm hết tài nguyên của ứng dụng.
+ * Retry, circuit breaker và metric dùng chung với {@link GeminiHttpClient}; chỉ retry khi chưa
+ * có đoạn nội dung nào được gửi cho người dùng.
+ */
+@Service
+public class GeminiStreamingClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiStreamingClient.class);
+    private static final String DATA_PREFIX = "data:";
+
+    @Value("${gemini.api.key}")
+    private String apiKey;
+
+    @Value("${gemini.model.id}")
+    private String modelId;
+
+    @Value("${gemini.api.base-url:https://generativelanguage.googleapis.com/v1}")
+    private String baseUrl;
+
+    @Value("${gemini.stream.max-concurrent:16}")
+    private int maxConcurrent;
+
+    @Value("${gemini.stream.request-timeout-seconds:120}")
+    private int requestTimeoutSeconds;
+
+    @Autowired
+    private HttpClient geminiHttpClient;
+
+    @Autowired
+    private GeminiHttpClient geminiClient;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ExecutorService executor;
+    private Semaphore bulkhead;
+
+    @PostConstruct
+    public void init() {
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.bulkhead = new Semaphore(maxConcurrent);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Gửi prompt và chuyển từng đoạn text cho {@code onChunk} ngay khi nhận được.
+     * Trả về toàn bộ nội dung khi stream kết thúc. Bị từ chối ngay nếu bulkhead đã đầy.
+     * Hủy future trả về (ví dụ người dùng ngắt kết nối) sẽ đóng kết nối tới model.
+     */
+    public CompletableFuture<String> streamAsync(String prompt, Consumer<String> onChunk) {
+        if (!bulkhead.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Too many concurrent AI requests, please retry later"));
+        }
+
+        CompletableFuture<String> result = new CompletableFuture<>();
+        AtomicReference<Stream<String>> connection = new AtomicReference<>();
+        try {
+            Future<?> worker = executor.submit(() -> {
+                String text = null;
+                Exception failure = null;
+                try {
+                    text = stream(prompt, onChunk, connection);
+                } catch (Exception e) {
+                    failure = e;
+                } finally {
+                    // Trả permit trước khi hoàn thành future để người gọi có thể gửi yêu cầu kế tiếp ngay
+                    bulkhead.release();
+                }
+
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else {
+                    result.complete(text);
+                }
+            });
+            result.whenComplete((text, error) -> {
+                if (result.isCancelled()) {
+                    // Ngắt virtual thread trước rồi đóng kết nối, để lỗi đọc được nhận ra là do hủy
+                    worker.cancel(true);
+                    Stream<String> lines = connection.get();
+                    if (lines != null) {
+                        lines.close();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Số lời gọi streaming đang chạy
+     */
+    public int getActiveStreams() {
+        return maxConcurrent - bulkhead.availablePermits();
+    }
+
+    private String stream(String prompt, Consumer<String> onChunk, AtomicReference<Stream<String>> connection)
+            throws IOException, InterruptedException {
+        if (apiKey == null || apiKey.isEmpty()) {
+            throw new IOException("API key không được cấu hình");
+        }
+
+        AtomicBoolean forwarded = new AtomicBoolean();
+        Consumer<String> tracked = chunk -> {
+            forwarded.set(true);
+            onChunk.accept(chunk);
+        };
+        return geminiClient.callWithRetry(modelId, GeminiHttpClient.CALL_STREAM,
+                () -> streamOnce(prompt, tracked, connection), () -> !forwarded.get());
+    }
+
+    private String streamOnce(String prompt, Consumer<String> onChunk, AtomicReference<Stream<String>> connection)
+            throws IOException, InterruptedException {
+        String url = String.format("%s/models/%s:streamGenerateContent?alt=sse&key=%s", baseUrl, modelId, apiKey);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(requestTimeoutSeconds))
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .POST(HttpRequest.BodyPublishers.ofString(geminiClient.buildRequestBody(prompt)))
+                .build();
+
+        HttpResponse<Stream<String>> response = geminiHttpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+        StringBuilder fullText = new StringBuilder();
+
+        // Đóng stream sẽ đóng kết nối, kể cả khi người dùng ngắt kết nối giữa chừng
+        try (Stream<String> lines = response.body()) {
+            connection.set(lines);
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("AI stream cancelled");
+            }
+            if (response.statusCode() / 100 != 2) {
+                throw new GeminiHttpClient.GeminiHttpException(response.statusCode(),
+                        "Lỗi khi gọi Gemini API: HTTP " + response.statusCode());
+            }
+
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                String line = iterator.next();
+                if (!line.startsWith(DATA_PREFIX)) {
+                    continue;
+                }
+                String text = extractText(line.substring(DATA_PREFIX.length()).trim());
+                if (!text.isEmpty()) {
+                    fullText.append(text);
+                    onChunk.accept(text);
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                // Kết nối bị đóng do người gọi hủy, không phải lỗi của model
+                throw new CancellationException("AI stream cancelled");
+            }
+            // Lỗi mạng giữa chừng: trả về IOException để callWithRetry retry và tính vào circuit breaker
+            if (e instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            throw e;
+        }
+
+        logger.info("Gemini stream completed: {} characters", fullText.length());
+        return fullText.toString();
+    }
+
+    private String extractText(String json) throws IOException {
+        JsonNode node = objectMapper.readTree(json);
+        StringBuilder text = new StringBuilder();
+        for (JsonNode part : node.path("candidates").path(0).path("content").path("parts")) {
+            text.append(part.path("text").asText(""));
+        }
+        return text.toString();
+    }
+}
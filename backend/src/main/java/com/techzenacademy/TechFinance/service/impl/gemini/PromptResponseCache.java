@@ -0,0 +1,280 @@
+package com.techzenacademy.TechFinance.service.impl.gemini;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.techzenacademy.TechFinance.service.impl.DataVersionService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cache câu trả lời của model theo prompt đã chuẩn hóa và phiên bản dữ liệu.
+ * <ul>
+ *   <li>Khóa = SHA-256(prompt chuẩn hóa) + phiên bản dữ liệu, nên mọi thay đổi giao dịch đều làm cache cũ hết hiệu lực</li>
+ *   <li>Giới hạn số phần tử (LRU) và thời gian sống (TTL)</li>
+ *   <li>Single-flight: các request giống nhau đồng thời chỉ tạo một lời gọi model; lời gọi bất đồng bộ
+ *       chỉ bị hủy khi mọi request đang chờ nó đều đã hủy</li>
+ * </ul>
+ */
+@Service
+public class PromptResponseCache {
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${gemini.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${gemini.cache.max-entries:500}")
+    private int maxEntries;
+
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private Map<String, Entry> entries;
+    private Counter hits;
+    private Counter misses;
+    private Counter coalesced;
+
+    @PostConstruct
+    public void init() {
+        // LinkedHashMap theo thứ tự truy cập: phần tử ít dùng nhất bị loại khi vượt giới hạn
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = Counter.builder("gemini.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("gemini.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.coalesced = Counter.builder("gemini.cache.requests").tag("result", "coalesced").register(meterRegistry);
+        Gauge.builder("gemini.cache.size", this, PromptResponseCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Lấy câu trả lời đã cache (nếu còn hạn), không gọi model
+     */
+    public String getIfPresent(String prompt) {
+        String cached = lookup(key(prompt));
+        if (cached != null) {
+            hits.increment();
+        }
+        return cached;
+    }
+
+    /**
+     * Lấy câu trả lời từ cache hoặc gọi {@code loader}. Các lời gọi đồng thời với cùng khóa dùng chung một kết quả.
+     */
+    public String getOrCompute(String prompt, Loader loader) throws IOException {
+        String key = key(prompt);
+        String cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        InFlight mine = new InFlight(key);
+        InFlight existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            // Người chờ đồng bộ không hủy được nên chỉ cần giữ lời gọi không bị hủy
+            existing.waiting.incrementAndGet();
+            return await(existing.result);
+        }
+
+        misses.increment();
+        try {
+            String result = loader.load();
+            store(key, result);
+            mine.result.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Bản bất đồng bộ của getOrCompute cho chat streaming. {@code loader} chỉ được gọi (trên luồng hiện tại)
+     * khi không có kết quả cache và không có request giống hệt đang chạy; các request đến sau dùng chung lời gọi đó.
+     * Mỗi người gọi nhận một future riêng: hủy nó chỉ bỏ việc chờ, lời gọi model bị hủy khi không còn ai chờ.
+     */
+    public CompletableFuture<String> getOrComputeAsync(String prompt, AsyncLoader loader) {
+        String key = key(prompt);
+        String cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        InFlight mine = new InFlight(key);
+        InFlight existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.subscribe();
+        }
+
+        misses.increment();
+        CompletableFuture<String> subscription = mine.subscribe();
+        CompletableFuture<String> loaded;
+        try {
+            loaded = loader.load();
+        } catch (RuntimeException e) {
+            loaded = CompletableFuture.failedFuture(e);
+        }
+        loaded.whenComplete((result, error) -> {
+            // Lưu cache trước khi bỏ khỏi inFlight để request kế tiếp không gọi model lần nữa
+            if (error == null) {
+                store(key, result);
+            }
+            inFlight.remove(key, mine);
+            if (error == null) {
+                mine.result.complete(result);
+            } else {
+                mine.result.completeExceptionally(error);
+            }
+        });
+        mine.upstream = loaded;
+        if (mine.waiting.get() == 0) {
+            // Mọi người chờ đã hủy trong lúc loader đang khởi động
+            loaded.cancel(true);
+        }
+        return subscription;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized String lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private synchronized void store(String key, String value) {
+        entries.put(key, new Entry(value, System.currentTimeMillis() + ttlSeconds * 1000));
+    }
+
+    private String await(CompletableFuture<String> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        } catch (CancellationException e) {
+            throw new IOException("Identical AI request was cancelled", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for identical AI request", e);
+        }
+    }
+
+    private String key(String prompt) {
+        return sha256(normalize(prompt)) + ":" + dataVersionService.current();
+    }
+
+    /**
+     * Chuẩn hóa prompt: Unicode NFC, chữ thường, gộp khoảng trắng
+     */
+    static String normalize(String prompt) {
+        String normalized = Normalizer.normalize(prompt, Normalizer.Form.NFC);
+        return normalized.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Hàm gọi model khi cache không có kết quả
+     */
+    @FunctionalInterface
+    public interface Loader {
+        String load() throws IOException;
+    }
+
+    /**
+     * Hàm gọi model bất đồng bộ (ví dụ streaming) khi cache không có kết quả
+     */
+    @FunctionalInterface
+    public interface AsyncLoader {
+        CompletableFuture<String> load();
+    }
+
+    /**
+     * Một lời gọi model đang chạy và số request đang chờ kết quả của nó
+     */
+    private class InFlight {
+        private final String key;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private final AtomicInteger waiting = new AtomicInteger();
+        private volatile CompletableFuture<String> upstream;
+
+        InFlight(String key) {
+            this.key = key;
+        }
+
+        CompletableFuture<String> subscribe() {
+            waiting.incrementAndGet();
+            CompletableFuture<String> subscription = result.copy();
+            subscription.whenComplete((value, error) -> {
+                if (subscription.isCancelled() && waiting.decrementAndGet() == 0) {
+                    // Không còn ai chờ: request mới với cùng prompt sẽ gọi lại model thay vì nhận lỗi hủy
+                    inFlight.remove(key, this);
+                    CompletableFuture<String> call = upstream;
+                    if (call != null) {
+                        call.cancel(true);
+                    }
+                }
+            });
+            return subscription;
+        }
+    }
+
+    private static class Entry {
+        private final String value;
+        private final long expiresAt;
+
+        Entry(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
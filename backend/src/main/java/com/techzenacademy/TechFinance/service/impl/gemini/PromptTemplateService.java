@@ -30,4 +30,20 @@ public class PromptTemplateService {
                 .replace("user_input", userInput)
                 .replace("data_database", databaseData);
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Create a prompt that also carries the conversation context (summary of older turns and recent messages)
+     * 
+     * @param userInput User message/query
+     * @param databaseData Data retrieved from the database (can be null)
+     * @param conversationHistory Conversation context (can be null or empty)
+     * @return Completed prompt
+     */
+    public String createPrompt(String userInput, String databaseData, String conversationHistory) {
+        String prompt = createPrompt(userInput, databaseData);
+        if (conversationHistory == null || conversationHistory.isEmpty()) {
+            return prompt;
+        }
+        return prompt + "\nNgữ cảnh cuộc hội thoại:\n" + conversationHistory;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,418 @@
+package com.techzenacademy.TechFinance.service.impl.jobs;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techzenacademy.TechFinance.config.ReadReplicaRoutingDataSource;
+import com.techzenacademy.TechFinance.dto.ReceivablePayableReportDTO;
+import com.techzenacademy.TechFinance.dto.TaxReportDTO;
+import com.techzenacademy.TechFinance.dto.report.MonthlyReportDTO;
+import com.techzenacademy.TechFinance.dto.report.ReportJobDTO;
+import com.techzenacademy.TechFinance.dto.report.ReportJobRequest;
+import com.techzenacademy.TechFinance.entity.ReportJob;
+import com.techzenacademy.TechFinance.entity.ReportJob.JobStatus;
+import com.techzenacademy.TechFinance.repository.ReportJobRepository;
+import com.techzenacademy.TechFinance.service.impl.BudgetOverviewService;
+import com.techzenacademy.TechFinance.service.impl.DataVersionService;
+import com.techzenacademy.TechFinance.service.impl.FinancialReportService;
+import com.techzenacademy.TechFinance.service.impl.ReceivablePayableService;
+import com.techzenacademy.TechFinance.service.impl.TaxReportService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Tạo báo cáo nặng (năm, nhiều năm, ...) ở chế độ nền thay vì giữ request:
+ * <ul>
+ *   <li>Tác vụ được lưu trong bảng report_jobs (trạng thái, tiến độ, kết quả JSON) và chạy trên thread pool giới hạn;
+ *       hàng đợi đầy thì từ chối thay vì tích tụ</li>
+ *   <li>Yêu cầu trùng tham số dùng lại tác vụ đang chờ/đang chạy hoặc kết quả đã xong, nếu dữ liệu chưa thay đổi kể từ khi tác vụ được tạo</li>
+ *   <li>Kết quả hết hạn sau {@code report-jobs.retention-hours} và được dọn định kỳ</li>
+ *   <li>Tác vụ dang dở khi ứng dụng dừng được chạy lại khi khởi động</li>
+ * </ul>
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Autowired
+    private ReportJobRepository jobRepository;
+
+    @Autowired
+    private FinancialReportService financialReportService;
+
+    @Autowired
+    private BudgetOverviewService budgetOverviewService;
+
+    @Autowired
+    private ReceivablePayableService receivablePayableService;
+
+    @Autowired
+    private TaxReportService taxReportService;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${report-jobs.workers:2}")
+    private int workers;
+
+    @Value("${report-jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${report-jobs.retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${report-jobs.max-years:10}")
+    private int maxYears;
+
+    // Phiên bản dữ liệu chỉ có ý nghĩa trong một lần chạy ứng dụng, nên gắn thêm id của lần chạy
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Object submitLock = new Object();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        Gauge.builder("report_jobs.queued", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("report_jobs.running", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Chạy lại các tác vụ chưa hoàn thành khi ứng dụng dừng
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingJobs() {
+        for (ReportJob job : jobRepository.findByStatusIn(EnumSet.of(JobStatus.QUEUED, JobStatus.RUNNING))) {
+            job.setStatus(JobStatus.QUEUED);
+            job.setProgress(0);
+            job.setStartedAt(null);
+            jobRepository.save(job);
+            try {
+                executor.execute(() -> run(job.getId()));
+            } catch (RejectedExecutionException e) {
+                finish(job, null, "Report job queue is full");
+            }
+        }
+    }
+
+    /**
+     * Tạo tác vụ mới, hoặc trả về tác vụ có cùng tham số còn dùng được
+     */
+    public ReportJobDTO submit(ReportJobRequest request, String username) {
+        ReportJobRequest normalized = normalize(request);
+        String parameters = toJson(normalized);
+        String hash = sha256(parameters);
+
+        synchronized (submitLock) {
+            String dataVersion = instanceId + ":" + dataVersionService.current();
+            List<ReportJob> reusable = jobRepository.findReusable(hash,
+                    EnumSet.of(JobStatus.QUEUED, JobStatus.RUNNING), JobStatus.COMPLETED, dataVersion, LocalDateTime.now());
+            if (!reusable.isEmpty()) {
+                meterRegistry.counter("report_jobs.submitted", "result", "deduplicated").increment();
+                return toDTO(reusable.get(0));
+            }
+
+            ReportJob job = new ReportJob();
+            job.setId(UUID.randomUUID().toString());
+            job.setReportType(normalized.getReportType());
+            job.setParameters(parameters);
+            job.setParamsHash(hash);
+            job.setDataVersion(dataVersion);
+            job.setStatus(JobStatus.QUEUED);
+            job.setProgress(0);
+            job.setCreatedBy(username);
+            jobRepository.save(job);
+
+            try {
+                // Tác vụ đọc replica với độ trễ cho phép và người đọc của request tạo tác vụ
+                executor.execute(ReadReplicaRoutingDataSource.withCurrentContext(() -> run(job.getId())));
+            } catch (RejectedExecutionException e) {
+                jobRepository.delete(job);
+                meterRegistry.counter("report_jobs.submitted", "result", "rejected").increment();
+                throw new RejectedExecutionException("Report job queue is full, please try again later");
+            }
+            meterRegistry.counter("report_jobs.submitted", "result", "queued").increment();
+            return toDTO(job);
+        }
+    }
+
+    public ReportJobDTO getJob(String id) {
+        return toDTO(findJob(id));
+    }
+
+    /**
+     * Kết quả JSON của tác vụ, hoặc null nếu tác vụ chưa hoàn thành
+     */
+    public String getResult(String id) {
+        ReportJob job = findJob(id);
+        return job.getStatus() == JobStatus.COMPLETED ? job.getResult() : null;
+    }
+
+    /**
+     * Xóa các tác vụ đã hết hạn lưu kết quả
+     */
+    @Scheduled(fixedDelayString = "${report-jobs.cleanup-interval-ms:600000}")
+    public void deleteExpiredJobs() {
+        int deleted = jobRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Deleted {} expired report jobs", deleted);
+        }
+    }
+
+    private void run(String id) {
+        ReportJob job = jobRepository.findById(id).orElse(null);
+        if (job == null || job.getStatus() != JobStatus.QUEUED) {
+            return;
+        }
+        job.setStatus(JobStatus.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        jobRepository.save(job);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        AtomicInteger lastProgress = new AtomicInteger();
+        String status = "failed";
+        long startedAt = System.currentTimeMillis();
+        try {
+            ReportJobRequest request = objectMapper.readValue(job.getParameters(), ReportJobRequest.class);
+            Object result = generate(request, (done, total) -> {
+                int percent = done * 100 / total;
+                // Chỉ ghi khi tiến độ thay đổi
+                if (lastProgress.getAndSet(percent) != percent) {
+                    jobRepository.updateProgress(id, percent);
+                }
+            });
+            job.setProgress(100);
+            if (dataVersionService.lastStaleReadAt() >= startedAt) {
+                // Có thể đã đọc replica chưa có thay đổi mới nhất: vẫn trả kết quả nhưng không dùng lại cho phiên bản này
+                job.setDataVersion(job.getDataVersion() + ":stale");
+            }
+            finish(job, objectMapper.writeValueAsString(result), null);
+            status = "completed";
+        } catch (Exception e) {
+            logger.warn("Report job {} ({}) failed: {}", id, job.getReportType(), e.getMessage());
+            job.setProgress(lastProgress.get());
+            finish(job, null, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        } finally {
+            sample.stop(meterRegistry.timer("report_jobs.duration",
+                    "type", job.getReportType().name(), "status", status));
+        }
+    }
+
+    private void finish(ReportJob job, String result, String errorMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        job.setResult(result);
+        job.setErrorMessage(errorMessage != null && errorMessage.length() > MAX_ERROR_LENGTH
+                ? errorMessage.substring(0, MAX_ERROR_LENGTH) : errorMessage);
+        job.setCompletedAt(now);
+        job.setExpiresAt(now.plusHours(retentionHours));
+        job.setStatus(errorMessage == null ? JobStatus.COMPLETED : JobStatus.FAILED);
+        jobRepository.save(job);
+    }
+
+    /**
+     * Tạo báo cáo theo yêu cầu; các báo cáo nhiều bước báo tiến độ sau mỗi bước
+     */
+    private Object generate(ReportJobRequest request, ProgressListener progress) {
+        Integer year = request.getYear();
+        switch (request.getReportType()) {
+            case MONTHLY:
+                return financialReportService.generateMonthlyReport(year, request.getMonth());
+            case QUARTERLY: {
+                List<MonthlyReportDTO> reports = new ArrayList<>();
+                int startMonth = (request.getQuarter() - 1) * 3 + 1;
+                for (int i = 0; i < 3; i++) {
+                    reports.add(financialReportService.generateMonthlyReport(year, startMonth + i));
+                    progress.onProgress(i + 1, 3);
+                }
+                return reports;
+            }
+            case YEARLY:
+                return financialReportService.generateYearlyReport(year);
+            case MULTI_YEAR: {
+                Map<Integer, List<MonthlyReportDTO>> reports = new LinkedHashMap<>();
+                int total = request.getToYear() - request.getFromYear() + 1;
+                for (int y = request.getFromYear(); y <= request.getToYear(); y++) {
+                    reports.put(y, financialReportService.generateYearlyReport(y));
+                    progress.onProgress(y - request.getFromYear() + 1, total);
+                }
+                return reports;
+            }
+            case CASH_FLOW:
+                return financialReportService.generateCashFlowReport(year);
+            case BUDGET_OVERVIEW:
+                return budgetOverviewService.getBudgetOverview(year, request.getMonth());
+            case RECEIVABLE_PAYABLE_YEARLY: {
+                List<ReceivablePayableReportDTO> reports = new ArrayList<>();
+                for (int month = 1; month <= 12; month++) {
+                    reports.add(receivablePayableService.getReceivablePayableReport(year, month));
+                    progress.onProgress(month, 12);
+                }
+                return reports;
+            }
+            case TAX_YEARLY: {
+                List<TaxReportDTO> reports = new ArrayList<>();
+                for (int month = 1; month <= 12; month++) {
+                    reports.add(taxReportService.getTaxReport(year, month));
+                    progress.onProgress(month, 12);
+                }
+                return reports;
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported report type: " + request.getReportType());
+        }
+    }
+
+    /**
+     * Kiểm tra và chỉ giữ lại các tham số mà loại báo cáo sử dụng, để yêu cầu tương đương có cùng mã băm
+     */
+    ReportJobRequest normalize(ReportJobRequest request) {
+        if (request.getReportType() == null) {
+            throw new IllegalArgumentException("Report type is required");
+        }
+        ReportJobRequest normalized = new ReportJobRequest();
+        normalized.setReportType(request.getReportType());
+        switch (request.getReportType()) {
+            case MONTHLY:
+                normalized.setYear(requireYear(request.getYear()));
+                normalized.setMonth(requireMonth(request.getMonth()));
+                break;
+            case QUARTERLY:
+                normalized.setYear(requireYear(request.getYear()));
+                if (request.getQuarter() == null || request.getQuarter() < 1 || request.getQuarter() > 4) {
+                    throw new IllegalArgumentException("Quarter must be between 1 and 4");
+                }
+                normalized.setQuarter(request.getQuarter());
+                break;
+            case BUDGET_OVERVIEW:
+                normalized.setYear(requireYear(request.getYear()));
+                if (request.getMonth() != null) {
+                    normalized.setMonth(requireMonth(request.getMonth()));
+                }
+                break;
+            case MULTI_YEAR:
+                normalized.setFromYear(requireYear(request.getFromYear()));
+                normalized.setToYear(requireYear(request.getToYear()));
+                if (normalized.getToYear() < normalized.getFromYear()
+                        || normalized.getToYear() - normalized.getFromYear() >= maxYears) {
+                    throw new IllegalArgumentException("Year range must contain between 1 and " + maxYears + " years");
+                }
+                break;
+            default:
+                normalized.setYear(requireYear(request.getYear()));
+        }
+        return normalized;
+    }
+
+    private static Integer requireYear(Integer year) {
+        if (year == null || year < 2000 || year > LocalDate.now().getYear() + 1) {
+            throw new IllegalArgumentException("Invalid year: " + year);
+        }
+        return year;
+    }
+
+    private static Integer requireMonth(Integer month) {
+        if (month == null || month < 1 || month > 12) {
+            throw new IllegalArgumentException("Invalid month: " + month);
+        }
+        return month;
+    }
+
+    private ReportJob findJob(String id) {
+        return jobRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Report job not found with id: " + id));
+    }
+
+    private ReportJobDTO toDTO(ReportJob job) {
+        ReportJobDTO dto = new ReportJobDTO();
+        dto.setId(job.getId());
+        dto.setReportType(job.getReportType());
+        dto.setParameters(job.getParameters());
+        dto.setStatus(job.getStatus());
+        dto.setProgress(job.getProgress());
+        dto.setErrorMessage(job.getErrorMessage());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setCompletedAt(job.getCompletedAt());
+        dto.setExpiresAt(job.getExpiresAt());
+        if (job.getStatus() == JobStatus.COMPLETED) {
+            dto.setResultUrl("/api/report-jobs/" + job.getId() + "/result");
+        }
+        return dto;
+    }
+
+    private String toJson(ReportJobRequest request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid report parameters", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Nhận tiến độ sau mỗi bước của báo cáo nhiều bước
+     */
+    @FunctionalInterface
+    interface ProgressListener {
+        void onProgress(int done, int total);
+    }
+}
@@ -0,0 +1,165 @@
+package com.techzenacademy.TechFinance.service.impl.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+
+import com.techzenacademy.TechFinance.config.RateLimitProperties;
+import com.techzenacademy.TechFinance.config.RateLimitProperties.EndpointGroup;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Giới hạn tần suất theo người dùng bằng token bucket có trọng số:
+ * <ul>
+ *   <li>Mỗi người dùng có một bucket chung, mỗi request trừ {@code cost} token theo nhóm endpoint</li>
+ *   <li>Endpoint nặng (AI, báo cáo lớn) có thêm bucket riêng để không chiếm hết quota của người dùng</li>
+ *   <li>Request chỉ được nhận khi mọi bucket liên quan đều đủ token (kiểm tra và trừ nguyên tử)</li>
+ * </ul>
+ * Metric chỉ gắn tag theo bucket, không theo người dùng, để số time series không tăng theo số client.
+ */
+@Service
+public class RateLimiterService {
+
+    private static final String USER_BUCKET = "user";
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, ClientBuckets> clients = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejectedCounters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("rate_limit.clients", clients, Map::size)
+                .description("Clients currently holding rate limit buckets")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Kiểm tra và trừ token cho request. Trả về số giây cần chờ (0 = được phép).
+     */
+    public long tryAcquire(String clientKey, String method, String path) {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+
+        EndpointGroup group = resolveGroup(method, path);
+        int cost = group != null ? group.getCost() : properties.getDefaultCost();
+        ClientBuckets buckets = clients.computeIfAbsent(clientKey, this::newClient);
+
+        long waitNanos;
+        synchronized (buckets) {
+            long now = System.nanoTime();
+            TokenBucket groupBucket = group != null ? buckets.groupBucket(group, now) : null;
+
+            waitNanos = buckets.user.nanosUntilAvailable(cost, now);
+            if (groupBucket != null) {
+                waitNanos = Math.max(waitNanos, groupBucket.nanosUntilAvailable(1, now));
+            }
+            if (waitNanos == 0) {
+                buckets.user.consume(cost, now);
+                if (groupBucket != null) {
+                    groupBucket.consume(1, now);
+                }
+                return 0;
+            }
+        }
+
+        rejectedCounter(group != null ? group.getName() : USER_BUCKET).increment();
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+    }
+
+    /**
+     * Số người dùng đang có bucket trong bộ nhớ
+     */
+    public int getTrackedClients() {
+        return clients.size();
+    }
+
+    /**
+     * Xóa bucket của người dùng không hoạt động (đã đầy lại) để giới hạn bộ nhớ
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleClients() {
+        long now = System.nanoTime();
+        long idleNanos = TimeUnit.MINUTES.toNanos(properties.getIdleEvictionMinutes());
+        clients.entrySet().removeIf(entry -> {
+            ClientBuckets buckets = entry.getValue();
+            synchronized (buckets) {
+                return buckets.isIdle(now, idleNanos);
+            }
+        });
+    }
+
+    private EndpointGroup resolveGroup(String method, String path) {
+        for (EndpointGroup group : properties.getGroups()) {
+            if (!group.getMethods().isEmpty() && !group.getMethods().contains(method)) {
+                continue;
+            }
+            for (String pattern : group.getPatterns()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    private ClientBuckets newClient(String clientKey) {
+        return new ClientBuckets(
+                new TokenBucket(properties.getUserCapacity(), properties.getUserRefillPerMinute(), System.nanoTime()));
+    }
+
+    private Counter rejectedCounter(String bucket) {
+        return rejectedCounters.computeIfAbsent(bucket, name -> Counter.builder("rate_limit.rejected")
+                .description("Requests rejected by the rate limiter")
+                .tag("bucket", name)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Các bucket của một người dùng; mọi thao tác phải giữ lock trên đối tượng này
+     */
+    private static class ClientBuckets {
+        private final TokenBucket user;
+        private final Map<String, TokenBucket> groups = new ConcurrentHashMap<>();
+
+        ClientBuckets(TokenBucket user) {
+            this.user = user;
+        }
+
+        TokenBucket groupBucket(EndpointGroup group, long now) {
+            TokenBucket bucket = groups.get(group.getName());
+            if (bucket == null) {
+                bucket = new TokenBucket(group.getCapacity(), group.getRefillPerMinute(), now);
+                groups.put(group.getName(), bucket);
+            }
+            return bucket;
+        }
+
+        boolean isIdle(long now, long idleNanos) {
+            if (!user.isIdleAndFull(now, idleNanos)) {
+                return false;
+            }
+            for (TokenBucket bucket : groups.values()) {
+                if (!bucket.isIdleAndFull(now, idleNanos)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.techzenacademy.TechFinance.service.impl.ratelimit;
+
+/**
+ * Token bucket: tối đa {@code capacity} token, nạp lại đều với tốc độ {@code refillPerMinute}.
+ * Không tự đồng bộ hóa, người gọi phải giữ lock khi thao tác.
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_MINUTE = 60_000_000_000d;
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+    private long lastUsedNanos;
+
+    public TokenBucket(int capacity, double refillPerMinute, long nowNanos) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerMinute / NANOS_PER_MINUTE;
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+        this.lastUsedNanos = nowNanos;
+    }
+
+    /**
+     * Thời gian (nano giây) cần chờ để có đủ {@code cost} token; 0 nếu đã đủ
+     */
+    public long nanosUntilAvailable(double cost, long nowNanos) {
+        refill(nowNanos);
+        double needed = Math.min(cost, capacity) - tokens;
+        if (needed <= 0) {
+            return 0;
+        }
+        return refillPerNano > 0 ? (long) Math.ceil(needed / refillPerNano) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Trừ token; chỉ gọi sau khi nanosUntilAvailable trả về 0
+     */
+    public void consume(double cost, long nowNanos) {
+        refill(nowNanos);
+        tokens -= Math.min(cost, capacity);
+        lastUsedNanos = nowNanos;
+    }
+
+    public double availableTokens(long nowNanos) {
+        refill(nowNanos);
+        return tokens;
+    }
+
+    public boolean isIdleAndFull(long nowNanos, long idleNanos) {
+        return nowNanos - lastUsedNanos > idleNanos && availableTokens(nowNanos) >= capacity;
+    }
+
+    private void refill(long nowNanos) {
+        if (nowNanos > lastRefillNanos) {
+            tokens = Math.min(capacity, tokens + (nowNanos - lastRefillNanos) * refillPerNano);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
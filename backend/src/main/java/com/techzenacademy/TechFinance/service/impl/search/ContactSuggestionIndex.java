@@ -0,0 +1,122 @@
+package com.techzenacademy.TechFinance.service.impl.search;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.techzenacademy.TechFinance.dto.SuggestionDTO;
+import com.techzenacademy.TechFinance.entity.Customer;
+import com.techzenacademy.TechFinance.entity.Supplier;
+import com.techzenacademy.TechFinance.repository.CustomerRepository;
+import com.techzenacademy.TechFinance.repository.SupplierRepository;
+import com.techzenacademy.TechFinance.service.impl.AfterCommit;
+import com.techzenacademy.TechFinance.repository.specification.FilterSpecifications;
+import com.techzenacademy.TechFinance.service.impl.search.SuggestionIndex.Field;
+
+/**
+ * Gợi ý khách hàng và nhà cung cấp cho ô chọn (typeahead) từ chỉ mục trong bộ nhớ.
+ * Chỉ mục được nạp khi ứng dụng khởi động và cập nhật bởi CustomerService/SupplierService;
+ * trước khi nạp xong thì tìm theo tên bằng truy vấn database.
+ */
+@Service
+public class ContactSuggestionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContactSuggestionIndex.class);
+    private static final int MAX_LIMIT = 50;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    private final SuggestionIndex customers = new SuggestionIndex();
+    private final SuggestionIndex suppliers = new SuggestionIndex();
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        long start = System.currentTimeMillis();
+        customerRepository.findAll().forEach(this::putCustomer);
+        supplierRepository.findAll().forEach(this::putSupplier);
+        ready = true;
+        logger.info("Suggestion index built: {} customers, {} suppliers in {} ms",
+                customers.size(), suppliers.size(), System.currentTimeMillis() - start);
+    }
+
+    public List<SuggestionDTO> suggestCustomers(String query, int limit, boolean activeOnly) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (!ready) {
+            return customerRepository.findAll(FilterSpecifications.customers(query, null, null, null, null, null,
+                    activeOnly ? Boolean.TRUE : null), PageRequest.of(0, size)).stream()
+                    .map(c -> new SuggestionDTO(c.getId(), c.getName(), Field.NAME.name(), c.getName()))
+                    .collect(Collectors.toList());
+        }
+        return toDTOs(customers.suggest(query, size, activeOnly));
+    }
+
+    public List<SuggestionDTO> suggestSuppliers(String query, int limit, boolean activeOnly) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (!ready) {
+            return supplierRepository.findAll(FilterSpecifications.suppliers(query, null, null, null, null,
+                    activeOnly ? Boolean.TRUE : null), PageRequest.of(0, size)).stream()
+                    .map(s -> new SuggestionDTO(s.getId(), s.getName(), Field.NAME.name(), s.getName()))
+                    .collect(Collectors.toList());
+        }
+        return toDTOs(suppliers.suggest(query, size, activeOnly));
+    }
+
+    public void indexCustomer(Customer customer) {
+        AfterCommit.run(() -> putCustomer(customer));
+    }
+
+    public void removeCustomer(Integer id) {
+        AfterCommit.run(() -> customers.remove(id));
+    }
+
+    public void indexSupplier(Supplier supplier) {
+        AfterCommit.run(() -> putSupplier(supplier));
+    }
+
+    public void removeSupplier(Integer id) {
+        AfterCommit.run(() -> suppliers.remove(id));
+    }
+
+    private void putCustomer(Customer customer) {
+        Map<Field, String> values = new EnumMap<>(Field.class);
+        putIfPresent(values, Field.EMAIL, customer.getEmail());
+        putIfPresent(values, Field.PHONE, customer.getPhone());
+        putIfPresent(values, Field.IDENTIFICATION, customer.getIdentification());
+        putIfPresent(values, Field.TAX_CODE, customer.getTaxCode());
+        customers.put(customer.getId(), customer.getName(), !Boolean.FALSE.equals(customer.getIsActive()), values);
+    }
+
+    private void putSupplier(Supplier supplier) {
+        Map<Field, String> values = new EnumMap<>(Field.class);
+        putIfPresent(values, Field.EMAIL, supplier.getEmail());
+        putIfPresent(values, Field.PHONE, supplier.getPhone());
+        putIfPresent(values, Field.TAX_CODE, supplier.getTaxCode());
+        suppliers.put(supplier.getId(), supplier.getName(), !Boolean.FALSE.equals(supplier.getIsActive()), values);
+    }
+
+    private static void putIfPresent(Map<Field, String> values, Field field, String value) {
+        if (value != null && !value.isEmpty()) {
+            values.put(field, value);
+        }
+    }
+
+    private static List<SuggestionDTO> toDTOs(List<SuggestionIndex.Match> matches) {
+        return matches.stream()
+                .map(m -> new SuggestionDTO(m.getId(), m.getName(), m.getField().name(), m.getValue()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,369 @@
+package com.techzenacademy.TechFinance.service.impl.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Chỉ mục gợi ý (typeahead) theo tiền tố của từng token: tên, email, số điện thoại, CCCD/CMND, mã số thuế.
+ * <ul>
+ *   <li>Token được chuẩn hóa (chữ thường, bỏ dấu) và lưu trong TreeMap để tìm theo khoảng tiền tố</li>
+ *   <li>Mỗi từ trong truy vấn phải là tiền tố của ít nhất một token của bản ghi (AND)</li>
+ *   <li>Xếp hạng theo trường khớp (tên &gt; mã số thuế/CCCD &gt; email/điện thoại), khớp trọn token, token đầu của tên</li>
+ * </ul>
+ */
+public class SuggestionIndex {
+
+    private static final int MAX_SCANNED_CANDIDATES = 5_000;
+    private static final Pattern NON_ALNUM = Pattern.compile("[^\\p{Alnum}]+");
+
+    public enum Field {
+        NAME(100), TAX_CODE(80), IDENTIFICATION(80), EMAIL(60), PHONE(60);
+
+        private final int weight;
+
+        Field(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final TreeMap<String, Set<Integer>> postings = new TreeMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Thêm hoặc cập nhật một bản ghi; {@code values} không cần chứa đủ mọi trường
+     */
+    public void put(int id, String name, boolean active, Map<Field, String> values) {
+        Entry entry = new Entry(id, name, active, values);
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(id, entry);
+            if (previous != null) {
+                removePostings(previous);
+            }
+            for (Token token : entry.tokens) {
+                postings.computeIfAbsent(token.text, k -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(id);
+            if (previous != null) {
+                removePostings(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tối đa {@code limit} bản ghi khớp {@code query}, điểm cao nhất trước
+     */
+    public List<Match> suggest(String query, int limit, boolean activeOnly) {
+        List<String> terms = queryTerms(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        // Từ dài nhất thường chọn lọc nhất: dùng nó để lấy ứng viên, các từ khác chỉ kiểm tra lại.
+        // TreeMap duyệt token trùng khớp hoàn toàn trước, nên giới hạn số ứng viên không bỏ sót các kết quả khớp trọn token.
+        String driver = terms.stream().max(Comparator.comparingInt(String::length)).get();
+        List<String> compactTerms = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            compactTerms.add(compact(term));
+        }
+
+        PriorityQueue<Match> top = new PriorityQueue<>(SuggestionIndex::compareRank);
+
+        lock.readLock().lock();
+        try {
+            Set<Integer> seen = new HashSet<>();
+            scan:
+            for (Set<Integer> ids : candidates(driver)) {
+                for (Integer id : ids) {
+                    if (!seen.add(id)) {
+                        continue;
+                    }
+                    if (seen.size() > MAX_SCANNED_CANDIDATES) {
+                        break scan;
+                    }
+                    Entry entry = entries.get(id);
+                    if (activeOnly && !entry.active) {
+                        continue;
+                    }
+                    int score = entry.score(terms, compactTerms);
+                    if (score < 0 || (top.size() == limit && score < top.peek().score)) {
+                        continue;
+                    }
+                    top.offer(entry.toMatch(terms, compactTerms, score));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Match> result = new ArrayList<>(top);
+        result.sort((a, b) -> compareRank(b, a));
+        return result;
+    }
+
+    /**
+     * Thứ tự tăng dần của độ phù hợp: điểm, rồi tên ngắn hơn, rồi id nhỏ hơn
+     */
+    private static int compareRank(Match a, Match b) {
+        if (a.score != b.score) {
+            return Integer.compare(a.score, b.score);
+        }
+        if (a.name.length() != b.name.length()) {
+            return Integer.compare(b.name.length(), a.name.length());
+        }
+        return Integer.compare(b.id, a.id);
+    }
+
+    /**
+     * Các danh sách id có token bắt đầu bằng {@code term} (hoặc dạng chỉ gồm chữ và số của nó)
+     */
+    private List<Set<Integer>> candidates(String term) {
+        List<Set<Integer>> result = new ArrayList<>();
+        String compact = compact(term);
+        for (String prefix : compact.isEmpty() || compact.equals(term) ? List.of(term) : List.of(term, compact)) {
+            NavigableMap<String, Set<Integer>> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+            result.addAll(range.values());
+        }
+        return result;
+    }
+
+    private static String compact(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.length() == value.length() ? value : sb.toString();
+    }
+
+    private void removePostings(Entry entry) {
+        for (Token token : entry.tokens) {
+            Set<Integer> ids = postings.get(token.text);
+            if (ids != null && ids.remove(entry.id) && ids.isEmpty()) {
+                postings.remove(token.text);
+            }
+        }
+    }
+
+    private static List<String> queryTerms(String query) {
+        List<String> terms = new ArrayList<>();
+        String normalized = TextNormalizer.normalize(query);
+        // Số điện thoại/mã số gõ có khoảng trắng ("0912 345 678") được coi là một từ
+        String digits = compact(normalized);
+        if (!digits.isEmpty() && digits.chars().allMatch(Character::isDigit)) {
+            terms.add(digits);
+            return terms;
+        }
+        for (String term : normalized.split(" ")) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Tách token theo trường: tên tách theo từ, email giữ nguyên và tách phần trước @,
+     * số điện thoại/mã số chỉ giữ chữ và số để "0912-345" khớp "0912345..."
+     */
+    static List<Token> tokenize(Field field, String value) {
+        List<Token> tokens = new ArrayList<>();
+        String normalized = TextNormalizer.normalize(value);
+        if (normalized.isEmpty()) {
+            return tokens;
+        }
+        switch (field) {
+            case NAME:
+                String[] words = NON_ALNUM.split(normalized);
+                for (int i = 0; i < words.length; i++) {
+                    if (!words[i].isEmpty()) {
+                        tokens.add(new Token(words[i], field, tokens.isEmpty()));
+                    }
+                }
+                break;
+            case EMAIL:
+                tokens.add(new Token(normalized, field, false));
+                for (String part : normalized.split("@")[0].split("[._+-]+")) {
+                    if (!part.isEmpty() && !normalized.startsWith(part + "@")) {
+                        tokens.add(new Token(part, field, false));
+                    }
+                }
+                break;
+            default:
+                String compact = compact(normalized);
+                if (!compact.isEmpty()) {
+                    tokens.add(new Token(compact, field, false));
+                }
+        }
+        return tokens;
+    }
+
+    static class Token {
+        private final String text;
+        private final Field field;
+        private final boolean first;
+
+        Token(String text, Field field, boolean first) {
+            this.text = text;
+            this.field = field;
+            this.first = first;
+        }
+    }
+
+    private static class Entry {
+        private final int id;
+        private final String name;
+        private final boolean active;
+        private final Map<Field, String> values;
+        private final List<Token> tokens = new ArrayList<>();
+
+        Entry(int id, String name, boolean active, Map<Field, String> values) {
+            this.id = id;
+            this.name = name != null ? name : "";
+            this.active = active;
+            this.values = values;
+            tokens.addAll(tokenize(Field.NAME, name));
+            values.forEach((field, value) -> {
+                if (field != Field.NAME) {
+                    tokens.addAll(tokenize(field, value));
+                }
+            });
+        }
+
+        /**
+         * Tổng điểm khớp của các từ, hoặc -1 nếu có từ không khớp token nào
+         */
+        int score(List<String> terms, List<String> compactTerms) {
+            int score = active ? 10 : 0;
+            for (int t = 0; t < terms.size(); t++) {
+                int termScore = termScore(bestToken(terms.get(t), compactTerms.get(t)), terms.get(t), compactTerms.get(t));
+                if (termScore < 0) {
+                    return -1;
+                }
+                score += termScore;
+            }
+            return score;
+        }
+
+        /**
+         * Kết quả gợi ý, hiển thị trường của từ khớp tốt nhất
+         */
+        Match toMatch(List<String> terms, List<String> compactTerms, int score) {
+            Token best = null;
+            int bestScore = -1;
+            for (int t = 0; t < terms.size(); t++) {
+                Token token = bestToken(terms.get(t), compactTerms.get(t));
+                int termScore = termScore(token, terms.get(t), compactTerms.get(t));
+                if (termScore > bestScore) {
+                    bestScore = termScore;
+                    best = token;
+                }
+            }
+            String matchedValue = best.field == Field.NAME ? name : values.get(best.field);
+            return new Match(id, name, best.field, matchedValue, score);
+        }
+
+        private Token bestToken(String term, String compact) {
+            Token best = null;
+            int bestScore = -1;
+            for (Token token : tokens) {
+                int s = termScore(token, term, compact);
+                if (s > bestScore) {
+                    bestScore = s;
+                    best = token;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Điểm của một token với một từ: trọng số trường, cộng thêm nếu khớp trọn token hoặc là từ đầu của tên
+         */
+        private static int termScore(Token token, String term, String compact) {
+            if (token == null) {
+                return -1;
+            }
+            // Điện thoại, mã số thuế, CCCD được so sánh ở dạng chỉ gồm chữ và số
+            String key = token.field == Field.NAME || token.field == Field.EMAIL || compact.isEmpty() ? term : compact;
+            if (!token.text.startsWith(key)) {
+                return -1;
+            }
+            return token.field.weight
+                    + (token.text.length() == key.length() ? 50 : 0)
+                    + (token.first ? 20 : 0);
+        }
+    }
+
+    /**
+     * Một kết quả gợi ý: trường khớp tốt nhất và giá trị gốc của trường đó
+     */
+    public static class Match {
+        private final int id;
+        private final String name;
+        private final Field field;
+        private final String value;
+        private final int score;
+
+        Match(int id, String name, Field field, String value, int score) {
+            this.id = id;
+            this.name = name;
+            this.field = field;
+            this.value = value;
+            this.score = score;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Field getField() {
+            return field;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public int getScore() {
+            return score;
+        }
+    }
+}
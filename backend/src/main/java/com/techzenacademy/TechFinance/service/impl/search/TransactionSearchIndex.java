@@ -0,0 +1,281 @@
+package com.techzenacademy.TechFinance.service.impl.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.techzenacademy.TechFinance.repository.ExpenseTransactionRepository;
+import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
+import com.techzenacademy.TechFinance.service.impl.AfterCommit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Chỉ mục tìm kiếm số tham chiếu và mô tả của giao dịch thu/chi.
+ * <ul>
+ *   <li>Nạp nền từ database khi ứng dụng khởi động, theo từng lô id tăng dần</li>
+ *   <li>Cập nhật sau khi transaction commit mỗi lần thêm/sửa/xóa giao dịch</li>
+ *   <li>Khi chỉ mục chưa sẵn sàng, từ khóa quá ngắn hoặc quá nhiều kết quả, trả về null để dùng truy vấn LIKE</li>
+ *   <li>Bảng vượt {@code search.index.max-documents} giao dịch thì bỏ chỉ mục của bảng đó (giải phóng bộ nhớ)
+ *       và luôn dùng truy vấn LIKE; mỗi giao dịch tốn khoảng 0,5 KB heap với mô tả dài ~60 ký tự</li>
+ * </ul>
+ */
+@Service
+public class TransactionSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionSearchIndex.class);
+
+    @Autowired
+    private IncomeTransactionRepository incomeTransactionRepository;
+
+    @Autowired
+    private ExpenseTransactionRepository expenseTransactionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${search.index.enabled:true}")
+    private boolean enabled;
+
+    // Số id tối đa đưa vào mệnh đề IN; nhiều hơn thì truy vấn LIKE rẻ hơn
+    @Value("${search.index.max-candidates:500}")
+    private int maxCandidates;
+
+    @Value("${search.index.max-documents:200000}")
+    private int maxDocuments;
+
+    @Value("${search.index.batch-size:5000}")
+    private int batchSize;
+
+    private final Table income = new Table("income");
+    private final Table expense = new Table("expense");
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder("search.index.documents", income.references, TrigramIndex::size).tag("table", "income").register(meterRegistry);
+        Gauge.builder("search.index.documents", expense.references, TrigramIndex::size).tag("table", "expense").register(meterRegistry);
+
+        Thread.ofVirtual().name("transaction-search-index").start(() -> {
+            build(income, (afterId, page) -> incomeTransactionRepository.findSearchRows(afterId, page));
+            build(expense, (afterId, page) -> expenseTransactionRepository.findSearchRows(afterId, page));
+        });
+    }
+
+    /**
+     * Id giao dịch thu khớp các từ khóa, hoặc null nếu phải dùng truy vấn LIKE
+     */
+    public List<Integer> searchIncome(String referenceNo, String description) {
+        return search(income, referenceNo, description);
+    }
+
+    /**
+     * Id giao dịch chi khớp các từ khóa, hoặc null nếu phải dùng truy vấn LIKE
+     */
+    public List<Integer> searchExpense(String referenceNo, String description) {
+        return search(expense, referenceNo, description);
+    }
+
+    public void indexIncome(Integer id, String referenceNo, String description) {
+        AfterCommit.run(() -> put(income, id, referenceNo, description));
+    }
+
+    public void removeIncome(Integer id) {
+        AfterCommit.run(() -> income.remove(id));
+    }
+
+    public void indexExpense(Integer id, String referenceNo, String description) {
+        AfterCommit.run(() -> put(expense, id, referenceNo, description));
+    }
+
+    public void removeExpense(Integer id) {
+        AfterCommit.run(() -> expense.remove(id));
+    }
+
+    private void put(Table table, Integer id, String referenceNo, String description) {
+        if (table.put(id, referenceNo, description) > maxDocuments) {
+            disable(table);
+        }
+    }
+
+    private List<Integer> search(Table table, String referenceNo, String description) {
+        if (!enabled || !table.ready) {
+            return null;
+        }
+        int[] ids = null;
+        if (referenceNo != null && !referenceNo.isEmpty()) {
+            ids = table.references.search(referenceNo, maxCandidates);
+            if (ids == null) {
+                return null;
+            }
+        }
+        if (description != null && !description.isEmpty()) {
+            int[] byDescription = table.descriptions.search(description, maxCandidates);
+            if (byDescription == null) {
+                return null;
+            }
+            ids = ids == null ? byDescription : intersect(ids, byDescription);
+        }
+        if (ids == null) {
+            return null;
+        }
+
+        List<Integer> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(id);
+        }
+        return result;
+    }
+
+    private void build(Table table, RowLoader loader) {
+        long start = System.currentTimeMillis();
+        try {
+            int afterId = 0;
+            List<Object[]> rows;
+            do {
+                rows = loader.load(afterId, PageRequest.of(0, batchSize));
+                for (Object[] row : rows) {
+                    Integer id = (Integer) row[0];
+                    if (table.load(id, (String) row[1], (String) row[2]) > maxDocuments) {
+                        disable(table);
+                        return;
+                    }
+                    afterId = id;
+                }
+            } while (rows.size() == batchSize && !table.disabled);
+
+            if (!table.markReady()) {
+                return;
+            }
+            logger.info("Search index for {} transactions built: {} documents in {} ms",
+                    table.name, table.references.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Could not build search index for {} transactions, falling back to LIKE queries", table.name, e);
+        }
+    }
+
+    private void disable(Table table) {
+        if (table.disable()) {
+            logger.warn("Search index for {} transactions exceeds {} documents, dropped; using LIKE queries",
+                    table.name, maxDocuments);
+        }
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    @FunctionalInterface
+    private interface RowLoader {
+        List<Object[]> load(Integer afterId, PageRequest page);
+    }
+
+    /**
+     * Chỉ mục của một bảng giao dịch: số tham chiếu và mô tả được đánh chỉ mục riêng
+     */
+    private static class Table {
+        private final String name;
+        private final TrigramIndex references = new TrigramIndex();
+        private final TrigramIndex descriptions = new TrigramIndex();
+        private final Set<Integer> touchedDuringBuild = ConcurrentHashMap.newKeySet();
+        private volatile boolean ready;
+        private volatile boolean disabled;
+
+        Table(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Nạp một dòng đọc từ database; bỏ qua nếu bản ghi đã được ghi trong lúc nạp (giá trị đó mới hơn).
+         * Trả về số văn bản hiện có để người gọi kiểm tra giới hạn bộ nhớ.
+         */
+        synchronized int load(Integer id, String referenceNo, String description) {
+            if (!disabled && !touchedDuringBuild.contains(id)) {
+                references.put(id, referenceNo);
+                descriptions.put(id, description);
+            }
+            return documents();
+        }
+
+        synchronized int put(Integer id, String referenceNo, String description) {
+            if (disabled) {
+                return 0;
+            }
+            if (!ready) {
+                touchedDuringBuild.add(id);
+            }
+            references.put(id, referenceNo);
+            descriptions.put(id, description);
+            return documents();
+        }
+
+        /**
+         * Kết thúc nạp; trả về false nếu bảng đã bị bỏ chỉ mục trong lúc nạp
+         */
+        synchronized boolean markReady() {
+            if (disabled) {
+                return false;
+            }
+            ready = true;
+            touchedDuringBuild.clear();
+            return true;
+        }
+
+        /**
+         * Bỏ chỉ mục của bảng; trả về false nếu đã bỏ trước đó
+         */
+        synchronized boolean disable() {
+            if (disabled) {
+                return false;
+            }
+            disabled = true;
+            ready = false;
+            references.clear();
+            descriptions.clear();
+            touchedDuringBuild.clear();
+            return true;
+        }
+
+        private int documents() {
+            return Math.max(references.size(), descriptions.size());
+        }
+
+        synchronized void remove(Integer id) {
+            if (disabled) {
+                return;
+            }
+            if (!ready) {
+                touchedDuringBuild.add(id);
+            }
+            references.remove(id);
+            descriptions.remove(id);
+        }
+    }
+}
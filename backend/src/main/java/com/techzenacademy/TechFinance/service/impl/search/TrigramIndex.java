@@ -0,0 +1,191 @@
+package com.techzenacademy.TechFinance.service.impl.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chỉ mục trigram trong bộ nhớ cho tìm kiếm chuỗi con ({@code LIKE '%x%'}).
+ * <ul>
+ *   <li>Mỗi trigram (3 ký tự liên tiếp của văn bản đã chuẩn hóa) trỏ tới danh sách id đã sắp xếp</li>
+ *   <li>Tìm kiếm = giao các danh sách của trigram trong từ khóa, bắt đầu từ danh sách ngắn nhất,
+ *       sau đó kiểm tra lại bằng {@code contains} để loại kết quả trùng trigram nhưng không chứa từ khóa</li>
+ *   <li>Từ khóa ngắn hơn 3 ký tự không dùng được chỉ mục, người gọi phải dùng truy vấn LIKE</li>
+ * </ul>
+ */
+public class TrigramIndex {
+
+    public static final int GRAM = 3;
+
+    private final Map<Integer, String> documents = new HashMap<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Thêm hoặc cập nhật văn bản của {@code id}
+     */
+    public void put(int id, String text) {
+        String normalized = TextNormalizer.normalize(text);
+        lock.writeLock().lock();
+        try {
+            String previous = documents.get(id);
+            if (normalized.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                removePostings(id, previous);
+            }
+            if (normalized.isEmpty()) {
+                documents.remove(id);
+                return;
+            }
+            documents.put(id, normalized);
+            for (long gram : grams(normalized)) {
+                postings.computeIfAbsent(gram, k -> new IntList()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            String previous = documents.remove(id);
+            if (previous != null) {
+                removePostings(id, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Các id có văn bản chứa {@code query}, tăng dần.
+     * Trả về null nếu từ khóa quá ngắn hoặc số kết quả vượt {@code maxResults} (khi đó quét SQL rẻ hơn).
+     */
+    public int[] search(String query, int maxResults) {
+        String normalized = TextNormalizer.normalize(query);
+        if (normalized.length() < GRAM) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            long[] queryGrams = grams(normalized);
+            IntList[] lists = new IntList[queryGrams.length];
+            for (int i = 0; i < queryGrams.length; i++) {
+                lists[i] = postings.get(queryGrams[i]);
+                if (lists[i] == null) {
+                    return new int[0];
+                }
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+            int[] result = new int[Math.min(lists[0].size, maxResults + 1)];
+            int count = 0;
+            for (int i = 0; i < lists[0].size; i++) {
+                int id = lists[0].values[i];
+                if (!containsAll(lists, id) || !documents.get(id).contains(normalized)) {
+                    continue;
+                }
+                if (count == maxResults) {
+                    return null;
+                }
+                result[count++] = id;
+            }
+            return Arrays.copyOf(result, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean containsAll(IntList[] lists, int id) {
+        for (int i = 1; i < lists.length; i++) {
+            if (lists[i].indexOf(id) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void removePostings(int id, String text) {
+        for (long gram : grams(text)) {
+            IntList list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Các trigram phân biệt của văn bản, mỗi trigram mã hóa thành long (3 x 16 bit)
+     */
+    static long[] grams(String text) {
+        if (text.length() < GRAM) {
+            return new long[0];
+        }
+        long[] grams = new long[text.length() - GRAM + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    /**
+     * Danh sách int tăng dần, gọn hơn nhiều so với Set&lt;Integer&gt; khi có hàng triệu id
+     */
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            // Id mới thường lớn nhất nên phần lớn trường hợp chỉ cần nối vào cuối
+            int pos = size > 0 && values[size - 1] < value ? size : Arrays.binarySearch(values, 0, size, value);
+            if (pos >= 0 && pos < size) {
+                return;
+            }
+            int insertAt = pos >= 0 ? pos : -pos - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+            values[insertAt] = value;
+            size++;
+        }
+
+        boolean remove(int value) {
+            int pos = indexOf(value);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        int indexOf(int value) {
+            return Arrays.binarySearch(values, 0, size, value);
+        }
+    }
+}
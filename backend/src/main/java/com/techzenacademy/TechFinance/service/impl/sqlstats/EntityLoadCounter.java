@@ -0,0 +1,36 @@
+package com.techzenacademy.TechFinance.service.impl.sqlstats;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Đếm số entity Hibernate nạp (sự kiện POST_LOAD) vào {@link SqlStats} của luồng hiện tại
+ */
+@Component
+@ConditionalOnProperty(prefix = "sql-stats", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class EntityLoadCounter {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> {
+            SqlStats stats = SqlStats.current();
+            if (stats != null) {
+                stats.recordEntityLoaded();
+            }
+        });
+    }
+}
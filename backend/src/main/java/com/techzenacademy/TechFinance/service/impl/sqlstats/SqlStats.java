@@ -0,0 +1,151 @@
+package com.techzenacademy.TechFinance.service.impl.sqlstats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Số câu SQL, số dòng đọc và số entity Hibernate nạp trong một phạm vi (thường là một request) trên luồng hiện tại.
+ * Phạm vi có thể lồng nhau (ví dụ QueryBudget trong test bao ngoài SqlStatsFilter): khi kết thúc, số liệu
+ * của phạm vi con được cộng vào phạm vi cha. Truy vấn chạy trên luồng khác (virtual thread, tác vụ nền) không được tính.
+ */
+public class SqlStats {
+
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+    private static final int MAX_DISTINCT_STATEMENTS = 50;
+    private static final int MAX_SQL_LENGTH = 300;
+
+    private final SqlStats parent;
+    private final Map<String, StatementStats> breakdown = new LinkedHashMap<>();
+    private long statements;
+    private long sqlNanos;
+    private long rows;
+    private long entitiesLoaded;
+
+    private SqlStats(SqlStats parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Bắt đầu một phạm vi thống kê mới trên luồng hiện tại
+     */
+    public static SqlStats begin() {
+        SqlStats stats = new SqlStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Phạm vi đang mở trên luồng hiện tại, hoặc null
+     */
+    public static SqlStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Kết thúc phạm vi: trả luồng về phạm vi cha và cộng số liệu vào phạm vi cha
+     */
+    public void end() {
+        if (parent == null) {
+            CURRENT.remove();
+            return;
+        }
+        CURRENT.set(parent);
+        parent.statements += statements;
+        parent.sqlNanos += sqlNanos;
+        parent.rows += rows;
+        parent.entitiesLoaded += entitiesLoaded;
+        for (StatementStats child : breakdown.values()) {
+            parent.record(child.sql, child.count, child.nanos);
+        }
+    }
+
+    void recordStatement(String sql, long nanos) {
+        statements++;
+        sqlNanos += nanos;
+        record(sql, 1, nanos);
+    }
+
+    void recordRow() {
+        rows++;
+    }
+
+    void recordEntityLoaded() {
+        entitiesLoaded++;
+    }
+
+    private void record(String sql, long count, long nanos) {
+        String key = sql == null ? "?" : sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) + "..." : sql;
+        StatementStats entry = breakdown.get(key);
+        if (entry == null) {
+            // Giới hạn số câu khác nhau được ghi chi tiết; tổng số vẫn được đếm đầy đủ
+            if (breakdown.size() >= MAX_DISTINCT_STATEMENTS) {
+                return;
+            }
+            entry = new StatementStats(key);
+            breakdown.put(key, entry);
+        }
+        entry.count += count;
+        entry.nanos += nanos;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getSqlNanos() {
+        return sqlNanos;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    /**
+     * Các câu SQL tốn thời gian nhất (tổng thời gian của mọi lần chạy)
+     */
+    public List<StatementStats> topStatements(int limit) {
+        List<StatementStats> sorted = new ArrayList<>(breakdown.values());
+        sorted.sort(Comparator.comparingLong(StatementStats::getNanos).reversed());
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    /**
+     * Bảng chi tiết dạng "số lần x thời gian  câu SQL", mỗi câu một dòng
+     */
+    public String describe(int limit) {
+        StringBuilder sb = new StringBuilder();
+        for (StatementStats entry : topStatements(limit)) {
+            sb.append(String.format("  %4d x %7.1f ms  %s%n", entry.count, entry.nanos / 1_000_000.0, entry.sql));
+        }
+        return sb.toString();
+    }
+
+    public static class StatementStats {
+        private final String sql;
+        private long count;
+        private long nanos;
+
+        StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+}
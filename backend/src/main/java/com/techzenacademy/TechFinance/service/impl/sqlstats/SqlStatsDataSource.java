@@ -0,0 +1,126 @@
+package com.techzenacademy.TechFinance.service.impl.sqlstats;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * DataSource bọc ngoài để đếm câu SQL, thời gian chạy và số dòng đọc vào {@link SqlStats} của luồng hiện tại.
+ * Connection, Statement và ResultSet được bọc bằng JDK dynamic proxy; khi không có phạm vi thống kê
+ * thì chỉ chuyển tiếp lời gọi.
+ */
+public class SqlStatsDataSource extends DelegatingDataSource {
+
+    public SqlStatsDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private static Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(SqlStatsDataSource.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SqlStatsDataSource.invoke(target, method, args);
+            if (result instanceof Statement) {
+                // prepareStatement/prepareCall biết trước câu SQL; createStatement nhận SQL khi execute
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                return Proxy.newProxyInstance(SqlStatsDataSource.class.getClassLoader(),
+                        new Class<?>[] { method.getReturnType() }, new StatementHandler((Statement) result, sql));
+            }
+            return result;
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            SqlStats stats = SqlStats.current();
+            if (stats == null) {
+                return SqlStatsDataSource.invoke(target, method, args);
+            }
+
+            Object result;
+            if (method.getName().startsWith("execute")) {
+                long start = System.nanoTime();
+                try {
+                    result = SqlStatsDataSource.invoke(target, method, args);
+                } finally {
+                    String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+                    stats.recordStatement(sql, System.nanoTime() - start);
+                }
+            } else {
+                result = SqlStatsDataSource.invoke(target, method, args);
+            }
+
+            if (result instanceof ResultSet) {
+                return Proxy.newProxyInstance(SqlStatsDataSource.class.getClassLoader(),
+                        new Class<?>[] { ResultSet.class }, new ResultSetHandler((ResultSet) result));
+            }
+            return result;
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+
+        ResultSetHandler(ResultSet target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SqlStatsDataSource.invoke(target, method, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                SqlStats stats = SqlStats.current();
+                if (stats != null) {
+                    stats.recordRow();
+                }
+            }
+            return result;
+        }
+    }
+}
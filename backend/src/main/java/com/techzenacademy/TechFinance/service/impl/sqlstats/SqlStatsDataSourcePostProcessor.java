@@ -0,0 +1,24 @@
+package com.techzenacademy.TechFinance.service.impl.sqlstats;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bọc DataSource chính của ứng dụng (bean "dataSource") bằng {@link SqlStatsDataSource}.
+ * Các datasource phụ (primary/replica khi tách đọc/ghi) không bị bọc nên truy vấn kiểm tra sức khỏe không bị đếm.
+ */
+@Component
+@ConditionalOnProperty(prefix = "sql-stats", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatsDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if ("dataSource".equals(beanName) && bean instanceof DataSource && !(bean instanceof SqlStatsDataSource)) {
+            return new SqlStatsDataSource((DataSource) bean);
+        }
+        return bean;
+    }
+}
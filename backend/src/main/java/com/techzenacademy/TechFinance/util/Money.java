@@ -0,0 +1,128 @@
+package com.techzenacademy.TechFinance.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Số tiền lưu bằng long theo đơn vị nhỏ nhất (1/100), khớp với cột DECIMAL(15, 2) của các bảng giao dịch.
+ * Dùng cho các vòng lặp tổng hợp báo cáo để tránh tạo một BigDecimal mới ở mỗi phép cộng;
+ * kết quả trả ra DTO vẫn là BigDecimal (scale 2).
+ * <p>
+ * Quy tắc làm tròn:
+ * <ul>
+ *   <li>Số tiền có nhiều hơn 2 chữ số thập phân được làm tròn HALF_UP về 2 chữ số khi chuyển sang Money</li>
+ *   <li>Tỷ lệ phần trăm ({@link #percent}) = phần * 100 / tổng, làm tròn HALF_UP về 2 chữ số thập phân;
+ *       tổng bằng 0 thì tỷ lệ là 0</li>
+ * </ul>
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * @throws ArithmeticException nếu số tiền vượt quá phạm vi long (khoảng 92 triệu tỷ)
+     */
+    public static Money of(BigDecimal amount) {
+        return ofCents(toCents(amount));
+    }
+
+    /**
+     * Đổi BigDecimal sang số đơn vị nhỏ nhất. Với số tiền đã có scale 2 (giá trị đọc từ database)
+     * không có phép làm tròn nào và BigDecimal trung gian không thoát khỏi phương thức.
+     *
+     * @throws ArithmeticException nếu số tiền vượt quá phạm vi long
+     */
+    public static long toCents(BigDecimal amount) {
+        BigDecimal scaled = amount.scale() > SCALE ? amount.setScale(SCALE, ROUNDING) : amount;
+        return scaled.movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Tỷ lệ phần trăm {@code part / whole * 100}, 2 chữ số thập phân, HALF_UP. {@code whole} = 0 thì trả về 0.
+     */
+    public static BigDecimal percent(long part, long whole) {
+        if (whole == 0) {
+            return BigDecimal.ZERO.setScale(SCALE);
+        }
+        long numerator;
+        try {
+            // phần trăm với 2 chữ số thập phân = part * 10^4 / whole
+            numerator = Math.multiplyExact(part, 10_000L);
+        } catch (ArithmeticException e) {
+            return percent(toBigDecimal(part), toBigDecimal(whole));
+        }
+        long quotient = numerator / whole;
+        long remainder = Math.abs(numerator % whole);
+        // HALF_UP: phần dư >= một nửa số chia thì làm tròn ra xa 0
+        if (remainder >= Math.abs(whole) - remainder) {
+            quotient += (numerator < 0) == (whole < 0) ? 1 : -1;
+        }
+        return BigDecimal.valueOf(quotient, SCALE);
+    }
+
+    /**
+     * Như {@link #percent(long, long)} cho số tiền BigDecimal
+     */
+    public static BigDecimal percent(BigDecimal part, BigDecimal whole) {
+        if (whole.signum() == 0) {
+            return BigDecimal.ZERO.setScale(SCALE);
+        }
+        return part.multiply(BigDecimal.valueOf(100)).divide(whole, SCALE, ROUNDING);
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public long getCents() {
+        return cents;
+    }
+
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(cents);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money && ((Money) other).cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
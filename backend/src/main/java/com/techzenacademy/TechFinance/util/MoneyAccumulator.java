@@ -0,0 +1,99 @@
+package com.techzenacademy.TechFinance.util;
+
+import java.math.BigDecimal;
+
+/**
+ * Bộ cộng dồn số tiền không tạo object cho mỗi phép cộng: giữ tổng bằng long theo đơn vị nhỏ nhất (1/100),
+ * khi tổng sắp tràn long thì chuyển phần đã cộng sang BigDecimal và tiếp tục. Kết quả luôn chính xác
+ * như cộng bằng BigDecimal.
+ * <p>
+ * Không thread-safe: mỗi luồng / mỗi nhóm dùng một accumulator riêng.
+ */
+public final class MoneyAccumulator {
+
+    private long cents;
+    // Phần không biểu diễn được bằng long: tổng đã tràn hoặc số tiền có nhiều hơn 2 chữ số thập phân
+    private BigDecimal overflow;
+
+    public MoneyAccumulator add(BigDecimal amount) {
+        if (amount == null) {
+            return this;
+        }
+        // Chỉ đi đường nhanh khi đổi sang long không làm mất chữ số nào
+        if (amount.scale() <= Money.SCALE && amount.precision() - amount.scale() <= 16) {
+            return addCents(Money.toCents(amount));
+        }
+        overflow = overflow == null ? amount : overflow.add(amount);
+        return this;
+    }
+
+    public MoneyAccumulator add(Money amount) {
+        return addCents(amount.getCents());
+    }
+
+    public MoneyAccumulator addCents(long amount) {
+        long sum = cents + amount;
+        // Tràn số khi hai số hạng cùng dấu mà tổng khác dấu (như Math.addExact, không ném exception)
+        if (((cents ^ sum) & (amount ^ sum)) < 0) {
+            spill();
+            cents = amount;
+        } else {
+            cents = sum;
+        }
+        return this;
+    }
+
+    public MoneyAccumulator add(MoneyAccumulator other) {
+        addCents(other.cents);
+        if (other.overflow != null) {
+            overflow = overflow == null ? other.overflow : overflow.add(other.overflow);
+        }
+        return this;
+    }
+
+    /**
+     * Tổng theo đơn vị nhỏ nhất
+     *
+     * @throws ArithmeticException nếu tổng đã vượt phạm vi long
+     */
+    public long getCents() {
+        if (overflow == null) {
+            return cents;
+        }
+        return Money.toCents(toBigDecimal());
+    }
+
+    /**
+     * Tỷ lệ phần trăm của tổng này trên {@code whole} như {@link Money#percent(long, long)};
+     * dùng BigDecimal khi một trong hai tổng đã vượt phạm vi long (không ném exception như getCents)
+     */
+    public BigDecimal percentOf(MoneyAccumulator whole) {
+        if (overflow == null && whole.overflow == null) {
+            return Money.percent(cents, whole.cents);
+        }
+        return Money.percent(toBigDecimal(), whole.toBigDecimal());
+    }
+
+    public boolean isZero() {
+        return cents == 0 && (overflow == null || overflow.signum() == 0);
+    }
+
+    /**
+     * Tổng dạng BigDecimal, scale 2 (hoặc lớn hơn nếu có số hạng nhiều hơn 2 chữ số thập phân)
+     */
+    public BigDecimal toBigDecimal() {
+        BigDecimal total = Money.toBigDecimal(cents);
+        return overflow == null ? total : total.add(overflow);
+    }
+
+    private void spill() {
+        BigDecimal spilled = Money.toBigDecimal(cents);
+        overflow = overflow == null ? spilled : overflow.add(spilled);
+        cents = 0;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
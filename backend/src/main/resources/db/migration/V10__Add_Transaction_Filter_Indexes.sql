@@ -0,0 +1,13 @@
+-- Index kết hợp cho các tổ hợp bộ lọc thường dùng trên màn hình giao dịch.
+-- Truy vấn lọc được sinh động (chỉ chứa điều kiện được cung cấp) nên MySQL chọn được index phù hợp:
+--   khách hàng/nhà cung cấp + khoảng ngày, danh mục + khoảng ngày, trạng thái + khoảng ngày, chỉ khoảng ngày.
+
+CREATE INDEX idx_income_customer_date ON income_transactions (customer_id, transaction_date);
+CREATE INDEX idx_income_category_date ON income_transactions (category_id, transaction_date);
+CREATE INDEX idx_income_status_date ON income_transactions (payment_status, transaction_date);
+CREATE INDEX idx_income_date ON income_transactions (transaction_date);
+
+CREATE INDEX idx_expense_supplier_date ON expense_transactions (supplier_id, transaction_date);
+CREATE INDEX idx_expense_category_date ON expense_transactions (category_id, transaction_date);
+CREATE INDEX idx_expense_status_date ON expense_transactions (payment_status, transaction_date);
+CREATE INDEX idx_expense_date ON expense_transactions (transaction_date);
@@ -0,0 +1,53 @@
+-- Cờ bất thường của giao dịch, được ghi ngay khi thêm/sửa giao dịch (thay vì tính lại mỗi lần xem báo cáo)
+CREATE TABLE transaction_flags (
+    flag_id INT AUTO_INCREMENT PRIMARY KEY,
+    transaction_type VARCHAR(10) NOT NULL,       -- INCOME / EXPENSE
+    transaction_id INT NOT NULL,
+    flag_type VARCHAR(30) NOT NULL,              -- UNUSUAL_AMOUNT / DUPLICATE_REFERENCE
+    description VARCHAR(255),
+    amount DECIMAL(15, 2),
+    transaction_date DATE NOT NULL,
+    reference_no VARCHAR(50),
+    score DOUBLE,                                -- z-score với UNUSUAL_AMOUNT
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_transaction_flag (transaction_type, transaction_id, flag_type),
+    INDEX idx_flags_date (transaction_date, transaction_type)
+);
+
+-- Tra cứu mã tham chiếu trùng trên toàn bộ dữ liệu
+CREATE INDEX idx_income_reference_no ON income_transactions (reference_no);
+CREATE INDEX idx_expense_reference_no ON expense_transactions (reference_no);
+
+-- Đánh dấu dữ liệu hiện có: mã tham chiếu trùng
+INSERT INTO transaction_flags (transaction_type, transaction_id, flag_type, description, amount, transaction_date, reference_no)
+SELECT 'INCOME', t.transaction_id, 'DUPLICATE_REFERENCE',
+       CONCAT('Mã tham chiếu bị trùng lặp trong giao dịch thu nhập: ', t.reference_no),
+       t.amount, t.transaction_date, t.reference_no
+FROM income_transactions t
+JOIN (SELECT reference_no FROM income_transactions
+      WHERE reference_no IS NOT NULL AND reference_no <> ''
+      GROUP BY reference_no HAVING COUNT(*) > 1) d ON d.reference_no = t.reference_no;
+
+INSERT INTO transaction_flags (transaction_type, transaction_id, flag_type, description, amount, transaction_date, reference_no)
+SELECT 'EXPENSE', t.transaction_id, 'DUPLICATE_REFERENCE',
+       CONCAT('Mã tham chiếu bị trùng lặp trong giao dịch chi phí: ', t.reference_no),
+       t.amount, t.transaction_date, t.reference_no
+FROM expense_transactions t
+JOIN (SELECT reference_no FROM expense_transactions
+      WHERE reference_no IS NOT NULL AND reference_no <> ''
+      GROUP BY reference_no HAVING COUNT(*) > 1) d ON d.reference_no = t.reference_no;
+
+-- Đánh dấu dữ liệu hiện có: số tiền lệch hơn 3 độ lệch chuẩn so với trung bình của danh mục (tối thiểu 5 giao dịch)
+INSERT INTO transaction_flags (transaction_type, transaction_id, flag_type, description, amount, transaction_date, reference_no, score)
+SELECT 'INCOME', s.transaction_id, 'UNUSUAL_AMOUNT', 'Giao dịch thu nhập có giá trị cao bất thường',
+       s.amount, s.transaction_date, s.reference_no, (s.amount - s.mean_amount) / s.std_amount
+FROM (SELECT t.*, COUNT(*) OVER w AS n, AVG(t.amount) OVER w AS mean_amount, STDDEV_SAMP(t.amount) OVER w AS std_amount
+      FROM income_transactions t WINDOW w AS (PARTITION BY t.category_id)) s
+WHERE s.n >= 5 AND s.std_amount > 0 AND s.amount > s.mean_amount + 3 * s.std_amount;
+
+INSERT INTO transaction_flags (transaction_type, transaction_id, flag_type, description, amount, transaction_date, reference_no, score)
+SELECT 'EXPENSE', s.transaction_id, 'UNUSUAL_AMOUNT', 'Giao dịch chi phí có giá trị cao bất thường',
+       s.amount, s.transaction_date, s.reference_no, (s.amount - s.mean_amount) / s.std_amount
+FROM (SELECT t.*, COUNT(*) OVER w AS n, AVG(t.amount) OVER w AS mean_amount, STDDEV_SAMP(t.amount) OVER w AS std_amount
+      FROM expense_transactions t WINDOW w AS (PARTITION BY t.category_id)) s
+WHERE s.n >= 5 AND s.std_amount > 0 AND s.amount > s.mean_amount + 3 * s.std_amount;
@@ -0,0 +1,19 @@
+-- Tác vụ tạo báo cáo chạy nền: trạng thái, tiến độ và kết quả (JSON) được lưu để tra cứu và tải về
+CREATE TABLE report_jobs (
+    job_id VARCHAR(36) PRIMARY KEY,
+    report_type VARCHAR(40) NOT NULL,
+    parameters VARCHAR(500) NOT NULL,
+    params_hash CHAR(64) NOT NULL,               -- SHA-256 của tham số, dùng để gộp các yêu cầu trùng
+    data_version VARCHAR(80) NOT NULL,           -- phiên bản dữ liệu khi tạo, kết quả cũ không dùng lại khi dữ liệu đã đổi
+    status VARCHAR(20) NOT NULL,                 -- QUEUED / RUNNING / COMPLETED / FAILED
+    progress INT NOT NULL DEFAULT 0,
+    result LONGTEXT,
+    error_message VARCHAR(500),
+    created_by VARCHAR(50),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP NULL,
+    completed_at TIMESTAMP NULL,
+    expires_at TIMESTAMP NULL,
+    INDEX idx_report_jobs_hash (params_hash, status),
+    INDEX idx_report_jobs_expires (expires_at)
+);
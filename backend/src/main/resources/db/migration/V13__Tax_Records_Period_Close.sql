@@ -0,0 +1,6 @@
+-- Báo cáo thuế được tính trực tiếp (chỉ đọc) từ giao dịch; tax_records chỉ lưu số liệu của kỳ đã chốt.
+-- Các dòng cũ do sp_generate_tax_report ghi mỗi lần xem báo cáo không được coi là đã chốt (closed_at NULL).
+ALTER TABLE tax_records ADD COLUMN closed_at TIMESTAMP NULL;
+
+-- Procedure ghi vào tax_records trên mỗi lần đọc và quét YEAR()/MONTH() không dùng được chỉ mục ngày
+DROP PROCEDURE IF EXISTS sp_generate_tax_report;
@@ -0,0 +1,87 @@
+-- Phân vùng income_transactions/expense_transactions theo năm giao dịch: truy vấn theo kỳ chỉ đọc phân vùng của các năm liên quan.
+-- Bảng phân vùng của MySQL không hỗ trợ khóa ngoại và mọi khóa duy nhất phải chứa cột phân vùng:
+--   bỏ khóa ngoại (service kiểm tra danh mục/khách hàng/nhà cung cấp còn được dùng trước khi xóa),
+--   khóa chính đổi thành (transaction_id, transaction_date); transaction_id vẫn tự tăng và duy nhất.
+-- Phân vùng của năm mới được thêm trước bởi TransactionArchiveService (tách từ p_future).
+
+ALTER TABLE income_transactions DROP FOREIGN KEY income_transactions_ibfk_1;
+ALTER TABLE income_transactions DROP FOREIGN KEY income_transactions_ibfk_2;
+ALTER TABLE income_transactions DROP FOREIGN KEY income_transactions_ibfk_3;
+
+ALTER TABLE expense_transactions DROP FOREIGN KEY expense_transactions_ibfk_1;
+ALTER TABLE expense_transactions DROP FOREIGN KEY expense_transactions_ibfk_2;
+ALTER TABLE expense_transactions DROP FOREIGN KEY expense_transactions_ibfk_3;
+
+ALTER TABLE income_transactions DROP PRIMARY KEY, ADD PRIMARY KEY (transaction_id, transaction_date);
+ALTER TABLE expense_transactions DROP PRIMARY KEY, ADD PRIMARY KEY (transaction_id, transaction_date);
+
+-- p2020 chứa cả các năm trước 2020
+ALTER TABLE income_transactions PARTITION BY RANGE (YEAR(transaction_date)) (
+    PARTITION p2020 VALUES LESS THAN (2021),
+    PARTITION p2021 VALUES LESS THAN (2022),
+    PARTITION p2022 VALUES LESS THAN (2023),
+    PARTITION p2023 VALUES LESS THAN (2024),
+    PARTITION p2024 VALUES LESS THAN (2025),
+    PARTITION p2025 VALUES LESS THAN (2026),
+    PARTITION p2026 VALUES LESS THAN (2027),
+    PARTITION p2027 VALUES LESS THAN (2028),
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+);
+
+ALTER TABLE expense_transactions PARTITION BY RANGE (YEAR(transaction_date)) (
+    PARTITION p2020 VALUES LESS THAN (2021),
+    PARTITION p2021 VALUES LESS THAN (2022),
+    PARTITION p2022 VALUES LESS THAN (2023),
+    PARTITION p2023 VALUES LESS THAN (2024),
+    PARTITION p2024 VALUES LESS THAN (2025),
+    PARTITION p2025 VALUES LESS THAN (2026),
+    PARTITION p2026 VALUES LESS THAN (2027),
+    PARTITION p2027 VALUES LESS THAN (2028),
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+);
+
+-- Bảng lưu trữ giao dịch của các năm đã chốt, nén (ROW_FORMAT=COMPRESSED), cùng cột với bảng chính
+CREATE TABLE income_transactions_archive (
+    transaction_id INT NOT NULL PRIMARY KEY,
+    category_id INT NOT NULL,
+    customer_id INT,
+    transaction_date DATE NOT NULL,
+    amount DECIMAL(15, 2) NOT NULL,
+    payment_status ENUM('RECEIVED', 'PENDING') DEFAULT 'PENDING',
+    description TEXT,
+    reference_no VARCHAR(50),
+    created_by INT,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_income_archive_date (transaction_date),
+    INDEX idx_income_archive_customer_date (customer_id, transaction_date)
+) ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8;
+
+CREATE TABLE expense_transactions_archive (
+    transaction_id INT NOT NULL PRIMARY KEY,
+    category_id INT NOT NULL,
+    supplier_id INT,
+    transaction_date DATE NOT NULL,
+    amount DECIMAL(15, 2) NOT NULL,
+    payment_status ENUM('PAID', 'UNPAID') DEFAULT 'UNPAID',
+    description TEXT,
+    reference_no VARCHAR(50),
+    created_by INT,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_expense_archive_date (transaction_date),
+    INDEX idx_expense_archive_supplier_date (supplier_id, transaction_date)
+) ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8;
+
+-- Mỗi năm được lưu trữ một dòng; năm có dòng ở đây (kể cả đang chạy) được đọc từ cả bảng chính và bảng lưu trữ
+CREATE TABLE transaction_archive_runs (
+    archive_year INT PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,                 -- RUNNING / COMPLETED / FAILED
+    income_rows INT NOT NULL DEFAULT 0,
+    expense_rows INT NOT NULL DEFAULT 0,
+    error_message VARCHAR(500),
+    started_at TIMESTAMP NULL,
+    completed_at TIMESTAMP NULL
+);
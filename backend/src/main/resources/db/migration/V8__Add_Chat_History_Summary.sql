@@ -0,0 +1,7 @@
+-- Tóm tắt các lượt hội thoại cũ để giới hạn ngữ cảnh gửi cho model
+ALTER TABLE chat_conversations
+    ADD COLUMN history_summary TEXT NULL,
+    ADD COLUMN summarized_until_message_id INT NULL;
+
+-- Index cho phân trang lịch sử tin nhắn theo cursor (timestamp, message_id)
+CREATE INDEX idx_chat_messages_conversation_time ON chat_messages(conversation_id, timestamp, message_id);
@@ -0,0 +1,42 @@
+-- Các cột tóm tắt của cuộc hội thoại, giúp danh sách hội thoại chỉ cần một truy vấn
+ALTER TABLE chat_conversations
+    ADD COLUMN first_message_preview VARCHAR(255) NULL,
+    ADD COLUMN message_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN last_message_at TIMESTAMP NULL;
+
+-- Cập nhật dữ liệu cho các cuộc hội thoại đã có
+UPDATE chat_conversations c
+JOIN (
+    SELECT conversation_id, COUNT(*) AS message_count, MAX(timestamp) AS last_message_at
+    FROM chat_messages
+    GROUP BY conversation_id
+) m ON m.conversation_id = c.conversation_id
+SET c.message_count = m.message_count,
+    c.last_message_at = m.last_message_at,
+    c.last_updated_at = c.last_updated_at;
+
+UPDATE chat_conversations c
+JOIN chat_messages first ON first.message_id = (
+    SELECT MIN(message_id) FROM chat_messages
+    WHERE conversation_id = c.conversation_id AND sender = 'USER'
+)
+SET c.first_message_preview = LEFT(first.content, 255),
+    c.last_updated_at = c.last_updated_at;
+
+-- Trigger cập nhật các cột tóm tắt khi thêm tin nhắn
+DELIMITER //
+CREATE TRIGGER after_chat_message_insert
+AFTER INSERT ON chat_messages
+FOR EACH ROW
+BEGIN
+    UPDATE chat_conversations
+    SET message_count = message_count + 1,
+        last_message_at = NEW.timestamp,
+        first_message_preview = IF(first_message_preview IS NULL AND NEW.sender = 'USER',
+                                   LEFT(NEW.content, 255), first_message_preview)
+    WHERE conversation_id = NEW.conversation_id;
+END //
+DELIMITER ;
+
+-- Index cho danh sách hội thoại của người dùng, sắp xếp theo hoạt động gần nhất
+CREATE INDEX idx_conversation_user_activity ON chat_conversations(user_id, last_message_at, conversation_id);
@@ -0,0 +1,141 @@
+package com.techzenacademy.TechFinance.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.techzenacademy.TechFinance.service.impl.DataVersionService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReadReplicaRoutingDataSourceTests {
+
+	private DataSource primary;
+	private DataSource replica;
+	private Connection primaryConnection;
+	private Connection replicaConnection;
+	private ReplicaHealthMonitor healthMonitor;
+	private DataVersionService dataVersionService;
+	private ReadReplicaRoutingDataSource routing;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		primary = mock(DataSource.class);
+		replica = mock(DataSource.class);
+		primaryConnection = mock(Connection.class);
+		replicaConnection = mock(Connection.class);
+		when(primary.getConnection()).thenReturn(primaryConnection);
+		when(replica.getConnection()).thenReturn(replicaConnection);
+
+		healthMonitor = new ReplicaHealthMonitor(replica, 5000);
+		healthMonitor.update(2);
+		dataVersionService = new DataVersionService();
+		// Lần ghi gần nhất đã đủ cũ để replica bắt kịp
+		((AtomicLong) ReflectionTestUtils.getField(dataVersionService, "lastChangedAt"))
+				.set(System.currentTimeMillis() - 60_000);
+		routing = new ReadReplicaRoutingDataSource(primary, replica, healthMonitor, dataVersionService, 5,
+				new SimpleMeterRegistry());
+	}
+
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		ReadReplicaRoutingDataSource.clearRequestContext();
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void readOnlyTransactionsUseReplica() throws SQLException {
+		assertSame(primaryConnection, routing.getConnection());
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertSame(replicaConnection, routing.getConnection());
+	}
+
+	@Test
+	void endpointToleranceKeepsReadsOnPrimaryWhenReplicaLagsMore() throws SQLException {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		ReadReplicaRoutingDataSource.setMaxLagSeconds(1);
+		assertSame(primaryConnection, routing.getConnection());
+
+		ReadReplicaRoutingDataSource.setMaxLagSeconds(60);
+		assertSame(replicaConnection, routing.getConnection());
+	}
+
+	@Test
+	void recentWriteKeepsOnlyTheWriterOnPrimary() throws SQLException {
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken("ketoan", null, List.of()));
+		dataVersionService.markChanged();
+		SecurityContextHolder.clearContext();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		ReadReplicaRoutingDataSource.setMaxLagSeconds(60);
+
+		ReadReplicaRoutingDataSource.setReader("ketoan");
+		assertSame(primaryConnection, routing.getConnection());
+		assertEquals(0, dataVersionService.lastStaleReadAt());
+
+		// Người khác chấp nhận độ trễ 60 giây nên vẫn đọc replica, cache báo cáo được báo để không lưu kết quả
+		ReadReplicaRoutingDataSource.setReader("giamdoc");
+		assertSame(replicaConnection, routing.getConnection());
+		assertTrue(dataVersionService.lastStaleReadAt() > 0);
+	}
+
+	@Test
+	void requestToleranceFollowsTasksOnOtherThreads() throws Exception {
+		ReadReplicaRoutingDataSource.setMaxLagSeconds(1);
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			Executor executor = ReadReplicaRoutingDataSource.withCurrentContext(pool);
+			CompletableFuture<Connection> connection = CompletableFuture.supplyAsync(() -> {
+				TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+				try {
+					return routing.getConnection();
+				} catch (SQLException e) {
+					throw new IllegalStateException(e);
+				} finally {
+					TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+				}
+			}, executor);
+
+			// Replica trễ 2 giây, request chỉ chấp nhận 1 giây (mặc định 5 giây sẽ đọc replica)
+			assertSame(primaryConnection, connection.get(5, TimeUnit.SECONDS));
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void fallsBackToPrimaryWhenReplicaIsDown() throws SQLException {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+		assertSame(primaryConnection, routing.getConnection());
+		assertFalse(healthMonitor.isHealthy());
+		assertSame(primaryConnection, routing.getConnection());
+	}
+}
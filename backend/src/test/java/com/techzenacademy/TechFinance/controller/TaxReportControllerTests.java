@@ -0,0 +1,62 @@
+package com.techzenacademy.TechFinance.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.techzenacademy.TechFinance.dto.TaxReportDTO;
+import com.techzenacademy.TechFinance.service.impl.TaxReportService;
+
+/**
+ * Chốt kỳ thuế chỉ dành cho admin. Quyền giống JwtAuthenticationFilter cấp: "ROLE_" + vai trò viết hoa.
+ */
+@SpringBootTest(properties = "rate-limit.enabled=false")
+@AutoConfigureMockMvc
+class TaxReportControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private TaxReportService taxReportService;
+
+	@Test
+	@WithMockUser(username = "admin", authorities = "ROLE_ADMIN")
+	void adminClosesTaxPeriod() throws Exception {
+		TaxReportDTO report = new TaxReportDTO();
+		report.setYear(2024);
+		report.setMonth(5);
+		when(taxReportService.closePeriod(2024, 5, "Đã đối chiếu")).thenReturn(report);
+
+		mockMvc.perform(post("/api/reports/tax/close")
+						.param("year", "2024")
+						.param("month", "5")
+						.param("notes", "Đã đối chiếu"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.month").value(5));
+		verify(taxReportService).closePeriod(2024, 5, "Đã đối chiếu");
+	}
+
+	@Test
+	@WithMockUser(username = "ketoan", authorities = "ROLE_USER")
+	void nonAdminCannotCloseTaxPeriod() throws Exception {
+		mockMvc.perform(post("/api/reports/tax/close")
+						.param("year", "2024")
+						.param("month", "5"))
+				.andExpect(status().isForbidden());
+		verify(taxReportService, never()).closePeriod(anyInt(), anyInt(), any());
+	}
+}
@@ -0,0 +1,115 @@
+package com.techzenacademy.TechFinance.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.techzenacademy.TechFinance.repository.specification.FilterSpecifications;
+
+/**
+ * Kiểm tra truy vấn lọc sinh động: chỉ chứa điều kiện được cung cấp, cùng tổ hợp bộ lọc cho cùng câu SQL
+ * (plan/prepared statement được dùng lại) và MySQL chọn index kết hợp tương ứng.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.techzenacademy.TechFinance.repository.SqlCapture")
+class FilterSpecificationsTests {
+
+	private static final LocalDate START = LocalDate.of(2024, 1, 1);
+	private static final LocalDate END = LocalDate.of(2024, 12, 31);
+	// Khách hàng giả (bảng phân vùng không có khóa ngoại) để dữ liệu seed không lẫn với dữ liệu thật
+	private static final int SEED_CUSTOMER = 900001;
+	private static final String SEED_REFERENCE = "LT-IDX";
+
+	@Autowired
+	private IncomeTransactionRepository incomeTransactionRepository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void sqlContainsOnlySuppliedFilters() {
+		String sql = customerAndDateQuery(1);
+
+		assertFalse(sql.contains(" is null"), sql);
+		assertTrue(sql.contains("customer_id"), sql);
+		assertTrue(sql.contains("transaction_date"), sql);
+		assertFalse(sql.contains("reference_no like"), sql);
+	}
+
+	@Test
+	void sameFilterShapeReusesSameStatement() {
+		assertEquals(customerAndDateQuery(1), customerAndDateQuery(2));
+
+		SqlCapture.clear();
+		incomeTransactionRepository.findAll(FilterSpecifications.incomeTransactions(
+				null, 1, START, END, null, null, null, null, null, null), PageRequest.of(0, 10));
+		assertNotEquals(customerAndDateQuery(1), SqlCapture.firstSelectFrom("income_transactions"));
+	}
+
+	@Test
+	void customerAndDateFilterUsesCompositeIndex() throws Exception {
+		String sql = customerAndDateQuery(1);
+		seedIndexRows();
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+			// Một khách hàng trong một tháng: index (customer_id, transaction_date) chọn lọc hơn hẳn
+			// index chỉ theo khách hàng hoặc chỉ theo ngày
+			explain.setInt(1, SEED_CUSTOMER);
+			explain.setDate(2, Date.valueOf(LocalDate.of(2024, 3, 1)));
+			explain.setDate(3, Date.valueOf(LocalDate.of(2024, 3, 31)));
+			for (int i = 4; i <= explain.getParameterMetaData().getParameterCount(); i++) {
+				explain.setInt(i, 10);
+			}
+			try (ResultSet rs = explain.executeQuery()) {
+				assertTrue(rs.next());
+				assertEquals("idx_income_customer_date", rs.getString("key"),
+						"possible_keys: " + rs.getString("possible_keys"));
+			}
+		} finally {
+			jdbcTemplate.update("DELETE FROM income_transactions WHERE reference_no = ?", SEED_REFERENCE);
+		}
+	}
+
+	/**
+	 * 40 khách hàng, mỗi khách 120 giao dịch rải đều năm 2024, rồi cập nhật thống kê để optimizer thấy phân bố thật
+	 */
+	private void seedIndexRows() {
+		jdbcTemplate.update("DELETE FROM income_transactions WHERE reference_no = ?", SEED_REFERENCE);
+		List<Object[]> rows = new ArrayList<>();
+		for (int customer = 0; customer < 40; customer++) {
+			for (int day = 0; day < 120; day++) {
+				rows.add(new Object[] { SEED_CUSTOMER + customer, Date.valueOf(START.plusDays(day * 3L)) });
+			}
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO income_transactions (category_id, customer_id, transaction_date, amount, "
+				+ "payment_status, reference_no) VALUES (1, ?, ?, 100000, 'RECEIVED', '" + SEED_REFERENCE + "')", rows);
+		jdbcTemplate.execute("ANALYZE TABLE income_transactions");
+	}
+
+	private String customerAndDateQuery(int customerId) {
+		SqlCapture.clear();
+		incomeTransactionRepository.findAll(FilterSpecifications.incomeTransactions(
+				customerId, null, START, END, null, null, null, null, null, null), PageRequest.of(0, 10));
+		return SqlCapture.firstSelectFrom("income_transactions");
+	}
+}
@@ -0,0 +1,71 @@
+package com.techzenacademy.TechFinance.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.repository.projection.ListFields;
+import com.techzenacademy.TechFinance.repository.projection.SparseFieldQuery;
+import com.techzenacademy.TechFinance.repository.specification.FilterSpecifications;
+
+/**
+ * Kiểm tra truy vấn theo tham số fields=: SELECT chỉ chứa cột được chọn, bảng liên kết chỉ JOIN khi cần
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.techzenacademy.TechFinance.repository.SqlCapture")
+class SparseFieldQueryTests {
+
+	private static final LocalDate START = LocalDate.of(2024, 1, 1);
+	private static final LocalDate END = LocalDate.of(2024, 12, 31);
+
+	@Autowired
+	private SparseFieldQuery sparseFieldQuery;
+
+	@Test
+	void selectsOnlyRequestedColumnsWithoutJoins() {
+		Page<Map<String, Object>> page = query("transactionDate,amount,customerId");
+		String sql = SqlCapture.firstSelectFrom("income_transactions");
+
+		assertFalse(sql.contains("description"), sql);
+		assertFalse(sql.contains("reference_no"), sql);
+		assertFalse(sql.contains(" join "), sql);
+		for (Map<String, Object> row : page.getContent()) {
+			assertEquals(List.of("id", "transactionDate", "amount", "customerId"), List.copyOf(row.keySet()));
+		}
+	}
+
+	@Test
+	void joinsAssociationOnlyForItsNonKeyFields() {
+		query("amount,customerName");
+		String sql = SqlCapture.firstSelectFrom("income_transactions");
+
+		assertTrue(sql.contains("left join customers"), sql);
+		assertFalse(sql.contains("income_categories"), sql);
+	}
+
+	@Test
+	void rejectsUnknownField() {
+		assertThrows(IllegalArgumentException.class, () -> ListFields.INCOME_TRANSACTIONS.select("amount,createdBy"));
+	}
+
+	private Page<Map<String, Object>> query(String fields) {
+		SqlCapture.clear();
+		return sparseFieldQuery.findAll(ListFields.INCOME_TRANSACTIONS, ListFields.INCOME_TRANSACTIONS.select(fields),
+				FilterSpecifications.incomeTransactions(null, null, START, END, null, null,
+						IncomeTransaction.PaymentStatus.RECEIVED, null, null, null),
+				PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "transactionDate")));
+	}
+}
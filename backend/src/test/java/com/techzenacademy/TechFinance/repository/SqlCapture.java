@@ -0,0 +1,34 @@
+package com.techzenacademy.TechFinance.repository;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Ghi lại các câu SQL Hibernate gửi xuống database (chỉ dùng trong test)
+ */
+public class SqlCapture implements StatementInspector {
+
+	private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+	@Override
+	public String inspect(String sql) {
+		STATEMENTS.add(sql);
+		return sql;
+	}
+
+	public static void clear() {
+		STATEMENTS.clear();
+	}
+
+	/**
+	 * Câu SELECT đầu tiên đọc dữ liệu (không phải count) từ bảng {@code table}
+	 */
+	public static String firstSelectFrom(String table) {
+		return STATEMENTS.stream()
+				.filter(sql -> sql.startsWith("select") && sql.contains(" from " + table) && !sql.contains("count("))
+				.findFirst()
+				.orElseThrow(() -> new AssertionError("No select on " + table + " in " + STATEMENTS));
+	}
+}
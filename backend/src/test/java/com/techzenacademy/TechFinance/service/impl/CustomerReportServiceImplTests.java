@@ -0,0 +1,88 @@
+package com.techzenacademy.TechFinance.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.techzenacademy.TechFinance.dto.CategorySummaryDTO;
+import com.techzenacademy.TechFinance.dto.CustomerReportDTO;
+import com.techzenacademy.TechFinance.dto.TransactionSummaryDTO;
+import com.techzenacademy.TechFinance.entity.IncomeTransaction.PaymentStatus;
+import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
+import com.techzenacademy.TechFinance.service.impl.archive.TransactionArchiveReader;
+
+class CustomerReportServiceImplTests {
+
+	private CustomerReportServiceImpl service;
+	private IncomeTransactionRepository incomeTransactionRepository;
+
+	@BeforeEach
+	void setUp() {
+		incomeTransactionRepository = mock(IncomeTransactionRepository.class);
+		service = new CustomerReportServiceImpl();
+		TransactionArchiveReader archiveReader = new TransactionArchiveReader();
+		ReflectionTestUtils.setField(archiveReader, "incomeTransactionRepository", incomeTransactionRepository);
+		ReflectionTestUtils.setField(service, "archiveReader", archiveReader);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void quarterlyReportFoldsGroupedRowsByCustomerId() {
+		when(incomeTransactionRepository.sumByCustomerCategoryMonthAndStatus(
+				LocalDate.of(2024, 4, 1), LocalDate.of(2024, 6, 30))).thenReturn(List.<Object[]>of(
+						row(1, 10, 5, PaymentStatus.RECEIVED, "300.00", 2),
+						row(1, 11, 4, PaymentStatus.PENDING, "100.00", 1),
+						row(1, 10, 4, PaymentStatus.RECEIVED, "200.00", 1),
+						row(2, 10, 6, PaymentStatus.PENDING, "150.00", 3),
+						row(null, 11, 6, PaymentStatus.RECEIVED, "250.00", 1)));
+
+		Map<String, Object> report = service.generateQuarterlyReport(2024, 2);
+
+		verify(incomeTransactionRepository, never()).findAll();
+		assertEquals(new BigDecimal("1000.00"), report.get("totalAmount"));
+		assertEquals(new BigDecimal("750.00"), report.get("receivedAmount"));
+		assertEquals(new BigDecimal("250.00"), report.get("pendingAmount"));
+
+		List<CustomerReportDTO> customers = (List<CustomerReportDTO>) report.get("entities");
+		assertEquals(2, customers.size());
+		CustomerReportDTO first = customers.get(0);
+		assertEquals(1, first.getCustomerId());
+		assertEquals("Khách hàng 1", first.getCustomerName());
+		assertEquals(new BigDecimal("600.00"), first.getTotalAmount());
+		assertEquals(new BigDecimal("500.00"), first.getReceivedAmount());
+		assertEquals(new BigDecimal("100.00"), first.getPendingAmount());
+		assertEquals(new BigDecimal("60.00"), first.getPercentage());
+
+		List<TransactionSummaryDTO> months = first.getTransactionsByMonth();
+		assertEquals(2, months.size());
+		assertEquals(4, months.get(0).getMonth());
+		assertEquals(2, months.get(0).getTransactionCount());
+		assertEquals(new BigDecimal("300.00"), months.get(0).getAmount());
+		assertEquals(5, months.get(1).getMonth());
+
+		List<CategorySummaryDTO> categories = first.getTransactionsByCategory();
+		assertEquals(10, categories.get(0).getCategoryId());
+		assertEquals(new BigDecimal("500.00"), categories.get(0).getAmount());
+		assertEquals(new BigDecimal("83.33"), categories.get(0).getPercentage());
+
+		assertEquals(new BigDecimal("15.00"), customers.get(1).getPercentage());
+	}
+
+	private static Object[] row(Integer customerId, int categoryId, int month, PaymentStatus status,
+			String amount, long count) {
+		return new Object[] {
+				customerId, customerId == null ? null : "Khách hàng " + customerId, null, null,
+				categoryId, "Danh mục " + categoryId, 2024, month, status, new BigDecimal(amount), count };
+	}
+}
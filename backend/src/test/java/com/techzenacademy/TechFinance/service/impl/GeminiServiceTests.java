@@ -0,0 +1,93 @@
+package com.techzenacademy.TechFinance.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.techzenacademy.TechFinance.dto.gemini.ChatConversationDTO;
+import com.techzenacademy.TechFinance.dto.page.PageResponse;
+import com.techzenacademy.TechFinance.entity.ChatConversation;
+import com.techzenacademy.TechFinance.entity.User;
+import com.techzenacademy.TechFinance.repository.ChatConversationRepository;
+import com.techzenacademy.TechFinance.repository.UserRepository;
+
+class GeminiServiceTests {
+
+	private static final int USER_ID = 7;
+
+	private GeminiService service;
+	private UserRepository userRepository;
+	private ChatConversationRepository conversationRepository;
+
+	@BeforeEach
+	void setUp() {
+		userRepository = mock(UserRepository.class);
+		conversationRepository = mock(ChatConversationRepository.class);
+		service = new GeminiService();
+		ReflectionTestUtils.setField(service, "userRepository", userRepository);
+		ReflectionTestUtils.setField(service, "conversationRepository", conversationRepository);
+
+		User user = new User();
+		user.setId(USER_ID);
+		user.setUsername("ketoan");
+		when(userRepository.findByUsername("ketoan")).thenReturn(Optional.of(user));
+	}
+
+	@AfterEach
+	void clearAuthentication() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void conversationListReturnsRequestedPageWithMetadata() {
+		authenticate("ketoan");
+		PageRequest pageable = PageRequest.of(1, 20);
+		List<ChatConversationDTO> rows = List.of(conversation("c-21"), conversation("c-22"));
+		when(conversationRepository.findSummariesByUserId(USER_ID, pageable))
+				.thenReturn(new PageImpl<>(rows, pageable, 42));
+
+		PageResponse<ChatConversationDTO> response = service.getUserConversations(pageable);
+
+		assertEquals(List.of("c-21", "c-22"), response.getContent().stream().map(ChatConversationDTO::getId).toList());
+		assertEquals(1, response.getPage().getPage());
+		assertEquals(20, response.getPage().getSize());
+		assertEquals(42, response.getPage().getTotalElement());
+		assertEquals(3, response.getPage().getTotalPages());
+	}
+
+	@Test
+	void conversationListIsEmptyWithoutAuthenticatedUser() {
+		PageResponse<ChatConversationDTO> response = service.getUserConversations(PageRequest.of(0, 20));
+
+		assertTrue(response.getContent().isEmpty());
+		verify(conversationRepository, never()).findSummariesByUserId(anyInt(), any());
+	}
+
+	private static void authenticate(String username) {
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(username, null, List.of()));
+	}
+
+	private static ChatConversationDTO conversation(String id) {
+		LocalDateTime now = LocalDateTime.of(2024, 6, 1, 9, 0);
+		return new ChatConversationDTO(id, ChatConversation.ConversationType.GENERAL, "Xin chào", 2, now, now);
+	}
+}
@@ -0,0 +1,99 @@
+package com.techzenacademy.TechFinance.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.techzenacademy.TechFinance.dto.TaxReportDTO;
+import com.techzenacademy.TechFinance.entity.TaxRecord;
+import com.techzenacademy.TechFinance.repository.TaxRecordRepository;
+import com.techzenacademy.TechFinance.service.impl.archive.TransactionArchiveReader;
+
+class TaxReportServiceTests {
+
+	private TaxReportService taxReportService;
+	private TaxRecordRepository taxRecordRepository;
+
+	@BeforeEach
+	void setUp() {
+		taxRecordRepository = mock(TaxRecordRepository.class);
+		taxReportService = new TaxReportService();
+		ReflectionTestUtils.setField(taxReportService, "taxRecordRepository", taxRecordRepository);
+		TransactionArchiveReader archiveReader = new TransactionArchiveReader();
+		ReflectionTestUtils.setField(archiveReader, "taxRecordRepository", taxRecordRepository);
+		ReflectionTestUtils.setField(taxReportService, "archiveReader", archiveReader);
+	}
+
+	@Test
+	void yearlyReportUsesOneGroupedQueryAndClosedPeriods() {
+		TaxRecord closedMarch = new TaxRecord();
+		closedMarch.setYear(2024);
+		closedMarch.setMonth(3);
+		closedMarch.setIncomeTax(new BigDecimal("999.00"));
+		closedMarch.setExpenseTax(new BigDecimal("1.00"));
+		closedMarch.setTaxDifference(new BigDecimal("998.00"));
+		closedMarch.setClosedAt(LocalDateTime.of(2024, 4, 2, 9, 0));
+		when(taxRecordRepository.findClosedBetween(202401, 202412)).thenReturn(List.of(closedMarch));
+		when(taxRecordRepository.sumAmountsByMonth(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)))
+				.thenReturn(List.<Object[]>of(
+						new Object[] { 2024, 2, new BigDecimal("1000000.00"), new BigDecimal("300000.00") },
+						new Object[] { 2024, 3, new BigDecimal("5.00"), new BigDecimal("5.00") }));
+
+		List<TaxReportDTO> reports = taxReportService.getYearlyTaxReports(2024);
+
+		assertEquals(12, reports.size());
+		verify(taxRecordRepository, times(1)).sumAmountsByMonth(any(), any());
+
+		TaxReportDTO january = reports.get(0);
+		assertEquals(0, BigDecimal.ZERO.compareTo(january.getIncomeTax()));
+		assertFalse(january.getClosed());
+
+		TaxReportDTO february = reports.get(1);
+		assertEquals(new BigDecimal("100000.00"), february.getIncomeTax());
+		assertEquals(new BigDecimal("15000.00"), february.getExpenseTax());
+		assertEquals(new BigDecimal("85000.00"), february.getTaxDifference());
+
+		// Kỳ đã chốt không tính lại từ giao dịch
+		TaxReportDTO march = reports.get(2);
+		assertEquals(new BigDecimal("999.00"), march.getIncomeTax());
+		assertTrue(march.getClosed());
+	}
+
+	@Test
+	void readsNeverWriteTaxRecords() {
+		taxReportService.getTaxReport(2024, 5);
+		taxReportService.getTaxReportsByDateRange(LocalDate.of(2023, 11, 15), LocalDate.of(2024, 2, 10));
+
+		verify(taxRecordRepository).sumAmountsByMonth(LocalDate.of(2023, 11, 1), LocalDate.of(2024, 2, 29));
+		verify(taxRecordRepository, never()).save(any());
+	}
+
+	@Test
+	void rejectsClosingCurrentOrClosedPeriod() {
+		LocalDate now = LocalDate.now();
+		assertThrows(IllegalArgumentException.class,
+				() -> taxReportService.closePeriod(now.getYear(), now.getMonthValue(), null));
+
+		TaxRecord closed = new TaxRecord();
+		closed.setClosedAt(LocalDateTime.now());
+		when(taxRecordRepository.findByYearAndMonth(2024, 1)).thenReturn(Optional.of(closed));
+		assertThrows(IllegalArgumentException.class, () -> taxReportService.closePeriod(2024, 1, null));
+	}
+}
@@ -0,0 +1,208 @@
+package com.techzenacademy.TechFinance.service.impl.anomaly;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.techzenacademy.TechFinance.entity.IncomeCategory;
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.entity.TransactionFlag;
+import com.techzenacademy.TechFinance.entity.TransactionFlag.FlagType;
+import com.techzenacademy.TechFinance.entity.TransactionFlag.TransactionType;
+import com.techzenacademy.TechFinance.repository.ExpenseTransactionRepository;
+import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
+import com.techzenacademy.TechFinance.repository.TransactionFlagRepository;
+
+class AnomalyDetectionServiceTests {
+
+	private static final LocalDate DATE = LocalDate.of(2025, 3, 10);
+	// 20 giao dịch quanh 1.000.000
+	private static final int SALES = 1;
+	// Mới có 4 giao dịch: chưa đủ anomaly.min-samples
+	private static final int SERVICES = 2;
+
+	private AnomalyDetectionService service;
+	private IncomeTransactionRepository incomeRepository;
+	private TransactionFlagRepository flagRepository;
+
+	@BeforeEach
+	void setUp() {
+		incomeRepository = mock(IncomeTransactionRepository.class);
+		ExpenseTransactionRepository expenseRepository = mock(ExpenseTransactionRepository.class);
+		flagRepository = mock(TransactionFlagRepository.class);
+		when(incomeRepository.amountStatsByCategory()).thenReturn(List.of(statsRow(SALES, 20), statsRow(SERVICES, 4)));
+		when(expenseRepository.amountStatsByCategory()).thenReturn(List.of());
+
+		service = new AnomalyDetectionService();
+		ReflectionTestUtils.setField(service, "incomeTransactionRepository", incomeRepository);
+		ReflectionTestUtils.setField(service, "expenseTransactionRepository", expenseRepository);
+		ReflectionTestUtils.setField(service, "flagRepository", flagRepository);
+		ReflectionTestUtils.setField(service, "zThreshold", 3.0);
+		ReflectionTestUtils.setField(service, "minSamples", 5);
+		service.loadStatistics();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void flagsOnlyAmountsAboveCategoryThreshold() {
+		service.onIncomeSaved(income(100, SALES, "1030000", null), null, null, null);
+		verify(flagRepository, never()).save(any());
+
+		service.onIncomeSaved(income(101, SALES, "5000000", null), null, null, null);
+
+		TransactionFlag flag = savedFlags(1).get(0);
+		assertEquals(FlagType.UNUSUAL_AMOUNT, flag.getFlagType());
+		assertEquals(TransactionType.INCOME, flag.getTransactionType());
+		assertEquals(101, flag.getTransactionId());
+		assertTrue(flag.getScore() > 3);
+	}
+
+	@Test
+	void doesNotFlagCategoryWithTooFewSamples() {
+		service.onIncomeSaved(income(100, SERVICES, "5000000", null), null, null, null);
+
+		verify(flagRepository, never()).save(any());
+	}
+
+	@Test
+	void editBackToNormalAmountClearsUnusualFlag() {
+		service.onIncomeSaved(income(7, SALES, "5000000", null), null, null, null);
+		// Baseline của lần sửa bỏ số tiền cũ của chính giao dịch, nên 1.010.000 lại là bình thường
+		service.onIncomeSaved(income(7, SALES, "1010000", null), SALES, new BigDecimal("5000000"), null);
+
+		verify(flagRepository, times(1)).save(any());
+		verify(flagRepository).deleteByTransactionAndFlagType(TransactionType.INCOME, 7, FlagType.UNUSUAL_AMOUNT);
+	}
+
+	@Test
+	void duplicateReferenceFlagsEveryTransactionInGroup() {
+		IncomeTransaction first = income(1, SALES, "1000000", "HD-01");
+		IncomeTransaction second = income(2, SALES, "1010000", "HD-01");
+		when(incomeRepository.findByReferenceNo("HD-01")).thenReturn(List.of(first, second));
+
+		service.onIncomeSaved(second, null, null, null);
+
+		List<TransactionFlag> flags = savedFlags(2);
+		assertEquals(List.of(1, 2), flags.stream().map(TransactionFlag::getTransactionId).toList());
+		for (TransactionFlag flag : flags) {
+			assertEquals(FlagType.DUPLICATE_REFERENCE, flag.getFlagType());
+			assertEquals("HD-01", flag.getReferenceNo());
+		}
+	}
+
+	@Test
+	void changingReferenceRefreshesOldAndNewGroups() {
+		IncomeTransaction remaining = income(1, SALES, "1000000", "HD-01");
+		IncomeTransaction edited = income(2, SALES, "1010000", "HD-02");
+		when(incomeRepository.findByReferenceNo("HD-01")).thenReturn(List.of(remaining));
+		when(incomeRepository.findByReferenceNo("HD-02")).thenReturn(List.of(edited));
+
+		service.onIncomeSaved(edited, SALES, new BigDecimal("1010000"), "HD-01");
+
+		// Giao dịch còn lại của nhóm cũ hết trùng, giao dịch vừa sửa chưa trùng với giao dịch nào
+		verify(flagRepository).deleteByTransactionAndFlagType(TransactionType.INCOME, 1, FlagType.DUPLICATE_REFERENCE);
+		verify(flagRepository).deleteByTransactionAndFlagType(TransactionType.INCOME, 2, FlagType.DUPLICATE_REFERENCE);
+		verify(flagRepository, never()).save(any());
+	}
+
+	@Test
+	void deletingTransactionClearsItsFlagsAndUnflagsLastDuplicate() {
+		when(incomeRepository.findByReferenceNo("HD-01")).thenReturn(List.of(income(1, SALES, "1000000", "HD-01")));
+
+		service.onIncomeDeleted(income(2, SALES, "1010000", "HD-01"));
+
+		verify(flagRepository).deleteByTransaction(TransactionType.INCOME, 2);
+		verify(flagRepository).deleteByTransactionAndFlagType(TransactionType.INCOME, 1, FlagType.DUPLICATE_REFERENCE);
+	}
+
+	@Test
+	void rolledBackSaveDoesNotCountTowardsBaseline() {
+		inTransaction(false, () -> service.onIncomeSaved(income(30, SERVICES, "1040000", null), null, null, null));
+
+		service.onIncomeSaved(income(31, SERVICES, "5000000", null), null, null, null);
+
+		verify(flagRepository, never()).save(any());
+	}
+
+	@Test
+	void committedSaveCountsTowardsBaseline() {
+		inTransaction(true, () -> service.onIncomeSaved(income(30, SERVICES, "1040000", null), null, null, null));
+
+		service.onIncomeSaved(income(31, SERVICES, "5000000", null), null, null, null);
+
+		assertEquals(31, savedFlags(1).get(0).getTransactionId());
+	}
+
+	private List<TransactionFlag> savedFlags(int expected) {
+		ArgumentCaptor<TransactionFlag> flags = ArgumentCaptor.forClass(TransactionFlag.class);
+		verify(flagRepository, times(expected)).save(flags.capture());
+		return flags.getAllValues();
+	}
+
+	private static void inTransaction(boolean commit, Runnable work) {
+		TransactionSynchronizationManager.initSynchronization();
+		List<TransactionSynchronization> synchronizations;
+		try {
+			work.run();
+			synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		for (TransactionSynchronization synchronization : synchronizations) {
+			if (commit) {
+				synchronization.afterCommit();
+			}
+			synchronization.afterCompletion(commit
+					? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+		}
+	}
+
+	/**
+	 * Dòng của amountStatsByCategory(): id danh mục, số lượng, tổng, tổng bình phương
+	 */
+	private static Object[] statsRow(int categoryId, int count) {
+		BigDecimal sum = BigDecimal.ZERO;
+		BigDecimal sumOfSquares = BigDecimal.ZERO;
+		for (int i = 0; i < count; i++) {
+			BigDecimal amount = BigDecimal.valueOf(1_000_000 + (i % 5) * 10_000);
+			sum = sum.add(amount);
+			sumOfSquares = sumOfSquares.add(amount.multiply(amount));
+		}
+		return new Object[] { categoryId, (long) count, sum, sumOfSquares };
+	}
+
+	private static IncomeTransaction income(int id, int categoryId, String amount, String referenceNo) {
+		IncomeCategory category = new IncomeCategory();
+		category.setId(categoryId);
+		IncomeTransaction transaction = new IncomeTransaction();
+		transaction.setId(id);
+		transaction.setCategory(category);
+		transaction.setTransactionDate(DATE);
+		transaction.setAmount(new BigDecimal(amount));
+		transaction.setReferenceNo(referenceNo);
+		return transaction;
+	}
+}
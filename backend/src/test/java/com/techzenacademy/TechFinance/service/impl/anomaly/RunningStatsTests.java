@@ -0,0 +1,50 @@
+package com.techzenacademy.TechFinance.service.impl.anomaly;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class RunningStatsTests {
+
+	private static final double EPSILON = 1e-6;
+
+	@Test
+	void matchesBatchMeanAndSampleStdDev() {
+		double[] values = {100, 120, 90, 110, 105, 95};
+		RunningStats stats = new RunningStats();
+		for (double value : values) {
+			stats.add(value);
+		}
+
+		assertEquals(6, stats.getCount());
+		assertEquals(103.333333, stats.getMean(), EPSILON);
+		assertEquals(10.80123, stats.getStdDev(), 1e-5);
+	}
+
+	@Test
+	void removeRestoresPreviousState() {
+		RunningStats stats = RunningStats.of(5, 520, 54_300);
+		double mean = stats.getMean();
+		double stdDev = stats.getStdDev();
+
+		stats.add(5000);
+		stats.remove(5000);
+
+		assertEquals(5, stats.getCount());
+		assertEquals(mean, stats.getMean(), EPSILON);
+		assertEquals(stdDev, stats.getStdDev(), EPSILON);
+	}
+
+	@Test
+	void flagsOutlierAgainstCategoryBaseline() {
+		RunningStats stats = new RunningStats();
+		for (int i = 0; i < 20; i++) {
+			stats.add(1_000_000 + (i % 5) * 10_000);
+		}
+
+		assertTrue(stats.zScore(5_000_000) > 3);
+		assertTrue(stats.zScore(1_030_000) < 3);
+		assertEquals(0, new RunningStats().zScore(5_000_000));
+	}
+}
@@ -0,0 +1,76 @@
+package com.techzenacademy.TechFinance.service.impl.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
+import com.techzenacademy.TechFinance.repository.TransactionArchiveRunRepository;
+
+class TransactionArchiveReaderTests {
+
+	private static final LocalDate START = LocalDate.of(2022, 1, 1);
+	private static final LocalDate END = LocalDate.of(2022, 12, 31);
+
+	private TransactionArchiveReader reader;
+	private IncomeTransactionRepository incomeTransactionRepository;
+	private TransactionArchiveRunRepository archiveRunRepository;
+
+	@BeforeEach
+	void setUp() {
+		incomeTransactionRepository = mock(IncomeTransactionRepository.class);
+		archiveRunRepository = mock(TransactionArchiveRunRepository.class);
+		reader = new TransactionArchiveReader();
+		ReflectionTestUtils.setField(reader, "incomeTransactionRepository", incomeTransactionRepository);
+		ReflectionTestUtils.setField(reader, "archiveRunRepository", archiveRunRepository);
+	}
+
+	@Test
+	void readsOnlyLiveTableWhenRangeHasNoArchivedYear() {
+		reader.markArchived(2020);
+
+		reader.incomesBetween(START, END);
+
+		verify(incomeTransactionRepository).findByTransactionDateBetweenOrderByTransactionDateDesc(START, END);
+		verify(incomeTransactionRepository, never()).findByTransactionDateBetweenIncludingArchive(any(), any());
+	}
+
+	@Test
+	void includesArchiveAndConvertsStatusForArchivedYears() {
+		List<Object[]> rows = new ArrayList<>();
+		rows.add(new Object[] { 2022, 3, "RECEIVED", new BigDecimal("10.00"), 1L });
+		when(incomeTransactionRepository.sumByMonthAndStatusIncludingArchive(START, END)).thenReturn(rows);
+		reader.markArchived(2022);
+
+		List<Object[]> result = reader.incomeByMonthAndStatus(START, END);
+
+		assertEquals(IncomeTransaction.PaymentStatus.RECEIVED, result.get(0)[2]);
+		verify(incomeTransactionRepository, never()).sumByMonthAndStatus(any(), any());
+	}
+
+	@Test
+	void refreshReplacesArchivedYears() {
+		when(archiveRunRepository.findArchivedYears()).thenReturn(List.of(2021, 2022));
+
+		reader.refresh();
+
+		assertTrue(reader.includesArchived(LocalDate.of(2021, 6, 1), LocalDate.of(2021, 6, 30)));
+		assertTrue(reader.includesArchived(LocalDate.of(2020, 1, 1), LocalDate.of(2024, 12, 31)));
+		assertFalse(reader.includesArchived(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31)));
+	}
+}
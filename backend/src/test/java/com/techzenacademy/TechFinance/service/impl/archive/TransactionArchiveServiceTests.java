@@ -0,0 +1,123 @@
+package com.techzenacademy.TechFinance.service.impl.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import com.techzenacademy.TechFinance.entity.TransactionArchiveRun;
+import com.techzenacademy.TechFinance.repository.TransactionArchiveRunRepository;
+import com.techzenacademy.TechFinance.service.impl.TaxReportService;
+
+/**
+ * Chốt thuế đủ 12 tháng rồi lưu trữ cả năm trên database thật. Dùng năm 2001 để không đụng dữ liệu khác;
+ * mọi dòng tạo ra được xóa sau mỗi test.
+ */
+@SpringBootTest(properties = {
+		"transaction-archive.enabled=true",
+		"transaction-archive.refresh-interval-ms=0",
+		"transaction-archive.chunk-pause-ms=0",
+		"transaction-archive.chunk-size=2" })
+class TransactionArchiveServiceTests {
+
+	private static final int YEAR = 2001;
+	private static final String USERNAME = "archive-test";
+	private static final LocalDate START = LocalDate.of(YEAR, 1, 1);
+	private static final LocalDate END = LocalDate.of(YEAR, 12, 31);
+
+	@Autowired
+	private TransactionArchiveService archiveService;
+
+	@Autowired
+	private TransactionArchiveReader archiveReader;
+
+	@Autowired
+	private TaxReportService taxReportService;
+
+	@Autowired
+	private TransactionArchiveRunRepository archiveRunRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private int categoryId;
+
+	@BeforeEach
+	void setUp() {
+		cleanUp();
+		jdbcTemplate.update("INSERT INTO users (username, password, full_name, role) VALUES (?, 'x', 'Archive test', 'admin')",
+				USERNAME);
+		jdbcTemplate.update("INSERT INTO income_categories (name) VALUES ('LT archive test')");
+		categoryId = jdbcTemplate.queryForObject(
+				"SELECT category_id FROM income_categories WHERE name = 'LT archive test'", Integer.class);
+		for (int month = 1; month <= 12; month += 4) {
+			jdbcTemplate.update("INSERT INTO income_transactions (category_id, transaction_date, amount, payment_status, "
+					+ "reference_no) VALUES (?, ?, 1000000, 'RECEIVED', 'LT-ARCHIVE')", categoryId, LocalDate.of(YEAR, month, 15));
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		cleanUp();
+	}
+
+	@Test
+	@WithMockUser(username = USERNAME, authorities = "ROLE_ADMIN")
+	void archivesYearOnceAllTwelveMonthsAreClosed() throws Exception {
+		for (int month = 1; month <= 11; month++) {
+			taxReportService.closePeriod(YEAR, month, null);
+		}
+		assertEquals("chưa chốt thuế đủ 12 tháng", archiveService.ineligibleReason(YEAR, LocalDate.now().getYear()));
+
+		taxReportService.closePeriod(YEAR, 12, null);
+		assertNull(archiveService.ineligibleReason(YEAR, LocalDate.now().getYear()));
+
+		assertTrue(archiveService.archiveYear(YEAR));
+		TransactionArchiveRun run = awaitRun();
+
+		assertEquals(TransactionArchiveRun.Status.COMPLETED, run.getStatus(), run.getErrorMessage());
+		assertEquals(3, run.getIncomeRows());
+		assertEquals(0, count("income_transactions"));
+		assertEquals(3, count("income_transactions_archive"));
+		// Báo cáo vẫn đọc được năm đã lưu trữ
+		BigDecimal total = archiveReader.incomesBetween(START, END).stream()
+				.map(t -> t.getAmount())
+				.reduce(BigDecimal.ZERO, BigDecimal::add);
+		assertEquals(0, new BigDecimal("3000000").compareTo(total));
+	}
+
+	private TransactionArchiveRun awaitRun() throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			TransactionArchiveRun run = archiveRunRepository.findById(YEAR).orElse(null);
+			if (run != null && run.getStatus() != TransactionArchiveRun.Status.RUNNING) {
+				return run;
+			}
+			Thread.sleep(100);
+		}
+		throw new AssertionError("Archiving " + YEAR + " did not finish");
+	}
+
+	private int count(String table) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE transaction_date BETWEEN ? AND ?",
+				Integer.class, START, END);
+	}
+
+	private void cleanUp() {
+		jdbcTemplate.update("DELETE FROM tax_records WHERE year = ?", YEAR);
+		jdbcTemplate.update("DELETE FROM income_transactions_archive WHERE transaction_date BETWEEN ? AND ?", START, END);
+		jdbcTemplate.update("DELETE FROM income_transactions WHERE transaction_date BETWEEN ? AND ?", START, END);
+		jdbcTemplate.update("DELETE FROM transaction_archive_runs WHERE archive_year = ?", YEAR);
+		jdbcTemplate.update("DELETE FROM income_categories WHERE name = 'LT archive test'");
+		jdbcTemplate.update("DELETE FROM users WHERE username = ?", USERNAME);
+	}
+}
@@ -0,0 +1,144 @@
+package com.techzenacademy.TechFinance.service.impl.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techzenacademy.TechFinance.dto.report.MonthlyReportDTO;
+import com.techzenacademy.TechFinance.service.impl.DataVersionService;
+import com.techzenacademy.TechFinance.service.impl.FinancialReportService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReportCacheTests {
+
+	private static final TypeReference<String> TEXT = new TypeReference<>() {};
+
+	private ReportCache cache;
+	private DataVersionService dataVersionService;
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@BeforeEach
+	void setUp() {
+		dataVersionService = new DataVersionService();
+		cache = new ReportCache();
+		ReflectionTestUtils.setField(cache, "dataVersionService", dataVersionService);
+		ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper().findAndRegisterModules());
+		ReflectionTestUtils.setField(cache, "ttlMinutes", 60L);
+		ReflectionTestUtils.setField(cache, "maxEntries", 2);
+		cache.init();
+	}
+
+	@Test
+	void coalescesConcurrentLoadsOfSameReport() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<String>> results = new ArrayList<>();
+
+		for (int i = 0; i < 8; i++) {
+			results.add(executor.submit(() -> cache.getOrCompute("monthly-report:2025:3", TEXT, () -> {
+				loads.incrementAndGet();
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return "report";
+			})));
+		}
+		Thread.sleep(200);
+		release.countDown();
+
+		for (Future<String> result : results) {
+			assertEquals("report", result.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, loads.get());
+		executor.shutdown();
+	}
+
+	@Test
+	void dropsAllEntriesWhenDataChanges() {
+		String key = ReportCache.key("cash-flow", 2025);
+		assertEquals("cash-flow:2025", key);
+
+		assertEquals("v1", cache.getOrCompute(key, TEXT, () -> load("v1")));
+		assertEquals("v1", cache.getOrCompute(key, TEXT, () -> load("v2")));
+		assertTrue(cache.contains(key));
+
+		dataVersionService.markChanged();
+
+		assertFalse(cache.contains(key));
+		assertNull(cache.getIfPresent(key, TEXT));
+		assertEquals("v3", cache.getOrCompute(key, TEXT, () -> load("v3")));
+		assertEquals(2, loads.get());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void doesNotStoreReportComputedBeforeDataChanged() {
+		String key = ReportCache.key("yearly-report", 2025);
+
+		cache.getOrCompute(key, TEXT, () -> {
+			// Giao dịch mới được commit trong lúc báo cáo đang tính
+			dataVersionService.markChanged();
+			return load("stale");
+		});
+
+		assertFalse(cache.contains(key));
+	}
+
+	@Test
+	void callersGetIndependentCopies() {
+		String key = ReportCache.key("monthly-report", 2025, 3);
+		MonthlyReportDTO computed = cache.getOrCompute(key, FinancialReportService.MONTHLY_REPORT, () -> report("100.00"));
+
+		// Sửa báo cáo vừa nhận (ví dụ định dạng lại cho một màn hình) không được lọt vào cache
+		computed.getSummary().setTotalIncomeActual(BigDecimal.ZERO);
+		MonthlyReportDTO first = cache.getIfPresent(key, FinancialReportService.MONTHLY_REPORT);
+		first.getIncomeCategories().clear();
+		MonthlyReportDTO second = cache.getOrCompute(key, FinancialReportService.MONTHLY_REPORT, () -> report("999.00"));
+
+		assertNotSame(first, second);
+		assertEquals(new BigDecimal("100.00"), second.getSummary().getTotalIncomeActual());
+		assertEquals(1, second.getIncomeCategories().size());
+		assertEquals(new BigDecimal("0.5"), second.getIncomeCategories().get(0).getActualAmount());
+	}
+
+	private static MonthlyReportDTO report(String income) {
+		MonthlyReportDTO report = new MonthlyReportDTO();
+		report.setYear(2025);
+		report.setMonth(3);
+		MonthlyReportDTO.ReportSummaryDTO summary = new MonthlyReportDTO.ReportSummaryDTO();
+		summary.setTotalIncomeActual(new BigDecimal(income));
+		report.setSummary(summary);
+		MonthlyReportDTO.CategoryComparisonDTO category = new MonthlyReportDTO.CategoryComparisonDTO();
+		category.setCategoryId(1);
+		category.setActualAmount(new BigDecimal("0.5"));
+		report.setIncomeCategories(new ArrayList<>(List.of(category)));
+		return report;
+	}
+
+	private String load(String value) {
+		loads.incrementAndGet();
+		return value;
+	}
+}
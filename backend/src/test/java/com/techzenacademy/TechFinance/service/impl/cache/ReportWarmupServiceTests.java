@@ -0,0 +1,163 @@
+package com.techzenacademy.TechFinance.service.impl.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techzenacademy.TechFinance.dto.ReceivablePayableReportDTO;
+import com.techzenacademy.TechFinance.dto.report.CashFlowReportDTO;
+import com.techzenacademy.TechFinance.dto.report.MonthlyReportDTO;
+import com.techzenacademy.TechFinance.service.impl.BudgetOverviewService;
+import com.techzenacademy.TechFinance.service.impl.DataVersionService;
+import com.techzenacademy.TechFinance.service.impl.FinancialReportService;
+import com.techzenacademy.TechFinance.service.impl.ReceivablePayableService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReportWarmupServiceTests {
+
+	private ReportWarmupService warmupService;
+	private FinancialReportService financialReportService;
+	private ReportCache reportCache;
+	private DataVersionService dataVersionService;
+	private SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		dataVersionService = new DataVersionService();
+		meterRegistry = new SimpleMeterRegistry();
+		reportCache = new ReportCache();
+		ReflectionTestUtils.setField(reportCache, "dataVersionService", dataVersionService);
+		ReflectionTestUtils.setField(reportCache, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(reportCache, "objectMapper", new ObjectMapper().findAndRegisterModules());
+		ReflectionTestUtils.setField(reportCache, "ttlMinutes", 60L);
+		ReflectionTestUtils.setField(reportCache, "maxEntries", 50);
+		reportCache.init();
+
+		// Service báo cáo giả lập, đi qua cache giống service thật
+		financialReportService = mock(FinancialReportService.class);
+		BudgetOverviewService budgetOverviewService = mock(BudgetOverviewService.class);
+		ReceivablePayableService receivablePayableService = mock(ReceivablePayableService.class);
+		LocalDate today = LocalDate.now();
+		LocalDate previous = today.minusMonths(1);
+		for (LocalDate month : List.of(today, previous)) {
+			int y = month.getYear();
+			int m = month.getMonthValue();
+			when(financialReportService.generateMonthlyReport(y, m)).thenAnswer(inv -> reportCache.getOrCompute(
+					ReportCache.key("monthly-report", y, m), FinancialReportService.MONTHLY_REPORT, MonthlyReportDTO::new));
+			when(budgetOverviewService.getBudgetOverview(y, m)).thenAnswer(inv -> reportCache.getOrCompute(
+					ReportCache.key("budget-overview", y, m), BudgetOverviewService.BUDGET_OVERVIEW, HashMap::new));
+			when(receivablePayableService.getReceivablePayableReport(y, m)).thenAnswer(inv -> reportCache.getOrCompute(
+					ReportCache.key("receivable-payable", y, m), ReceivablePayableService.RECEIVABLE_PAYABLE,
+					ReceivablePayableReportDTO::new));
+		}
+		int year = today.getYear();
+		when(financialReportService.generateYearlyReport(year)).thenAnswer(inv -> reportCache.getOrCompute(
+				ReportCache.key("yearly-report", year), FinancialReportService.YEARLY_REPORT, ArrayList::new));
+		when(financialReportService.generateCashFlowReport(year)).thenThrow(new IllegalStateException("db down"));
+		when(budgetOverviewService.getBudgetOverview(year, null)).thenAnswer(inv -> reportCache.getOrCompute(
+				ReportCache.key("budget-overview", year, "all"), BudgetOverviewService.BUDGET_OVERVIEW, HashMap::new));
+
+		warmupService = new ReportWarmupService();
+		ReflectionTestUtils.setField(warmupService, "financialReportService", financialReportService);
+		ReflectionTestUtils.setField(warmupService, "budgetOverviewService", budgetOverviewService);
+		ReflectionTestUtils.setField(warmupService, "receivablePayableService", receivablePayableService);
+		ReflectionTestUtils.setField(warmupService, "reportCache", reportCache);
+		ReflectionTestUtils.setField(warmupService, "dataVersionService", dataVersionService);
+		ReflectionTestUtils.setField(warmupService, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(warmupService, "enabled", true);
+		ReflectionTestUtils.setField(warmupService, "concurrency", 2);
+		ReflectionTestUtils.setField(warmupService, "quietSeconds", 0L);
+		warmupService.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		warmupService.shutdown();
+	}
+
+	@Test
+	void previousMonthOfJanuaryIsDecemberOfPreviousYear() {
+		List<String> keys = warmupService.targets(LocalDate.of(2025, 1, 15)).stream()
+				.map(target -> target.key)
+				.collect(Collectors.toList());
+
+		assertTrue(keys.contains("monthly-report:2025:1"));
+		assertTrue(keys.contains("monthly-report:2024:12"));
+		assertTrue(keys.contains("budget-overview:2025:all"));
+		assertEquals(9, keys.size());
+	}
+
+	@Test
+	void warmsHotReportsAndRecordsCoverage() throws Exception {
+		assertTrue(warmupService.warmUp("test"));
+		awaitIdle();
+
+		// 8/9 báo cáo có trong cache, báo cáo dòng tiền lỗi được đếm riêng
+		assertEquals(8.0 / 9, warmupService.coverage(), 1e-9);
+		assertEquals(1.0, meterRegistry.get("report_cache.warmup.failures").tag("report", "cash-flow").counter().count());
+		assertEquals(1, meterRegistry.get("report_cache.warmup.duration").timer().count());
+	}
+
+	@Test
+	void rewarmsOnlyAfterDataChanged() throws Exception {
+		int year = LocalDate.now().getYear();
+		doAnswer(inv -> reportCache.getOrCompute(ReportCache.key("cash-flow", year), FinancialReportService.CASH_FLOW,
+				CashFlowReportDTO::new)).when(financialReportService).generateCashFlowReport(year);
+		warmupService.warmUp("test");
+		awaitIdle();
+
+		warmupService.warmUpAfterWrites();
+		awaitIdle();
+		verify(financialReportService, times(1)).generateYearlyReport(LocalDate.now().getYear());
+
+		dataVersionService.markChanged();
+		warmupService.warmUpAfterWrites();
+		awaitIdle();
+		verify(financialReportService, times(2)).generateYearlyReport(LocalDate.now().getYear());
+	}
+
+	@Test
+	void retriesFailedReportsForSameDataVersion() throws Exception {
+		int year = LocalDate.now().getYear();
+		warmupService.warmUp("test");
+		awaitIdle();
+
+		// Dòng tiền lỗi ở lượt đầu: lượt sau chạy lại dù dữ liệu không đổi, các báo cáo khác là cache hit
+		doAnswer(inv -> reportCache.getOrCompute(ReportCache.key("cash-flow", year), FinancialReportService.CASH_FLOW,
+				CashFlowReportDTO::new)).when(financialReportService).generateCashFlowReport(year);
+		warmupService.warmUpAfterWrites();
+		awaitIdle();
+		verify(financialReportService, times(2)).generateCashFlowReport(year);
+		assertEquals(1.0, warmupService.coverage(), 1e-9);
+
+		// Lượt này thành công: không chạy lại nữa cho đến khi dữ liệu đổi
+		warmupService.warmUpAfterWrites();
+		awaitIdle();
+		verify(financialReportService, times(2)).generateCashFlowReport(year);
+	}
+
+	private void awaitIdle() throws InterruptedException {
+		for (int i = 0; i < 100 && warmupService.isRunning(); i++) {
+			Thread.sleep(20);
+		}
+		assertFalse(warmupService.isRunning());
+	}
+}
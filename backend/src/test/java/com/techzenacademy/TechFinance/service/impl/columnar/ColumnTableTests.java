@@ -0,0 +1,90 @@
+package com.techzenacademy.TechFinance.service.impl.columnar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ColumnTableTests {
+
+	private static final LocalDate JAN = LocalDate.of(2025, 1, 15);
+	private static final LocalDate FEB = LocalDate.of(2025, 2, 10);
+	private static final LocalDate MAR = LocalDate.of(2025, 3, 5);
+
+	private ColumnTable table;
+
+	@BeforeEach
+	void setUp() {
+		table = new ColumnTable("income");
+		table.load(1, JAN, 10_000, 1, 0, ColumnTable.STATUS_PAID);
+		table.load(2, JAN, 2_550, 2, 7, ColumnTable.STATUS_UNPAID);
+		table.load(3, FEB, 5_000, 1, 7, ColumnTable.STATUS_PAID);
+		table.finishBuild();
+	}
+
+	@Test
+	void groupsByCategoryWithinDateRange() {
+		GroupedTotals totals = table.aggregate(ColumnarQuery.between(JAN.withDayOfMonth(1), FEB.withDayOfMonth(28)),
+				GroupBy.CATEGORY);
+
+		assertEquals(2, totals.size());
+		assertEquals(new BigDecimal("150.00"), totals.amount(1));
+		assertEquals(2, totals.count(1));
+		assertEquals(new BigDecimal("25.50"), totals.amount(2));
+		assertEquals(new BigDecimal("175.50"), totals.total());
+	}
+
+	@Test
+	void appliesPartnerAndStatusFilters() {
+		ColumnarQuery query = ColumnarQuery.between(JAN.withDayOfMonth(1), MAR).partner(7).paid(true);
+
+		GroupedTotals totals = table.aggregate(query, GroupBy.NONE);
+
+		assertEquals(new BigDecimal("50.00"), totals.total());
+		assertEquals(1, totals.countAt(0));
+	}
+
+	@Test
+	void groupsByMonthAndStatus() {
+		GroupedTotals totals = table.aggregate(ColumnarQuery.between(JAN.withDayOfMonth(1), MAR), GroupBy.MONTH_STATUS);
+
+		int january = ColumnTable.monthKey(2025, 1) * 2;
+		assertEquals(new BigDecimal("100.00"), totals.amount(january + ColumnTable.STATUS_PAID));
+		assertEquals(new BigDecimal("25.50"), totals.amount(january + ColumnTable.STATUS_UNPAID));
+		assertEquals(new BigDecimal("50.00"), totals.amount(ColumnTable.monthKey(2025, 2) * 2 + ColumnTable.STATUS_PAID));
+	}
+
+	@Test
+	void updatesAndRemovesRows() {
+		table.put(2, MAR, 7_000, 2, 7, ColumnTable.STATUS_PAID);
+		table.remove(1);
+		table.put(4, MAR, 100, 3, 0, ColumnTable.STATUS_UNPAID);
+
+		GroupedTotals totals = table.aggregate(ColumnarQuery.between(JAN.withDayOfMonth(1), MAR), GroupBy.MONTH);
+
+		assertEquals(3, table.size());
+		assertEquals(2, totals.size());
+		assertEquals(new BigDecimal("50.00"), totals.amount(ColumnTable.monthKey(2025, 2)));
+		assertEquals(new BigDecimal("71.00"), totals.amount(ColumnTable.monthKey(2025, 3)));
+		assertEquals(2, totals.count(ColumnTable.monthKey(2025, 3)));
+	}
+
+	@Test
+	void ignoresStaleRowsLoadedAfterConcurrentWrite() {
+		ColumnTable building = new ColumnTable("expense");
+		building.put(5, FEB, 9_900, 1, 0, ColumnTable.STATUS_PAID);
+		building.load(5, JAN, 1_000, 1, 0, ColumnTable.STATUS_UNPAID);
+		building.remove(6);
+		building.load(6, JAN, 1_000, 1, 0, ColumnTable.STATUS_UNPAID);
+		building.finishBuild();
+
+		GroupedTotals totals = building.aggregate(ColumnarQuery.between(JAN.withDayOfMonth(1), MAR), GroupBy.STATUS);
+
+		assertEquals(1, building.size());
+		assertEquals(new BigDecimal("99.00"), totals.amount(ColumnTable.STATUS_PAID));
+		assertEquals(0, totals.count(ColumnTable.STATUS_UNPAID));
+	}
+}
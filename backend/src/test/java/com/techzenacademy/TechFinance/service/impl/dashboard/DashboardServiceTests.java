@@ -0,0 +1,152 @@
+package com.techzenacademy.TechFinance.service.impl.dashboard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techzenacademy.TechFinance.dto.TaxReportDTO;
+import com.techzenacademy.TechFinance.dto.report.DashboardDTO;
+import com.techzenacademy.TechFinance.entity.IncomeCategory;
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.service.impl.BudgetOverviewService;
+import com.techzenacademy.TechFinance.service.impl.DataVersionService;
+import com.techzenacademy.TechFinance.service.impl.FinancialReportService;
+import com.techzenacademy.TechFinance.service.impl.ReceivablePayableService;
+import com.techzenacademy.TechFinance.service.impl.TaxReportService;
+import com.techzenacademy.TechFinance.service.impl.archive.TransactionArchiveReader;
+import com.techzenacademy.TechFinance.service.impl.cache.ReportCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DashboardServiceTests {
+
+	private DashboardService dashboardService;
+	private TransactionArchiveReader archiveReader;
+	private TaxReportService taxReportService;
+
+	@BeforeEach
+	void setUp() {
+		archiveReader = mock(TransactionArchiveReader.class);
+		taxReportService = mock(TaxReportService.class);
+		when(archiveReader.incomesBetween(any(), any()))
+				.thenReturn(List.of(income(3, "1000000"), income(5, "2500000")));
+		when(archiveReader.expensesBetween(any(), any()))
+				.thenReturn(List.of());
+
+		// Các service báo cáo dùng thật: dashboard chỉ truyền snapshot, không truy vấn thêm
+		FinancialReportService financialReportService = new FinancialReportService();
+		BudgetOverviewService budgetOverviewService = new BudgetOverviewService();
+		ReceivablePayableService receivablePayableService = mock(ReceivablePayableService.class);
+
+		ReportCache reportCache = new ReportCache();
+		ReflectionTestUtils.setField(reportCache, "dataVersionService", new DataVersionService());
+		ReflectionTestUtils.setField(reportCache, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(reportCache, "objectMapper", new ObjectMapper().findAndRegisterModules());
+		ReflectionTestUtils.setField(reportCache, "ttlMinutes", 60L);
+		ReflectionTestUtils.setField(reportCache, "maxEntries", 50);
+		reportCache.init();
+
+		dashboardService = new DashboardService();
+		ReflectionTestUtils.setField(dashboardService, "archiveReader", archiveReader);
+		ReflectionTestUtils.setField(dashboardService, "financialReportService", financialReportService);
+		ReflectionTestUtils.setField(dashboardService, "budgetOverviewService", budgetOverviewService);
+		ReflectionTestUtils.setField(dashboardService, "receivablePayableService", receivablePayableService);
+		ReflectionTestUtils.setField(dashboardService, "taxReportService", taxReportService);
+		ReflectionTestUtils.setField(dashboardService, "reportCache", reportCache);
+		ReflectionTestUtils.setField(dashboardService, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(dashboardService, "deadlineMs", 500L);
+		dashboardService.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		dashboardService.shutdown();
+	}
+
+	@Test
+	void loadsPeriodOnceForAllSections() {
+		when(taxReportService.getTaxReport(2025, 3)).thenReturn(new TaxReportDTO());
+
+		DashboardDTO dashboard = dashboardService.getDashboard(2025, 3);
+
+		assertFalse(dashboard.isPartial());
+		assertEquals(0, new BigDecimal("1000000").compareTo(dashboard.getMonthlyReport().getSummary().getTotalIncomeBudget()));
+		assertEquals(12, dashboard.getYearlyReport().size());
+		assertEquals(0, new BigDecimal("3500000").compareTo(dashboard.getCashFlow().getSummary().getTotalIncome()));
+		assertNotNull(dashboard.getBudgetOverview());
+		verify(archiveReader, times(1)).incomesBetween(any(), any());
+		verify(archiveReader, times(1)).expensesBetween(any(), any());
+	}
+
+	@Test
+	void returnsPartialResultWhenSectionMissesDeadline() {
+		// Phần thuế chỉ xong khi latch được mở, tức là sau khi dashboard đã trả về
+		CountDownLatch release = new CountDownLatch(1);
+		when(taxReportService.getTaxReport(2025, 3)).thenAnswer(invocation -> {
+			release.await();
+			return new TaxReportDTO();
+		});
+
+		DashboardDTO dashboard;
+		try {
+			dashboard = dashboardService.getDashboard(2025, 3);
+		} finally {
+			release.countDown();
+		}
+
+		assertTrue(dashboard.isPartial());
+		assertEquals(List.of("tax"), dashboard.getMissingSections());
+		assertNull(dashboard.getTax());
+		assertNotNull(dashboard.getMonthlyReport());
+	}
+
+	@Test
+	void computesOnlyRequestedSections() {
+		DashboardDTO dashboard = dashboardService.getDashboard(2025, 3, "monthlyReport, yearlyReport");
+
+		assertFalse(dashboard.isPartial());
+		assertNotNull(dashboard.getMonthlyReport());
+		assertNotNull(dashboard.getYearlyReport());
+		assertNull(dashboard.getCashFlow());
+		assertNull(dashboard.getBudgetOverview());
+		assertNull(dashboard.getTax());
+		verify(taxReportService, never()).getTaxReport(any(), any());
+	}
+
+	@Test
+	void rejectsUnknownSection() {
+		assertThrows(IllegalArgumentException.class, () -> dashboardService.getDashboard(2025, 3, "monthlyReport,forecast"));
+	}
+
+	private static IncomeTransaction income(int month, String amount) {
+		IncomeCategory category = new IncomeCategory();
+		category.setId(1);
+		category.setName("Bán hàng");
+		IncomeTransaction transaction = new IncomeTransaction();
+		transaction.setCategory(category);
+		transaction.setTransactionDate(LocalDate.of(2025, month, 10));
+		transaction.setAmount(new BigDecimal(amount));
+		transaction.setPaymentStatus(IncomeTransaction.PaymentStatus.RECEIVED);
+		return transaction;
+	}
+}
@@ -0,0 +1,92 @@
+package com.techzenacademy.TechFinance.service.impl.forecast;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.techzenacademy.TechFinance.dto.report.RevenueForecastDTO;
+import com.techzenacademy.TechFinance.dto.report.RevenueForecastDTO.SeriesForecastDTO;
+import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
+import com.techzenacademy.TechFinance.service.impl.archive.TransactionArchiveReader;
+
+class RevenueForecastServiceTests {
+
+	@Test
+	void trimsEachSeriesAtItsOwnFirstMonth() {
+		IncomeTransactionRepository repository = mock(IncomeTransactionRepository.class);
+		YearMonth lastMonth = YearMonth.now().minusMonths(1);
+		List<Object[]> rows = new ArrayList<>();
+		// Danh mục 1 có đủ 36 tháng, danh mục 2 mới bắt đầu từ 6 tháng gần nhất
+		for (int i = 35; i >= 0; i--) {
+			rows.add(row(1, "Bán hàng", lastMonth.minusMonths(i), "100000"));
+		}
+		for (int i = 5; i >= 0; i--) {
+			rows.add(row(2, "Dịch vụ", lastMonth.minusMonths(i), "50000"));
+		}
+		when(repository.sumByCategoryAndMonth(any(), any())).thenReturn(rows);
+
+		RevenueForecastDTO forecast = service(repository, Set.of()).forecast(3);
+
+		assertEquals(36, forecast.getTotal().getObservations());
+		assertEquals(36, category(forecast, 1).getObservations());
+		assertEquals(6, category(forecast, 2).getObservations());
+		// Chuỗi không đổi: không bị các tháng 0 trước khi bắt đầu kéo dự báo xuống
+		assertEquals(0, new BigDecimal("50000.00").compareTo(category(forecast, 2).getPoints().get(0).getForecast()));
+	}
+
+	@Test
+	void historyIncludesArchivedYears() {
+		IncomeTransactionRepository repository = mock(IncomeTransactionRepository.class);
+		YearMonth lastMonth = YearMonth.now().minusMonths(1);
+		YearMonth oldest = lastMonth.minusMonths(35);
+		List<Object[]> rows = new ArrayList<>();
+		// Truy vấn native: id danh mục dạng số bất kỳ
+		for (int i = 35; i >= 0; i--) {
+			YearMonth month = lastMonth.minusMonths(i);
+			rows.add(new Object[] { 1L, "Bán hàng", month.getYear(), month.getMonthValue(), new BigDecimal("100000") });
+		}
+		when(repository.sumByCategoryAndMonthIncludingArchive(any(), any())).thenReturn(rows);
+
+		RevenueForecastDTO forecast = service(repository, Set.of(oldest.getYear())).forecast(3);
+
+		assertEquals(36, forecast.getTotal().getObservations());
+		assertEquals(36, category(forecast, 1).getObservations());
+		verify(repository, never()).sumByCategoryAndMonth(any(), any());
+	}
+
+	private static RevenueForecastService service(IncomeTransactionRepository repository, Set<Integer> archivedYears) {
+		TransactionArchiveReader archiveReader = new TransactionArchiveReader();
+		ReflectionTestUtils.setField(archiveReader, "incomeTransactionRepository", repository);
+		ReflectionTestUtils.setField(archiveReader, "archivedYears", archivedYears);
+
+		RevenueForecastService service = new RevenueForecastService();
+		ReflectionTestUtils.setField(service, "archiveReader", archiveReader);
+		ReflectionTestUtils.setField(service, "historyMonths", 36);
+		ReflectionTestUtils.setField(service, "backtestMonths", 3);
+		ReflectionTestUtils.setField(service, "confidenceZ", 1.96);
+		return service;
+	}
+
+	private static SeriesForecastDTO category(RevenueForecastDTO forecast, int categoryId) {
+		return forecast.getCategories().stream()
+				.filter(series -> series.getCategoryId() == categoryId)
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private static Object[] row(int categoryId, String name, YearMonth month, String amount) {
+		return new Object[] { categoryId, name, month.getYear(), month.getMonthValue(), new BigDecimal(amount) };
+	}
+}
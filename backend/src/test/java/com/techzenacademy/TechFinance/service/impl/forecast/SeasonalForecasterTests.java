@@ -0,0 +1,46 @@
+package com.techzenacademy.TechFinance.service.impl.forecast;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class SeasonalForecasterTests {
+
+	private final SeasonalForecaster forecaster = new SeasonalForecaster(12);
+
+	@Test
+	void holtWintersTracksSeasonalSeries() {
+		double[] history = seasonalSeries(36, 42L);
+
+		SeasonalForecaster.Forecast forecast = forecaster.forecast(history, 6, 1.96);
+		SeasonalForecaster.Backtest backtest = forecaster.backtest(history, 6);
+
+		assertEquals(SeasonalForecaster.HOLT_WINTERS, forecast.getModel());
+		assertTrue(backtest.getMape() < 10, "MAPE was " + backtest.getMape());
+		for (int h = 0; h < 6; h++) {
+			assertTrue(forecast.getLower()[h] <= forecast.getPoint()[h]);
+			assertTrue(forecast.getPoint()[h] <= forecast.getUpper()[h]);
+		}
+	}
+
+	@Test
+	void fallsBackForShortHistory() {
+		assertEquals(SeasonalForecaster.SEASONAL_NAIVE_TREND,
+				forecaster.forecast(seasonalSeries(15, 1L), 3, 1.96).getModel());
+		assertEquals(SeasonalForecaster.LINEAR_TREND,
+				forecaster.forecast(seasonalSeries(5, 1L), 3, 1.96).getModel());
+		assertEquals(0.0, forecaster.forecast(new double[0], 3, 1.96).getPoint()[0]);
+	}
+
+	private static double[] seasonalSeries(int length, long seed) {
+		Random random = new Random(seed);
+		double[] series = new double[length];
+		for (int t = 0; t < length; t++) {
+			series[t] = 100_000 + 1_000 * t + 20_000 * Math.sin(2 * Math.PI * t / 12) + random.nextGaussian() * 2_000;
+		}
+		return series;
+	}
+}
@@ -0,0 +1,158 @@
+package com.techzenacademy.TechFinance.service.impl.gemini;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.techzenacademy.TechFinance.entity.ChatConversation;
+import com.techzenacademy.TechFinance.entity.ChatMessage;
+import com.techzenacademy.TechFinance.repository.ChatConversationRepository;
+import com.techzenacademy.TechFinance.repository.ChatMessageRepository;
+
+class ChatHistoryServiceTests {
+
+	private static final String CONVERSATION_ID = "c-1";
+	private static final LocalDateTime T0 = LocalDateTime.of(2024, 6, 1, 9, 0);
+
+	private ChatHistoryService service;
+	private ChatMessageRepository messageRepository;
+	private ChatConversationRepository conversationRepository;
+	private GeminiHttpClient geminiHttpClient;
+
+	@BeforeEach
+	void setUp() {
+		messageRepository = mock(ChatMessageRepository.class);
+		conversationRepository = mock(ChatConversationRepository.class);
+		geminiHttpClient = mock(GeminiHttpClient.class);
+		service = new ChatHistoryService();
+		ReflectionTestUtils.setField(service, "messageRepository", messageRepository);
+		ReflectionTestUtils.setField(service, "conversationRepository", conversationRepository);
+		ReflectionTestUtils.setField(service, "geminiHttpClient", geminiHttpClient);
+		ReflectionTestUtils.setField(service, "defaultPageSize", 3);
+		ReflectionTestUtils.setField(service, "tailSize", 10);
+		ReflectionTestUtils.setField(service, "summarizeThreshold", 20);
+		ReflectionTestUtils.setField(service, "maxUnsummarized", 60);
+		ReflectionTestUtils.setField(service, "maxMessageChars", 1000);
+		service.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.shutdown();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void cursorFromFirstPageLoadsOlderMessages() {
+		// Repository trả mới nhất trước, lấy dư một phần tử để biết còn trang cũ hơn
+		when(messageRepository.findPageBefore(eq(CONVERSATION_ID), isNull(), isNull(), any()))
+				.thenReturn(List.of(message(10, 10), message(9, 9), message(8, 8), message(7, 7)));
+		when(messageRepository.findPageBefore(eq(CONVERSATION_ID), eq(T0.plusMinutes(8)), eq(8), any()))
+				.thenReturn(List.of(message(7, 7), message(6, 6)));
+
+		ChatHistoryService.HistoryPage newest = service.getPage(CONVERSATION_ID, null, null);
+		assertEquals(List.of(8, 9, 10), ids(newest.getMessages()));
+
+		ChatHistoryService.HistoryPage older = service.getPage(CONVERSATION_ID, newest.getNextCursor(), null);
+		assertEquals(List.of(6, 7), ids(older.getMessages()));
+		assertNull(older.getNextCursor());
+	}
+
+	@Test
+	void rejectsMalformedCursor() {
+		assertThrows(IllegalArgumentException.class, () -> service.getPage(CONVERSATION_ID, "khong-hop-le", null));
+	}
+
+	@Test
+	void promptHistoryKeepsEveryUnsummarizedMessageUpToCap() {
+		ChatConversation conversation = new ChatConversation();
+		conversation.setId(CONVERSATION_ID);
+		conversation.setHistorySummary("Đã hỏi doanh thu quý 1");
+		conversation.setSummarizedUntilMessageId(4);
+		// 25 tin nhắn chưa tóm tắt: nhiều hơn tail (10) nhưng chưa đủ ngưỡng tóm tắt ngoài tail (20)
+		List<ChatMessage> newestFirst = new ArrayList<>();
+		for (int id = 29; id >= 5; id--) {
+			newestFirst.add(message(id, id));
+		}
+		when(messageRepository.findNewestAfter(eq(CONVERSATION_ID), eq(4), any())).thenReturn(newestFirst);
+
+		String history = service.buildPromptHistory(conversation);
+
+		ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+		verify(messageRepository).findNewestAfter(eq(CONVERSATION_ID), eq(4), page.capture());
+		assertEquals(60, page.getValue().getPageSize());
+		assertTrue(history.startsWith("Tóm tắt các trao đổi trước:\nĐã hỏi doanh thu quý 1\n"));
+		// Tin nhắn ngay sau mốc tóm tắt vẫn có mặt, theo thứ tự thời gian
+		assertTrue(history.indexOf("Tin nhắn 5\n") < history.indexOf("Tin nhắn 6\n"));
+		assertTrue(history.indexOf("Tin nhắn 28\n") < history.indexOf("Tin nhắn 29\n"));
+		assertEquals(25L, history.lines().filter(line -> line.contains("Tin nhắn ")).count());
+	}
+
+	@Test
+	void summarizationWaitsForCommitAndAdvancesById() throws Exception {
+		ChatConversation conversation = new ChatConversation();
+		conversation.setId(CONVERSATION_ID);
+		conversation.setSummarizedUntilMessageId(4);
+		when(conversationRepository.findById(CONVERSATION_ID)).thenReturn(Optional.of(conversation));
+		when(messageRepository.countAfter(CONVERSATION_ID, 4)).thenReturn(40L);
+		// Tin nhắn 6 có timestamp sớm hơn tin nhắn 5: mốc vẫn là id lớn nhất của lô
+		List<ChatMessage> batch = List.of(message(5, 30), message(6, 20), message(7, 31));
+		when(messageRepository.findAfter(eq(CONVERSATION_ID), eq(4), any())).thenReturn(batch);
+		when(geminiHttpClient.generate(anyString())).thenReturn("Tóm tắt");
+
+		TransactionSynchronizationManager.initSynchronization();
+		service.scheduleSummarization(CONVERSATION_ID);
+		verify(conversationRepository, never()).findById(CONVERSATION_ID);
+
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		for (TransactionSynchronization synchronization : synchronizations) {
+			synchronization.afterCommit();
+		}
+
+		verify(conversationRepository, timeout(2000)).updateHistorySummary(CONVERSATION_ID, "Tóm tắt", 7);
+	}
+
+	private static ChatMessage message(int id, int minute) {
+		ChatMessage message = new ChatMessage();
+		message.setId(id);
+		message.setContent("Tin nhắn " + id);
+		message.setSender(id % 2 == 0 ? ChatMessage.MessageSender.USER : ChatMessage.MessageSender.AI);
+		message.setTimestamp(T0.plusMinutes(minute));
+		return message;
+	}
+
+	private static List<Integer> ids(List<ChatMessage> messages) {
+		List<Integer> ids = new ArrayList<>();
+		for (ChatMessage message : messages) {
+			ids.add(message.getId());
+		}
+		return ids;
+	}
+}
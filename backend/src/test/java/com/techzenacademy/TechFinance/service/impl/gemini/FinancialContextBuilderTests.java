@@ -0,0 +1,167 @@
+package com.techzenacademy.TechFinance.service.impl.gemini;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.techzenacademy.TechFinance.entity.ExpenseTransaction;
+import com.techzenacademy.TechFinance.entity.IncomeTransaction;
+import com.techzenacademy.TechFinance.entity.User;
+import com.techzenacademy.TechFinance.repository.ExpenseTransactionRepository;
+import com.techzenacademy.TechFinance.repository.IncomeTransactionRepository;
+import com.techzenacademy.TechFinance.repository.MonthlyReportRepository;
+import com.techzenacademy.TechFinance.service.impl.DataVersionService;
+import com.techzenacademy.TechFinance.service.impl.columnar.ColumnarTransactionStore;
+
+class FinancialContextBuilderTests {
+
+	private static final LocalDate TODAY = LocalDate.of(2024, 12, 15);
+
+	private FinancialContextBuilder builder;
+	private IncomeTransactionRepository incomeRepository;
+	private DataVersionService dataVersionService;
+
+	@BeforeEach
+	void setUp() {
+		incomeRepository = mock(IncomeTransactionRepository.class);
+		ExpenseTransactionRepository expenseRepository = mock(ExpenseTransactionRepository.class);
+		ColumnarTransactionStore columnarStore = mock(ColumnarTransactionStore.class);
+		dataVersionService = new DataVersionService();
+
+		when(incomeRepository.summarizeByStatus(IncomeTransaction.PaymentStatus.PENDING))
+				.thenReturn(List.<Object[]>of(new Object[] { 3L, new BigDecimal("1500000"), LocalDate.of(2024, 10, 2) }));
+		when(expenseRepository.summarizeByStatus(ExpenseTransaction.PaymentStatus.UNPAID))
+				.thenReturn(List.<Object[]>of(new Object[] { 1L, new BigDecimal("200000"), null }));
+		// Một dòng tổng hợp cho mỗi tháng trong 12 tháng
+		List<Object[]> incomeByMonth = new ArrayList<>();
+		for (int month = 1; month <= 12; month++) {
+			incomeByMonth.add(new Object[] { 2024, month, IncomeTransaction.PaymentStatus.RECEIVED, new BigDecimal("1000000") });
+		}
+		when(columnarStore.incomeByMonthAndStatus(any(), any())).thenReturn(incomeByMonth);
+
+		builder = new FinancialContextBuilder();
+		ReflectionTestUtils.setField(builder, "incomeTransactionRepository", incomeRepository);
+		ReflectionTestUtils.setField(builder, "expenseTransactionRepository", expenseRepository);
+		ReflectionTestUtils.setField(builder, "monthlyReportRepository", mock(MonthlyReportRepository.class));
+		ReflectionTestUtils.setField(builder, "columnarStore", columnarStore);
+		ReflectionTestUtils.setField(builder, "dataVersionService", dataVersionService);
+		ReflectionTestUtils.setField(builder, "tokenBudget", 1500);
+		ReflectionTestUtils.setField(builder, "months", 12);
+		ReflectionTestUtils.setField(builder, "topN", 5);
+		ReflectionTestUtils.setField(builder, "cacheMaxUsers", 2);
+		builder.init();
+	}
+
+	@Test
+	void digestWithinBudgetKeepsEverySection() {
+		String digest = builder.buildContext(user(1), TODAY).getDigest();
+
+		assertTrue(digest.contains("Receivables (pending income): 3 transactions, total 1500000, oldest 2024-10-02"), digest);
+		assertEquals(12, countLines(digest, " | Income: "));
+	}
+
+	@Test
+	void tokenBudgetCutsLowerPrioritySectionsFirst() {
+		ReflectionTestUtils.setField(builder, "tokenBudget", 120);
+
+		String digest = builder.buildContext(user(1), TODAY).getDigest();
+
+		// Số dư mở đứng đầu nên còn nguyên, bảng theo tháng bị cắt giữa chừng (tháng mới nhất trước)
+		assertTrue(digest.startsWith("Open receivables and payables:\n"), digest);
+		assertTrue(digest.contains("Net working capital impact: 1300000"), digest);
+		assertTrue(digest.contains("12/2024 | Income"), digest);
+		assertFalse(digest.contains("01/2024 | Income"), digest);
+		assertTrue(estimatedTokens(digest) <= 120, digest);
+	}
+
+	@Test
+	void reusesDigestForSameVersionAndDay() {
+		FinancialContextBuilder.FinancialContext first = builder.buildContext(user(1), TODAY);
+
+		assertSame(first, builder.buildContext(user(1), TODAY));
+		verify(incomeRepository, times(1)).summarizeByStatus(IncomeTransaction.PaymentStatus.PENDING);
+	}
+
+	@Test
+	void rebuildsAfterDataChange() {
+		FinancialContextBuilder.FinancialContext first = builder.buildContext(user(1), TODAY);
+		dataVersionService.markChanged();
+
+		FinancialContextBuilder.FinancialContext second = builder.buildContext(user(1), TODAY);
+
+		assertNotSame(first, second);
+		assertEquals(dataVersionService.current(), second.getDataVersion());
+		verify(incomeRepository, times(2)).summarizeByStatus(IncomeTransaction.PaymentStatus.PENDING);
+	}
+
+	@Test
+	void rebuildsWhenDayRollsOver() {
+		builder.buildContext(user(1), TODAY);
+
+		FinancialContextBuilder.FinancialContext nextDay = builder.buildContext(user(1), TODAY.plusDays(1));
+
+		assertEquals(TODAY.plusDays(1), nextDay.getBuiltOn());
+		verify(incomeRepository, times(2)).summarizeByStatus(IncomeTransaction.PaymentStatus.PENDING);
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedUser() {
+		builder.buildContext(user(1), TODAY);
+		builder.buildContext(user(2), TODAY);
+		// Người dùng 1 vừa được dùng lại nên người dùng 2 bị loại khi người dùng 3 vào
+		builder.buildContext(user(1), TODAY);
+		builder.buildContext(user(3), TODAY);
+		assertEquals(2, builder.cacheSize());
+		verify(incomeRepository, times(3)).summarizeByStatus(IncomeTransaction.PaymentStatus.PENDING);
+
+		builder.buildContext(user(1), TODAY);
+		verify(incomeRepository, times(3)).summarizeByStatus(IncomeTransaction.PaymentStatus.PENDING);
+		builder.buildContext(user(2), TODAY);
+		verify(incomeRepository, times(4)).summarizeByStatus(IncomeTransaction.PaymentStatus.PENDING);
+	}
+
+	private static int countLines(String digest, String marker) {
+		int count = 0;
+		for (String line : digest.split("\n")) {
+			if (line.contains(marker)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Cùng cách ước lượng với FinancialContextBuilder: khoảng 4 ký tự một token
+	 */
+	private static int estimatedTokens(String digest) {
+		int tokens = 0;
+		for (String line : digest.split("\n")) {
+			if (!line.isEmpty()) {
+				tokens += (line.length() + 3) / 4 + 1;
+			}
+		}
+		return tokens;
+	}
+
+	private static User user(int id) {
+		User user = new User();
+		user.setId(id);
+		return user;
+	}
+}
@@ -0,0 +1,130 @@
+package com.techzenacademy.TechFinance.service.impl.gemini;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Kiểm thử retry, hedge và circuit breaker với model server giả lập
+ */
+class GeminiHttpClientTests {
+
+	private HttpServer server;
+	private GeminiHttpClient client;
+	private SimpleMeterRegistry meterRegistry;
+	private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+	private volatile int primaryFailures;
+	private volatile int primaryStatus = 503;
+	private volatile long primaryDelayMs;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/v1/models/", exchange -> {
+			String model = exchange.getRequestURI().getPath().replaceAll(".*/models/(.*):generateContent", "$1");
+			int count = hits.computeIfAbsent(model, k -> new AtomicInteger()).incrementAndGet();
+
+			int status = 200;
+			if (model.equals("primary")) {
+				if (count <= primaryFailures) {
+					status = primaryStatus;
+				}
+				try {
+					Thread.sleep(primaryDelayMs);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			byte[] body = ("{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + model + "\"}]}}]}")
+					.getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(status, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+
+		meterRegistry = new SimpleMeterRegistry();
+		client = new GeminiHttpClient();
+		ReflectionTestUtils.setField(client, "geminiHttpClient", HttpClient.newHttpClient());
+		ReflectionTestUtils.setField(client, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(client, "apiKey", "test-key");
+		ReflectionTestUtils.setField(client, "modelId", "primary");
+		ReflectionTestUtils.setField(client, "baseUrl", "http://127.0.0.1:" + server.getAddress().getPort() + "/v1");
+		ReflectionTestUtils.setField(client, "fallbackModels", List.of("backup"));
+		ReflectionTestUtils.setField(client, "readTimeoutMs", 5000L);
+		ReflectionTestUtils.setField(client, "maxAttempts", 3);
+		ReflectionTestUtils.setField(client, "backoffBaseMs", 10L);
+		ReflectionTestUtils.setField(client, "hedgeEnabled", false);
+		ReflectionTestUtils.setField(client, "hedgeMinDelayMs", 100L);
+		ReflectionTestUtils.setField(client, "hedgeMinSamples", 3L);
+		ReflectionTestUtils.setField(client, "failureThreshold", 5);
+		ReflectionTestUtils.setField(client, "openDurationMs", 30000L);
+		client.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		client.shutdown();
+		server.stop(0);
+	}
+
+	@Test
+	void retriesTransientErrorsOnSameModel() throws Exception {
+		primaryFailures = 2;
+
+		assertEquals("primary", client.generate("prompt"));
+		assertEquals(3, hits.get("primary").get());
+		assertEquals(2.0, meterRegistry.get("gemini.requests.retries").tag("model", "primary").counter().count());
+	}
+
+	@Test
+	void fallsBackImmediatelyWhenModelIsMissing() throws Exception {
+		primaryFailures = 1;
+		primaryStatus = 404;
+
+		assertEquals("backup", client.generate("prompt"));
+		assertEquals(1, hits.get("primary").get());
+	}
+
+	@Test
+	void doesNotHedgeUnlessEnabled() throws Exception {
+		primaryDelayMs = 500;
+
+		assertEquals("primary", client.generate("prompt"));
+		assertNull(hits.get("backup"));
+	}
+
+	@Test
+	void hedgesSlowPrimaryOnceLatencyIsObserved() throws Exception {
+		ReflectionTestUtils.setField(client, "hedgeEnabled", true);
+		// Chưa đủ mẫu thì chưa hedge
+		assertEquals(-1, client.hedgeDelayMs());
+		for (int i = 0; i < 3; i++) {
+			assertEquals("primary", client.generate("prompt"));
+		}
+		// p95 của các lời gọi nhanh nhỏ hơn mức sàn nên độ trễ hedge bằng mức sàn
+		assertEquals(100, client.hedgeDelayMs());
+
+		primaryDelayMs = 3000;
+		assertEquals("backup", client.generate("prompt"));
+	}
+}
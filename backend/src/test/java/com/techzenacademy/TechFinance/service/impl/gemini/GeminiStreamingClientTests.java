@@ -0,0 +1,175 @@
+package com.techzenacademy.TechFinance.service.impl.gemini;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Kiểm thử client streaming với một model server giả lập chạy cục bộ
+ */
+class GeminiStreamingClientTests {
+
+	private HttpServer server;
+	private GeminiStreamingClient client;
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final AtomicInteger requests = new AtomicInteger();
+	private volatile int failuresBeforeStream;
+	private volatile int truncatedStreams;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/v1/models/stub-model:streamGenerateContent", exchange -> {
+			if (requests.incrementAndGet() <= failuresBeforeStream) {
+				exchange.sendResponseHeaders(503, -1);
+				exchange.close();
+				return;
+			}
+			if (requests.get() <= failuresBeforeStream + truncatedStreams) {
+				// Gửi một phần body rồi cắt kết nối: client gặp lỗi mạng khi đang đọc stream
+				exchange.sendResponseHeaders(200, 1000);
+				OutputStream out = exchange.getResponseBody();
+				out.write(": keep-alive\r\n".getBytes(StandardCharsets.UTF_8));
+				out.flush();
+				throw new IllegalStateException("connection dropped");
+			}
+			exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+			exchange.sendResponseHeaders(200, 0);
+			try (OutputStream out = exchange.getResponseBody()) {
+				for (String token : new String[] {"Doanh ", "thu ", "tăng"}) {
+					String event = "data: {\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + token + "\"}]}}]}\r\n\r\n";
+					out.write(event.getBytes(StandardCharsets.UTF_8));
+					out.flush();
+				}
+				if (exchange.getRequestURI().getQuery().contains("key=slow")) {
+					release.await(5, TimeUnit.SECONDS);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+
+		GeminiHttpClient geminiClient = new GeminiHttpClient();
+		ReflectionTestUtils.setField(geminiClient, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(geminiClient, "maxAttempts", 3);
+		ReflectionTestUtils.setField(geminiClient, "backoffBaseMs", 10L);
+		ReflectionTestUtils.setField(geminiClient, "failureThreshold", 5);
+		ReflectionTestUtils.setField(geminiClient, "openDurationMs", 30000L);
+
+		client = new GeminiStreamingClient();
+		ReflectionTestUtils.setField(client, "geminiHttpClient", HttpClient.newHttpClient());
+		ReflectionTestUtils.setField(client, "geminiClient", geminiClient);
+		ReflectionTestUtils.setField(client, "apiKey", "test-key");
+		ReflectionTestUtils.setField(client, "modelId", "stub-model");
+		ReflectionTestUtils.setField(client, "baseUrl", "http://127.0.0.1:" + server.getAddress().getPort() + "/v1");
+		ReflectionTestUtils.setField(client, "maxConcurrent", 1);
+		ReflectionTestUtils.setField(client, "requestTimeoutSeconds", 10);
+		client.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		client.shutdown();
+		server.stop(0);
+	}
+
+	@Test
+	void forwardsChunksAsTheyArrive() throws Exception {
+		List<String> chunks = new CopyOnWriteArrayList<>();
+
+		String text = client.streamAsync("prompt", chunks::add).get(10, TimeUnit.SECONDS);
+
+		assertEquals(List.of("Doanh ", "thu ", "tăng"), chunks);
+		assertEquals("Doanh thu tăng", text);
+		assertEquals(0, client.getActiveStreams());
+	}
+
+	@Test
+	void retriesTransientErrorBeforeFirstChunkWithSharedMetrics() throws Exception {
+		failuresBeforeStream = 1;
+		List<String> chunks = new CopyOnWriteArrayList<>();
+
+		assertEquals("Doanh thu tăng", client.streamAsync("prompt", chunks::add).get(10, TimeUnit.SECONDS));
+
+		assertEquals(List.of("Doanh ", "thu ", "tăng"), chunks);
+		assertEquals(2, requests.get());
+		assertEquals(1.0, meterRegistry.get("gemini.requests.retries").tag("model", "stub-model").counter().count());
+		assertEquals(1, meterRegistry.get("gemini.requests")
+				.tags("model", "stub-model", "call", "stream", "outcome", "success").timer().count());
+	}
+
+	@Test
+	void retriesConnectionDroppedMidStreamAsIoError() throws Exception {
+		truncatedStreams = 1;
+		List<String> chunks = new CopyOnWriteArrayList<>();
+
+		assertEquals("Doanh thu tăng", client.streamAsync("prompt", chunks::add).get(10, TimeUnit.SECONDS));
+
+		assertEquals(2, requests.get());
+		assertEquals(1, meterRegistry.get("gemini.requests")
+				.tags("model", "stub-model", "call", "stream", "outcome", "io_error").timer().count());
+		assertEquals(0, meterRegistry.find("gemini.requests").tag("outcome", "aborted").timers().size());
+	}
+
+	@Test
+	void cancellingClosesUpstreamAndReleasesBulkhead() throws Exception {
+		ReflectionTestUtils.setField(client, "apiKey", "slow");
+		CountDownLatch firstChunk = new CountDownLatch(1);
+		CompletableFuture<String> running = client.streamAsync("prompt", chunk -> firstChunk.countDown());
+		assertTrue(firstChunk.await(5, TimeUnit.SECONDS));
+
+		// Server vẫn giữ kết nối (latch chưa mở): chỉ việc hủy mới giải phóng được bulkhead
+		running.cancel(true);
+		for (int i = 0; i < 20 && client.getActiveStreams() > 0; i++) {
+			Thread.sleep(100);
+		}
+
+		assertEquals(0, client.getActiveStreams());
+		assertEquals(0, meterRegistry.find("gemini.requests").tag("outcome", "io_error").timers().size());
+	}
+
+	@Test
+	void rejectsWhenBulkheadIsFull() throws Exception {
+		ReflectionTestUtils.setField(client, "apiKey", "slow");
+		CountDownLatch firstChunk = new CountDownLatch(1);
+		CompletableFuture<String> running = client.streamAsync("prompt", chunk -> firstChunk.countDown());
+		assertTrue(firstChunk.await(5, TimeUnit.SECONDS));
+
+		CompletableFuture<String> rejected = client.streamAsync("prompt", chunk -> { });
+
+		ExecutionException error = assertThrows(
+				ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+		assertInstanceOf(RejectedExecutionException.class, error.getCause());
+
+		release.countDown();
+		assertEquals("Doanh thu tăng", running.get(10, TimeUnit.SECONDS));
+	}
+}
@@ -0,0 +1,131 @@
+package com.techzenacademy.TechFinance.service.impl.gemini;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.techzenacademy.TechFinance.service.impl.DataVersionService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PromptResponseCacheTests {
+
+	private PromptResponseCache cache;
+	private DataVersionService dataVersionService;
+	private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+	@BeforeEach
+	void setUp() {
+		dataVersionService = new DataVersionService();
+		cache = new PromptResponseCache();
+		ReflectionTestUtils.setField(cache, "dataVersionService", dataVersionService);
+		ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(cache, "ttlSeconds", 600L);
+		ReflectionTestUtils.setField(cache, "maxEntries", 2);
+		cache.init();
+	}
+
+	@Test
+	void coalescesConcurrentIdenticalPrompts() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<String>> results = new ArrayList<>();
+
+		for (int i = 0; i < 8; i++) {
+			results.add(executor.submit(() -> cache.getOrCompute("Tóm tắt tháng này", () -> {
+				upstreamCalls.incrementAndGet();
+				release.await(5, TimeUnit.SECONDS);
+				return "answer";
+			})));
+		}
+		Thread.sleep(200);
+		release.countDown();
+
+		for (Future<String> result : results) {
+			assertEquals("answer", result.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, upstreamCalls.get());
+		executor.shutdown();
+	}
+
+	@Test
+	void streamingCallsShareOneInFlightFuture() throws Exception {
+		CompletableFuture<String> upstream = new CompletableFuture<>();
+		List<CompletableFuture<String>> results = new ArrayList<>();
+
+		for (int i = 0; i < 5; i++) {
+			results.add(cache.getOrComputeAsync("Tóm tắt tháng này", () -> {
+				upstreamCalls.incrementAndGet();
+				return upstream;
+			}));
+		}
+		upstream.complete("answer");
+
+		for (CompletableFuture<String> result : results) {
+			assertEquals("answer", result.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, upstreamCalls.get());
+		// Kết quả đã được lưu: lần sau không gọi model nữa
+		assertEquals("answer", cache.getOrComputeAsync("tóm tắt tháng này", () -> {
+			upstreamCalls.incrementAndGet();
+			return CompletableFuture.completedFuture("other");
+		}).get());
+		assertEquals(1, upstreamCalls.get());
+	}
+
+	@Test
+	void cancelsUpstreamOnlyWhenEveryWaiterCancelled() {
+		CompletableFuture<String> upstream = new CompletableFuture<>();
+		CompletableFuture<String> first = cache.getOrComputeAsync("Dự báo quý tới", () -> upstream);
+		CompletableFuture<String> second = cache.getOrComputeAsync("Dự báo quý tới", () -> upstream);
+
+		first.cancel(true);
+		assertFalse(upstream.isCancelled());
+
+		second.cancel(true);
+		assertTrue(upstream.isCancelled());
+	}
+
+	@Test
+	void normalizesPromptAndInvalidatesOnDataChange() throws Exception {
+		assertEquals("v1", cache.getOrCompute("Tóm tắt  tháng này", () -> load("v1")));
+		assertEquals("v1", cache.getOrCompute("  tóm tắt tháng NÀY ", () -> load("v2")));
+
+		dataVersionService.markChanged();
+
+		assertEquals("v3", cache.getOrCompute("Tóm tắt tháng này", () -> load("v3")));
+		assertEquals(2, upstreamCalls.get());
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedEntries() throws Exception {
+		cache.getOrCompute("a", () -> load("a"));
+		cache.getOrCompute("b", () -> load("b"));
+		cache.getOrCompute("a", () -> load("a"));
+		cache.getOrCompute("c", () -> load("c"));
+
+		assertEquals(2, cache.size());
+		assertEquals("a", cache.getIfPresent("a"));
+		assertNull(cache.getIfPresent("b"));
+	}
+
+	private String load(String value) {
+		upstreamCalls.incrementAndGet();
+		return value;
+	}
+}
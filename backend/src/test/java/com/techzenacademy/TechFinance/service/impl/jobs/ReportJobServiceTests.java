@@ -0,0 +1,198 @@
+package com.techzenacademy.TechFinance.service.impl.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.techzenacademy.TechFinance.dto.ReceivablePayableReportDTO;
+import com.techzenacademy.TechFinance.dto.report.ReportJobDTO;
+import com.techzenacademy.TechFinance.dto.report.ReportJobRequest;
+import com.techzenacademy.TechFinance.entity.ReportJob;
+import com.techzenacademy.TechFinance.entity.ReportJob.JobStatus;
+import com.techzenacademy.TechFinance.entity.ReportJob.ReportType;
+import com.techzenacademy.TechFinance.repository.ReportJobRepository;
+import com.techzenacademy.TechFinance.service.impl.DataVersionService;
+import com.techzenacademy.TechFinance.service.impl.ReceivablePayableService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReportJobServiceTests {
+
+	private final Map<String, ReportJob> store = new ConcurrentHashMap<>();
+	private ReportJobService service;
+	private ReceivablePayableService receivablePayableService;
+	private DataVersionService dataVersionService;
+
+	@BeforeEach
+	void setUp() {
+		ReportJobRepository repository = mock(ReportJobRepository.class);
+		when(repository.save(any())).thenAnswer(invocation -> {
+			ReportJob job = invocation.getArgument(0);
+			store.put(job.getId(), job);
+			return job;
+		});
+		when(repository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(store.get(invocation.<String>getArgument(0))));
+		when(repository.findReusable(anyString(), any(), any(), anyString(), any())).thenAnswer(invocation -> {
+			String hash = invocation.getArgument(0);
+			Collection<JobStatus> active = invocation.getArgument(1);
+			String dataVersion = invocation.getArgument(3);
+			LocalDateTime now = invocation.getArgument(4);
+			return store.values().stream()
+					.filter(j -> j.getParamsHash().equals(hash) && j.getDataVersion().equals(dataVersion))
+					.filter(j -> active.contains(j.getStatus())
+							|| (j.getStatus() == JobStatus.COMPLETED && j.getExpiresAt().isAfter(now)))
+					.toList();
+		});
+		when(repository.updateProgress(anyString(), anyInt())).thenAnswer(invocation -> {
+			store.get(invocation.<String>getArgument(0)).setProgress(invocation.getArgument(1));
+			return 1;
+		});
+
+		receivablePayableService = mock(ReceivablePayableService.class);
+		dataVersionService = new DataVersionService();
+
+		service = new ReportJobService();
+		ReflectionTestUtils.setField(service, "jobRepository", repository);
+		ReflectionTestUtils.setField(service, "receivablePayableService", receivablePayableService);
+		ReflectionTestUtils.setField(service, "dataVersionService", dataVersionService);
+		ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper().registerModule(new JavaTimeModule()));
+		ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(service, "workers", 1);
+		ReflectionTestUtils.setField(service, "queueCapacity", 10);
+		ReflectionTestUtils.setField(service, "retentionHours", 24L);
+		ReflectionTestUtils.setField(service, "maxYears", 10);
+		service.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.shutdown();
+	}
+
+	@Test
+	void runsJobAndReportsProgress() throws Exception {
+		when(receivablePayableService.getReceivablePayableReport(anyInt(), anyInt())).thenAnswer(invocation -> {
+			ReceivablePayableReportDTO report = new ReceivablePayableReportDTO();
+			report.setMonth(invocation.getArgument(1));
+			return report;
+		});
+
+		ReportJobDTO submitted = service.submit(request(ReportType.RECEIVABLE_PAYABLE_YEARLY, 2025, null), "admin");
+		ReportJobDTO job = awaitFinished(submitted.getId());
+
+		assertEquals(JobStatus.COMPLETED, job.getStatus());
+		assertEquals(100, job.getProgress());
+		assertNotNull(job.getExpiresAt());
+		assertEquals("/api/report-jobs/" + job.getId() + "/result", job.getResultUrl());
+		assertTrue(service.getResult(job.getId()).contains("\"month\":12"));
+	}
+
+	@Test
+	void deduplicatesEquivalentSubmissions() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		when(receivablePayableService.getReceivablePayableReport(anyInt(), anyInt())).thenAnswer(invocation -> {
+			release.await(5, TimeUnit.SECONDS);
+			return new ReceivablePayableReportDTO();
+		});
+
+		ReportJobDTO first = service.submit(request(ReportType.RECEIVABLE_PAYABLE_YEARLY, 2025, null), "admin");
+		// Tham số không dùng tới (month) bị bỏ qua khi so khớp
+		ReportJobDTO second = service.submit(request(ReportType.RECEIVABLE_PAYABLE_YEARLY, 2025, 7), "accountant");
+		assertEquals(first.getId(), second.getId());
+
+		release.countDown();
+		awaitFinished(first.getId());
+		assertEquals(first.getId(), service.submit(request(ReportType.RECEIVABLE_PAYABLE_YEARLY, 2025, null), "admin").getId());
+
+		// Dữ liệu thay đổi thì kết quả cũ không được dùng lại
+		dataVersionService.markChanged();
+		assertNotEquals(first.getId(), service.submit(request(ReportType.RECEIVABLE_PAYABLE_YEARLY, 2025, null), "admin").getId());
+	}
+
+	@Test
+	void doesNotReuseInFlightJobAfterDataChange() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		when(receivablePayableService.getReceivablePayableReport(anyInt(), anyInt())).thenAnswer(invocation -> {
+			release.await(5, TimeUnit.SECONDS);
+			return new ReceivablePayableReportDTO();
+		});
+
+		ReportJobDTO first = service.submit(request(ReportType.RECEIVABLE_PAYABLE_YEARLY, 2025, null), "admin");
+		dataVersionService.markChanged();
+		// Tác vụ đầu vẫn đang chạy nhưng đọc dữ liệu trước lần ghi
+		ReportJobDTO second = service.submit(request(ReportType.RECEIVABLE_PAYABLE_YEARLY, 2025, null), "admin");
+		assertNotEquals(first.getId(), second.getId());
+
+		release.countDown();
+		awaitFinished(first.getId());
+		awaitFinished(second.getId());
+	}
+
+	@Test
+	void recordsFailure() throws Exception {
+		doAnswer(invocation -> {
+			throw new IllegalArgumentException("boom");
+		}).when(receivablePayableService).getReceivablePayableReport(anyInt(), anyInt());
+
+		ReportJobDTO job = awaitFinished(service.submit(request(ReportType.RECEIVABLE_PAYABLE_YEARLY, 2024, null), "admin").getId());
+
+		assertEquals(JobStatus.FAILED, job.getStatus());
+		assertEquals("boom", job.getErrorMessage());
+		assertEquals(null, service.getResult(job.getId()));
+	}
+
+	@Test
+	void rejectsInvalidParameters() {
+		ReportJobRequest range = new ReportJobRequest();
+		range.setReportType(ReportType.MULTI_YEAR);
+		range.setFromYear(2010);
+		range.setToYear(2025);
+
+		assertThrows(IllegalArgumentException.class, () -> service.submit(range, "admin"));
+		assertThrows(IllegalArgumentException.class, () -> service.submit(request(ReportType.MONTHLY, 2025, 13), "admin"));
+		assertEquals(List.of(), List.copyOf(store.values()));
+	}
+
+	private static ReportJobRequest request(ReportType type, Integer year, Integer month) {
+		ReportJobRequest request = new ReportJobRequest();
+		request.setReportType(type);
+		request.setYear(year);
+		request.setMonth(month);
+		return request;
+	}
+
+	private ReportJobDTO awaitFinished(String id) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		ReportJobDTO job = service.getJob(id);
+		while ((job.getStatus() == JobStatus.QUEUED || job.getStatus() == JobStatus.RUNNING)
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+			job = service.getJob(id);
+		}
+		return job;
+	}
+}
@@ -0,0 +1,114 @@
+package com.techzenacademy.TechFinance.service.impl.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.techzenacademy.TechFinance.config.RateLimitProperties;
+import com.techzenacademy.TechFinance.config.RateLimitProperties.EndpointGroup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimiterServiceTests {
+
+	private RateLimiterService limiter;
+	private RateLimitProperties properties;
+	private SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		EndpointGroup gemini = new EndpointGroup();
+		gemini.setName("gemini");
+		gemini.setPatterns(List.of("/api/gemini/chat", "/api/gemini/chat/stream", "/api/gemini/predict-revenue"));
+		gemini.setMethods(List.of("POST"));
+		gemini.setCost(10);
+		gemini.setCapacity(2);
+		gemini.setRefillPerMinute(1);
+
+		properties = new RateLimitProperties();
+		properties.setUserCapacity(25);
+		properties.setUserRefillPerMinute(1);
+		properties.setGroups(List.of(gemini));
+
+		meterRegistry = new SimpleMeterRegistry();
+		limiter = new RateLimiterService();
+		ReflectionTestUtils.setField(limiter, "properties", properties);
+		ReflectionTestUtils.setField(limiter, "meterRegistry", meterRegistry);
+		limiter.init();
+	}
+
+	@Test
+	void rejectsWhenEndpointBucketIsEmpty() {
+		assertEquals(0, limiter.tryAcquire("user:a", "POST", "/api/gemini/chat"));
+		assertEquals(0, limiter.tryAcquire("user:a", "POST", "/api/gemini/chat"));
+
+		long retryAfter = limiter.tryAcquire("user:a", "POST", "/api/gemini/chat");
+		assertTrue(retryAfter > 0);
+		assertEquals(1.0, meterRegistry.get("rate_limit.rejected").tag("bucket", "gemini").counter().count());
+
+		// Bucket chung vẫn còn token cho endpoint thường, người dùng khác không bị ảnh hưởng
+		assertEquals(0, limiter.tryAcquire("user:a", "GET", "/api/customers"));
+		assertEquals(0, limiter.tryAcquire("user:b", "POST", "/api/gemini/chat"));
+	}
+
+	@Test
+	void weightedCostDrainsUserBucket() {
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, limiter.tryAcquire("user:a", "GET", "/api/customers"));
+		}
+		assertEquals(0, limiter.tryAcquire("user:a", "POST", "/api/gemini/chat"));
+
+		// 25 - 5 - 10 = 10 token: đủ cho request thường nhưng không đủ cho thêm một lần gọi AI có cost 10 sau đó
+		assertEquals(0, limiter.tryAcquire("user:a", "GET", "/api/customers"));
+		assertTrue(limiter.tryAcquire("user:a", "POST", "/api/gemini/chat") > 0);
+		assertEquals(1.0, meterRegistry.get("rate_limit.rejected").tag("bucket", "gemini").counter().count());
+	}
+
+	@Test
+	void conversationReadsAreNotChargedAgainstModelBucket() {
+		assertEquals(0, limiter.tryAcquire("user:a", "POST", "/api/gemini/chat/stream"));
+		assertEquals(0, limiter.tryAcquire("user:a", "POST", "/api/gemini/predict-revenue"));
+		assertTrue(limiter.tryAcquire("user:a", "POST", "/api/gemini/chat") > 0);
+
+		// Bucket AI đã hết nhưng xem danh sách và chi tiết hội thoại vẫn được phép
+		assertEquals(0, limiter.tryAcquire("user:a", "GET", "/api/gemini/conversations"));
+		assertEquals(0, limiter.tryAcquire("user:a", "GET", "/api/gemini/conversations/c-1"));
+	}
+
+	@Test
+	void reportJobSubmissionSharesHeavyReportBucket() throws Exception {
+		// Dùng cấu hình nhóm thật trong application.properties
+		Properties file = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+		RateLimitProperties configured = new Binder(new MapConfigurationPropertySource(file))
+				.bind("rate-limit", RateLimitProperties.class).get();
+		ReflectionTestUtils.setField(limiter, "properties", configured);
+
+		assertEquals(0, limiter.tryAcquire("user:a", "GET", "/api/reports/yearly"));
+		assertEquals(0, limiter.tryAcquire("user:a", "POST", "/api/report-jobs"));
+		assertEquals(0, limiter.tryAcquire("user:a", "POST", "/api/report-jobs"));
+		assertTrue(limiter.tryAcquire("user:a", "POST", "/api/report-jobs") > 0);
+		assertEquals(1.0, meterRegistry.get("rate_limit.rejected").tag("bucket", "heavy-reports").counter().count());
+
+		// Theo dõi trạng thái job không bị tính vào nhóm báo cáo nặng
+		assertEquals(0, limiter.tryAcquire("user:a", "GET", "/api/report-jobs/job-1"));
+	}
+
+	@Test
+	void metricsAreNotTaggedPerClient() {
+		limiter.tryAcquire("user:a", "POST", "/api/gemini/chat");
+		limiter.tryAcquire("user:b", "POST", "/api/gemini/chat");
+
+		assertEquals(2.0, meterRegistry.get("rate_limit.clients").gauge().value());
+		assertTrue(meterRegistry.getMeters().stream().noneMatch(meter -> meter.getId().getTag("client") != null));
+	}
+}
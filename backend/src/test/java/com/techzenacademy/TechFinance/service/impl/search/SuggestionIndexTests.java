@@ -0,0 +1,65 @@
+package com.techzenacademy.TechFinance.service.impl.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.techzenacademy.TechFinance.service.impl.search.SuggestionIndex.Field;
+import com.techzenacademy.TechFinance.service.impl.search.SuggestionIndex.Match;
+
+class SuggestionIndexTests {
+
+	private SuggestionIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new SuggestionIndex();
+		index.put(1, "Công ty TNHH Minh Anh", true,
+				Map.of(Field.EMAIL, "minhanh@corp.vn", Field.PHONE, "0912-345-678", Field.TAX_CODE, "0101234567"));
+		index.put(2, "Nguyễn Văn An", true, Map.of(Field.EMAIL, "an.nguyen@gmail.com", Field.PHONE, "0987654321"));
+		index.put(3, "Anh Tuấn Trading", false, Map.of(Field.EMAIL, "contact@anhtuan.vn"));
+	}
+
+	@Test
+	void ranksLeadingNameTokenFirstAndFiltersInactive() {
+		assertEquals(List.of(3, 1), ids(index.suggest("anh", 10, false)));
+		assertEquals(List.of(1), ids(index.suggest("anh", 10, true)));
+	}
+
+	@Test
+	void matchesAllTermsWithoutDiacritics() {
+		assertEquals(List.of(2), ids(index.suggest("nguyen an", 10, true)));
+		assertTrue(index.suggest("nguyen minh", 10, true).isEmpty());
+	}
+
+	@Test
+	void matchesPhoneAndTaxCodeIgnoringSeparators() {
+		Match phone = index.suggest("0912 345", 10, true).get(0);
+		assertEquals(1, phone.getId());
+		assertEquals(Field.PHONE, phone.getField());
+		assertEquals("0912-345-678", phone.getValue());
+
+		assertEquals(Field.TAX_CODE, index.suggest("010123", 10, true).get(0).getField());
+	}
+
+	@Test
+	void reflectsUpdatesAndRemovals() {
+		index.put(2, "Trần Văn Bình", true, Map.of());
+		assertTrue(index.suggest("nguyen", 10, true).isEmpty());
+		assertEquals(List.of(2), ids(index.suggest("binh", 10, true)));
+
+		index.remove(2);
+		assertTrue(index.suggest("binh", 10, true).isEmpty());
+		assertEquals(2, index.size());
+	}
+
+	private static List<Integer> ids(List<Match> matches) {
+		return matches.stream().map(Match::getId).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,52 @@
+package com.techzenacademy.TechFinance.service.impl.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TrigramIndexTests {
+
+	private TrigramIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new TrigramIndex();
+		index.put(1, "INV-2024-0001");
+		index.put(2, "INV-2024-0002");
+		index.put(3, "PO-2023-0001");
+		index.put(4, "Thanh toán tiền điện tháng 3");
+	}
+
+	@Test
+	void findsSubstringsCaseAndAccentInsensitive() {
+		assertArrayEquals(new int[] {1, 2}, index.search("inv-2024", 100));
+		assertArrayEquals(new int[] {1, 3}, index.search("0001", 100));
+		assertArrayEquals(new int[] {4}, index.search("TIEN DIEN", 100));
+		assertArrayEquals(new int[0], index.search("xyz", 100));
+	}
+
+	@Test
+	void verifiesCandidatesAgainstFullText() {
+		// Có đủ trigram "202", "024" nhưng không chứa chuỗi "2024-0003"
+		assertArrayEquals(new int[0], index.search("2024-0003", 100));
+	}
+
+	@Test
+	void reflectsUpdatesAndRemovals() {
+		index.put(2, "INV-2025-0002");
+		index.remove(1);
+
+		assertArrayEquals(new int[0], index.search("inv-2024", 100));
+		assertArrayEquals(new int[] {2}, index.search("2025", 100));
+		assertEquals(3, index.size());
+	}
+
+	@Test
+	void fallsBackForShortQueriesAndTooManyResults() {
+		assertNull(index.search("in", 100));
+		assertNull(index.search("000", 2));
+	}
+}
@@ -0,0 +1,40 @@
+package com.techzenacademy.TechFinance.service.impl.sqlstats;
+
+import org.junit.jupiter.api.function.Executable;
+
+/**
+ * Ngân sách số câu SQL cho một thao tác (gọi service hoặc endpoint qua MockMvc), chỉ dùng trong test.
+ * <pre>
+ * QueryBudget.of(3).check(() -> mockMvc.perform(get("/api/dashboard?year=2025&amp;month=3")));
+ * </pre>
+ * Thao tác vượt ngân sách làm test thất bại, kèm danh sách câu SQL đã chạy.
+ */
+public final class QueryBudget {
+
+	private final long maxStatements;
+
+	private QueryBudget(long maxStatements) {
+		this.maxStatements = maxStatements;
+	}
+
+	public static QueryBudget of(long maxStatements) {
+		return new QueryBudget(maxStatements);
+	}
+
+	/**
+	 * Chạy {@code action} và trả về thống kê SQL; ném AssertionError nếu số câu SQL vượt ngân sách
+	 */
+	public SqlStats check(Executable action) throws Throwable {
+		SqlStats stats = SqlStats.begin();
+		try {
+			action.execute();
+		} finally {
+			stats.end();
+		}
+		if (stats.getStatements() > maxStatements) {
+			throw new AssertionError("Expected at most " + maxStatements + " SQL statements but was "
+					+ stats.getStatements() + ":\n" + stats.describe(20));
+		}
+		return stats;
+	}
+}
@@ -0,0 +1,91 @@
+package com.techzenacademy.TechFinance.service.impl.sqlstats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SqlStatsTests {
+
+	private static final String SELECT_CUSTOMERS = "select * from customers where customer_id=?";
+
+	private SqlStatsDataSource dataSource;
+	private ResultSet resultSet;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		DataSource target = mock(DataSource.class);
+		Connection connection = mock(Connection.class);
+		PreparedStatement statement = mock(PreparedStatement.class);
+		resultSet = mock(ResultSet.class);
+		when(target.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(anyString())).thenReturn(statement);
+		when(statement.executeQuery()).thenReturn(resultSet);
+		when(resultSet.next()).thenReturn(true, true, false);
+		dataSource = new SqlStatsDataSource(target);
+	}
+
+	@Test
+	void countsStatementsAndRowsOfCurrentScope() throws SQLException {
+		SqlStats stats = SqlStats.begin();
+		try {
+			query();
+		} finally {
+			stats.end();
+		}
+
+		assertEquals(1, stats.getStatements());
+		assertEquals(2, stats.getRows());
+		assertEquals(SELECT_CUSTOMERS, stats.topStatements(1).get(0).getSql());
+		assertNull(SqlStats.current());
+	}
+
+	@Test
+	void nestedScopeIsAddedToParent() throws SQLException {
+		SqlStats outer = SqlStats.begin();
+		SqlStats inner = SqlStats.begin();
+		query();
+		inner.end();
+		assertSame(outer, SqlStats.current());
+		outer.end();
+
+		assertEquals(1, outer.getStatements());
+		assertEquals(2, outer.getRows());
+		assertTrue(outer.describe(5).contains(SELECT_CUSTOMERS));
+	}
+
+	@Test
+	void queryBudgetFailsWhenExceeded() throws Throwable {
+		QueryBudget.of(1).check(this::query);
+
+		AssertionError error = assertThrows(AssertionError.class, () -> QueryBudget.of(1).check(() -> {
+			query();
+			query();
+		}));
+		assertTrue(error.getMessage().contains("at most 1 SQL statements but was 2"), error.getMessage());
+	}
+
+	private void query() throws SQLException {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement statement = connection.prepareStatement(SELECT_CUSTOMERS);
+				ResultSet rs = statement.executeQuery()) {
+			while (rs.next()) {
+				// đọc hết kết quả
+			}
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package com.techzenacademy.TechFinance.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class MoneyAccumulatorTests {
+
+	@Test
+	void matchesBigDecimalSum() {
+		SplittableRandom random = new SplittableRandom(1);
+		MoneyAccumulator accumulator = new MoneyAccumulator();
+		BigDecimal expected = BigDecimal.ZERO;
+		for (int i = 0; i < 10_000; i++) {
+			BigDecimal amount = BigDecimal.valueOf(random.nextLong(-1_000_000_00L, 50_000_000_000L), 2);
+			accumulator.add(amount);
+			expected = expected.add(amount);
+		}
+
+		assertEquals(expected, accumulator.toBigDecimal());
+		assertEquals(Money.toCents(expected), accumulator.getCents());
+	}
+
+	@Test
+	void spillsIntoBigDecimalInsteadOfOverflowing() {
+		MoneyAccumulator accumulator = new MoneyAccumulator();
+		accumulator.addCents(Long.MAX_VALUE);
+		accumulator.addCents(Long.MAX_VALUE);
+		accumulator.add(new BigDecimal("0.01"));
+
+		BigDecimal expected = BigDecimal.valueOf(Long.MAX_VALUE, 2).multiply(BigDecimal.valueOf(2))
+				.add(new BigDecimal("0.01"));
+		assertEquals(expected, accumulator.toBigDecimal());
+		assertThrows(ArithmeticException.class, accumulator::getCents);
+	}
+
+	@Test
+	void keepsExtraDecimalsExact() {
+		MoneyAccumulator accumulator = new MoneyAccumulator()
+				.add(new BigDecimal("10.005"))
+				.add(new BigDecimal("0.995"))
+				.add(new BigDecimal("1.00"));
+
+		assertEquals(0, new BigDecimal("12.000").compareTo(accumulator.toBigDecimal()));
+		assertEquals(1200, accumulator.getCents());
+		assertTrue(new MoneyAccumulator().add((BigDecimal) null).isZero());
+	}
+
+	@Test
+	void percentRoundsHalfUpToTwoDecimals() {
+		assertEquals(new BigDecimal("33.33"), Money.percent(1, 3));
+		assertEquals(new BigDecimal("66.67"), Money.percent(2, 3));
+		assertEquals(new BigDecimal("0.01"), Money.percent(1, 20_000));
+		assertEquals(new BigDecimal("-0.01"), Money.percent(-1, 20_000));
+		assertEquals(new BigDecimal("0.00"), Money.percent(5, 0));
+		assertEquals(Money.percent(new BigDecimal("123456.78"), new BigDecimal("999999.99")),
+				Money.percent(12_345_678L, 99_999_999L));
+		// Tràn khi nhân 10^4: chuyển sang BigDecimal
+		assertEquals(new BigDecimal("50.00"), Money.percent(Long.MAX_VALUE / 2, Long.MAX_VALUE - 1));
+	}
+
+	@Test
+	void percentOfWorksAfterSpill() {
+		MoneyAccumulator whole = new MoneyAccumulator().addCents(Long.MAX_VALUE).addCents(Long.MAX_VALUE);
+		MoneyAccumulator part = new MoneyAccumulator().addCents(Long.MAX_VALUE);
+
+		assertEquals(new BigDecimal("50.00"), part.percentOf(whole));
+		assertEquals(new BigDecimal("33.33"), new MoneyAccumulator().addCents(1).percentOf(new MoneyAccumulator().addCents(3)));
+	}
+
+	@Test
+	void convertsWithExplicitRounding() {
+		assertEquals(1235, Money.toCents(new BigDecimal("12.345")));
+		assertEquals(-1235, Money.toCents(new BigDecimal("-12.345")));
+		assertEquals(120000, Money.toCents(new BigDecimal("1.2E+3")));
+		assertEquals(new BigDecimal("12.34"), Money.of(new BigDecimal("12.34")).toBigDecimal());
+		assertEquals(Money.ofCents(300), Money.ofCents(100).plus(Money.ofCents(200)));
+	}
+}
@@ -0,0 +1,39 @@
+import axios from 'axios';
+import { useAuthStore } from '../stores/auth';
+
+const BASE_URL = '/api/dashboard';
+
+export const dashboard = {
+  // Lấy dữ liệu dashboard (báo cáo tháng, năm, dòng tiền, ngân sách, phải thu/phải trả, thuế)
+  // sections: mảng tên phần cần tính, ví dụ ['monthlyReport', 'yearlyReport']; bỏ trống để lấy tất cả
+  async getDashboard(year, month, sections = null) {
+    const params = new URLSearchParams();
+    
+    if (year) {
+      params.append('year', year);
+    }
+    
+    if (month) {
+      params.append('month', month);
+    }
+    
+    if (sections && sections.length) {
+      params.append('sections', sections.join(','));
+    }
+    
+    const queryString = params.toString() ? `?${params.toString()}` : '';
+    
+    try {
+      const auth = useAuthStore();
+      const response = await axios.get(`${BASE_URL}${queryString}`, {
+        headers: {
+          'Authorization': `Bearer ${auth.token}`
+        }
+      });
+      return response.data;
+    } catch (error) {
+      console.error('Error fetching dashboard:', error);
+      throw error;
+    }
+  }
+};
@@ -47,11 +47,14 @@ const geminiService = {
   },
   
   /**
-   * Get conversation list
-   * @returns {Promise} Conversation list
+   * Get conversation list (paged, most recent activity first)
+   * @param {number} page - Page index (0-based)
+   * @param {number} size - Page size
+   * @returns {Promise} Page of conversations ({ content, page })
    */
-  getConversations() {
+  getConversations(page = 0, size = 20) {
     return axios.get(`${API_URL}/api/gemini/conversations`, {
+      params: { page, size },
       headers: {
         'Content-Type': 'application/json'
       }
@@ -59,12 +62,19 @@ const geminiService = {
   },
   
   /**
-   * Get conversation details
+   * Get conversation details (newest page of messages first)
    * @param {string} conversationId - Conversation ID
-   * @returns {Promise} Conversation details
+   * @param {string} cursor - nextCursor from the previous page to load older messages (null for newest page)
+   * @param {number} limit - Page size (null for server default)
+   * @returns {Promise} Conversation details ({ messages, nextCursor })
    */
-  getConversation(id) {
+  getConversation(id, cursor = null, limit = null) {
+    const params = {};
+    if (cursor) params.cursor = cursor;
+    if (limit) params.limit = limit;
+    
     return axios.get(`${API_URL}/api/gemini/conversations/${id}`, {
+      params,
       headers: {
         'Content-Type': 'application/json'
       }
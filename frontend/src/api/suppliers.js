@@ -57,6 +57,23 @@ export const suppliers = {
     }
   },
   
+  // Gợi ý supplier theo từ khóa (tên, email, số điện thoại, mã số thuế...) cho ô chọn
+  async suggest(query, limit = 10) {
+    try {
+      const params = new URLSearchParams({ q: query, limit: limit.toString() });
+      const token = localStorage.getItem('token');
+      const response = await axios.get(`${BASE_URL}/suggest?${params.toString()}`, {
+        headers: {
+          'Authorization': `Bearer ${token}`
+        }
+      });
+      return response.data;
+    } catch (error) {
+      console.error('Error fetching supplier suggestions:', error);
+      throw error;
+    }
+  },
+  
   // Get supplier by ID
   async getById(id) {
     try {